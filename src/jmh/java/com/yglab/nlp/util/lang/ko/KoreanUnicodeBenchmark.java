@@ -0,0 +1,221 @@
+package com.yglab.nlp.util.lang.ko;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark which compares each change of the decomposition with the arithmetic decomposition it replaced,
+ * run by "gradle jmh".
+ * <ul>
+ * <li>arithmeticChars and tableChars: the decomposition of the single characters by the arithmetic and by the table.</li>
+ * <li>stringWords and bufferWords: the decomposition of the words into the new string and into the buffer.</li>
+ * <li>regexConditions and jasoConditions: the left letter condition by the regular expression and by the jaso.</li>
+ * <li>stringAndRegex and bufferAndJaso: all of the above before and after the changes.</li>
+ * </ul>
+ * Each operation checks all the words.
+ *
+ * @author Younggue Bae
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KoreanUnicodeBenchmark {
+
+	private static final char[] CHOSEONG = {
+		'ㄱ','ㄲ','ㄴ','ㄷ','ㄸ','ㄹ','ㅁ','ㅂ','ㅃ','ㅅ',
+		'ㅆ','ㅇ','ㅈ','ㅉ','ㅊ','ㅋ','ㅌ','ㅍ','ㅎ'
+	};
+
+	private static final char[] JUNGSEONG = {
+		'ㅏ','ㅐ','ㅑ','ㅒ','ㅓ','ㅔ','ㅕ','ㅖ','ㅗ','ㅘ',
+		'ㅙ','ㅚ','ㅛ','ㅜ','ㅝ','ㅞ','ㅟ','ㅠ','ㅡ','ㅢ',
+		'ㅣ'
+	};
+
+	private static final char[] JONGSEONG = {
+		'\0','ㄱ','ㄲ','ㄳ','ㄴ','ㄵ','ㄶ','ㄷ','ㄹ','ㄺ',
+		'ㄻ','ㄼ','ㄽ','ㄾ','ㄿ','ㅀ','ㅁ','ㅂ','ㅄ','ㅅ',
+		'ㅆ','ㅇ','ㅈ','ㅊ','ㅋ','ㅌ','ㅍ','ㅎ'
+	};
+
+	private static final int JUNG_JONG = JUNGSEONG.length * JONGSEONG.length;
+
+	private static final String[] WORDS = {
+		"부각되기도", "자아내었고", "올해에는", "전반적인", "등에서의", "사건이었다", "가셨습니다", "결성했지만",
+		"대응함으로써", "울려주었다", "이어졌다", "못하겠습니까", "공부하시었었겠습니다만은요", "먹어보았더라면서도",
+		"다닐", "어렵"
+	};
+
+	private Pattern pattern;
+	private char[][] suffixes;
+	private char[] buffer;
+	/** the words decomposed in advance, so the conditions are compared on the same jaso */
+	private String[] decomposedStrings;
+	private char[][] decomposedBuffers;
+
+	@Setup
+	public void setUp() {
+		pattern = Pattern.compile(String.valueOf(KoreanUnicode.decompose("ㄹ")) + "$|" + String.valueOf(KoreanUnicode.decompose("ㅂ")) + "$");
+		suffixes = new char[][] { KoreanUnicode.decompose("ㄹ"), KoreanUnicode.decompose("ㅂ") };
+		buffer = new char[64];
+
+		decomposedStrings = new String[WORDS.length];
+		decomposedBuffers = new char[WORDS.length][];
+		for (int i = 0; i < WORDS.length; i++) {
+			decomposedBuffers[i] = KoreanUnicode.decompose(WORDS[i]);
+			decomposedStrings[i] = String.valueOf(decomposedBuffers[i]);
+		}
+	}
+
+	@Benchmark
+	public int arithmeticChars() {
+		int length = 0;
+		for (String word : WORDS) {
+			for (int i = 0; i < word.length(); i++) {
+				length += decomposeByArithmetic(word.charAt(i)).length;
+			}
+		}
+		return length;
+	}
+
+	@Benchmark
+	public int tableChars() {
+		int length = 0;
+		for (String word : WORDS) {
+			for (int i = 0; i < word.length(); i++) {
+				length += KoreanUnicode.decompose(word.charAt(i)).length;
+			}
+		}
+		return length;
+	}
+
+	@Benchmark
+	public int stringWords() {
+		int length = 0;
+		for (String word : WORDS) {
+			length += decomposeByStringBuilder(word, false).length();
+		}
+		return length;
+	}
+
+	@Benchmark
+	public int bufferWords() {
+		int length = 0;
+		for (String word : WORDS) {
+			length += KoreanUnicode.decompose(word, buffer, 0);
+		}
+		return length;
+	}
+
+	@Benchmark
+	public int regexConditions() {
+		int matches = 0;
+		for (String decomposed : decomposedStrings) {
+			if (pattern.matcher(decomposed).find()) {
+				matches++;
+			}
+		}
+		return matches;
+	}
+
+	@Benchmark
+	public int jasoConditions() {
+		int matches = 0;
+		for (char[] decomposed : decomposedBuffers) {
+			if (endsWithAny(decomposed, decomposed.length)) {
+				matches++;
+			}
+		}
+		return matches;
+	}
+
+	@Benchmark
+	public int stringAndRegex() {
+		int matches = 0;
+		for (String word : WORDS) {
+			String decomposed = decomposeByStringBuilder(word, true);
+			if (pattern.matcher(decomposed).find()) {
+				matches++;
+			}
+		}
+		return matches;
+	}
+
+	@Benchmark
+	public int bufferAndJaso() {
+		int matches = 0;
+		for (String word : WORDS) {
+			int length = KoreanUnicode.decompose(word, buffer, 0);
+			if (endsWithAny(buffer, length)) {
+				matches++;
+			}
+		}
+		return matches;
+	}
+
+	private boolean endsWithAny(char[] jaso, int length) {
+		for (char[] suffix : suffixes) {
+			if (KoreanUnicode.endsWith(jaso, length, suffix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The decomposition into the new arrays and the string as {@link KoreanUnicode#decompose(String)} did before the buffer.
+	 *
+	 * @param s	the string
+	 * @param arithmetic	true to decompose the characters by the arithmetic, otherwise by the table
+	 * @return the decomposed string
+	 */
+	private static String decomposeByStringBuilder(String s, boolean arithmetic) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			sb.append(arithmetic ? decomposeByArithmetic(c) : KoreanUnicode.decompose(c));
+		}
+		return String.valueOf(sb.toString().toCharArray());
+	}
+
+	/**
+	 * The decomposition of the one character as {@link KoreanUnicode#decompose(char)} did before the table.
+	 */
+	private static char[] decomposeByArithmetic(char c) {
+		char[] result = null;
+
+		if (c > 0xD7A3 || c < 0xAC00) {
+			return new char[] { c };
+		}
+
+		c -= 0xAC00;
+
+		char choseong = CHOSEONG[c / JUNG_JONG];
+		c = (char) (c % JUNG_JONG);
+
+		char jungseong = JUNGSEONG[c / JONGSEONG.length];
+		char jongseong = JONGSEONG[c % JONGSEONG.length];
+
+		if (jongseong != 0) {
+			result = new char[] { choseong, jungseong, jongseong };
+		} else {
+			result = new char[] { choseong, jungseong };
+		}
+		return result;
+	}
+
+}
@@ -1,12 +1,14 @@
 package com.yglab.nlp.dictionary;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.List;
 
+import com.yglab.nlp.util.trie.DoubleArrayTrie;
 import com.yglab.nlp.util.trie.TrieSuffixMatcher;
 
 
@@ -17,7 +19,10 @@ import com.yglab.nlp.util.trie.TrieSuffixMatcher;
  */
 public abstract class AbstractSuffixDictionary<T> {
 	
+	/** the trie which is built while loading the dictionary files */
 	protected TrieSuffixMatcher<T> trieSuffix;
+	/** the compiled trie of the loaded dictionary which is matched by the lookups */
+	protected DoubleArrayTrie<T> trie;
 	protected int keyColumnIndex = 0;
 	
 	/**
@@ -44,6 +49,21 @@ public abstract class AbstractSuffixDictionary<T> {
 		for (String file : files) {
 			this.load(file);
 		}
+		
+		this.trie = trieSuffix.compile();
+		this.trieSuffix = null;
+	}
+	
+	/**
+	 * Creates the dictionary with the compiled trie saved by {@link #save(String)}.
+	 * 
+	 * @param trie	The compiled trie
+	 */
+	protected AbstractSuffixDictionary(DoubleArrayTrie<T> trie) {
+		if (!trie.isBackward()) {
+			throw new IllegalArgumentException("The trie of the suffix dictionary should match backward.");
+		}
+		this.trie = trie;
 	}
 	
 	private void load(String filename) throws IOException {
@@ -88,21 +108,42 @@ public abstract class AbstractSuffixDictionary<T> {
 	 * Finds the longest suffix in the input string.
 	 */
 	public T findLongestSuffix(String str) {
-		return trieSuffix.longestMatch(this.decompose(str));
+		return trie.longestMatch(this.decompose(str));
 	}
 
 	/**
 	 * Finds the shortest suffix in the input string.
 	 */
 	public T findShortestSuffix(String str) {
-		return trieSuffix.shortestMatch(this.decompose(str));
+		return trie.shortestMatch(this.decompose(str));
 	}
 	
 	/**
 	 * Finds all the matched suffixes in the input string.
 	 */
 	public List<T> findSuffixes(String str) {
-		return trieSuffix.allMatches(this.decompose(str));
+		return trie.allMatches(this.decompose(str));
+	}
+	
+	/**
+	 * Finds all the matched suffixes in the first <code>length</code> characters of the decomposed input.
+	 * 
+	 * @param decomposed	The input decomposed by {@link #decompose(String)}
+	 * @param length	The number of the characters to match
+	 */
+	public List<T> findSuffixes(char[] decomposed, int length) {
+		return trie.allMatches(decomposed, length);
+	}
+	
+	/**
+	 * Saves the compiled trie of the dictionary, which is loaded without parsing the dictionary files again.
+	 * The values of the dictionary should be serializable.
+	 * 
+	 * @param file
+	 * @throws IOException
+	 */
+	public void save(String file) throws IOException {
+		trie.save(new File(file));
 	}
 	
 }
@@ -1,7 +1,10 @@
 package com.yglab.nlp.dictionary;
 
+import java.io.File;
 import java.io.IOException;
 
+import com.yglab.nlp.util.trie.DoubleArrayTrie;
+
 
 /**
  * Dictionary with plain text format based on suffix(backward direction) trie structure.
@@ -18,6 +21,22 @@ public class PlainSuffixDictionary extends AbstractSuffixDictionary<String> {
 		super(keyColumnIndex, files);
 	}
 	
+	private PlainSuffixDictionary(DoubleArrayTrie<String> trie) {
+		super(trie);
+	}
+	
+	/**
+	 * Loads the dictionary saved by {@link #save(String)}.
+	 * 
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public static PlainSuffixDictionary load(String file) throws IOException {
+		DoubleArrayTrie<String> trie = DoubleArrayTrie.load(new File(file));
+		return new PlainSuffixDictionary(trie);
+	}
+	
 	@Override
 	public void addDictionary(String str) {
 		String[] field = str.split("\t");
@@ -0,0 +1,152 @@
+package com.yglab.nlp.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import com.yglab.nlp.model.AbstractModel;
+import com.yglab.nlp.model.Index;
+import com.yglab.nlp.model.MappedWeights;
+import com.yglab.nlp.model.SortedStringIndex;
+import com.yglab.nlp.model.Weights;
+
+/**
+ * This abstract class reads the training model file in the binary model format written by {@link AbstractBinaryModelWriter}.
+ * The model file is memory mapped, so the indexes and the weights are not copied onto the heap.
+ * The model file which was written by the Java serialization is read as before.
+ *
+ * @author Younggue Bae
+ */
+public abstract class AbstractBinaryModelReader<V extends AbstractModel> extends AbstractModelReader<V> {
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V read(File file) throws IOException, ClassNotFoundException {
+		InputStream is = AbstractModelReader.class.getResourceAsStream(file.getPath());
+
+		/* the resource in a jar can't be mapped, so it is read onto the heap */
+		if (is != null) {
+			byte[] bytes = readFully(is);
+			if (!BinaryModelFormat.hasMagic(bytes, bytes.length)) {
+				ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes));
+				V model = (V) ois.readObject();
+				ois.close();
+
+				System.err.println("Read the trained model from object: " + file.getPath());
+				return model;
+			}
+
+			V model = read(ByteBuffer.wrap(bytes));
+			System.err.println("Read the trained model from binary: " + file.getPath());
+			return model;
+		}
+
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+
+			byte[] magic = new byte[BinaryModelFormat.MAGIC.length];
+			int length = raf.read(magic);
+			if (!BinaryModelFormat.hasMagic(magic, length)) {
+				return super.read(file);
+			}
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("The model file is too large to map: " + file.getPath());
+			}
+
+			V model = read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+			System.err.println("Read the trained model from binary: " + file.getPath());
+			return model;
+		}
+		finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Reads the model from the buffer of the whole model file.
+	 *
+	 * @param buffer
+	 * @return
+	 * @throws IOException
+	 */
+	protected V read(ByteBuffer buffer) throws IOException {
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.position(BinaryModelFormat.MAGIC.length);
+
+		int version = buffer.getInt();
+		if (version != BinaryModelFormat.VERSION) {
+			throw new IOException("Unsupported model version: " + version);
+		}
+		String algorithm = BinaryModelFormat.getString(buffer);
+		boolean labeled = buffer.get() != 0;
+
+		int numOptions = buffer.getInt();
+		String[][] options = new String[numOptions][];
+		for (int i = 0; i < numOptions; i++) {
+			options[i] = new String[] { BinaryModelFormat.getString(buffer), BinaryModelFormat.getString(buffer) };
+		}
+
+		int numLabels = buffer.getInt();
+		int numFeatures = buffer.getInt();
+		BinaryModelFormat.align(buffer);
+
+		Index labelIndex = SortedStringIndex.read(buffer);
+		Index featureIndex = SortedStringIndex.read(buffer);
+		// the hashed features have the weights without the feature index
+		if (labelIndex.size() != numLabels || (featureIndex.size() != numFeatures && featureIndex.size() != 0)) {
+			throw new IOException("Corrupted model file: the size of indexes(" + labelIndex.size() + " * " +
+					featureIndex.size() + ") is not " + numLabels + " * " + numFeatures + ".");
+		}
+
+		long numWeights = (long) numLabels * numFeatures;
+		if (buffer.remaining() != numWeights * 8) {
+			throw new IOException("Corrupted model file: " + buffer.remaining() + " bytes for " + numWeights + " weights.");
+		}
+		ByteBuffer slice = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		Weights weights = new MappedWeights(numLabels, numFeatures, slice.asDoubleBuffer());
+
+		V model = newModel(labelIndex, featureIndex, weights, labeled);
+		if (!model.algorithm().equals(algorithm)) {
+			throw new IOException("The model file is not a " + model.algorithm() + " model but a " + algorithm + " model.");
+		}
+		for (String[] option : options) {
+			model.setOption(option[0], option[1]);
+		}
+
+		return model;
+	}
+
+	/**
+	 * Creates the model with the indexes and the weights read from the model file.
+	 *
+	 * @param labelIndex
+	 * @param featureIndex
+	 * @param weights
+	 * @param labeled	The labeled flag
+	 * @return
+	 */
+	protected abstract V newModel(Index labelIndex, Index featureIndex, Weights weights, boolean labeled);
+
+	private static byte[] readFully(InputStream is) throws IOException {
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		try {
+			for (int n = is.read(buffer); n != -1; n = is.read(buffer)) {
+				os.write(buffer, 0, n);
+			}
+		}
+		finally {
+			is.close();
+		}
+		return os.toByteArray();
+	}
+
+}
@@ -0,0 +1,133 @@
+package com.yglab.nlp.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Map;
+
+import com.yglab.nlp.model.AbstractModel;
+import com.yglab.nlp.model.Index;
+import com.yglab.nlp.model.SortedStringIndex;
+import com.yglab.nlp.model.Weights;
+
+/**
+ * This abstract class writes the training model file in the binary model format,
+ * which can be memory mapped by {@link AbstractBinaryModelReader}.
+ * The labels and the features are renumbered in their sorted order.
+ *
+ * @author Younggue Bae
+ */
+public abstract class AbstractBinaryModelWriter<V extends AbstractModel> extends AbstractModelWriter<V> {
+
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	@Override
+	public void write(V model, File file) throws IOException {
+		Index labelIndex = model.getLabelIndex();
+		Index featureIndex = model.getFeatureIndex();
+		Weights weights = model.getParameters();
+		if (weights == null) {
+			throw new IllegalArgumentException("The model has no weight parameters to write.");
+		}
+		// the hashed features have no feature index, so their weights are written in the order of the feature ids
+		boolean hashed = featureIndex.size() == 0 && weights.numFeatures() > 0;
+		if (weights.numLabels() != labelIndex.size() || (!hashed && weights.numFeatures() != featureIndex.size())) {
+			throw new IllegalArgumentException("The size of weights(" + weights.numLabels() + " * " + weights.numFeatures() +
+					") doesn't match with the indexes(" + labelIndex.size() + " * " + featureIndex.size() + ").");
+		}
+
+		mkdirs(file.getPath());
+
+		int[] labelOrder = SortedStringIndex.sortedOrder(labelIndex);
+		int[] featureOrder = SortedStringIndex.sortedOrder(featureIndex);
+
+		FileOutputStream os = new FileOutputStream(file);
+		try {
+			FileChannel channel = os.getChannel();
+
+			writeFully(channel, encodeHeader(model, labelIndex.size(), weights.numFeatures()));
+			writeFully(channel, SortedStringIndex.encode(toStrings(labelIndex, labelOrder)));
+			writeFully(channel, SortedStringIndex.encode(toStrings(featureIndex, featureOrder)));
+
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			double[] row = new double[labelIndex.size()];
+			for (int i = 0; i < weights.numFeatures(); i++) {
+				int feature = hashed ? i : featureOrder[i];
+				// reads the whole row at once, since looking up a single sparse weight scans the row
+				Arrays.fill(row, 0.0);
+				weights.addScores(feature, row);
+				for (int label : labelOrder) {
+					if (buffer.remaining() < 8) {
+						buffer.flip();
+						writeFully(channel, buffer);
+						buffer.clear();
+					}
+					buffer.putDouble(row[label]);
+				}
+			}
+			buffer.flip();
+			writeFully(channel, buffer);
+		}
+		finally {
+			os.close();
+		}
+
+		System.err.println("Wrote the trained model into binary: " + file.getPath());
+	}
+
+	/**
+	 * Checks if the model is labeled, the labeled flag is stored in the header.
+	 *
+	 * @param model
+	 * @return
+	 */
+	protected boolean isLabeled(V model) {
+		return true;
+	}
+
+	private ByteBuffer encodeHeader(V model, int numLabels, int numFeatures) {
+		Map<String, String> options = model.getOptions();
+
+		int size = BinaryModelFormat.MAGIC.length + 4 + BinaryModelFormat.sizeOf(model.algorithm()) + 1 + 4;
+		for (Map.Entry<String, String> option : options.entrySet()) {
+			size += BinaryModelFormat.sizeOf(option.getKey()) + BinaryModelFormat.sizeOf(option.getValue());
+		}
+		size += 4 + 4;
+
+		ByteBuffer buffer = ByteBuffer.allocate((size + 7) & ~7).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.put(BinaryModelFormat.MAGIC);
+		buffer.putInt(BinaryModelFormat.VERSION);
+		BinaryModelFormat.putString(buffer, model.algorithm());
+		buffer.put((byte) (isLabeled(model) ? 1 : 0));
+		buffer.putInt(options.size());
+		for (Map.Entry<String, String> option : options.entrySet()) {
+			BinaryModelFormat.putString(buffer, option.getKey());
+			BinaryModelFormat.putString(buffer, option.getValue());
+		}
+		buffer.putInt(numLabels);
+		buffer.putInt(numFeatures);
+
+		buffer.position(buffer.capacity());
+		buffer.flip();
+		return buffer;
+	}
+
+	private static String[] toStrings(Index index, int[] order) {
+		String[] strings = new String[order.length];
+		for (int i = 0; i < order.length; i++) {
+			strings[i] = index.get(order[i]).toString();
+		}
+		return strings;
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.yglab.nlp.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * The constants and the helpers of the binary model format.
+ * <p>
+ * A binary model file consists of the header, the label table, the feature table and the weights.
+ * The header has the magic bytes, the version, the algorithm, the labeled flag, the options, 
+ * the number of labels and the number of features.
+ * The label and feature tables are {@link com.yglab.nlp.model.SortedStringIndex} tables,
+ * and the weights are the doubles in feature major order.
+ * All the numbers are little-endian, and each section starts at a multiple of 8 bytes.
+ * 
+ * @author Younggue Bae
+ */
+final class BinaryModelFormat {
+
+	static final byte[] MAGIC = { 'Y', 'G', 'N', 'L', 'P', 'B', 'I', 'N' };
+	static final int VERSION = 1;
+	
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private BinaryModelFormat() {
+	}
+	
+	/**
+	 * Checks if the bytes start with the magic bytes.
+	 */
+	static boolean hasMagic(byte[] bytes, int length) {
+		if (length < MAGIC.length) {
+			return false;
+		}
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (bytes[i] != MAGIC[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	static int sizeOf(String s) {
+		return 4 + s.getBytes(UTF8).length;
+	}
+	
+	static void putString(ByteBuffer buffer, String s) {
+		byte[] bytes = s.getBytes(UTF8);
+		buffer.putInt(bytes.length);
+		buffer.put(bytes);
+	}
+	
+	static String getString(ByteBuffer buffer) throws IOException {
+		int length = buffer.getInt();
+		if (length < 0 || length > buffer.remaining()) {
+			throw new IOException("Corrupted model file: invalid string length " + length);
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, UTF8);
+	}
+	
+	/**
+	 * Moves the position of the buffer to the next multiple of 8 bytes.
+	 */
+	static void align(ByteBuffer buffer) {
+		buffer.position((buffer.position() + 7) & ~7);
+	}
+
+}
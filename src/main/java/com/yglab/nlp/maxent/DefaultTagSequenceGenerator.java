@@ -5,11 +5,17 @@ import java.util.Arrays;
 import java.util.List;
 
 import com.yglab.nlp.model.Datum;
+import com.yglab.nlp.model.Index;
 
 
 /**
  * GEN is a function that maps an input x to a set of candidates GEN(x). 
  * e.g. Tagging: GEN(x) is the set of all possible tag sequences with the specified length.
+ * <p>
+ * The feature generator is called only once per position with placeholder labels as {@link LatticeViterbi} does.
+ * The label independent features are compiled into the ids once per position,
+ * and only the features which refer to the previous labels are filled and looked up for each candidate.
+ * So the feature generator must use the previous labels only as opaque strings to build the features.
  * 
  * @author Younggue Bae
  */
@@ -19,6 +25,9 @@ public class DefaultTagSequenceGenerator implements TagSequenceGenerator {
 	protected final String[] tags;
 	protected final int prevSequenceLength;
 	protected String[][] allPrevTagSequenceCandidates;
+	protected Index featureIndex;
+	/** the placeholders of the previous labels, which are replaced with the previous labels of each candidate */
+	private final String[] placeholderSequence;
 	
 	/**
 	 * Constructor.
@@ -31,6 +40,11 @@ public class DefaultTagSequenceGenerator implements TagSequenceGenerator {
 		this.featureGenerator = featureGenerator;
 		this.tags = tags;
 		this.prevSequenceLength = prevSequenceLength;
+		
+		this.placeholderSequence = new String[prevSequenceLength];
+		for (int i = 0; i < prevSequenceLength; i++) {
+			placeholderSequence[i] = "\u0000prevLabel" + i + "\u0000";
+		}
 	
 		if (tags != null) {
 			this.allPrevTagSequenceCandidates = generateAllTagSequenceCandidates(prevSequenceLength);
@@ -38,6 +52,16 @@ public class DefaultTagSequenceGenerator implements TagSequenceGenerator {
 		}
 	}
 
+	/**
+	 * Sets the feature index of the trained model. If it is set, the generated candidates carry
+	 * the feature ids compiled against this index.
+	 * 
+	 * @param featureIndex
+	 */
+	public void setFeatureIndex(Index featureIndex) {
+		this.featureIndex = featureIndex;
+	}
+
 	public String[][] generateAllTagSequenceCandidates(int length) {
 		int[] pos = new int[length];
 		int total = (int) Math.pow(tags.length, length);
@@ -61,11 +85,12 @@ public class DefaultTagSequenceGenerator implements TagSequenceGenerator {
 	}
 	
 	@Override
-	public List<List<Datum>> getCandidates(String[] tokens) {
+	public List<List<Datum>> getCandidates(String[] tokens, FeatureContext context) {
 		List<List<Datum>> instanceCandidates = new ArrayList<List<Datum>>();
 		
 		for (int position = 0; position < tokens.length; position++) {
 			String token = tokens[position];
+			PositionFeatures features = getPositionFeatures(position, tokens, context);
 
 			if (position == 0) {
 				List<Datum> candidates = new ArrayList<Datum>();
@@ -74,10 +99,7 @@ public class DefaultTagSequenceGenerator implements TagSequenceGenerator {
 					prevTagSequence[i] = "O";
 				}
 
-				Datum datum = new Datum(token, "O");
-				datum.setFeatures(Arrays.asList(featureGenerator.getFeatures(position, tokens, prevTagSequence)));
-				datum.setPreviousLabel(prevTagSequence[prevSequenceLength - 1]);
-				candidates.add(datum);
+				candidates.add(newDatum(token, features, prevTagSequence));
 				instanceCandidates.add(candidates);
 			} 
 			else if (prevSequenceLength > 1 && position > 0 && position < prevSequenceLength) {
@@ -96,10 +118,7 @@ public class DefaultTagSequenceGenerator implements TagSequenceGenerator {
 							}
 						}
 					}
-					Datum datum = new Datum(token, "O");
-					datum.setFeatures(Arrays.asList(featureGenerator.getFeatures(position, tokens, prevTagSequenceCandidates)));
-					datum.setPreviousLabel(prevTagSequenceCandidates[prevSequenceLength - 1]);
-					candidates.add(datum);
+					candidates.add(newDatum(token, features, prevTagSequenceCandidates));
 				}
 				instanceCandidates.add(candidates);
 			}
@@ -107,11 +126,7 @@ public class DefaultTagSequenceGenerator implements TagSequenceGenerator {
 				List<Datum> candidates = new ArrayList<Datum>();
 				
 				for (int i = 0; i < allPrevTagSequenceCandidates.length; i++) {
-					Datum datum = new Datum(token, "O");
-
-					datum.setFeatures(Arrays.asList(featureGenerator.getFeatures(position, tokens, allPrevTagSequenceCandidates[i])));
-					datum.setPreviousLabel(allPrevTagSequenceCandidates[i][prevSequenceLength - 1]);
-					candidates.add(datum);
+					candidates.add(newDatum(token, features, allPrevTagSequenceCandidates[i]));
 				}
 				instanceCandidates.add(candidates);
 			}
@@ -119,5 +134,177 @@ public class DefaultTagSequenceGenerator implements TagSequenceGenerator {
 		
 		return instanceCandidates;
 	}
+	
+	@Override
+	public List<List<String>> getLabelCandidates(String[] tokens, FeatureContext context) {
+		return null;
+	}
+	
+	/**
+	 * Generates the features of the position with the placeholder labels, which are shared by all the candidates of the position.
+	 * 
+	 * @param position
+	 * @param tokens
+	 * @param context
+	 * @return
+	 */
+	protected PositionFeatures getPositionFeatures(int position, String[] tokens, FeatureContext context) {
+		return new PositionFeatures(featureGenerator.getFeatures(position, tokens, placeholderSequence, context));
+	}
+	
+	/**
+	 * Creates the candidate datum with the contextual features for the given previous tag sequence.
+	 * If the feature index is set, the datum carries only the feature ids.
+	 * 
+	 * @param token
+	 * @param features	The features of the position
+	 * @param prevTagSequence
+	 * @return
+	 */
+	protected Datum newDatum(String token, PositionFeatures features, String[] prevTagSequence) {
+		Datum datum = new Datum(token, "O");
+		if (featureIndex != null) {
+			datum.setFeatureIds(features.compile(prevTagSequence));
+		}
+		else {
+			datum.setFeatures(Arrays.asList(features.fill(prevTagSequence)));
+		}
+		datum.setPreviousLabel(prevTagSequence[prevSequenceLength - 1]);
+		datum.setPreviousLabelSequence(prevTagSequence);
+		
+		return datum;
+	}
+	
+	/**
+	 * The features of a position, which are split into the label independent features and the templates
+	 * which refer to the previous labels.
+	 */
+	protected class PositionFeatures {
+		
+		private final String[] features;
+		/** the templates aligned with the features, null for the label independent feature */
+		private final Template[] templates;
+		private final int numTemplates;
+		/** the ids of the label independent features followed by the room for the ids of the templates, null without the feature index */
+		private final int[] contextIds;
+		
+		/**
+		 * @param features	The features generated with the placeholder labels
+		 */
+		PositionFeatures(String[] features) {
+			this.features = features;
+			this.templates = new Template[features.length];
+			
+			List<String> contextFeatures = new ArrayList<String>(features.length);
+			int numTemplates = 0;
+			for (int i = 0; i < features.length; i++) {
+				if (features[i].indexOf('\u0000') < 0) {
+					contextFeatures.add(features[i]);
+				}
+				else {
+					templates[i] = new Template(features[i]);
+					numTemplates++;
+				}
+			}
+			this.numTemplates = numTemplates;
+			
+			if (featureIndex != null) {
+				int[] ids = featureIndex.indexesOf(contextFeatures);
+				this.contextIds = Arrays.copyOf(ids, ids.length + numTemplates);
+			}
+			else {
+				this.contextIds = null;
+			}
+		}
+		
+		/**
+		 * Gets the feature ids for the given previous tag sequence,
+		 * only the templates are looked up in the feature index.
+		 */
+		int[] compile(String[] prevTagSequence) {
+			int[] ids = Arrays.copyOf(contextIds, contextIds.length);
+			int i = contextIds.length - numTemplates;
+			for (Template template : templates) {
+				if (template != null) {
+					ids[i++] = featureIndex.indexOf(template.fill(prevTagSequence));
+				}
+			}
+			return ids;
+		}
+		
+		/**
+		 * Gets the features for the given previous tag sequence in the order of the feature generator.
+		 */
+		String[] fill(String[] prevTagSequence) {
+			String[] result = new String[features.length];
+			for (int i = 0; i < features.length; i++) {
+				result[i] = templates[i] != null ? templates[i].fill(prevTagSequence) : features[i];
+			}
+			return result;
+		}
+	}
+	
+	/**
+	 * The feature which refers to the previous labels.
+	 */
+	private class Template {
+		
+		/** the literal parts, null for the placeholder */
+		private final String[] parts;
+		/** the indexes of the previous labels aligned with the parts, -1 for the literal part */
+		private final int[] slots;
+		private final int length;
+		
+		/**
+		 * Splits the feature into the literal parts and the placeholders.
+		 */
+		Template(String feature) {
+			List<String> parts = new ArrayList<String>();
+			List<Integer> slots = new ArrayList<Integer>();
+			int start = 0;
+			while (start < feature.length()) {
+				int next = -1;
+				int slot = -1;
+				for (int i = 0; i < placeholderSequence.length; i++) {
+					int index = feature.indexOf(placeholderSequence[i], start);
+					if (index >= 0 && (next < 0 || index < next)) {
+						next = index;
+						slot = i;
+					}
+				}
+				if (next < 0) {
+					parts.add(feature.substring(start));
+					slots.add(-1);
+					break;
+				}
+				if (next > start) {
+					parts.add(feature.substring(start, next));
+					slots.add(-1);
+				}
+				parts.add(null);
+				slots.add(slot);
+				start = next + placeholderSequence[slot].length();
+			}
+			
+			this.parts = parts.toArray(new String[parts.size()]);
+			this.slots = new int[slots.size()];
+			int length = 0;
+			for (int i = 0; i < this.slots.length; i++) {
+				this.slots[i] = slots.get(i);
+				if (this.parts[i] != null) {
+					length += this.parts[i].length();
+				}
+			}
+			this.length = length;
+		}
+		
+		String fill(String[] prevTagSequence) {
+			StringBuilder sb = new StringBuilder(length + 16);
+			for (int i = 0; i < parts.length; i++) {
+				sb.append(slots[i] < 0 ? parts[i] : prevTagSequence[slots[i]]);
+			}
+			return sb.toString();
+		}
+	}
 
 }
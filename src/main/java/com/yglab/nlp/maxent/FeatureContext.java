@@ -0,0 +1,15 @@
+package com.yglab.nlp.maxent;
+
+/**
+ * Interface for the per-sentence analysis which a context feature generator builds from the tokens.
+ * The context is created by {@link FeatureGenerator#initialize(Object[])} and passed back
+ * to the feature generator and the tag sequence generator for the same sentence,
+ * so the generators themselves keep no sentence state and can be shared by multiple threads.
+ * <p>
+ * The implementations must not be modified after they are created.
+ * 
+ * @author Younggue Bae
+ */
+public interface FeatureContext {
+
+}
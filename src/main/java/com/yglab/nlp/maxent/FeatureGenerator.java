@@ -2,15 +2,18 @@ package com.yglab.nlp.maxent;
 
 /**
  * Interface for context feature generators used with a viterbi algorithm.
+ * The feature generator must not keep any state of a sentence,
+ * the per-sentence analysis is carried by the {@link FeatureContext} instead.
  */
 public interface FeatureGenerator<T> {
 
 	/**
-	 * Initializes the feature generator with new tokens.
+	 * Builds the context of new tokens.
 	 * 
 	 * @param tokens
+	 * @return the per-sentence context, or null if the feature generator doesn't need any
 	 */
-	public void initialize(T[] tokens);
+	public FeatureContext initialize(T[] tokens);
 	
 	/**
 	 * Builds up the list of contextual features for the specified position in the specified tokens sequence.
@@ -21,8 +24,10 @@ public interface FeatureGenerator<T> {
 	 *          the tokens of the sentence.
 	 * @param previousTagSequence
 	 *          the sequence of tag labels for position-1, position-2, ... (or O if it's the start of a new sentence)
+	 * @param context
+	 *          the context which was built by {@link #initialize(Object[])} for the tokens
 	 * @return the contextual features
 	 */
-	public String[] getFeatures(int position, T[] tokens, String[] previousTagSequence);
+	public String[] getFeatures(int position, T[] tokens, String[] previousTagSequence, FeatureContext context);
 
 }
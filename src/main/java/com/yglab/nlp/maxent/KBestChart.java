@@ -0,0 +1,210 @@
+package com.yglab.nlp.maxent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The chart of K-best Viterbi algorithm.
+ * Each (position, state) keeps a bounded heap of the K best partial paths ending at the state,
+ * and a path keeps only the back pointer to the state and the rank of its previous path,
+ * so the sequences are built lazily by backtracking only for the final K best paths.
+ * The states of each position are opened by the decoder, e.g. the labels or the pairs of the previous label and the label.
+ *
+ * @author Younggue Bae
+ */
+class KBestChart {
+
+	/**
+	 * Maps the state of a position to its label.
+	 */
+	interface StateLabels {
+		String get(int position, int state);
+	}
+
+	private final int K;
+	private final Cell[][] cells;
+
+	KBestChart(int length, int K) {
+		this.K = K;
+		this.cells = new Cell[length][];
+	}
+
+	/**
+	 * Opens the position with the given number of the states.
+	 */
+	void open(int position, int numStates) {
+		cells[position] = new Cell[numStates];
+	}
+
+	/**
+	 * Adds the partial path ending at the (position, state),
+	 * it is dropped if it is worse than the K best paths of the state.
+	 */
+	void add(int position, int state, double score, int prevState, int prevRank) {
+		Cell cell = cells[position][state];
+		if (cell == null) {
+			cell = new Cell(K);
+			cells[position][state] = cell;
+		}
+
+		PriorityQueue<Path> heap = cell.heap;
+		if (heap.size() < K) {
+			heap.add(new Path(score, prevState, prevRank));
+		}
+		else if (score > heap.peek().score) {
+			heap.poll();
+			heap.add(new Path(score, prevState, prevRank));
+		}
+	}
+
+	/**
+	 * Closes the position, after that the paths of the position are sorted by the score in descending order.
+	 */
+	void close(int position) {
+		for (Cell cell : cells[position]) {
+			if (cell != null) {
+				cell.close();
+			}
+		}
+	}
+
+	/**
+	 * Gets the sorted paths ending at the (position, state).
+	 *
+	 * @return the paths, or null if there is no path
+	 */
+	Path[] get(int position, int state) {
+		Cell cell = cells[position][state];
+		return cell != null ? cell.paths : null;
+	}
+
+	/**
+	 * Gets the best score of the (position, state).
+	 */
+	double bestScore(int position, int state) {
+		Path[] paths = get(position, state);
+		if (paths == null || paths.length == 0) {
+			return Double.NEGATIVE_INFINITY;
+		}
+		return paths[0].score;
+	}
+
+	/**
+	 * Backtracks the K best label sequences from the last position.
+	 *
+	 * @param labels	the labels indexed by the state which is the label id
+	 * @return the sequences sorted by the score in descending order
+	 */
+	List<Sequence> backtrack(final String[] labels) {
+		return backtrack(new StateLabels() {
+			@Override
+			public String get(int position, int state) {
+				return labels[state];
+			}
+		});
+	}
+
+	/**
+	 * Backtracks the K best label sequences from the last position.
+	 *
+	 * @param labels	the labels of the states
+	 * @return the sequences sorted by the score in descending order
+	 */
+	List<Sequence> backtrack(StateLabels labels) {
+		int last = cells.length - 1;
+		List<Sequence> sequences = new ArrayList<Sequence>();
+		if (last < 0) {
+			return sequences;
+		}
+
+		List<int[]> finals = new ArrayList<int[]>();
+		final List<Double> scores = new ArrayList<Double>();
+		for (int state = 0; state < cells[last].length; state++) {
+			Path[] paths = get(last, state);
+			if (paths == null) {
+				continue;
+			}
+			for (int rank = 0; rank < paths.length; rank++) {
+				finals.add(new int[] { state, rank });
+				scores.add(paths[rank].score);
+			}
+		}
+
+		List<Integer> order = new ArrayList<Integer>(finals.size());
+		for (int i = 0; i < finals.size(); i++) {
+			order.add(i);
+		}
+		Collections.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				return Double.compare(scores.get(i2), scores.get(i1));
+			}
+		});
+
+		for (int i = 0; i < order.size() && i < K; i++) {
+			int[] end = finals.get(order.get(i));
+			int state = end[0];
+			int rank = end[1];
+
+			String[] sequence = new String[cells.length];
+			for (int position = last; position >= 0; position--) {
+				Path path = get(position, state)[rank];
+				sequence[position] = labels.get(position, state);
+				state = path.prevState;
+				rank = path.prevRank;
+			}
+			sequences.add(new Sequence(sequence, scores.get(order.get(i))));
+		}
+
+		return sequences;
+	}
+
+	/**
+	 * The paths ending at a state, which are kept in the heap until the position is closed.
+	 */
+	private static class Cell {
+
+		PriorityQueue<Path> heap;
+		Path[] paths;
+
+		Cell(int K) {
+			this.heap = new PriorityQueue<Path>(K);
+		}
+
+		void close() {
+			paths = new Path[heap.size()];
+			for (int i = paths.length - 1; i >= 0; i--) {
+				paths[i] = heap.poll();
+			}
+			heap = null;
+		}
+	}
+
+	/**
+	 * The partial path which ends at a state.
+	 */
+	static class Path implements Comparable<Path> {
+
+		final double score;
+		final int prevState;
+		final int prevRank;
+
+		Path(double score, int prevState, int prevRank) {
+			this.score = score;
+			this.prevState = prevState;
+			this.prevRank = prevRank;
+		}
+
+		/**
+		 * The worst path is the head of the heap.
+		 */
+		@Override
+		public int compareTo(Path other) {
+			return Double.compare(this.score, other.score);
+		}
+	}
+
+}
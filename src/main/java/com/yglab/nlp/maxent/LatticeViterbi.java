@@ -0,0 +1,603 @@
+package com.yglab.nlp.maxent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.yglab.nlp.model.AbstractModel;
+import com.yglab.nlp.model.Datum;
+import com.yglab.nlp.model.Index;
+import com.yglab.nlp.model.Weights;
+
+/**
+ * The first-order Viterbi algorithm over a sparse lattice of (position, previous label) states.
+ * <p>
+ * Unlike {@link DefaultTagSequenceGenerator} with {@link Viterbi}, this doesn't enumerate every previous tag sequence.
+ * The feature generator is called only once per position with placeholder labels,
+ * so the label independent features are scored once per position,
+ * and the features which refer to the previous labels become the templates which are filled for each state.
+ * A state is the pair of the previous label and the label, since the features can refer to the previous previous label,
+ * so the best sequence is exact without pruning.
+ * The states of each position can be pruned by the beam size.
+ * <p>
+ * The feature generator must use the previous labels only as opaque strings to build the features.
+ *
+ * @author Younggue Bae
+ */
+public class LatticeViterbi {
+
+	/** the label before the start of a sentence, which is same as the one of the event streams */
+	public static final String START_LABEL = "*";
+
+	private static final String PREV_LABEL = "\u0000prevLabel\u0000";
+	private static final String PREV_PREV_LABEL = "\u0000prevPrevLabel\u0000";
+	private static final String[] PLACEHOLDER_SEQUENCE = { PREV_PREV_LABEL, PREV_LABEL };
+
+	private final Index labelIndex;
+	private final Index featureIndex;
+	private final Weights weights;
+	private final String[] labels;
+	private final int beamSize;
+
+	/**
+	 * Initializes the lattice Viterbi algorithm.
+	 *
+	 * @param model	The trained model
+	 * @param beamSize	The maximum number of states kept at each position, no pruning if it is not positive
+	 */
+	public LatticeViterbi(AbstractModel model, int beamSize) {
+		this.labelIndex = model.getLabelIndex();
+		this.featureIndex = model.getFeatureIndex();
+		this.weights = model.getParameters();
+		this.labels = model.getLabels();
+		this.beamSize = beamSize;
+	}
+
+	/**
+	 * Decodes the best tag sequence.
+	 *
+	 * @param featureGenerator	The context feature generator
+	 * @param tokens	The tokens of the sentence
+	 * @param context	The context which was built by the feature generator for the tokens
+	 * @param labelCandidates	The possible labels of each position, or null if every label is possible
+	 * @return
+	 */
+	public List<Datum> decode(FeatureGenerator<String> featureGenerator, String[] tokens, FeatureContext context, List<List<String>> labelCandidates) {
+		int length = tokens.length;
+		int numLabels = labels.length;
+
+		List<Datum> bestSequence = new ArrayList<Datum>(length);
+		if (length == 0) {
+			return bestSequence;
+		}
+
+		Column[] columns = new Column[length];
+		Map<String, Template> templates = new HashMap<String, Template>();
+
+		for (int position = 0; position < length; position++) {
+			PositionFeatures features = new PositionFeatures(featureGenerator.getFeatures(position, tokens, PLACEHOLDER_SEQUENCE, context), templates);
+			int[] currLabels = getLabels(labelCandidates, position);
+			Column column;
+
+			if (position == 0) {
+				column = new Column(new int[] { -1 }, currLabels);
+				double[] localScores = features.computeLogProbs(-1, -1);
+				for (int i = 0; i < currLabels.length; i++) {
+					column.scores[i] = localScores[currLabels[i]];
+					column.backpointers[i] = -1;
+				}
+			}
+			else {
+				Column prevColumn = columns[position - 1];
+				int[] slots = new int[numLabels];
+				column = new Column(prevColumn.nextPrevLabels(slots), currLabels);
+
+				double[][] localScoresCache = new double[Math.max(numLabels, prevColumn.size())][];
+				for (int prevState : prevColumn.survivors) {
+					int prevLabel = prevColumn.labelOf(prevState);
+					double[] localScores = features.getLogProbs(prevLabel, prevColumn.prevLabelOf(prevState), prevState, localScoresCache);
+					double prevScore = prevColumn.scores[prevState];
+
+					int offset = slots[prevLabel] * currLabels.length;
+					for (int i = 0; i < currLabels.length; i++) {
+						double score = prevScore + localScores[currLabels[i]];
+						if (score > column.scores[offset + i]) {
+							column.scores[offset + i] = score;
+							column.backpointers[offset + i] = prevState;
+						}
+					}
+				}
+			}
+
+			column.survivors = prune(column.scores);
+			columns[position] = column;
+		}
+
+		Column lastColumn = columns[length - 1];
+		int bestState = lastColumn.survivors[0];
+		for (int state : lastColumn.survivors) {
+			if (lastColumn.scores[state] > lastColumn.scores[bestState]) {
+				bestState = state;
+			}
+		}
+
+		String[] guessLabels = new String[length];
+		for (int position = length - 1; position >= 0; position--) {
+			guessLabels[position] = labels[columns[position].labelOf(bestState)];
+			bestState = columns[position].backpointers[bestState];
+		}
+
+		for (int position = 0; position < length; position++) {
+			Datum datum = new Datum(tokens[position], "");
+			datum.setGuessLabel(guessLabels[position]);
+			bestSequence.add(datum);
+		}
+
+		return bestSequence;
+	}
+
+	/**
+	 * Decodes the K best tag sequences.
+	 *
+	 * @param featureGenerator	The context feature generator
+	 * @param tokens	The tokens of the sentence
+	 * @param context	The context which was built by the feature generator for the tokens
+	 * @param labelCandidates	The possible labels of each position, or null if every label is possible
+	 * @param K	The maximum number of sequences
+	 * @return the sequences sorted by the score in descending order
+	 */
+	public List<Sequence> decode(FeatureGenerator<String> featureGenerator, String[] tokens, FeatureContext context, List<List<String>> labelCandidates, int K) {
+		if (K < 1) {
+			throw new IllegalArgumentException("K must be positive: " + K);
+		}
+		
+		int length = tokens.length;
+		int numLabels = labels.length;
+
+		final Column[] columns = new Column[length];
+		KBestChart chart = new KBestChart(length, K);
+		Map<String, Template> templates = new HashMap<String, Template>();
+
+		for (int position = 0; position < length; position++) {
+			PositionFeatures features = new PositionFeatures(featureGenerator.getFeatures(position, tokens, PLACEHOLDER_SEQUENCE, context), templates);
+			int[] currLabels = getLabels(labelCandidates, position);
+			Column column;
+
+			if (position == 0) {
+				column = new Column(new int[] { -1 }, currLabels);
+				chart.open(position, column.size());
+				double[] localScores = features.computeLogProbs(-1, -1);
+				for (int i = 0; i < currLabels.length; i++) {
+					chart.add(position, i, localScores[currLabels[i]], -1, -1);
+				}
+			}
+			else {
+				Column prevColumn = columns[position - 1];
+				int[] slots = new int[numLabels];
+				column = new Column(prevColumn.nextPrevLabels(slots), currLabels);
+				chart.open(position, column.size());
+
+				double[][] localScoresCache = new double[Math.max(numLabels, prevColumn.size())][];
+				for (int prevState : prevColumn.survivors) {
+					int prevLabel = prevColumn.labelOf(prevState);
+					double[] localScores = features.getLogProbs(prevLabel, prevColumn.prevLabelOf(prevState), prevState, localScoresCache);
+					KBestChart.Path[] prevPaths = chart.get(position - 1, prevState);
+
+					int offset = slots[prevLabel] * currLabels.length;
+					for (int rank = 0; rank < prevPaths.length; rank++) {
+						double prevScore = prevPaths[rank].score;
+						for (int i = 0; i < currLabels.length; i++) {
+							chart.add(position, offset + i, prevScore + localScores[currLabels[i]], prevState, rank);
+						}
+					}
+				}
+			}
+			chart.close(position);
+
+			for (int state = 0; state < column.size(); state++) {
+				column.scores[state] = chart.bestScore(position, state);
+			}
+			column.survivors = prune(column.scores);
+			columns[position] = column;
+		}
+
+		return chart.backtrack(new KBestChart.StateLabels() {
+			@Override
+			public String get(int position, int state) {
+				return labels[columns[position].labelOf(state)];
+			}
+		});
+	}
+
+	/**
+	 * Gets the ids of the possible labels at the position.
+	 * If none of the candidates is known to the model, every label is possible.
+	 */
+	private int[] getLabels(List<List<String>> labelCandidates, int position) {
+		if (labelCandidates != null) {
+			List<String> candidates = labelCandidates.get(position);
+			int[] ids = new int[candidates.size()];
+			int size = 0;
+			for (String candidate : candidates) {
+				int id = labelIndex.indexOf(candidate);
+				if (id != Index.UNKNOWN) {
+					ids[size++] = id;
+				}
+			}
+			if (size > 0) {
+				return size == ids.length ? ids : Arrays.copyOf(ids, size);
+			}
+		}
+
+		int[] ids = new int[labels.length];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = i;
+		}
+		return ids;
+	}
+
+	/**
+	 * Keeps the best states of the position within the beam size.
+	 */
+	private int[] prune(final double[] scores) {
+		List<Integer> states = new ArrayList<Integer>();
+		for (int state = 0; state < scores.length; state++) {
+			if (scores[state] > Double.NEGATIVE_INFINITY) {
+				states.add(state);
+			}
+		}
+
+		if (beamSize > 0 && states.size() > beamSize) {
+			Collections.sort(states, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer s1, Integer s2) {
+					return Double.compare(scores[s2], scores[s1]);
+				}
+			});
+			states = states.subList(0, beamSize);
+		}
+
+		int[] result = new int[states.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = states.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * The states of a position, the state i is the pair of the previous label prevLabels[i / labels.length]
+	 * and the label labels[i % labels.length], so only the reachable pairs are allocated.
+	 */
+	private static class Column {
+
+		final int[] prevLabels;
+		final int[] labels;
+		final double[] scores;
+		final int[] backpointers;
+		/** the states which are kept by the beam */
+		int[] survivors;
+
+		Column(int[] prevLabels, int[] labels) {
+			this.prevLabels = prevLabels;
+			this.labels = labels;
+			this.scores = new double[prevLabels.length * labels.length];
+			this.backpointers = new int[scores.length];
+			Arrays.fill(scores, Double.NEGATIVE_INFINITY);
+		}
+
+		int size() {
+			return scores.length;
+		}
+
+		int labelOf(int state) {
+			return labels[state % labels.length];
+		}
+
+		int prevLabelOf(int state) {
+			return prevLabels[state / labels.length];
+		}
+
+		/**
+		 * Gets the distinct labels of the survivors, which are the previous labels of the next position.
+		 *
+		 * @param slots	The array which is filled with the index of each label in the result, -1 if the label is not there
+		 */
+		int[] nextPrevLabels(int[] slots) {
+			Arrays.fill(slots, -1);
+			int[] result = new int[Math.min(survivors.length, labels.length)];
+			int size = 0;
+			for (int state : survivors) {
+				int label = labelOf(state);
+				if (slots[label] < 0) {
+					slots[label] = size;
+					result[size++] = label;
+				}
+			}
+			return size == result.length ? result : Arrays.copyOf(result, size);
+		}
+	}
+
+	/**
+	 * The features of a position which are split into the label independent part and the history templates.
+	 * The unnormalized scores are factored into the part of the previous label and the part of the previous previous label,
+	 * which are computed once for each label, so only the templates which refer to both are filled for each state.
+	 */
+	private class PositionFeatures {
+
+		private final double[] contextScores;
+		/** the templates which refer to the previous label only */
+		private final List<Template> prevTemplates = new ArrayList<Template>();
+		/** the templates which refer to the previous previous label only */
+		private final List<Template> prevPrevTemplates = new ArrayList<Template>();
+		/** the templates which refer to both of the previous labels */
+		private final List<Template> pairTemplates = new ArrayList<Template>();
+		/** the factors indexed by the label id + 1, the index 0 is the start label */
+		private final Factor[] prevFactors = new Factor[labels.length + 1];
+		private final Factor[] prevPrevFactors = new Factor[labels.length + 1];
+
+		/**
+		 * @param features	The features generated with the placeholder labels
+		 * @param templates	The templates of the sentence which were already split, keyed by the feature
+		 */
+		PositionFeatures(String[] features, Map<String, Template> templates) {
+			List<String> contextFeatures = new ArrayList<String>(features.length);
+			for (String feature : features) {
+				if (feature.indexOf('\u0000') < 0) {
+					contextFeatures.add(feature);
+					continue;
+				}
+
+				Template template = templates.get(feature);
+				if (template == null) {
+					template = new Template(feature);
+					templates.put(feature, template);
+				}
+				boolean refersPrevLabel = feature.contains(PREV_LABEL);
+				boolean refersPrevPrevLabel = feature.contains(PREV_PREV_LABEL);
+				if (refersPrevLabel && refersPrevPrevLabel) {
+					pairTemplates.add(template);
+				}
+				else if (refersPrevLabel) {
+					prevTemplates.add(template);
+				}
+				else {
+					prevPrevTemplates.add(template);
+				}
+			}
+
+			contextScores = new double[labels.length];
+			weights.addScores(featureIndex.indexesOf(contextFeatures), contextScores);
+		}
+
+		/**
+		 * Returns true if the log probabilities depend on the previous previous label.
+		 */
+		boolean refersPrevPrevLabel() {
+			return !prevPrevTemplates.isEmpty() || !pairTemplates.isEmpty();
+		}
+
+		/**
+		 * Gets the log probabilities of the labels for the given previous label ids, which are computed once
+		 * for each previous label, or for each previous state if a template refers to the previous previous label.
+		 *
+		 * @param prevLabel	The previous label id
+		 * @param prevPrevLabel	The previous previous label id, or -1 at the start of a sentence
+		 * @param prevState	The previous state which is the pair of the previous previous label and the previous label
+		 * @param cache	The log probabilities of the position which were already computed
+		 */
+		double[] getLogProbs(int prevLabel, int prevPrevLabel, int prevState, double[][] cache) {
+			int key = refersPrevPrevLabel() ? prevState : prevLabel;
+			double[] logProbs = cache[key];
+			if (logProbs == null) {
+				logProbs = computeLogProbs(prevLabel, prevPrevLabel);
+				cache[key] = logProbs;
+			}
+			return logProbs;
+		}
+
+		/**
+		 * Computes the log probabilities of the labels for the given previous label ids, -1 is the start label.
+		 */
+		double[] computeLogProbs(int prevLabel, int prevPrevLabel) {
+			Factor prevFactor = prevFactors[prevLabel + 1];
+			if (prevFactor == null) {
+				double[] scores = Arrays.copyOf(contextScores, contextScores.length);
+				fill(prevTemplates, prevLabel, -1, scores);
+				prevFactor = new Factor(scores);
+				prevFactors[prevLabel + 1] = prevFactor;
+			}
+
+			Factor prevPrevFactor = null;
+			if (!prevPrevTemplates.isEmpty()) {
+				prevPrevFactor = prevPrevFactors[prevPrevLabel + 1];
+				if (prevPrevFactor == null) {
+					double[] scores = new double[labels.length];
+					fill(prevPrevTemplates, -1, prevPrevLabel, scores);
+					prevPrevFactor = new Factor(scores);
+					prevPrevFactors[prevPrevLabel + 1] = prevPrevFactor;
+				}
+			}
+
+			Factor pairFactor = null;
+			if (!pairTemplates.isEmpty()) {
+				double[] scores = new double[labels.length];
+				if (fill(pairTemplates, prevLabel, prevPrevLabel, scores)) {
+					pairFactor = new Factor(scores);
+				}
+			}
+
+			double[] logProbs = Arrays.copyOf(prevFactor.scores, prevFactor.scores.length);
+			double logZ;
+			if (prevPrevFactor == null && pairFactor == null) {
+				logZ = prevFactor.logSum();
+			}
+			else {
+				// the factors of the labels are exponentiated once, so only the pair factor is exponentiated for each state
+				double sum = 0.0;
+				for (int i = 0; i < logProbs.length; i++) {
+					double product = prevFactor.exps[i];
+					if (prevPrevFactor != null) {
+						product *= prevPrevFactor.exps[i];
+						logProbs[i] += prevPrevFactor.scores[i];
+					}
+					if (pairFactor != null) {
+						product *= pairFactor.exps[i];
+						logProbs[i] += pairFactor.scores[i];
+					}
+					sum += product;
+				}
+				logZ = prevFactor.max + (prevPrevFactor != null ? prevPrevFactor.max : 0.0) +
+						(pairFactor != null ? pairFactor.max : 0.0) + Math.log(sum);
+				if (sum == 0.0 || Double.isInfinite(logZ)) {
+					logZ = logSum(logProbs);
+				}
+			}
+
+			for (int i = 0; i < logProbs.length; i++) {
+				logProbs[i] -= logZ;
+			}
+			return logProbs;
+		}
+
+		/**
+		 * Fills the templates with the previous labels, and adds the scores of the known features.
+		 *
+		 * @return true if any of the features is known
+		 */
+		private boolean fill(List<Template> templates, int prevLabel, int prevPrevLabel, double[] scores) {
+			boolean known = false;
+			for (Template template : templates) {
+				int f = template.featureId(prevLabel, prevPrevLabel);
+				if (f != Index.UNKNOWN) {
+					weights.addScores(f, scores);
+					known = true;
+				}
+			}
+			return known;
+		}
+	}
+
+	/**
+	 * The feature which refers to the previous labels with the ids of the features filled with the previous labels,
+	 * the same template is shared by the positions of a sentence, so each feature is looked up once.
+	 */
+	private class Template {
+
+		private static final int NOT_FILLED = Integer.MIN_VALUE;
+
+		private final String[] parts;
+		/** the feature ids indexed by the previous previous label id + 1 and the previous label id + 1 */
+		private final int[][] ids = new int[labels.length + 1][];
+
+		Template(String feature) {
+			this.parts = split(feature);
+		}
+
+		/**
+		 * Splits the feature into the literal parts and the placeholders.
+		 */
+		private String[] split(String feature) {
+			List<String> parts = new ArrayList<String>();
+			int start = 0;
+			while (start < feature.length()) {
+				int prev = feature.indexOf(PREV_LABEL, start);
+				int prevPrev = feature.indexOf(PREV_PREV_LABEL, start);
+				int next = prev < 0 ? prevPrev : (prevPrev < 0 ? prev : Math.min(prev, prevPrev));
+				if (next < 0) {
+					parts.add(feature.substring(start));
+					break;
+				}
+				String placeholder = next == prev ? PREV_LABEL : PREV_PREV_LABEL;
+				if (next > start) {
+					parts.add(feature.substring(start, next));
+				}
+				parts.add(placeholder);
+				start = next + placeholder.length();
+			}
+			return parts.toArray(new String[parts.size()]);
+		}
+
+		/**
+		 * Gets the id of the feature filled with the previous label ids, -1 is the start label.
+		 */
+		int featureId(int prevLabel, int prevPrevLabel) {
+			int[] row = ids[prevPrevLabel + 1];
+			if (row == null) {
+				row = new int[labels.length + 1];
+				Arrays.fill(row, NOT_FILLED);
+				ids[prevPrevLabel + 1] = row;
+			}
+
+			int id = row[prevLabel + 1];
+			if (id == NOT_FILLED) {
+				StringBuilder sb = new StringBuilder();
+				for (String part : parts) {
+					if (part == PREV_LABEL) {
+						sb.append(prevLabel < 0 ? START_LABEL : labels[prevLabel]);
+					}
+					else if (part == PREV_PREV_LABEL) {
+						sb.append(prevPrevLabel < 0 ? START_LABEL : labels[prevPrevLabel]);
+					}
+					else {
+						sb.append(part);
+					}
+				}
+				id = featureIndex.indexOf(sb.toString());
+				row[prevLabel + 1] = id;
+			}
+			return id;
+		}
+	}
+
+	/**
+	 * The unnormalized scores of a part of the features with their exponentials shifted by the maximum score.
+	 */
+	private static class Factor {
+
+		final double[] scores;
+		final double[] exps;
+		final double max;
+
+		Factor(double[] scores) {
+			this.scores = scores;
+			double max = Double.NEGATIVE_INFINITY;
+			for (double score : scores) {
+				if (score > max) {
+					max = score;
+				}
+			}
+			this.max = max;
+			this.exps = new double[scores.length];
+			for (int i = 0; i < scores.length; i++) {
+				exps[i] = Math.exp(scores[i] - max);
+			}
+		}
+
+		double logSum() {
+			double sum = 0.0;
+			for (double exp : exps) {
+				sum += exp;
+			}
+			return max + Math.log(sum);
+		}
+	}
+
+	private static double logSum(double[] logInputs) {
+		double max = Double.NEGATIVE_INFINITY;
+		for (double logInput : logInputs) {
+			if (logInput > max) {
+				max = logInput;
+			}
+		}
+		double sum = 0.0;
+		for (double logInput : logInputs) {
+			sum += Math.exp(logInput - max);
+		}
+		return max + Math.log(sum);
+	}
+
+}
@@ -1,11 +1,17 @@
 package com.yglab.nlp.maxent;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 import com.yglab.nlp.maxent.quasinewton.QNTrainer;
 import com.yglab.nlp.model.AbstractModel;
+import com.yglab.nlp.model.CompiledEvents;
 import com.yglab.nlp.model.Datum;
 import com.yglab.nlp.model.EventStream;
+import com.yglab.nlp.model.Options;
+import com.yglab.nlp.model.SparseWeights;
+import com.yglab.nlp.model.Weights;
 
 
 
@@ -25,6 +31,89 @@ public class MEMM {
 		QNTrainer trainer = new QNTrainer();
 		return trainer.trainModel(is.getOutputStream());
 	}
+	
+	/**
+	 * Trains a maximum-entropy markov model with the options.
+	 * The gradient is computed by {@link Options#THREADS} threads, one by default.
+	 * The features which occur fewer times than {@link Options#CUTOFF} are not trained,
+	 * and the weights whose absolute value is not greater than {@link Options#PRUNE_THRESHOLD} are pruned after training.
+	 * <p>
+	 * The events are compiled one by one from the stream, and spilled into a temporary file 
+	 * in {@link Options#SPILL_DIRECTORY} if it is given, so the whole train data are never held in memory.
+	 * 
+	 * @param trainData
+	 * @param options
+	 */
+	public static final AbstractModel trainModel(EventStream<?, ? extends Datum> is, Options options) {
+		int cutoff = options.getInt(Options.CUTOFF, 1);
+		double threshold = options.getDouble(Options.PRUNE_THRESHOLD, 0.0);
+		
+		QNTrainer trainer = new QNTrainer(options.getInt(Options.THREADS, 1), cutoff);
+		MaxentModel model;
+		CompiledEvents events = compile(is, cutoff, options.get(Options.SPILL_DIRECTORY));
+		try {
+			model = trainer.trainModel(events);
+		}
+		finally {
+			close(events);
+		}
+		if (cutoff > 1) {
+			model.setOption(Options.CUTOFF, String.valueOf(cutoff));
+		}
+		printModelSize("Trained", model);
+		
+		if (threshold > 0.0) {
+			model = model.prune(threshold);
+			model.setOption(Options.PRUNE_THRESHOLD, String.valueOf(threshold));
+			printModelSize("Pruned", model);
+		}
+		
+		return model;
+	}
+	
+	private static CompiledEvents compile(EventStream<?, ? extends Datum> is, int cutoff, String spillDirectory) {
+		if (spillDirectory == null) {
+			return CompiledEvents.compile(is.getOutputIterator(), cutoff);
+		}
+		
+		try {
+			File directory = new File(spillDirectory);
+			directory.mkdirs();
+			File spillFile = File.createTempFile("events-", ".bin", directory);
+			spillFile.deleteOnExit();
+			
+			return CompiledEvents.compile(is.getOutputIterator(), cutoff, spillFile);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Failed to spill the events into " + spillDirectory, e);
+		}
+	}
+	
+	private static void close(CompiledEvents events) {
+		try {
+			events.close();
+		}
+		catch (IOException e) {
+			System.err.println(e);
+		}
+	}
+	
+	private static void printModelSize(String title, MaxentModel model) {
+		Weights weights = model.getParameters();
+		long numWeights;
+		long bytes;
+		if (weights instanceof SparseWeights) {
+			numWeights = ((SparseWeights) weights).size();
+			bytes = numWeights * (8 + 4) + (weights.numFeatures() + 1) * 4L;
+		}
+		else {
+			numWeights = (long) weights.numLabels() * weights.numFeatures();
+			bytes = numWeights * 8;
+		}
+		
+		System.err.println(title + " model: labels = " + weights.numLabels() + ", features = " + weights.numFeatures() + 
+				", weights = " + numWeights + " (" + (bytes / 1024) + " KB)");
+	}
 
 	/**
 	 * Decodes the best tag sequences.
@@ -35,7 +124,55 @@ public class MEMM {
 	 */
 	public static final List<Datum> decode(AbstractModel model, List<List<Datum>> candidates) {
 		Viterbi viterbi = new Viterbi(model.getLabelIndex(), model.getFeatureIndex());
-		return viterbi.decode(candidates, model.getWeights());
+		return viterbi.decode(candidates, model.getParameters());
+	}
+	
+	/**
+	 * Decodes the K best tag sequences.
+	 * 
+	 * @param model
+	 * @param candidates
+	 * @param K
+	 * @return
+	 */
+	public static final List<List<Datum>> decode(AbstractModel model, List<List<Datum>> candidates, int K) {
+		Viterbi viterbi = new Viterbi(model.getLabelIndex(), model.getFeatureIndex());
+		return viterbi.decode(candidates, model.getParameters(), K);
+	}
+	
+	/**
+	 * Decodes the best tag sequences over the lattice of (position, previous label) states.
+	 * 
+	 * @param model
+	 * @param featureGenerator	The context feature generator
+	 * @param tokens
+	 * @param context	The context which was built by the feature generator for the tokens
+	 * @param labelCandidates	The possible labels of each position, or null if every label is possible
+	 * @param beamSize	The maximum number of states kept at each position, no pruning if it is not positive
+	 * @return
+	 */
+	public static final List<Datum> decode(AbstractModel model, FeatureGenerator<String> featureGenerator, 
+			String[] tokens, FeatureContext context, List<List<String>> labelCandidates, int beamSize) {
+		LatticeViterbi viterbi = new LatticeViterbi(model, beamSize);
+		return viterbi.decode(featureGenerator, tokens, context, labelCandidates);
+	}
+	
+	/**
+	 * Decodes the K best tag sequences over the lattice of (position, previous label) states.
+	 * 
+	 * @param model
+	 * @param featureGenerator	The context feature generator
+	 * @param tokens
+	 * @param context	The context which was built by the feature generator for the tokens
+	 * @param labelCandidates	The possible labels of each position, or null if every label is possible
+	 * @param beamSize	The maximum number of states kept at each position, no pruning if it is not positive
+	 * @param K	The maximum number of sequences
+	 * @return the sequences with the log probability sorted by the score in descending order
+	 */
+	public static final List<Sequence> decode(AbstractModel model, FeatureGenerator<String> featureGenerator, 
+			String[] tokens, FeatureContext context, List<List<String>> labelCandidates, int beamSize, int K) {
+		LatticeViterbi viterbi = new LatticeViterbi(model, beamSize);
+		return viterbi.decode(featureGenerator, tokens, context, labelCandidates, K);
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package com.yglab.nlp.maxent;
+
+import com.yglab.nlp.io.AbstractBinaryModelReader;
+import com.yglab.nlp.model.AbstractModel;
+import com.yglab.nlp.model.Index;
+import com.yglab.nlp.model.Weights;
+
+/**
+ * Reads the maxent model in the binary model format, or the serialized maxent model.
+ * 
+ * @author Younggue Bae
+ */
+public class MaxentBinaryModelReader extends AbstractBinaryModelReader<AbstractModel> {
+
+	@Override
+	protected AbstractModel newModel(Index labelIndex, Index featureIndex, Weights weights, boolean labeled) {
+		return new MaxentModel(labelIndex, featureIndex, weights);
+	}
+
+}
@@ -0,0 +1,13 @@
+package com.yglab.nlp.maxent;
+
+import com.yglab.nlp.io.AbstractBinaryModelWriter;
+import com.yglab.nlp.model.AbstractModel;
+
+/**
+ * Writes the maxent model in the binary model format.
+ * 
+ * @author Younggue Bae
+ */
+public class MaxentBinaryModelWriter extends AbstractBinaryModelWriter<AbstractModel> {
+
+}
@@ -1,8 +1,15 @@
 package com.yglab.nlp.maxent;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Arrays;
+
 import com.yglab.nlp.model.AbstractModel;
+import com.yglab.nlp.model.FeatureMajorWeights;
 import com.yglab.nlp.model.Index;
 import com.yglab.nlp.model.Options;
+import com.yglab.nlp.model.SparseWeights;
+import com.yglab.nlp.model.Weights;
 
 /**
  * Maxent model for storing the training result.
@@ -15,12 +22,18 @@ public class MaxentModel extends AbstractModel {
 
 	protected Index labelIndex;
 	protected Index featureIndex;
-	protected double[][] weights;
+	protected Weights parameters;
+	/** the label major view of the parameters, created only when requested */
+	private transient double[][] weights;
 
 	public MaxentModel(Index labelIndex, Index featureIndex, double[][] weights) {
+		this(labelIndex, featureIndex, weights != null ? FeatureMajorWeights.valueOf(weights) : null);
+	}
+	
+	public MaxentModel(Index labelIndex, Index featureIndex, Weights parameters) {
 		this.labelIndex = labelIndex;
 		this.featureIndex = featureIndex;
-		this.weights = weights;
+		this.parameters = parameters;
 	}
 	
 	@Override
@@ -46,13 +59,31 @@ public class MaxentModel extends AbstractModel {
 		this.featureIndex = featureIndex;
 	}
 
+	/**
+	 * Gets the weights as the label major 2 dimensional array which is weights[label][feature].
+	 * This is an adapter on the feature major parameters, so use {@link #getParameters()} for scoring.
+	 */
 	@Override
 	public double[][] getWeights() {
+		if (weights == null && parameters != null) {
+			weights = parameters.to2D();
+		}
 		return weights;
 	}
 
 	public void setWeights(double[][] weights) {
-		this.weights = weights;
+		this.parameters = weights != null ? FeatureMajorWeights.valueOf(weights) : null;
+		this.weights = null;
+	}
+	
+	@Override
+	public Weights getParameters() {
+		return parameters;
+	}
+	
+	public void setParameters(Weights parameters) {
+		this.parameters = parameters;
+		this.weights = null;
 	}
 	
 	@Override
@@ -64,4 +95,52 @@ public class MaxentModel extends AbstractModel {
 		
 		return labels;
 	}
+	
+	/**
+	 * Prunes the weights whose absolute value is not greater than the threshold.
+	 * The features which have no weights left are removed from the feature index,
+	 * and the remaining weights are stored sparsely.
+	 * 
+	 * @param threshold
+	 * @return the pruned model
+	 */
+	public MaxentModel prune(double threshold) {
+		int[] survivors = new int[featureIndex.size()];
+		int numSurvivors = 0;
+		for (int feature = 0; feature < featureIndex.size(); feature++) {
+			if (SparseWeights.count(parameters, feature, threshold) > 0) {
+				survivors[numSurvivors++] = feature;
+			}
+		}
+		survivors = Arrays.copyOf(survivors, numSurvivors);
+		
+		Index prunedFeatureIndex = new Index();
+		for (int feature : survivors) {
+			prunedFeatureIndex.add(featureIndex.get(feature));
+		}
+		prunedFeatureIndex.freeze();
+		
+		MaxentModel model = new MaxentModel(labelIndex, prunedFeatureIndex, SparseWeights.valueOf(parameters, survivors, threshold));
+		model.options.putAll(options);
+		
+		return model;
+	}
+	
+	/**
+	 * Reads the model, the model serialized by the former version which has 
+	 * the label major weights array is converted into the feature major parameters.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		labelIndex = (Index) fields.get("labelIndex", null);
+		featureIndex = (Index) fields.get("featureIndex", null);
+		parameters = (Weights) fields.get("parameters", null);
+		if (parameters == null) {
+			double[][] legacyWeights = (double[][]) fields.get("weights", null);
+			if (legacyWeights != null) {
+				parameters = FeatureMajorWeights.valueOf(legacyWeights);
+			}
+		}
+	}
+
 }
@@ -0,0 +1,60 @@
+package com.yglab.nlp.maxent;
+
+import java.util.Arrays;
+
+/**
+ * The tag sequence decoded by the Viterbi algorithm with its score.
+ * The score is the log probability of the sequence under the maximum-entropy markov model.
+ *
+ * @author Younggue Bae
+ */
+public class Sequence implements Comparable<Sequence> {
+
+	private final String[] labels;
+	private final double score;
+
+	public Sequence(String[] labels, double score) {
+		this.labels = labels;
+		this.score = score;
+	}
+
+	public String[] getLabels() {
+		return labels;
+	}
+
+	public int size() {
+		return labels.length;
+	}
+
+	/**
+	 * Gets the log probability of the sequence.
+	 *
+	 * @return
+	 */
+	public double getScore() {
+		return score;
+	}
+
+	/**
+	 * Gets the probability of the sequence.
+	 *
+	 * @return
+	 */
+	public double getProbability() {
+		return Math.exp(score);
+	}
+
+	/**
+	 * The sequence with the higher score comes first.
+	 */
+	@Override
+	public int compareTo(Sequence other) {
+		return Double.compare(other.score, this.score);
+	}
+
+	@Override
+	public String toString() {
+		return score + " " + Arrays.toString(labels);
+	}
+
+}
@@ -17,7 +17,17 @@ public interface TagSequenceGenerator {
 	 * Gets all the possible previous label sequence candidates of each token.
 	 * 
 	 * @param tokens	the token of sentence for test
+	 * @param context	the context which was built by the feature generator for the tokens
 	 * @return
 	 */
-	public List<List<Datum>> getCandidates(String[] tokens);
+	public List<List<Datum>> getCandidates(String[] tokens, FeatureContext context);
+	
+	/**
+	 * Gets the possible labels of each token.
+	 * 
+	 * @param tokens	the token of sentence for test
+	 * @param context	the context which was built by the feature generator for the tokens
+	 * @return the list of possible labels for each position, or null if every label is possible
+	 */
+	public List<List<String>> getLabelCandidates(String[] tokens, FeatureContext context);
 }
@@ -4,7 +4,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.yglab.nlp.model.Datum;
+import com.yglab.nlp.model.FeatureMajorWeights;
 import com.yglab.nlp.model.Index;
+import com.yglab.nlp.model.Weights;
 
 
 
@@ -36,16 +38,89 @@ public class Viterbi {
 		}
 	}
 	
-	// TODO
 	public List<List<Datum>> decode(List<List<Datum>> candidates, double[][] weights, int K) {
+		return this.decode(candidates, FeatureMajorWeights.valueOf(weights), K);
+	}
+	
+	/**
+	 * Decodes the K best tag sequences.
+	 * A candidate is extended only from the paths which agree with its previous label sequence if it has one.
+	 * 
+	 * @param candidates
+	 * @param weights
+	 * @param K	The maximum number of sequences
+	 * @return the sequences sorted by the score in descending order
+	 */
+	public List<List<Datum>> decode(List<List<Datum>> candidates, Weights weights, int K) {
+		if (K < 1) {
+			throw new IllegalArgumentException("K must be positive: " + K);
+		}
+		
+		KBestChart chart = new KBestChart(candidates.size(), K);
+		
+		for (int position = 0; position < candidates.size(); position++) {
+			List<Datum> possibleSequence = candidates.get(position);
+			chart.open(position, numLabels());
+			
+			if (position == 0) {
+				double[] localScores = computeScores(possibleSequence.get(0), weights);
+				for (int currLabel = 0; currLabel < localScores.length; currLabel++) {
+					chart.add(position, currLabel, localScores[currLabel], -1, -1);
+				}
+			}
+			else {
+				for (Datum datum : possibleSequence) {
+					int prevLabel = labelIndex.indexOf(datum.getPreviousLabel());
+					KBestChart.Path[] prevPaths = prevLabel >= 0 ? chart.get(position - 1, prevLabel) : null;
+					if (prevPaths == null) {
+						continue;
+					}
+					
+					double[] localScores = computeScores(datum, weights);
+					for (int rank = 0; rank < prevPaths.length; rank++) {
+						KBestChart.Path prevPath = prevPaths[rank];
+						if (!agrees(datum, prevPath)) {
+							continue;
+						}
+						for (int currLabel = 0; currLabel < localScores.length; currLabel++) {
+							chart.add(position, currLabel, prevPath.score + localScores[currLabel], prevLabel, rank);
+						}
+					}
+				}
+			}
+			chart.close(position);
+		}
+
 		List<List<Datum>> kBestSequences = new ArrayList<List<Datum>>();
-		List<Datum> bestSequence = this.decode(candidates, weights);
-		kBestSequences.add(bestSequence);
+		for (Sequence sequence : chart.backtrack(labels)) {
+			List<Datum> bestSequence = new ArrayList<Datum>();
+			for (int position = 0; position < candidates.size(); position++) {
+				Datum datum = new Datum(candidates.get(position).get(0).getWord(), "");
+				datum.setGuessLabel(sequence.getLabels()[position]);
+				bestSequence.add(datum);
+			}
+			kBestSequences.add(bestSequence);
+		}
 		
 		return kBestSequences;
 	}
+	
+	/**
+	 * Checks if the previous previous label of the candidate agrees with the previous label of the path.
+	 */
+	private boolean agrees(Datum datum, KBestChart.Path prevPath) {
+		String[] previousLabelSequence = datum.getPreviousLabelSequence();
+		if (previousLabelSequence == null || previousLabelSequence.length < 2 || prevPath.prevState < 0) {
+			return true;
+		}
+		return labels[prevPath.prevState].equals(previousLabelSequence[previousLabelSequence.length - 2]);
+	}
 
 	public List<Datum> decode(List<List<Datum>> candidates, double[][] weights) {
+		return this.decode(candidates, FeatureMajorWeights.valueOf(weights));
+	}
+
+	public List<Datum> decode(List<List<Datum>> candidates, Weights weights) {
 		// initializes the best sequence from the source
 		List<Datum> bestSequence = new ArrayList<Datum>();
 		for (int i = 0; i < candidates.size(); i++) {
@@ -58,7 +133,7 @@ public class Viterbi {
 		double[][] scores = new double[candidates.size()][numLabels()];
 
 		int prevLabel = labelIndex.indexOf(candidates.get(0).get(0).getPreviousLabel());
-		double[] localScores = computeScores(candidates.get(0).get(0).getFeatures(), weights);
+		double[] localScores = computeScores(candidates.get(0).get(0), weights);
 		
 		int position = 0;
 		for (int currLabel = 0; currLabel < localScores.length; currLabel++) {
@@ -76,7 +151,7 @@ public class Viterbi {
 				String previousLabel = datum.getPreviousLabel();
 				prevLabel = labelIndex.indexOf(previousLabel);
 
-				localScores = computeScores(datum.getFeatures(), weights);
+				localScores = computeScores(datum, weights);
 				for (int currLabel = 0; currLabel < localScores.length; currLabel++) {
 					double score = localScores[currLabel] + scores[position - 1][prevLabel];
 					
@@ -116,23 +191,29 @@ public class Viterbi {
 		return bestSequence;
 	}
 
-	private double[] computeScores(List<String> features, double[][] weights) {
-
+	private double[] computeScores(Datum datum, Weights weights) {
 		double[] scores = new double[numLabels()];
-
-		for (Object feature : features) {
-			int f = featureIndex.indexOf(feature);
-			if (f < 0) {
-				continue;
-			}
-			for (int i = 0; i < scores.length; i++) {
-				scores[i] += weights[i][f];
-			}
-		}
+		weights.addScores(compile(datum), scores);
 
 		return scores;
 	}
 	
+	/**
+	 * Gets the feature ids of the datum, the features are compiled against the feature index
+	 * only if the generator didn't emit the ids.
+	 * 
+	 * @param datum
+	 * @return
+	 */
+	private int[] compile(Datum datum) {
+		int[] featureIds = datum.getFeatureIds();
+		if (featureIds == null) {
+			featureIds = featureIndex.indexesOf(datum.getFeatures());
+			datum.setFeatureIds(featureIds);
+		}
+		return featureIds;
+	}
+	
 	private int numLabels() {
 		if (labels != null) {
 			return labels.length;
@@ -1,37 +1,90 @@
 package com.yglab.nlp.maxent.quasinewton;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
+import com.yglab.nlp.model.CompiledEvents;
 import com.yglab.nlp.model.Datum;
+import com.yglab.nlp.model.FeatureMajorWeights;
 import com.yglab.nlp.model.Index;
 
 
 
 /**
  * Log conditional objective function which is differentiable.
+ * <p>
+ * With more than one thread, the data are split into the fixed shards of one per thread,
+ * each shard accumulates the value and the derivative into its own buffer on a fork-join pool,
+ * and the buffers are summed up in the shard order.
+ * Since neither the shards nor the order of the summation depend on the scheduling of the threads,
+ * the results are reproducible bit for bit with the same number of threads.
+ * <p>
+ * The train data are read from the compiled events, which may be spilled on disk,
+ * and the features which occur fewer times than the cutoff in the train data are not indexed, so they have no weights.
  * 
  * @author Younggue Bae
  */
 public class LogConditionalObjectiveFunction implements DifferentiableFunction {
 
 	private LogPrior prior = new LogPrior(10.0);
-	private List<? extends Datum> data;
-	public final Index featureIndex = new Index();
-	public final Index labelIndex = new Index();
+	private CompiledEvents events;
+	public final Index featureIndex;
+	public final Index labelIndex;
 
 	private double value;
 	private double[] prevX = null;
 	private double[] derivative;
+	
+	/** the minimum number of derivative elements summed up by a reduce task */
+	private static final int REDUCE_THRESHOLD = 1 << 16;
+	
+	private final int threads;
+	private ForkJoinPool pool;
+	private int[] shardStarts;
+	private double[] shardValues;
+	private double[][] shardDerivatives;
 
 	public LogConditionalObjectiveFunction(List<? extends Datum> data) {
-		this.data = data;
+		this(data, 1);
+	}
 
-		for (Datum datum : data) {
-			labelIndex.add(datum.getLabel());
-			for (Object f : datum.getFeatures()) {
-				featureIndex.add((String) f);
-			}
+	/**
+	 * Constructor.
+	 * 
+	 * @param data	The train data
+	 * @param threads	The number of threads to compute the value and the derivative
+	 */
+	public LogConditionalObjectiveFunction(List<? extends Datum> data, int threads) {
+		this(data, threads, 1);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param data	The train data
+	 * @param threads	The number of threads to compute the value and the derivative
+	 * @param cutoff	The minimum number of occurrences of a feature to be indexed
+	 */
+	public LogConditionalObjectiveFunction(List<? extends Datum> data, int threads, int cutoff) {
+		this(CompiledEvents.compile(data.iterator(), cutoff), threads);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param events	The compiled train events
+	 * @param threads	The number of threads to compute the value and the derivative
+	 */
+	public LogConditionalObjectiveFunction(CompiledEvents events, int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("The number of threads must be positive: " + threads);
 		}
+		this.events = events;
+		this.threads = Math.min(threads, Math.max(1, events.size()));
+		this.labelIndex = events.getLabelIndex();
+		this.featureIndex = events.getFeatureIndex();
 	}
 
 	@Override
@@ -79,69 +132,201 @@ public class LogConditionalObjectiveFunction implements DifferentiableFunction {
 		return derivative;
 	}
 
+	/**
+	 * Calculates the value and the derivative at x.
+	 * x is in feature major order, that is the weight of (label, feature) is x[feature * numLabels + label].
+	 * 
+	 * @param x
+	 */
 	private void calculate(double[] x) {
+		double[] derivative = new double[x.length];
+		
+		if (threads == 1) {
+			value = accumulate(x, 0, events.size(), derivative);
+		}
+		else {
+			value = calculateParallel(x, derivative);
+		}
+		this.derivative = derivative;
 
-		value = 0.0;
-		double[][] derivative = new double[labelIndex.size()][x.length / labelIndex.size()];
-		double[][] weights = to2D(x);
-
-		for (Datum datum : data) {
-			double[] scores = new double[labelIndex.size()];
-			for (Object feature : datum.getFeatures()) {
-				int f = featureIndex.indexOf(feature);
-				if (f < 0) {
-					continue;
-				}
-				for (int i = 0; i < labelIndex.size(); i++) {
-					scores[i] += weights[i][f];
+		value += prior.compute(x, this.derivative);
+	}
+	
+	/**
+	 * Accumulates the negative log likelihood and its derivative of the data in the range.
+	 * 
+	 * @param x	The weights in feature major order
+	 * @param from	The first index of the data, inclusive
+	 * @param to	The last index of the data, exclusive
+	 * @param derivative	The derivative to add to
+	 * @return the negative log likelihood of the data in the range
+	 */
+	private double accumulate(double[] x, int from, int to, double[] derivative) {
+		double value = 0.0;
+		int numLabels = labelIndex.size();
+		double[] scores = new double[numLabels];
+
+		CompiledEvents.Cursor cursor = events.open(from);
+		try {
+			for (int n = from; n < to && cursor.next(); n++) {
+				int[] featureIds = cursor.getFeatures();
+				int numFeatures = cursor.getNumFeatures();
+				int label = cursor.getLabel();
+				
+				for (int i = 0; i < numLabels; i++) {
+					scores[i] = 0.0;
 				}
-			}
-
-			double Z = logSum(scores);
-
-			for (int i = 0; i < labelIndex.size(); i++) {
-				double prob = Math.exp(scores[i] - Z);
-				for (Object feature : datum.getFeatures()) {
-					int f = featureIndex.indexOf(feature);
-					derivative[i][f] += prob;
-					if (i == labelIndex.indexOf(datum.getLabel())) {
-						derivative[i][f]--;
+				for (int k = 0; k < numFeatures; k++) {
+					int offset = featureIds[k] * numLabels;
+					for (int i = 0; i < numLabels; i++) {
+						scores[i] += x[offset + i];
 					}
 				}
-				if (i == labelIndex.indexOf(datum.getLabel())) {
-					value -= Math.log(prob);
+	
+				double Z = logSum(scores);
+				value -= scores[label] - Z;
+	
+				// the expected counts minus the empirical counts
+				for (int i = 0; i < numLabels; i++) {
+					scores[i] = Math.exp(scores[i] - Z);
+				}
+				scores[label] -= 1.0;
+				
+				for (int k = 0; k < numFeatures; k++) {
+					int offset = featureIds[k] * numLabels;
+					for (int i = 0; i < numLabels; i++) {
+						derivative[offset + i] += scores[i];
+					}
 				}
 			}
 		}
-		this.derivative = to1D(derivative);
-
-		value += prior.compute(x, this.derivative);
+		finally {
+			cursor.close();
+		}
+		
+		return value;
 	}
-
-	public double[][] to2D(double[] x) {
-		double[][] x2D = new double[labelIndex.size()][x.length / labelIndex.size()];
-
-		int i = 0;
-		for (int j = 0; j < x2D.length; j++) {
-			for (int k = 0; k < x2D[j].length; k++) {
-				x2D[j][k] = x[i++];
+	
+	/**
+	 * Calculates the value and the derivative over the shards on the fork-join pool.
+	 * 
+	 * @param x
+	 * @param derivative	The derivative to store the sum of the shards
+	 * @return the negative log likelihood of all data
+	 */
+	private double calculateParallel(double[] x, double[] derivative) {
+		if (pool == null) {
+			pool = new ForkJoinPool(threads);
+			shardStarts = new int[threads + 1];
+			for (int shard = 0; shard <= threads; shard++) {
+				shardStarts[shard] = (int) ((long) events.size() * shard / threads);
 			}
+			shardValues = new double[threads];
+			shardDerivatives = new double[threads][x.length];
 		}
-
-		return x2D;
+		
+		pool.invoke(new ShardTask(x, 0, threads));
+		pool.invoke(new ReduceTask(derivative, 0, derivative.length));
+		
+		double value = 0.0;
+		for (int shard = 0; shard < threads; shard++) {
+			value += shardValues[shard];
+		}
+		return value;
 	}
-
-	public double[] to1D(double[][] x) {
-		double[] x1D = new double[labelIndex.size() * featureIndex.size()];
-
-		int i = 0;
-		for (int j = 0; j < x.length; j++) {
-			for (int k = 0; k < x[j].length; k++) {
-				x1D[i++] = x[j][k];
+	
+	/**
+	 * Shuts down the threads of the parallel mode, the function can't be evaluated in parallel afterwards.
+	 */
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * The task which accumulates the shards in the range into their own buffers.
+	 */
+	private class ShardTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		
+		private final double[] x;
+		private final int from;
+		private final int to;
+		
+		ShardTask(double[] x, int from, int to) {
+			this.x = x;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				double[] shardDerivative = shardDerivatives[from];
+				Arrays.fill(shardDerivative, 0.0);
+				shardValues[from] = accumulate(x, shardStarts[from], shardStarts[from + 1], shardDerivative);
+			}
+			else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new ShardTask(x, from, mid), new ShardTask(x, mid, to));
 			}
 		}
+	}
+	
+	/**
+	 * The task which sums up the buffers of the shards in the shard order for the range of the derivative.
+	 */
+	private class ReduceTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		
+		private final double[] derivative;
+		private final int from;
+		private final int to;
+		
+		ReduceTask(double[] derivative, int from, int to) {
+			this.derivative = derivative;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from <= REDUCE_THRESHOLD) {
+				for (int shard = 0; shard < threads; shard++) {
+					double[] shardDerivative = shardDerivatives[shard];
+					for (int i = from; i < to; i++) {
+						derivative[i] += shardDerivative[i];
+					}
+				}
+			}
+			else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new ReduceTask(derivative, from, mid), new ReduceTask(derivative, mid, to));
+			}
+		}
+	}
 
-		return x1D;
+	/**
+	 * Converts the feature major x into the label major 2 dimensional array which is weights[label][feature].
+	 * 
+	 * @param x
+	 * @return
+	 */
+	public double[][] to2D(double[] x) {
+		return toWeights(x).to2D();
+	}
+	
+	/**
+	 * Wraps the feature major x into the weights.
+	 * 
+	 * @param x
+	 * @return
+	 */
+	public FeatureMajorWeights toWeights(double[] x) {
+		return new FeatureMajorWeights(labelIndex.size(), featureIndex.size(), x);
 	}
 
 	private static double logSum(double[] logInputs) {
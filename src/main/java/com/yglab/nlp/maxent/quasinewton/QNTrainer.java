@@ -3,7 +3,9 @@ package com.yglab.nlp.maxent.quasinewton;
 import java.util.List;
 
 import com.yglab.nlp.maxent.MaxentModel;
+import com.yglab.nlp.model.CompiledEvents;
 import com.yglab.nlp.model.Datum;
+import com.yglab.nlp.model.FeatureMajorWeights;
 
 
 
@@ -14,6 +16,33 @@ import com.yglab.nlp.model.Datum;
  */
 public class QNTrainer {
 
+	private final int threads;
+	private final int cutoff;
+	
+	public QNTrainer() {
+		this(1);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param threads	The number of threads to compute the gradient
+	 */
+	public QNTrainer(int threads) {
+		this(threads, 1);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param threads	The number of threads to compute the gradient
+	 * @param cutoff	The minimum number of occurrences of a feature to be trained
+	 */
+	public QNTrainer(int threads, int cutoff) {
+		this.threads = threads;
+		this.cutoff = cutoff;
+	}
+	
 	/**
 	 * Trains the train data and returns the trained model.
 	 * 
@@ -21,11 +50,28 @@ public class QNTrainer {
 	 * @return the trained model
 	 */
 	public MaxentModel trainModel(List<? extends Datum> trainData) {
-		LogConditionalObjectiveFunction obj = new LogConditionalObjectiveFunction(trainData);
+		return trainModel(CompiledEvents.compile(trainData.iterator(), cutoff));
+	}
+	
+	/**
+	 * Trains the compiled train events and returns the trained model.
+	 * The events are compiled with their own cutoff, so the cutoff of this trainer is not applied.
+	 * 
+	 * @param events
+	 * @return the trained model
+	 */
+	public MaxentModel trainModel(CompiledEvents events) {
+		LogConditionalObjectiveFunction obj = new LogConditionalObjectiveFunction(events, threads);
 		double[] initial = new double[obj.domainDimension()];
 
 		QNMinimizer minimizer = new QNMinimizer(15);
-		double[][] weights = obj.to2D(minimizer.minimize(obj, 1e-4, initial, -1, null));
+		FeatureMajorWeights weights;
+		try {
+			weights = obj.toWeights(minimizer.minimize(obj, 1e-4, initial, -1, null));
+		}
+		finally {
+			obj.shutdown();
+		}
 
 		return new MaxentModel(obj.labelIndex, obj.featureIndex, weights);
 	}
@@ -0,0 +1,82 @@
+package com.yglab.nlp.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This abstract class generates the output events of each input instance on demand.
+ * 
+ * @author Younggue Bae
+ */
+public abstract class AbstractEventStream<I, O> implements EventStream<I, O> {
+
+	protected List<I> samples;
+	
+	public AbstractEventStream(List<I> samples) {
+		this.samples = samples;
+	}
+	
+	@Override
+	public List<I> getInputStream() {
+		return this.samples;
+	}
+	
+	@Override
+	public List<O> getOutputStream() {
+		List<O> trainData = new ArrayList<O>();
+		
+		Iterator<O> it = getOutputIterator();
+		while (it.hasNext()) {
+			trainData.add(it.next());
+		}
+		
+		return trainData;
+	}
+	
+	@Override
+	public Iterator<O> getOutputIterator() {
+		return new EventIterator();
+	}
+	
+	/**
+	 * Creates the output events of the input instance.
+	 * 
+	 * @param sample
+	 * @return
+	 */
+	protected abstract List<O> createEvents(I sample);
+	
+	/**
+	 * The iterator which creates the events of the next input instance when the events of the current one run out.
+	 */
+	private class EventIterator implements Iterator<O> {
+		
+		private final Iterator<I> sampleIterator = samples.iterator();
+		private Iterator<O> eventIterator = Collections.<O>emptyList().iterator();
+		
+		@Override
+		public boolean hasNext() {
+			while (!eventIterator.hasNext() && sampleIterator.hasNext()) {
+				eventIterator = createEvents(sampleIterator.next()).iterator();
+			}
+			return eventIterator.hasNext();
+		}
+
+		@Override
+		public O next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return eventIterator.next();
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+}
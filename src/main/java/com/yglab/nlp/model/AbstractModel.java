@@ -1,5 +1,6 @@
 package com.yglab.nlp.model;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -14,6 +15,8 @@ public abstract class AbstractModel implements Model {
 	
 	protected String algorithm;
 	public Map<String, String> options = new HashMap<String, String>();
+	/** the models which are trained together with this model, e.g. the arc pruner of the parser, null if none */
+	private Map<String, AbstractModel> subModels;
 	
 	public abstract String algorithm();
 	
@@ -23,6 +26,8 @@ public abstract class AbstractModel implements Model {
 	
 	public abstract double[][] getWeights();
 	
+	public abstract Weights getParameters();
+	
 	public abstract String[] getLabels();
 	
 	public void setOption(String key, String value) {
@@ -36,5 +41,41 @@ public abstract class AbstractModel implements Model {
 	public Map<String, String> getOptions() {
 		return this.options;
 	}
+	
+	/**
+	 * Sets the model which is trained together with this model, e.g. the arc pruner of the parser.
+	 * The sub models are not written into the model file of this model, but saved by the owner of the models.
+	 * 
+	 * @param name	The name of the sub model
+	 * @param model
+	 */
+	public void setSubModel(String name, AbstractModel model) {
+		if (subModels == null) {
+			subModels = new HashMap<String, AbstractModel>();
+		}
+		subModels.put(name, model);
+	}
+	
+	/**
+	 * Gets the sub model of the name.
+	 * 
+	 * @param name
+	 * @return	the sub model, or null if this model has no such sub model
+	 */
+	public AbstractModel getSubModel(String name) {
+		return subModels != null ? subModels.get(name) : null;
+	}
+	
+	/**
+	 * Gets the sub models by their names.
+	 * 
+	 * @return
+	 */
+	public Map<String, AbstractModel> getSubModels() {
+		if (subModels == null) {
+			return Collections.emptyMap();
+		}
+		return Collections.unmodifiableMap(subModels);
+	}
 
 }
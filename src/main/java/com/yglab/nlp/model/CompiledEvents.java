@@ -0,0 +1,412 @@
+package com.yglab.nlp.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The training events compiled into the label ids and the feature ids.
+ * The events are compiled in a single pass over the event stream, so the feature strings of the events
+ * are not held in memory but only the indexes of the distinct labels and features.
+ * <p>
+ * The compiled events are kept in memory, or spilled into a file to train on the data larger than memory.
+ * The training passes read the events over and over by the cursors, which can start from any event.
+ *
+ * @author Younggue Bae
+ */
+public abstract class CompiledEvents implements Closeable {
+
+	/** the number of events between the offsets recorded to seek the spill file */
+	private static final int BLOCK_SIZE = 1024;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	protected final Index labelIndex;
+	protected final Index featureIndex;
+	protected final int size;
+
+	protected CompiledEvents(Index labelIndex, Index featureIndex, int size) {
+		this.labelIndex = labelIndex;
+		this.featureIndex = featureIndex;
+		this.size = size;
+	}
+
+	/**
+	 * Compiles the events in memory.
+	 *
+	 * @param events
+	 * @param cutoff	The minimum number of occurrences of a feature to be indexed
+	 * @return
+	 */
+	public static CompiledEvents compile(Iterator<? extends Datum> events, int cutoff) {
+		IndexBuilder builder = new IndexBuilder();
+		int[] labels = new int[BLOCK_SIZE];
+		int[][] featureIds = new int[BLOCK_SIZE][];
+		int size = 0;
+
+		while (events.hasNext()) {
+			Datum datum = events.next();
+			if (size == labels.length) {
+				labels = Arrays.copyOf(labels, size * 2);
+				featureIds = Arrays.copyOf(featureIds, size * 2);
+			}
+			labels[size] = builder.addLabel(datum.getLabel());
+			featureIds[size] = builder.addFeatures(datum.getFeatures());
+			size++;
+		}
+
+		int[] remap = builder.remap(cutoff);
+		if (remap != null) {
+			for (int i = 0; i < size; i++) {
+				int length = removeCutoff(featureIds[i], featureIds[i].length, remap);
+				if (length < featureIds[i].length) {
+					featureIds[i] = Arrays.copyOf(featureIds[i], length);
+				}
+			}
+		}
+
+		return new MemoryEvents(builder.labelIndex, builder.featureIndex, size,
+				Arrays.copyOf(labels, size), Arrays.copyOf(featureIds, size));
+	}
+
+	/**
+	 * Compiles the events into the spill file, the file is deleted when the compiled events are closed.
+	 *
+	 * @param events
+	 * @param cutoff	The minimum number of occurrences of a feature to be indexed
+	 * @param spillFile
+	 * @return
+	 * @throws IOException
+	 */
+	public static CompiledEvents compile(Iterator<? extends Datum> events, int cutoff, File spillFile) throws IOException {
+		IndexBuilder builder = new IndexBuilder();
+		long[] blockOffsets = new long[16];
+		long offset = 0;
+		int size = 0;
+
+		DataOutputStream os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile), BUFFER_SIZE));
+		try {
+			while (events.hasNext()) {
+				Datum datum = events.next();
+				if (size % BLOCK_SIZE == 0) {
+					int block = size / BLOCK_SIZE;
+					if (block == blockOffsets.length) {
+						blockOffsets = Arrays.copyOf(blockOffsets, block * 2);
+					}
+					blockOffsets[block] = offset;
+				}
+
+				int label = builder.addLabel(datum.getLabel());
+				int[] featureIds = builder.addFeatures(datum.getFeatures());
+				os.writeInt(label);
+				os.writeInt(featureIds.length);
+				for (int f : featureIds) {
+					os.writeInt(f);
+				}
+				offset += 4 * (2 + featureIds.length);
+				size++;
+			}
+		}
+		finally {
+			os.close();
+		}
+
+		System.err.println("Spilled " + size + " events (" + (offset / 1024) + " KB) into " + spillFile.getPath());
+
+		int[] remap = builder.remap(cutoff);
+		return new SpilledEvents(builder.labelIndex, builder.featureIndex, size, spillFile, blockOffsets, remap);
+	}
+
+	public Index getLabelIndex() {
+		return labelIndex;
+	}
+
+	public Index getFeatureIndex() {
+		return featureIndex;
+	}
+
+	/**
+	 * Gets the number of events.
+	 *
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Opens the cursor which reads the events from the given event.
+	 *
+	 * @param from	The index of the first event to read
+	 * @return
+	 */
+	public abstract Cursor open(int from);
+
+	@Override
+	public void close() throws IOException {
+	}
+
+	/**
+	 * The cursor which reads the compiled events one by one.
+	 */
+	public static abstract class Cursor implements Closeable {
+
+		protected int label;
+		protected int[] features;
+		protected int numFeatures;
+
+		/**
+		 * Moves to the next event.
+		 *
+		 * @return false if there are no more events
+		 */
+		public abstract boolean next();
+
+		/**
+		 * Gets the label id of the current event.
+		 *
+		 * @return
+		 */
+		public int getLabel() {
+			return label;
+		}
+
+		/**
+		 * Gets the feature ids of the current event, only the first {@link #getNumFeatures()} ids are valid.
+		 * The array may be reused for the next event.
+		 *
+		 * @return
+		 */
+		public int[] getFeatures() {
+			return features;
+		}
+
+		public int getNumFeatures() {
+			return numFeatures;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	/**
+	 * Renumbers the feature ids in place and removes the features which are cut off.
+	 *
+	 * @param featureIds
+	 * @param length	The number of the valid feature ids
+	 * @param remap	The new feature id of each old feature id
+	 * @return the number of the remaining feature ids
+	 */
+	private static int removeCutoff(int[] featureIds, int length, int[] remap) {
+		int size = 0;
+		for (int i = 0; i < length; i++) {
+			int f = remap[featureIds[i]];
+			if (f != Index.UNKNOWN) {
+				featureIds[size++] = f;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Builds the indexes of the labels and the features, and counts the occurrences of each feature.
+	 */
+	private static class IndexBuilder {
+
+		private Index labelIndex = new Index();
+		private Index featureIndex = new Index();
+		private int[] counts = new int[BLOCK_SIZE];
+
+		int addLabel(String label) {
+			labelIndex.add(label);
+			return labelIndex.indexOf(label);
+		}
+
+		int[] addFeatures(List<String> features) {
+			int[] featureIds = new int[features.size()];
+			int i = 0;
+			for (String feature : features) {
+				featureIndex.add(feature);
+				int f = featureIndex.indexOf(feature);
+				if (f == counts.length) {
+					counts = Arrays.copyOf(counts, f * 2);
+				}
+				counts[f]++;
+				featureIds[i++] = f;
+			}
+			return featureIds;
+		}
+
+		/**
+		 * Freezes the indexes, and removes the features which occur fewer times than the cutoff from the feature index.
+		 *
+		 * @param cutoff
+		 * @return the new feature id of each old feature id or {@link Index#UNKNOWN} if it is cut off,
+		 * 	or null if no feature is cut off
+		 */
+		int[] remap(int cutoff) {
+			labelIndex.freeze();
+			if (cutoff <= 1) {
+				featureIndex.freeze();
+				return null;
+			}
+
+			int[] remap = new int[featureIndex.size()];
+			Index survivors = new Index();
+			for (int f = 0; f < remap.length; f++) {
+				if (counts[f] >= cutoff) {
+					remap[f] = survivors.size();
+					survivors.add(featureIndex.get(f));
+				}
+				else {
+					remap[f] = Index.UNKNOWN;
+				}
+			}
+			survivors.freeze();
+
+			System.err.println("Cut off " + (remap.length - survivors.size()) + " of " + remap.length +
+					" features which occur fewer than " + cutoff + " times.");
+
+			featureIndex = survivors;
+			return remap;
+		}
+	}
+
+	/**
+	 * The compiled events in memory.
+	 */
+	private static class MemoryEvents extends CompiledEvents {
+
+		private final int[] labels;
+		private final int[][] featureIds;
+
+		MemoryEvents(Index labelIndex, Index featureIndex, int size, int[] labels, int[][] featureIds) {
+			super(labelIndex, featureIndex, size);
+			this.labels = labels;
+			this.featureIds = featureIds;
+		}
+
+		@Override
+		public Cursor open(final int from) {
+			return new Cursor() {
+				private int next = from;
+
+				@Override
+				public boolean next() {
+					if (next >= size) {
+						return false;
+					}
+					label = labels[next];
+					features = featureIds[next];
+					numFeatures = features.length;
+					next++;
+					return true;
+				}
+			};
+		}
+	}
+
+	/**
+	 * The compiled events in the spill file, the cut off features are removed while reading.
+	 */
+	private static class SpilledEvents extends CompiledEvents {
+
+		private final File file;
+		private final long[] blockOffsets;
+		private final int[] remap;
+
+		SpilledEvents(Index labelIndex, Index featureIndex, int size, File file, long[] blockOffsets, int[] remap) {
+			super(labelIndex, featureIndex, size);
+			this.file = file;
+			this.blockOffsets = blockOffsets;
+			this.remap = remap;
+		}
+
+		@Override
+		public Cursor open(int from) {
+			try {
+				return new FileCursor(from);
+			}
+			catch (IOException e) {
+				throw new IllegalStateException("Failed to read the spill file: " + file.getPath(), e);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (file.exists() && !file.delete()) {
+				throw new IOException("Failed to delete the spill file: " + file.getPath());
+			}
+		}
+
+		private class FileCursor extends Cursor {
+
+			private final DataInputStream is;
+			private int next;
+
+			FileCursor(int from) throws IOException {
+				int block = from / BLOCK_SIZE;
+				FileInputStream fis = new FileInputStream(file);
+				if (from < size) {
+					fis.getChannel().position(blockOffsets[block]);
+				}
+				this.is = new DataInputStream(new BufferedInputStream(fis, BUFFER_SIZE));
+				this.features = new int[16];
+				this.next = block * BLOCK_SIZE;
+
+				while (next < from && next()) {
+					// skips the events before the first event in the block
+				}
+			}
+
+			@Override
+			public boolean next() {
+				if (next >= size) {
+					return false;
+				}
+				try {
+					label = is.readInt();
+					numFeatures = is.readInt();
+					if (numFeatures > features.length) {
+						features = new int[Math.max(numFeatures, features.length * 2)];
+					}
+					for (int i = 0; i < numFeatures; i++) {
+						features[i] = is.readInt();
+					}
+				}
+				catch (EOFException e) {
+					throw new IllegalStateException("The spill file is truncated: " + file.getPath(), e);
+				}
+				catch (IOException e) {
+					throw new IllegalStateException("Failed to read the spill file: " + file.getPath(), e);
+				}
+				if (remap != null) {
+					numFeatures = removeCutoff(features, numFeatures, remap);
+				}
+				next++;
+				return true;
+			}
+
+			@Override
+			public void close() {
+				try {
+					is.close();
+				}
+				catch (IOException e) {
+					System.err.println(e);
+				}
+			}
+		}
+	}
+
+}
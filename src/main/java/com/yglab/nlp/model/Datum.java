@@ -13,6 +13,7 @@ public class Datum {
 	protected String word;
 	protected String label;
 	protected List<String> features;
+	protected int[] featureIds;
 	protected String guessLabel;
 	protected String previousLabel;
 	protected String[] previousLabelSequence;
@@ -53,6 +54,21 @@ public class Datum {
 
 	public void setFeatures(List<String> features) {
 		this.features = features;
+		this.featureIds = null;
+	}
+	
+	/**
+	 * Gets the features compiled into the ids of the feature index.
+	 * The feature which doesn't exist in the feature index has {@link Index#UNKNOWN} id.
+	 * 
+	 * @return the feature ids or null if the features are not compiled yet
+	 */
+	public int[] getFeatureIds() {
+		return featureIds;
+	}
+	
+	public void setFeatureIds(int[] featureIds) {
+		this.featureIds = featureIds;
 	}
 
 	public void setGold(boolean gold) {
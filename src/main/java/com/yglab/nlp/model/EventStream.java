@@ -1,5 +1,6 @@
 package com.yglab.nlp.model;
 
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -12,4 +13,12 @@ public interface EventStream<I, O> {
 	public List<I> getInputStream();
 	
 	public List<O> getOutputStream();
+	
+	/**
+	 * Iterates the output events which are generated from each input instance on demand,
+	 * so the events of the whole input are not held in memory at once.
+	 * 
+	 * @return
+	 */
+	public Iterator<O> getOutputIterator();
 }
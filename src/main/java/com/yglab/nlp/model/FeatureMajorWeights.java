@@ -0,0 +1,116 @@
+package com.yglab.nlp.model;
+
+/**
+ * The weight parameters stored in a flat array in feature major order, 
+ * that is the weights of all the labels for a feature are contiguous.
+ * So scoring a feature adds a whole contiguous row of label weights at once.
+ * 
+ * @author Younggue Bae
+ */
+public class FeatureMajorWeights implements Weights {
+
+	private static final long serialVersionUID = -2553097163788125024L;
+	
+	private final int numLabels;
+	private final int numFeatures;
+	private final double[] values;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param numLabels
+	 * @param numFeatures
+	 * @param values	the weights in feature major order, the weight of (label, feature) is values[feature * numLabels + label]
+	 */
+	public FeatureMajorWeights(int numLabels, int numFeatures, double[] values) {
+		if (values.length != numLabels * numFeatures) {
+			throw new IllegalArgumentException("The size of weights(" + values.length + ") is not " + numLabels + " * " + numFeatures + ".");
+		}
+		this.numLabels = numLabels;
+		this.numFeatures = numFeatures;
+		this.values = values;
+	}
+	
+	/**
+	 * Creates the feature major weights from the label major 2 dimensional array which is weights[label][feature].
+	 * 
+	 * @param weights
+	 * @return
+	 */
+	public static FeatureMajorWeights valueOf(double[][] weights) {
+		int numLabels = weights.length;
+		int numFeatures = numLabels > 0 ? weights[0].length : 0;
+		double[] values = new double[numLabels * numFeatures];
+		
+		for (int label = 0; label < numLabels; label++) {
+			for (int feature = 0; feature < numFeatures; feature++) {
+				values[feature * numLabels + label] = weights[label][feature];
+			}
+		}
+		
+		return new FeatureMajorWeights(numLabels, numFeatures, values);
+	}
+
+	@Override
+	public int numLabels() {
+		return numLabels;
+	}
+
+	@Override
+	public int numFeatures() {
+		return numFeatures;
+	}
+	
+	/**
+	 * Gets the flat weights array in feature major order.
+	 * 
+	 * @return
+	 */
+	public double[] values() {
+		return values;
+	}
+
+	@Override
+	public double get(int label, int feature) {
+		return values[feature * numLabels + label];
+	}
+
+	@Override
+	public void addScores(int feature, double[] scores) {
+		final int offset = feature * numLabels;
+		for (int label = 0; label < numLabels; label++) {
+			scores[label] += values[offset + label];
+		}
+	}
+
+	@Override
+	public void addScores(int[] features, double[] scores) {
+		final int numLabels = this.numLabels;
+		final double[] values = this.values;
+		
+		for (int feature : features) {
+			if (feature == Index.UNKNOWN) {
+				continue;
+			}
+			int offset = feature * numLabels;
+			for (int label = 0; label < numLabels; label++) {
+				scores[label] += values[offset + label];
+			}
+		}
+	}
+
+	@Override
+	public double[][] to2D() {
+		double[][] weights = new double[numLabels][numFeatures];
+		
+		int i = 0;
+		for (int feature = 0; feature < numFeatures; feature++) {
+			for (int label = 0; label < numLabels; label++) {
+				weights[label][feature] = values[i++];
+			}
+		}
+		
+		return weights;
+	}
+
+}
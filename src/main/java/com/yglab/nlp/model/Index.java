@@ -2,6 +2,7 @@ package com.yglab.nlp.model;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -9,15 +10,24 @@ import java.util.Map;
 /**
  * Maintains a two-way map between a set of objects and contiguous integers from 0 to the number of objects. Use get(i)
  * to look up object i, and indexOf(object) to look up the index of an object.
+ * Once the index is frozen, no more objects can be added and unseen objects are mapped to {@link #UNKNOWN}.
  * 
  */
 public class Index implements Serializable {
 
 	private static final long serialVersionUID = 7359057727178680622L;
+	
+	/** the index of an object which doesn't exist in the index */
+	public static final int UNKNOWN = -1;
+	
 	List<Object> objects = new ArrayList<Object>();
 	Map<Object, Integer> indexes = new HashMap<Object, Integer>();
+	boolean frozen;
 
 	public boolean add(Object o) {
+		if (frozen) {
+			throw new IllegalStateException("The index is frozen, so '" + o + "' cannot be added.");
+		}
 		Integer index = indexes.get(o);
 		if (index == null) {
 			index = objects.size();
@@ -31,11 +41,53 @@ public class Index implements Serializable {
 	public int indexOf(Object o) {
 		Integer index = indexes.get(o);
 		if (index == null) {
-			return -1;
+			return UNKNOWN;
 		} else {
 			return index;
 		}
 	}
+	
+	/**
+	 * Compiles the given objects into the array of their indexes.
+	 * The object which doesn't exist in the index is mapped to {@link #UNKNOWN}.
+	 * 
+	 * @param objects
+	 * @return the array of indexes with the same order as the given objects
+	 */
+	public int[] indexesOf(Collection<?> objects) {
+		int[] result = new int[objects.size()];
+		int i = 0;
+		for (Object o : objects) {
+			result[i++] = indexOf(o);
+		}
+		return result;
+	}
+	
+	/**
+	 * Compiles the given objects into the array of their indexes.
+	 * The object which doesn't exist in the index is mapped to {@link #UNKNOWN}.
+	 * 
+	 * @param objects
+	 * @return the array of indexes with the same order as the given objects
+	 */
+	public int[] indexesOf(Object[] objects) {
+		int[] result = new int[objects.length];
+		for (int i = 0; i < objects.length; i++) {
+			result[i] = indexOf(objects[i]);
+		}
+		return result;
+	}
+	
+	/**
+	 * Freezes the index, after that the index is read only.
+	 */
+	public void freeze() {
+		this.frozen = true;
+	}
+	
+	public boolean isFrozen() {
+		return frozen;
+	}
 
 	public Object get(int i) {
 		return objects.get(i);
@@ -0,0 +1,111 @@
+package com.yglab.nlp.model;
+
+import java.io.ObjectStreamException;
+import java.nio.DoubleBuffer;
+
+/**
+ * The weight parameters in feature major order which are backed by a double buffer, e.g. a memory mapped model file.
+ * The weights stay off the heap and the pages of a mapped file are shared by all the processes which map it.
+ * <p>
+ * The weights are serialized as {@link FeatureMajorWeights}.
+ *
+ * @author Younggue Bae
+ */
+public class MappedWeights implements Weights {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int numLabels;
+	private final int numFeatures;
+	private final transient DoubleBuffer values;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param numLabels
+	 * @param numFeatures
+	 * @param values	the weights in feature major order, the weight of (label, feature) is values.get(feature * numLabels + label)
+	 */
+	public MappedWeights(int numLabels, int numFeatures, DoubleBuffer values) {
+		if ((long) numLabels * numFeatures != values.limit()) {
+			throw new IllegalArgumentException("The size of weights(" + values.limit() + ") is not " + numLabels + " * " + numFeatures + ".");
+		}
+		this.numLabels = numLabels;
+		this.numFeatures = numFeatures;
+		this.values = values;
+	}
+
+	@Override
+	public int numLabels() {
+		return numLabels;
+	}
+
+	@Override
+	public int numFeatures() {
+		return numFeatures;
+	}
+
+	@Override
+	public double get(int label, int feature) {
+		return values.get(feature * numLabels + label);
+	}
+
+	@Override
+	public void addScores(int feature, double[] scores) {
+		final int offset = feature * numLabels;
+		for (int label = 0; label < numLabels; label++) {
+			scores[label] += values.get(offset + label);
+		}
+	}
+
+	@Override
+	public void addScores(int[] features, double[] scores) {
+		final int numLabels = this.numLabels;
+		final DoubleBuffer values = this.values;
+
+		for (int feature : features) {
+			if (feature == Index.UNKNOWN) {
+				continue;
+			}
+			int offset = feature * numLabels;
+			for (int label = 0; label < numLabels; label++) {
+				scores[label] += values.get(offset + label);
+			}
+		}
+	}
+
+	@Override
+	public double[][] to2D() {
+		double[][] weights = new double[numLabels][numFeatures];
+
+		int i = 0;
+		for (int feature = 0; feature < numFeatures; feature++) {
+			for (int label = 0; label < numLabels; label++) {
+				weights[label][feature] = values.get(i++);
+			}
+		}
+
+		return weights;
+	}
+
+	/**
+	 * Copies the weights onto the heap.
+	 *
+	 * @return
+	 */
+	public FeatureMajorWeights toFeatureMajorWeights() {
+		double[] copied = new double[values.limit()];
+		DoubleBuffer duplicate = values.duplicate();
+		duplicate.position(0);
+		duplicate.get(copied);
+		return new FeatureMajorWeights(numLabels, numFeatures, copied);
+	}
+
+	/**
+	 * Replaces the weights with the heap copy on serialization.
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		return toFeatureMajorWeights();
+	}
+
+}
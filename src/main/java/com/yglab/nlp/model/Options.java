@@ -13,9 +13,26 @@ public class Options {
 	public static final String ALGORITHM = "Algorithm";
 	public static final String ITERATIONS = "Iterations";
 	public static final String CUTOFF = "Cutoff";
+	public static final String THREADS = "Threads";
+	public static final String PRUNE_THRESHOLD = "PruneThreshold";
+	public static final String SPILL_DIRECTORY = "SpillDirectory";
+	public static final String SHARDS = "Shards";
+	public static final String MIXING = "Mixing";
+	public static final String PRUNE_HEADS = "PruneHeads";
+	public static final String PRUNE_DISTANCE = "PruneDistance";
+	public static final String HASH_BITS = "HashBits";
+	public static final String DECODER = "Decoder";
+	public static final String BEAM_SIZE = "BeamSize";
+	public static final String ARC_LABELER = "ArcLabeler";
 
 	public static final String MAXENT_ALGORITHM = "MAXENT";
 	public static final String PERCEPTRON_ALGORITHM = "PERCEPTRON";
+	
+	public static final String UNIFORM_MIXING = "UNIFORM";
+	public static final String WEIGHTED_MIXING = "WEIGHTED";
+	
+	public static final String EISNER_DECODER = "EISNER";
+	public static final String CHU_LIU_EDMONDS_DECODER = "CHU_LIU_EDMONDS";
 
 	private Map<String, String> options = new HashMap<String, String>();
 
@@ -30,5 +47,21 @@ public class Options {
 	public boolean getBoolean(String key) {
 		return Boolean.parseBoolean(get(key));
 	}
+	
+	public int getInt(String key, int defaultValue) {
+		String value = get(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		return Integer.parseInt(value.trim());
+	}
+	
+	public double getDouble(String key, double defaultValue) {
+		String value = get(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		return Double.parseDouble(value.trim());
+	}
 
 }
@@ -0,0 +1,259 @@
+package com.yglab.nlp.model;
+
+import java.io.ObjectStreamException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The read only index of the sorted strings which is backed by a byte buffer, e.g. a memory mapped model file.
+ * The id of a string is its position in the sorted order.
+ * <p>
+ * The table consists of the count, the hash capacity, the offsets of each string in the UTF-8 bytes,
+ * the hash codes of each string, the open addressing hash slots which store the id plus one, and the UTF-8 bytes.
+ * All the numbers are little-endian and the table is padded to a multiple of 8 bytes.
+ * So looking up a string probes the hash slots without loading the strings onto the heap.
+ * <p>
+ * The index is serialized as a plain {@link Index}.
+ *
+ * @author Younggue Bae
+ */
+public class SortedStringIndex extends Index {
+
+	private static final long serialVersionUID = 1L;
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final transient int size;
+	private final transient int mask;
+	private final transient IntBuffer offsets;
+	private final transient IntBuffer hashes;
+	private final transient IntBuffer slots;
+	private final transient ByteBuffer strings;
+
+	private SortedStringIndex(int size, IntBuffer offsets, IntBuffer hashes, IntBuffer slots, ByteBuffer strings) {
+		this.size = size;
+		this.mask = slots.limit() - 1;
+		this.offsets = offsets;
+		this.hashes = hashes;
+		this.slots = slots;
+		this.strings = strings;
+		this.frozen = true;
+	}
+
+	/**
+	 * Reads the string table at the current position of the buffer, and moves the position to the end of the table.
+	 * The buffer is not copied, so it must not be modified afterwards.
+	 *
+	 * @param buffer	The little-endian buffer
+	 * @return
+	 */
+	public static SortedStringIndex read(ByteBuffer buffer) {
+		int start = buffer.position();
+		int size = buffer.getInt();
+		int capacity = buffer.getInt();
+		if (size < 0 || Integer.bitCount(capacity) != 1 || capacity <= size) {
+			throw new IllegalArgumentException("Invalid string table: size=" + size + ", capacity=" + capacity);
+		}
+
+		IntBuffer offsets = slice(buffer, 4 * (size + 1)).asIntBuffer();
+		IntBuffer hashes = slice(buffer, 4 * size).asIntBuffer();
+		IntBuffer slots = slice(buffer, 4 * capacity).asIntBuffer();
+		ByteBuffer strings = slice(buffer, offsets.get(size));
+
+		buffer.position(start + align(buffer.position() - start));
+
+		return new SortedStringIndex(size, offsets, hashes, slots, strings);
+	}
+
+	/**
+	 * Encodes the strings into the string table.
+	 *
+	 * @param sortedStrings	The unique strings in sorted order
+	 * @return the little-endian buffer which is ready to be written
+	 */
+	public static ByteBuffer encode(String[] sortedStrings) {
+		int size = sortedStrings.length;
+		int capacity = capacity(size);
+
+		byte[][] encoded = new byte[size][];
+		int length = 0;
+		for (int i = 0; i < size; i++) {
+			encoded[i] = sortedStrings[i].getBytes(UTF8);
+			length += encoded[i].length;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(align(8 + 4 * (size + 1) + 4 * size + 4 * capacity + length));
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(size);
+		buffer.putInt(capacity);
+
+		int offset = 0;
+		for (int i = 0; i < size; i++) {
+			buffer.putInt(offset);
+			offset += encoded[i].length;
+		}
+		buffer.putInt(offset);
+
+		for (int i = 0; i < size; i++) {
+			buffer.putInt(sortedStrings[i].hashCode());
+		}
+
+		int[] slots = new int[capacity];
+		for (int i = 0; i < size; i++) {
+			int slot = mix(sortedStrings[i].hashCode()) & (capacity - 1);
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & (capacity - 1);
+			}
+			slots[slot] = i + 1;
+		}
+		for (int slot : slots) {
+			buffer.putInt(slot);
+		}
+
+		for (byte[] bytes : encoded) {
+			buffer.put(bytes);
+		}
+
+		buffer.position(buffer.capacity());
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Gets the sorted order of the objects of the index by their strings.
+	 *
+	 * @param index
+	 * @return the ids of the index in the sorted order
+	 */
+	public static int[] sortedOrder(Index index) {
+		final String[] strings = new String[index.size()];
+		Integer[] order = new Integer[strings.length];
+		for (int i = 0; i < strings.length; i++) {
+			strings[i] = index.get(i).toString();
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				return strings[i1].compareTo(strings[i2]);
+			}
+		});
+
+		int[] result = new int[order.length];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = order[i];
+		}
+		return result;
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		if (!(o instanceof String)) {
+			return UNKNOWN;
+		}
+		String s = (String) o;
+		int hash = s.hashCode();
+		byte[] bytes = null;
+
+		for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+			int id = slots.get(slot) - 1;
+			if (id < 0) {
+				return UNKNOWN;
+			}
+			if (hashes.get(id) == hash) {
+				if (bytes == null) {
+					bytes = s.getBytes(UTF8);
+				}
+				if (matches(id, bytes)) {
+					return id;
+				}
+			}
+		}
+	}
+
+	@Override
+	public Object get(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+		}
+		int start = offsets.get(i);
+		byte[] bytes = new byte[offsets.get(i + 1) - start];
+		for (int k = 0; k < bytes.length; k++) {
+			bytes[k] = strings.get(start + k);
+		}
+		return new String(bytes, UTF8);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder buff = new StringBuilder("[");
+		for (int i = 0; i < size; i++) {
+			buff.append(i).append("=").append(get(i));
+			if (i < (size - 1))
+				buff.append(",");
+		}
+		buff.append("]");
+		return buff.toString();
+	}
+
+	private boolean matches(int id, byte[] bytes) {
+		int start = offsets.get(id);
+		if (offsets.get(id + 1) - start != bytes.length) {
+			return false;
+		}
+		for (int k = 0; k < bytes.length; k++) {
+			if (strings.get(start + k) != bytes[k]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Replaces the index with a plain index on serialization.
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		Index index = new Index();
+		for (int i = 0; i < size; i++) {
+			index.add(get(i));
+		}
+		index.freeze();
+		return index;
+	}
+
+	private static ByteBuffer slice(ByteBuffer buffer, int length) {
+		ByteBuffer duplicate = buffer.duplicate();
+		duplicate.limit(duplicate.position() + length);
+		ByteBuffer slice = duplicate.slice().order(ByteOrder.LITTLE_ENDIAN);
+		buffer.position(buffer.position() + length);
+		return slice;
+	}
+
+	private static int capacity(int size) {
+		int capacity = 2;
+		while (capacity < size * 2) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	private static int mix(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Rounds up the length to a multiple of 8 bytes.
+	 */
+	private static int align(int length) {
+		return (length + 7) & ~7;
+	}
+
+}
@@ -0,0 +1,186 @@
+package com.yglab.nlp.model;
+
+/**
+ * The weight parameters which store only the non-zero weights in feature major order,
+ * that is the compressed rows of the label weights for each feature.
+ * The labels and the weights of a feature are in labels[offsets[feature]] ~ labels[offsets[feature + 1] - 1].
+ *
+ * @author Younggue Bae
+ */
+public class SparseWeights implements Weights {
+
+	private static final long serialVersionUID = 4730293158213694062L;
+
+	private final int numLabels;
+	private final int numFeatures;
+	private final int[] offsets;
+	private final int[] labels;
+	private final double[] values;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param numLabels
+	 * @param numFeatures
+	 * @param offsets	the start offset of each feature's row, and the end offset of the last row
+	 * @param labels	the label ids of the stored weights
+	 * @param values	the stored weights
+	 */
+	public SparseWeights(int numLabels, int numFeatures, int[] offsets, int[] labels, double[] values) {
+		if (offsets.length != numFeatures + 1 || labels.length != values.length || offsets[numFeatures] != values.length) {
+			throw new IllegalArgumentException("The rows of weights don't match with " + numLabels + " * " + numFeatures + ".");
+		}
+		this.numLabels = numLabels;
+		this.numFeatures = numFeatures;
+		this.offsets = offsets;
+		this.labels = labels;
+		this.values = values;
+	}
+
+	/**
+	 * Creates the sparse weights which keep only the weights whose absolute value is greater than the threshold.
+	 *
+	 * @param weights
+	 * @param threshold
+	 * @return
+	 */
+	public static SparseWeights valueOf(Weights weights, double threshold) {
+		int[] features = new int[weights.numFeatures()];
+		for (int feature = 0; feature < features.length; feature++) {
+			features[feature] = feature;
+		}
+		return valueOf(weights, features, threshold);
+	}
+
+	/**
+	 * Creates the sparse weights of the given features which keep only the weights whose absolute value is greater than the threshold.
+	 * The feature id i of the sparse weights is the feature id features[i] of the given weights.
+	 *
+	 * @param weights
+	 * @param features	the feature ids of the given weights to keep
+	 * @param threshold
+	 * @return
+	 */
+	public static SparseWeights valueOf(Weights weights, int[] features, double threshold) {
+		int numLabels = weights.numLabels();
+		int numFeatures = features.length;
+		double[] row = new double[numLabels];
+
+		int[] offsets = new int[numFeatures + 1];
+		for (int i = 0; i < numFeatures; i++) {
+			offsets[i + 1] = offsets[i] + count(getRow(weights, features[i], row), threshold);
+		}
+
+		int[] labels = new int[offsets[numFeatures]];
+		double[] values = new double[offsets[numFeatures]];
+		int k = 0;
+		for (int i = 0; i < numFeatures; i++) {
+			getRow(weights, features[i], row);
+			for (int label = 0; label < numLabels; label++) {
+				if (Math.abs(row[label]) > threshold) {
+					labels[k] = label;
+					values[k] = row[label];
+					k++;
+				}
+			}
+		}
+
+		return new SparseWeights(numLabels, numFeatures, offsets, labels, values);
+	}
+
+	/**
+	 * Counts the weights of the given feature whose absolute value is greater than the threshold.
+	 *
+	 * @param weights
+	 * @param feature	the feature id
+	 * @param threshold
+	 * @return
+	 */
+	public static int count(Weights weights, int feature, double threshold) {
+		return count(getRow(weights, feature, new double[weights.numLabels()]), threshold);
+	}
+
+	private static double[] getRow(Weights weights, int feature, double[] row) {
+		for (int label = 0; label < row.length; label++) {
+			row[label] = 0.0;
+		}
+		weights.addScores(feature, row);
+		return row;
+	}
+
+	private static int count(double[] row, double threshold) {
+		int count = 0;
+		for (double value : row) {
+			if (Math.abs(value) > threshold) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public int numLabels() {
+		return numLabels;
+	}
+
+	@Override
+	public int numFeatures() {
+		return numFeatures;
+	}
+
+	/**
+	 * Gets the number of the stored weights.
+	 *
+	 * @return
+	 */
+	public int size() {
+		return values.length;
+	}
+
+	@Override
+	public double get(int label, int feature) {
+		for (int i = offsets[feature]; i < offsets[feature + 1]; i++) {
+			if (labels[i] == label) {
+				return values[i];
+			}
+		}
+		return 0.0;
+	}
+
+	@Override
+	public void addScores(int feature, double[] scores) {
+		for (int i = offsets[feature]; i < offsets[feature + 1]; i++) {
+			scores[labels[i]] += values[i];
+		}
+	}
+
+	@Override
+	public void addScores(int[] features, double[] scores) {
+		final int[] offsets = this.offsets;
+		final int[] labels = this.labels;
+		final double[] values = this.values;
+
+		for (int feature : features) {
+			if (feature == Index.UNKNOWN) {
+				continue;
+			}
+			for (int i = offsets[feature]; i < offsets[feature + 1]; i++) {
+				scores[labels[i]] += values[i];
+			}
+		}
+	}
+
+	@Override
+	public double[][] to2D() {
+		double[][] weights = new double[numLabels][numFeatures];
+
+		for (int feature = 0; feature < numFeatures; feature++) {
+			for (int i = offsets[feature]; i < offsets[feature + 1]; i++) {
+				weights[labels[i]][feature] = values[i];
+			}
+		}
+
+		return weights;
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.yglab.nlp.model;
+
+import java.io.Serializable;
+
+/**
+ * Interface for the weight parameters of a trained model.
+ * The weights are addressed by the label id and the feature id of the model's indexes.
+ * 
+ * @author Younggue Bae
+ */
+public interface Weights extends Serializable {
+
+	public int numLabels();
+	
+	public int numFeatures();
+	
+	/**
+	 * Gets the weight of the given label and feature.
+	 * 
+	 * @param label	the label id
+	 * @param feature	the feature id
+	 * @return
+	 */
+	public double get(int label, int feature);
+	
+	/**
+	 * Adds the weights of all the labels for the given feature to the scores.
+	 * 
+	 * @param feature	the feature id
+	 * @param scores	the scores indexed by the label id
+	 */
+	public void addScores(int feature, double[] scores);
+	
+	/**
+	 * Adds the weights of all the labels for the given features to the scores.
+	 * The feature with {@link Index#UNKNOWN} id is ignored.
+	 * 
+	 * @param features	the feature ids
+	 * @param scores	the scores indexed by the label id
+	 */
+	public void addScores(int[] features, double[] scores);
+	
+	/**
+	 * Converts the weights into the label major 2 dimensional array which is weights[label][feature].
+	 * 
+	 * @return
+	 */
+	public double[][] to2D();
+
+}
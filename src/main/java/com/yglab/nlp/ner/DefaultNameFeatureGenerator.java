@@ -3,6 +3,7 @@ package com.yglab.nlp.ner;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.yglab.nlp.maxent.FeatureContext;
 import com.yglab.nlp.dictionary.RegexFeatureDictionary;
 
 
@@ -21,8 +22,8 @@ public class DefaultNameFeatureGenerator implements NameFeatureGenerator {
 	}
 	
 	@Override
-	public void initialize(String[] tokens) {
-		
+	public FeatureContext initialize(String[] tokens) {
+		return null;
 	}
 	
 	/**
@@ -31,7 +32,7 @@ public class DefaultNameFeatureGenerator implements NameFeatureGenerator {
 	 * label that is visible to this method.
 	 */
 	@Override
-	public String[] getFeatures(int position, String[] tokens, String[] previousTagSequence) {
+	public String[] getFeatures(int position, String[] tokens, String[] previousTagSequence, FeatureContext context) {
 		List<String> features = new ArrayList<String>();
 
 		this.addUnigramFeatures(features, position, tokens, previousTagSequence);
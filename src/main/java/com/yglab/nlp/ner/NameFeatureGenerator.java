@@ -1,5 +1,6 @@
 package com.yglab.nlp.ner;
 
+import com.yglab.nlp.maxent.FeatureContext;
 import com.yglab.nlp.maxent.FeatureGenerator;
 
 
@@ -11,9 +12,9 @@ import com.yglab.nlp.maxent.FeatureGenerator;
 public interface NameFeatureGenerator extends FeatureGenerator<String> {
 	
 	@Override
-	public void initialize(String[] tokens);
+	public FeatureContext initialize(String[] tokens);
 	
 	@Override
-	public String[] getFeatures(int position, String[] tokens, String[] previousTagSequence);
+	public String[] getFeatures(int position, String[] tokens, String[] previousTagSequence, FeatureContext context);
 	
 }
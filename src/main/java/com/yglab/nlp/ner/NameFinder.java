@@ -15,10 +15,12 @@ import com.yglab.nlp.io.AbstractModelReader;
 import com.yglab.nlp.io.AbstractModelWriter;
 import com.yglab.nlp.io.AbstractPlainTextWriter;
 import com.yglab.nlp.maxent.DefaultTagSequenceGenerator;
+import com.yglab.nlp.maxent.FeatureContext;
 import com.yglab.nlp.maxent.MEMM;
+import com.yglab.nlp.maxent.MaxentBinaryModelReader;
+import com.yglab.nlp.maxent.MaxentBinaryModelWriter;
 import com.yglab.nlp.maxent.MaxentModelPlainTextWriter;
-import com.yglab.nlp.maxent.MaxentModelReader;
-import com.yglab.nlp.maxent.MaxentModelWriter;
+import com.yglab.nlp.maxent.Sequence;
 import com.yglab.nlp.maxent.TagSequenceGenerator;
 import com.yglab.nlp.model.AbstractModel;
 import com.yglab.nlp.model.Datum;
@@ -41,6 +43,8 @@ public class NameFinder {
 	protected AbstractModel model;
 	protected NameFeatureGenerator featureGenerator;
 	protected TagSequenceGenerator gen;
+	/** the beam size of the decoder, no pruning by default */
+	protected int beamSize = 0;
 
 	/**
 	 * Initializes the named entity recognizer with the specified model.
@@ -52,9 +56,20 @@ public class NameFinder {
 		this.model = model;
 		this.featureGenerator = featureGenerator;
 		
-		this.gen = new DefaultTagSequenceGenerator(featureGenerator, model.getLabels(), 2);
+		DefaultTagSequenceGenerator gen = new DefaultTagSequenceGenerator(featureGenerator, model.getLabels(), 2);
+		gen.setFeatureIndex(model.getFeatureIndex());
+		this.gen = gen;
 	}
 
+	/**
+	 * Sets the beam size of the lattice Viterbi decoder.
+	 * 
+	 * @param beamSize	The maximum number of states kept at each position, no pruning if it is not positive
+	 */
+	public void setBeamSize(int beamSize) {
+		this.beamSize = beamSize;
+	}
+	
 	/**
 	 * Trains maximum-entropy markov model or perceptron algorithm with the given train samples.
 	 * 
@@ -78,7 +93,7 @@ public class NameFinder {
 	private static AbstractModel trainMaxent(List<NameSample> trainSamples, NameFeatureGenerator featureGenerator, Options options) {
 		EventStream<NameSample, Datum> stream = new NameSampleEventStream(featureGenerator, trainSamples);
 
-		return MEMM.trainModel(stream);
+		return MEMM.trainModel(stream, options);
 	}
 
 	/**
@@ -140,19 +155,59 @@ public class NameFinder {
 		return nameSpans.toArray(new Span[nameSpans.size()]);
 	}
 	
+	/**
+	 * Finds the K best name tag sequences for the given sentence sequence.
+	 * The spans of each sequence can be obtained by {@link #getSpans(Sequence)}.
+	 * 
+	 * @param tokens
+	 * @param k	The maximum number of tag sequences
+	 * @return the tag sequences with the log probability, sorted by the score in descending order
+	 * @throws UnsupportedOperationException if the model is not a maximum-entropy markov model
+	 */
+	public List<Sequence> find(String[] tokens, int k) {
+		if (this.model.algorithm().equals(Options.MAXENT_ALGORITHM)) {
+			// build the context of the new tokens
+			FeatureContext context = featureGenerator.initialize(tokens);
+			
+			return MEMM.decode(model, featureGenerator, tokens, context, gen.getLabelCandidates(tokens, context), beamSize, k);
+		}
+		
+		throw new UnsupportedOperationException("The K best decoding is not supported for the algorithm: " + this.model.algorithm());
+	}
+	
 	public Span[] findMaxent(String[] tokens) {
-		List<List<Datum>> candidates = gen.getCandidates(tokens);
-		List<Datum> bestSequence = MEMM.decode(model, candidates);
+		// build the context of the new tokens
+		FeatureContext context = featureGenerator.initialize(tokens);
+		
+		List<Datum> bestSequence = MEMM.decode(model, featureGenerator, tokens, context, gen.getLabelCandidates(tokens, context), beamSize);
 
+		String[] labels = new String[bestSequence.size()];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = bestSequence.get(i).getGuessLabel();
+		}
+		
+		return toSpans(labels);
+	}
+	
+	/**
+	 * Gets the spans of the named entities from the tag sequence.
+	 * 
+	 * @param sequence
+	 * @return the array of span with start and end position of the named entities
+	 */
+	public static Span[] getSpans(Sequence sequence) {
+		return toSpans(sequence.getLabels());
+	}
+	
+	private static Span[] toSpans(String[] labels) {
 		int start = -1;
 		int end = -1;
-		List<Span> spans = new ArrayList<Span>(tokens.length);
-		for (int li = 0; li < bestSequence.size(); li++) {
-			Datum datum = bestSequence.get(li);
-			String chunkLabel = datum.getGuessLabel();
+		List<Span> spans = new ArrayList<Span>(labels.length);
+		for (int li = 0; li < labels.length; li++) {
+			String chunkLabel = labels[li];
 			if (chunkLabel.endsWith(LABEL_START)) {
 				if (start != -1) {
-					spans.add(new Span(start, end, extractNameType(bestSequence.get(li - 1).getGuessLabel())));
+					spans.add(new Span(start, end, extractNameType(labels[li - 1])));
 				}
 
 				start = li;
@@ -162,7 +217,7 @@ public class NameFinder {
 				end = li + 1;
 			} else if (chunkLabel.endsWith(LABEL_OTHER)) {
 				if (start != -1) {
-					spans.add(new Span(start, end, extractNameType(bestSequence.get(li - 1).getGuessLabel())));
+					spans.add(new Span(start, end, extractNameType(labels[li - 1])));
 					start = -1;
 					end = -1;
 				}
@@ -170,7 +225,7 @@ public class NameFinder {
 		}
 
 		if (start != -1) {
-			spans.add(new Span(start, end, extractNameType(bestSequence.get(bestSequence.size() - 1).getGuessLabel())));
+			spans.add(new Span(start, end, extractNameType(labels[labels.length - 1])));
 		}
 
 		return spans.toArray(new Span[spans.size()]);
@@ -233,7 +288,7 @@ public class NameFinder {
 	 * @throws IOException
 	 */
 	public static final void saveModel(AbstractModel model, String binaryFile, String plainTextFile) throws IOException {
-		AbstractModelWriter<AbstractModel> writer = new MaxentModelWriter();
+		AbstractModelWriter<AbstractModel> writer = new MaxentBinaryModelWriter();
 		AbstractPlainTextWriter<AbstractModel> plainTextWriter = new MaxentModelPlainTextWriter();
 		writer.write(model, new File(binaryFile));
 		
@@ -251,7 +306,7 @@ public class NameFinder {
 	 * @throws ClassNotFoundException
 	 */
 	public static final AbstractModel loadModel(String file) throws IOException, ClassNotFoundException {
-		AbstractModelReader<AbstractModel> reader = new MaxentModelReader();
+		AbstractModelReader<AbstractModel> reader = new MaxentBinaryModelReader();
 		AbstractModel model = reader.read(new File(file));
 		
 		return model;
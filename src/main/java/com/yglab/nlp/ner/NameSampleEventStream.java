@@ -4,8 +4,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import com.yglab.nlp.maxent.FeatureContext;
+import com.yglab.nlp.model.AbstractEventStream;
 import com.yglab.nlp.model.Datum;
-import com.yglab.nlp.model.EventStream;
 import com.yglab.nlp.model.Span;
 
 /**
@@ -13,44 +14,36 @@ import com.yglab.nlp.model.Span;
  * 
  * @author Younggue Bae
  */
-public class NameSampleEventStream implements EventStream<NameSample, Datum> {
+public class NameSampleEventStream extends AbstractEventStream<NameSample, Datum> {
 
 	protected NameFeatureGenerator featureGenerator;
-	protected List<NameSample> samples;
 	
 	public NameSampleEventStream(NameFeatureGenerator featureGenerator, List<NameSample> samples) {
+		super(samples);
 		this.featureGenerator = featureGenerator;
-		this.samples = samples;
 	}
 	
 	@Override
-	public List<NameSample> getInputStream() {
-		return this.samples;
-	}
-	
-	@Override
-	public List<Datum> getOutputStream() {
-		List<Datum> trainData = new ArrayList<Datum>();
+	protected List<Datum> createEvents(NameSample sample) {
+		List<Datum> events = new ArrayList<Datum>();
 
 		String[] previousLabel = new String[2];
+		previousLabel[0] = "*"; // previous previous label
+		previousLabel[1] = "*"; // previous label
 		
-		for (NameSample sample : samples) {
-			previousLabel[0] = "*"; // previous previous label
-			previousLabel[1] = "*"; // previous label
-			
-			String[] tokens = sample.getSentence();
-			String[] labels = generateOutcomes(sample.getLabels(), "O", tokens.length);
-			for (int i = 0; i < tokens.length; i++) {
-				Datum datum = new Datum(tokens[i], labels[i]);
-				datum.setFeatures(Arrays.asList(featureGenerator.getFeatures(i, tokens, previousLabel)));
-				trainData.add(datum);
+		String[] tokens = sample.getSentence();
+		String[] labels = generateOutcomes(sample.getLabels(), "O", tokens.length);
+		FeatureContext context = featureGenerator.initialize(tokens);
+		for (int i = 0; i < tokens.length; i++) {
+			Datum datum = new Datum(tokens[i], labels[i]);
+			datum.setFeatures(Arrays.asList(featureGenerator.getFeatures(i, tokens, previousLabel, context)));
+			events.add(datum);
 
-				// previousLabel = datum.getLabel();
-				previousLabel[0] = previousLabel[1];
-				previousLabel[1] = datum.getLabel();
-			}
+			// previousLabel = datum.getLabel();
+			previousLabel[0] = previousLabel[1];
+			previousLabel[1] = datum.getLabel();
 		}
-		return trainData;
+		return events;
 	}
 	
 	/**
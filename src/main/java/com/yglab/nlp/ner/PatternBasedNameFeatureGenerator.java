@@ -3,6 +3,7 @@ package com.yglab.nlp.ner;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.yglab.nlp.maxent.FeatureContext;
 import com.yglab.nlp.dictionary.RegexFeatureDictionary;
 
 /**
@@ -19,12 +20,12 @@ public class PatternBasedNameFeatureGenerator implements NameFeatureGenerator {
 	}
 	
 	@Override
-	public void initialize(String[] tokens) {
-		
+	public FeatureContext initialize(String[] tokens) {
+		return null;
 	}
 	
 	@Override
-	public String[] getFeatures(int position, String[] tokens, String[] previousLabelSequence) {
+	public String[] getFeatures(int position, String[] tokens, String[] previousLabelSequence, FeatureContext context) {
 		List<String> features = new ArrayList<String>();
 
 		this.addUnigramFeatures(features, position, tokens, previousLabelSequence);
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.yglab.nlp.dictionary.RegexFeatureDictionary;
+import com.yglab.nlp.maxent.FeatureContext;
 import com.yglab.nlp.ner.DefaultNameFeatureGenerator;
 
 
@@ -25,7 +26,7 @@ public class DefaultNLUFeatureGenerator extends DefaultNameFeatureGenerator {
 	 * label that is visible to this method.
 	 */
 	@Override
-	public String[] getFeatures(int position, String[] tokens, String[] previousTagSequence) {
+	public String[] getFeatures(int position, String[] tokens, String[] previousTagSequence, FeatureContext context) {
 		List<String> features = new ArrayList<String>();
 
 		super.addUnigramFeatures(features, position, tokens, previousTagSequence);
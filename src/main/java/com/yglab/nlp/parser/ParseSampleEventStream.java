@@ -1,5 +1,7 @@
 package com.yglab.nlp.parser;
 
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import com.yglab.nlp.model.EventStream;
@@ -30,4 +32,12 @@ public class ParseSampleEventStream implements EventStream<ParseSample, Parse> {
 		return null;
 	}
 	
+	/**
+	 * The parse events are generated by the decoder while training, so this stream has no output events.
+	 */
+	@Override
+	public Iterator<Parse> getOutputIterator() {
+		return Collections.<Parse>emptyList().iterator();
+	}
+	
 }
@@ -0,0 +1,199 @@
+package com.yglab.nlp.parser.dep;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.yglab.nlp.parser.Parse;
+import com.yglab.nlp.parser.ParseSample;
+import com.yglab.nlp.perceptron.PerceptronDecoder;
+import com.yglab.nlp.perceptron.PerceptronModel;
+
+
+
+/**
+ * The base class of the arc factored dependency decoders, which decode the parses from the scores of the arcs
+ * computed once per sentence by {@link ArcScoreTable}.
+ * This class builds the parses of the arcs and the golden structures for training.
+ *
+ * @author Younggue Bae
+ */
+public abstract class AbstractDependencyDecoder implements PerceptronDecoder<ParseSample, Parse> {
+
+	protected DependencyFeatureGenerator<ParseSample> featureGenerator;
+	protected PerceptronModel model;
+	protected boolean labeled = false;
+	protected ArcPruner pruner;
+
+	/**
+	 * Creates a dependency decoder which decodes only the arcs kept by the pruner.
+	 *
+	 * @param featureGenerator
+	 * @param model
+	 * @param labeled
+	 * @param pruner	The first stage filter of the arcs, or null to decode all the arcs
+	 */
+	public AbstractDependencyDecoder(DependencyFeatureGenerator<ParseSample> featureGenerator, PerceptronModel model, boolean labeled,
+			ArcPruner pruner) {
+		if (featureGenerator instanceof HashedDependencyFeatureGenerator && model.getParameters() != null) {
+			int numFeatures = ((HashedDependencyFeatureGenerator) featureGenerator).numFeatures();
+			if (model.getParameters().numFeatures() != numFeatures) {
+				throw new IllegalArgumentException("The number of features of the model(" + model.getParameters().numFeatures() +
+						") doesn't match with the hashed features(" + numFeatures + ").");
+			}
+		}
+		this.featureGenerator = featureGenerator;
+		this.model = model;
+		this.labeled = labeled;
+		this.pruner = pruner;
+	}
+
+	@Override
+	public boolean isLabeled() {
+		return this.labeled;
+	}
+
+	@Override
+	public PerceptronModel getModel() {
+		return this.model;
+	}
+
+	@Override
+	public List<Parse> getGoldenStructures(ParseSample instance) {
+		List<Parse> goldenParses = new ArrayList<Parse>();
+		HashedDependencyFeatureGenerator.Sentence sentence = compile(instance);
+		for (int position = 1; position < instance.length(); position++) {
+			Parse parse = new Parse(position, instance.heads[position], instance.deprels[position]);
+			setFeatures(parse, instance, sentence, instance.heads[position], position);
+			parse.setGold(true);
+			goldenParses.add(parse);
+		}
+		return goldenParses;
+	}
+
+	@Override
+	public Parse getGoldenStructure(Parse estimate, ParseSample instance) {
+		int position = estimate.getIndex();
+		Parse gold = new Parse(position, instance.heads[position], instance.deprels[position]);
+		setFeatures(gold, instance, compile(instance), instance.heads[position], position);
+		gold.setGold(true);
+
+		return gold;
+	}
+
+	/**
+	 * Decodes the best parse.
+	 *
+	 * @param instance	The sample instance
+	 * @return List<Parse>	The best parse
+	 */
+	@Override
+	public List<Parse> decode(ParseSample instance) {
+		List<List<Parse>> kBestParses = this.decode(instance, 1);
+		return kBestParses.get(0);
+	}
+
+	/**
+	 * Scores all the arcs of the sentence which are kept by the pruner.
+	 *
+	 * @param instance
+	 * @return
+	 */
+	protected ArcScoreTable scoreArcs(ParseSample instance) {
+		boolean[] kept = pruner != null ? pruner.prune(instance) : null;
+		return new ArcScoreTable(instance, featureGenerator, model, labeled, kept);
+	}
+
+	/**
+	 * Compiles the sentence if the features are hashed.
+	 *
+	 * @param instance
+	 * @return	the compiled sentence, or null if the features are not hashed
+	 */
+	private HashedDependencyFeatureGenerator.Sentence compile(ParseSample instance) {
+		if (featureGenerator instanceof HashedDependencyFeatureGenerator) {
+			return ((HashedDependencyFeatureGenerator) featureGenerator).compile(instance);
+		}
+		return null;
+	}
+
+	/**
+	 * Sets the features of the arc to the parse, the hashed feature ids if the sentence is compiled.
+	 *
+	 * @param parse
+	 * @param instance
+	 * @param sentence	The compiled sentence, or null
+	 * @param head
+	 * @param modifier
+	 */
+	private void setFeatures(Parse parse, ParseSample instance, HashedDependencyFeatureGenerator.Sentence sentence,
+			int head, int modifier) {
+		if (sentence != null) {
+			parse.setFeatureIds(((HashedDependencyFeatureGenerator) featureGenerator).getFeatureIds(sentence, head, modifier));
+		}
+		else {
+			parse.setFeatures(Arrays.asList(featureGenerator.getFeatures(instance, head, modifier)));
+		}
+	}
+
+	/**
+	 * Gets the parse of the arc with the best label.
+	 *
+	 * @param head
+	 * @param modifier
+	 * @param arcScores	The scores of all the arcs
+	 * @param instance
+	 * @return
+	 */
+	protected Parse getParse(int head, int modifier, ArcScoreTable arcScores, ParseSample instance) {
+		Parse parse;
+		if (labeled) {
+			String label = (String) model.getLabelIndex().get(arcScores.getBestLabel(head, modifier));
+			parse = new Parse(modifier, head, label);
+		}
+		else {
+			parse = new Parse(modifier, head);
+		}
+		parse.setWord(instance.forms != null ? instance.forms[modifier] : null);
+		parse.setPostag(instance.postags != null ? instance.postags[modifier] : null);
+		parse.setCpostag(instance.cpostags != null ? instance.cpostags[modifier] : null);
+		String[] features = arcScores.getFeatures(head, modifier);
+		if (features != null) {
+			parse.setFeatures(Arrays.asList(features));
+		}
+		else {
+			parse.setFeatureIds(arcScores.getFeatureIds(head, modifier));
+		}
+		parse.setScore(arcScores.getBestScore(head, modifier));
+		parse.setGold(isGoldenParse(parse, instance));
+
+		return parse;
+	}
+
+	private boolean isGoldenParse(Parse parse, ParseSample instance) {
+		int position = parse.getIndex();
+		int head = parse.getHead();
+		String label = parse.getLabel();
+
+		if (instance.heads == null) {
+			return false;
+		}
+
+		parse.setGoldenHead(instance.heads[position]);
+
+		if (labeled) {
+			parse.setGoldenLabel(instance.deprels[position]);
+			if (instance.heads[position] == head && instance.deprels[position].equals(label)) {
+				return true;
+			}
+		}
+		else {
+			if (instance.heads[position] == head) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+}
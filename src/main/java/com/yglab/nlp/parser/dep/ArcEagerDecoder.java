@@ -0,0 +1,518 @@
+package com.yglab.nlp.parser.dep;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.yglab.nlp.model.Index;
+import com.yglab.nlp.parser.Parse;
+import com.yglab.nlp.parser.ParseSample;
+import com.yglab.nlp.perceptron.PerceptronDecoder;
+import com.yglab.nlp.perceptron.PerceptronModel;
+
+
+
+/**
+ * This is the arc-eager transition based decoder, which parses the sentence in linear time
+ * by the transitions of {@link ArcEagerState} scored by the perceptron model.
+ * The labels of the model are the names of the transitions created by {@link #getTransitions(String[])}.
+ * <p>
+ * In training time with the beam size 1, the sentence is parsed greedily and the perceptron is updated on every transition
+ * which loses more golden arcs than the best transition of the dynamic oracle.
+ * The predicted transition is followed even if it is wrong, so the model learns to recover from its own errors.
+ * With the larger beam size, the sentence is parsed by the same beam search as in parsing time,
+ * and the perceptron is updated by the early update as soon as the transitions of the static oracle fall out of the beam,
+ * or by the best transitions and the golden transitions of the whole sentence if the best ones are wrong at the end.
+ * So the model trained with the beam is consistent with the beam search of the same size in parsing time.
+ * <p>
+ * The reference papers for this implementation are as belows:
+ * "A dynamic oracle for arc-eager dependency parsing."
+ *  - Yoav Goldberg, Joakim Nivre, COLING 2012
+ * "A tale of two parsers: investigating and combining graph-based and transition-based dependency parsing using beam-search."
+ *  - Yue Zhang, Stephen Clark, EMNLP 2008
+ * "Incremental parsing with the perceptron algorithm."
+ *  - Michael Collins, Brian Roark, ACL 2004
+ *
+ * @author Younggue Bae
+ */
+public class ArcEagerDecoder implements PerceptronDecoder<ParseSample, Transition> {
+
+	public static final String SHIFT = "SHIFT";
+	public static final String REDUCE = "REDUCE";
+	public static final String LEFT = "LEFT";
+	public static final String RIGHT = "RIGHT";
+
+	private static final String ROOT_LABEL = "ROOT";
+
+	private ArcEagerFeatureGenerator featureGenerator;
+	private PerceptronModel model;
+	/** the type of the transition and the label of the arc for each label of the model */
+	private int[] types;
+	private String[] arcLabels;
+	private boolean labeledArcs;
+	/** the size of the beam in training time */
+	private int beamSize;
+
+	/**
+	 * Creates the decoder which is trained greedily with the dynamic oracle.
+	 *
+	 * @param featureGenerator
+	 * @param model
+	 */
+	public ArcEagerDecoder(ArcEagerFeatureGenerator featureGenerator, PerceptronModel model) {
+		this(featureGenerator, model, 1);
+	}
+
+	/**
+	 * Creates the decoder which is trained by the beam search of the given size.
+	 *
+	 * @param featureGenerator
+	 * @param model
+	 * @param beamSize	The size of the beam in training time, 1 for the greedy search with the dynamic oracle
+	 */
+	public ArcEagerDecoder(ArcEagerFeatureGenerator featureGenerator, PerceptronModel model, int beamSize) {
+		if (beamSize < 1) {
+			throw new IllegalArgumentException("The beam size should be more than 0: " + beamSize);
+		}
+		this.featureGenerator = featureGenerator;
+		this.model = model;
+		this.beamSize = beamSize;
+
+		Index labelIndex = model.getLabelIndex();
+		this.types = new int[labelIndex.size()];
+		this.arcLabels = new String[labelIndex.size()];
+		for (int i = 0; i < labelIndex.size(); i++) {
+			String name = labelIndex.get(i).toString();
+			if (name.equals(SHIFT)) {
+				types[i] = ArcEagerState.SHIFT;
+			}
+			else if (name.equals(REDUCE)) {
+				types[i] = ArcEagerState.REDUCE;
+			}
+			else if (name.startsWith(LEFT)) {
+				types[i] = ArcEagerState.LEFT;
+				arcLabels[i] = getArcLabel(name, LEFT);
+			}
+			else if (name.startsWith(RIGHT)) {
+				types[i] = ArcEagerState.RIGHT;
+				arcLabels[i] = getArcLabel(name, RIGHT);
+			}
+			else {
+				throw new IllegalArgumentException("Invalid transition: " + name);
+			}
+			if (arcLabels[i] != null) {
+				labeledArcs = true;
+			}
+		}
+	}
+
+	private static String getArcLabel(String name, String type) {
+		if (name.length() == type.length()) {
+			return null;
+		}
+		return name.substring(type.length() + 1);
+	}
+
+	/**
+	 * Gets the names of the transitions which are the labels of the perceptron model.
+	 *
+	 * @param labels	The labels of the arcs, or null for the unlabeled arcs
+	 * @return
+	 */
+	public static String[] getTransitions(String[] labels) {
+		List<String> transitions = new ArrayList<String>();
+		transitions.add(SHIFT);
+		transitions.add(REDUCE);
+		if (labels == null) {
+			transitions.add(LEFT);
+			transitions.add(RIGHT);
+		}
+		else {
+			for (String label : labels) {
+				transitions.add(LEFT + "-" + label);
+				transitions.add(RIGHT + "-" + label);
+			}
+		}
+		return transitions.toArray(new String[transitions.size()]);
+	}
+
+	/**
+	 * Returns always true, since the transitions are the labels of the perceptron model.
+	 */
+	@Override
+	public boolean isLabeled() {
+		return true;
+	}
+
+	/**
+	 * Returns true if the arcs are labeled.
+	 *
+	 * @return
+	 */
+	public boolean isLabeledArcs() {
+		return labeledArcs;
+	}
+
+	@Override
+	public PerceptronModel getModel() {
+		return model;
+	}
+
+	@Override
+	public PerceptronDecoder<ParseSample, Transition> newInstance(PerceptronModel model) {
+		return new ArcEagerDecoder(featureGenerator, model, beamSize);
+	}
+
+	public int getBeamSize() {
+		return beamSize;
+	}
+
+	/**
+	 * Gets the transitions of the static oracle, which follows the golden transitions in the order of the labels of the model.
+	 */
+	@Override
+	public List<Transition> getGoldenStructures(ParseSample instance) {
+		List<Transition> goldenTransitions = new ArrayList<Transition>();
+		String[] words = featureGenerator.normalizeWords(instance);
+		String[] goldenLabels = labeledArcs ? instance.deprels : null;
+		ArcEagerState state = new ArcEagerState(instance.length());
+
+		while (!state.isTerminal()) {
+			String[] features = featureGenerator.getFeatures(instance, words, state);
+			int golden = -1;
+			int goldenCost = Integer.MAX_VALUE;
+			for (int t = 0; t < types.length; t++) {
+				if (!state.isValid(types[t])) {
+					continue;
+				}
+				int cost = state.cost(types[t], arcLabels[t], instance.heads, goldenLabels);
+				if (cost < goldenCost) {
+					golden = t;
+					goldenCost = cost;
+				}
+			}
+			Transition transition = new Transition(getName(golden), Arrays.asList(features));
+			transition.setGoldenLabel(getName(golden));
+			transition.setGold(true);
+			goldenTransitions.add(transition);
+			state.apply(types[golden], arcLabels[golden], 0.0);
+		}
+
+		return goldenTransitions;
+	}
+
+	@Override
+	public Transition getGoldenStructure(Transition estimate, ParseSample instance) {
+		List<String> features = estimate.getGoldenFeatures() != null ? estimate.getGoldenFeatures() : estimate.getFeatures();
+		Transition gold = new Transition(estimate.getGoldenLabel(), features);
+		gold.setGoldenLabel(estimate.getGoldenLabel());
+		gold.setGold(true);
+
+		return gold;
+	}
+
+	/**
+	 * Decodes the transitions for training, greedily for the beam size 1 and by the beam search otherwise.
+	 *
+	 * @param instance	The sample instance
+	 * @return List<Transition>	The predicted transitions
+	 */
+	@Override
+	public List<Transition> decode(ParseSample instance) {
+		if (beamSize == 1) {
+			return this.decodeGreedy(instance);
+		}
+		return this.decodeBeam(instance);
+	}
+
+	/**
+	 * Decodes the transitions greedily.
+	 * The golden label of each transition is the best scored transition among the transitions of the minimum cost,
+	 * which is zero unless the golden tree is non-projective.
+	 *
+	 * @param instance	The sample instance
+	 * @return List<Transition>	The predicted transitions
+	 */
+	private List<Transition> decodeGreedy(ParseSample instance) {
+		List<Transition> transitions = new ArrayList<Transition>();
+		String[] words = featureGenerator.normalizeWords(instance);
+		String[] goldenLabels = labeledArcs ? instance.deprels : null;
+		ArcEagerState state = new ArcEagerState(instance.length());
+		int[] costs = new int[types.length];
+
+		while (!state.isTerminal()) {
+			String[] features = featureGenerator.getFeatures(instance, words, state);
+			double[] scores = score(features);
+
+			int best = -1;
+			int minCost = Integer.MAX_VALUE;
+			for (int t = 0; t < types.length; t++) {
+				if (!state.isValid(types[t])) {
+					continue;
+				}
+				costs[t] = state.cost(types[t], arcLabels[t], instance.heads, goldenLabels);
+				minCost = Math.min(minCost, costs[t]);
+				if (best < 0 || scores[t] > scores[best]) {
+					best = t;
+				}
+			}
+			int golden = -1;
+			for (int t = 0; t < types.length; t++) {
+				if (state.isValid(types[t]) && costs[t] == minCost && (golden < 0 || scores[t] > scores[golden])) {
+					golden = t;
+				}
+			}
+
+			Transition transition = new Transition(getName(best), Arrays.asList(features));
+			transition.setGoldenLabel(getName(golden));
+			transition.setGold(costs[best] == minCost);
+			transitions.add(transition);
+			state.apply(types[best], arcLabels[best], scores[best]);
+		}
+
+		return transitions;
+	}
+
+	/**
+	 * Decodes the transitions by the beam search with the early update.
+	 * The i-th predicted transition is paired with the i-th transition of the static oracle as its golden transition,
+	 * and the transitions are decoded until the transitions of the static oracle fall out of the beam.
+	 * The predicted transitions are gold as long as they are the same as the transitions of the static oracle,
+	 * so the perceptron is updated by the features of the best transitions and the golden transitions after they diverge.
+	 *
+	 * @param instance	The sample instance
+	 * @return List<Transition>	The predicted transitions
+	 */
+	private List<Transition> decodeBeam(ParseSample instance) {
+		List<Transition> goldenTransitions = this.getGoldenStructures(instance);
+		int[] golden = new int[goldenTransitions.size()];
+		for (int i = 0; i < golden.length; i++) {
+			golden[i] = model.getLabelIndex().indexOf(goldenTransitions.get(i).getLabel());
+		}
+
+		String[] words = featureGenerator.normalizeWords(instance);
+		List<BeamItem> beam = new ArrayList<BeamItem>(beamSize);
+		beam.add(new BeamItem(new ArcEagerState(instance.length())));
+
+		int step = 0;
+		while (step < golden.length) {
+			beam = this.advance(instance, words, beam, beamSize, golden, step++);
+
+			boolean goldInBeam = false;
+			for (BeamItem item : beam) {
+				goldInBeam |= item.gold;
+			}
+			if (!goldInBeam) {
+				break;
+			}
+		}
+
+		// the best transitions are paired with the golden transitions of the same number
+		BeamItem[] path = new BeamItem[step];
+		for (BeamItem item = beam.get(0); item.parent != null; item = item.parent) {
+			path[--step] = item;
+		}
+		List<Transition> transitions = new ArrayList<Transition>(path.length);
+		for (int i = 0; i < path.length; i++) {
+			Transition transition = new Transition(getName(path[i].transition), Arrays.asList(path[i].parent.features));
+			transition.setGoldenLabel(goldenTransitions.get(i).getLabel());
+			transition.setGoldenFeatures(goldenTransitions.get(i).getFeatures());
+			transition.setGold(path[i].gold);
+			transitions.add(transition);
+		}
+
+		return transitions;
+	}
+
+	/**
+	 * Decodes the transitions greedily, only the best transitions are decoded for any K.
+	 *
+	 * @param instance	The sample instance
+	 * @param K	The k best
+	 * @return List<List<Transition>>	The best transitions
+	 */
+	@Override
+	public List<List<Transition>> decode(ParseSample instance, int K) {
+		List<List<Transition>> kBestTransitions = new ArrayList<List<Transition>>();
+		kBestTransitions.add(this.decode(instance));
+
+		return kBestTransitions;
+	}
+
+	/**
+	 * Parses the sentence by the beam search.
+	 * The configurations of the beam have taken the same number of the transitions, and reach the end of the sentence together.
+	 *
+	 * @param instance	The sample instance
+	 * @param beamSize	The size of the beam, 1 for the greedy search
+	 * @param K	The k best
+	 * @return List<List<Parse>>	The K-best parses, K is limited to the beam size
+	 */
+	public List<List<Parse>> parse(ParseSample instance, int beamSize, int K) {
+		if (beamSize < 1) {
+			throw new IllegalArgumentException("The beam size should be more than 0: " + beamSize);
+		}
+		String[] words = featureGenerator.normalizeWords(instance);
+		List<ArcEagerState> states = new ArrayList<ArcEagerState>(beamSize);
+
+		if (beamSize == 1) {
+			ArcEagerState state = new ArcEagerState(instance.length());
+			while (!state.isTerminal()) {
+				double[] scores = score(featureGenerator.getFeatures(instance, words, state));
+				int best = -1;
+				for (int t = 0; t < types.length; t++) {
+					if (state.isValid(types[t]) && (best < 0 || scores[t] > scores[best])) {
+						best = t;
+					}
+				}
+				state.apply(types[best], arcLabels[best], scores[best]);
+			}
+			states.add(state);
+		}
+		else {
+			List<BeamItem> beam = new ArrayList<BeamItem>(beamSize);
+			beam.add(new BeamItem(new ArcEagerState(instance.length())));
+			for (int step = 0; !beam.get(0).state.isTerminal(); step++) {
+				beam = this.advance(instance, words, beam, beamSize, null, step);
+			}
+			for (BeamItem item : beam) {
+				states.add(item.state);
+			}
+		}
+
+		List<List<Parse>> kBestParses = new ArrayList<List<Parse>>();
+		for (int k = 0; k < K && k < states.size(); k++) {
+			kBestParses.add(getParses(states.get(k), instance));
+		}
+
+		return kBestParses;
+	}
+
+	/**
+	 * Takes the next transitions of the configurations of the beam, and keeps the best configurations.
+	 * Only the configurations of the selected candidates are copied.
+	 *
+	 * @param instance
+	 * @param words
+	 * @param beam	The configurations which have taken the same number of the transitions
+	 * @param beamSize
+	 * @param golden	The transitions of the static oracle, or null in parsing time
+	 * @param step	The number of the transitions taken by the configurations of the beam
+	 * @return	The next beam
+	 */
+	private List<BeamItem> advance(ParseSample instance, String[] words, List<BeamItem> beam, int beamSize, int[] golden, int step) {
+		List<Candidate> candidates = new ArrayList<Candidate>();
+		for (int i = 0; i < beam.size(); i++) {
+			BeamItem item = beam.get(i);
+			item.features = featureGenerator.getFeatures(instance, words, item.state);
+			double[] scores = score(item.features);
+			for (int t = 0; t < types.length; t++) {
+				if (item.state.isValid(types[t])) {
+					candidates.add(new Candidate(i, t, item.state.getScore() + scores[t], scores[t]));
+				}
+			}
+		}
+		Collections.sort(candidates);
+
+		List<BeamItem> nextBeam = new ArrayList<BeamItem>(beamSize);
+		for (int i = 0; i < candidates.size() && i < beamSize; i++) {
+			Candidate candidate = candidates.get(i);
+			BeamItem parent = beam.get(candidate.state);
+			ArcEagerState state = new ArcEagerState(parent.state);
+			state.apply(types[candidate.transition], arcLabels[candidate.transition], candidate.transitionScore);
+			BeamItem item = new BeamItem(state);
+			item.parent = parent;
+			item.transition = candidate.transition;
+			item.gold = golden != null && parent.gold && candidate.transition == golden[step];
+			nextBeam.add(item);
+		}
+
+		return nextBeam;
+	}
+
+	/**
+	 * Gets the parses of the arcs of the configuration.
+	 * The tokens which have no head are attached to ROOT.
+	 *
+	 * @param state
+	 * @param instance
+	 * @return
+	 */
+	private List<Parse> getParses(ArcEagerState state, ParseSample instance) {
+		List<Parse> parses = new ArrayList<Parse>(instance.length() - 1);
+		for (int modifier = 1; modifier < instance.length(); modifier++) {
+			int head = state.getHead(modifier);
+			String label = state.getLabel(modifier);
+			if (head < 0) {
+				head = 0;
+				label = labeledArcs ? ROOT_LABEL : null;
+			}
+			Parse parse = new Parse(modifier, head, label);
+			parse.setWord(instance.forms != null ? instance.forms[modifier] : null);
+			parse.setPostag(instance.postags != null ? instance.postags[modifier] : null);
+			parse.setCpostag(instance.cpostags != null ? instance.cpostags[modifier] : null);
+			parse.setScore(state.getArcScore(modifier));
+			if (instance.heads != null) {
+				parse.setGoldenHead(instance.heads[modifier]);
+				if (labeledArcs) {
+					parse.setGoldenLabel(instance.deprels[modifier]);
+				}
+				parse.setGold(instance.heads[modifier] == head && (!labeledArcs || instance.deprels[modifier].equals(label)));
+			}
+			parses.add(parse);
+		}
+
+		return parses;
+	}
+
+	private double[] score(String[] features) {
+		double[] scores = new double[types.length];
+		model.addScores(model.getFeatureIndex().indexesOf(features), scores);
+		return scores;
+	}
+
+	private String getName(int transition) {
+		return model.getLabelIndex().get(transition).toString();
+	}
+
+	/**
+	 * The configuration of the beam, and the transition which the configuration is derived by from its parent.
+	 */
+	private static class BeamItem {
+		private ArcEagerState state;
+		private BeamItem parent;
+		private int transition = -1;
+		/** the features of the configuration, which are generated when the configuration is expanded */
+		private String[] features;
+		/** true if all the transitions to the configuration are the transitions of the static oracle */
+		private boolean gold = true;
+
+		private BeamItem(ArcEagerState state) {
+			this.state = state;
+		}
+	}
+
+	/**
+	 * The transition from a configuration of the beam, which is copied only if it is selected.
+	 */
+	private static class Candidate implements Comparable<Candidate> {
+		private int state;
+		private int transition;
+		private double score;
+		private double transitionScore;
+
+		private Candidate(int state, int transition, double score, double transitionScore) {
+			this.state = state;
+			this.transition = transition;
+			this.score = score;
+			this.transitionScore = transitionScore;
+		}
+
+		@Override
+		public int compareTo(Candidate other) {
+			return Double.compare(other.score, score);
+		}
+	}
+
+}
@@ -0,0 +1,121 @@
+package com.yglab.nlp.parser.dep;
+
+import java.util.List;
+
+import com.yglab.nlp.model.AbstractModel;
+import com.yglab.nlp.model.EventStream;
+import com.yglab.nlp.model.Options;
+import com.yglab.nlp.parser.Parse;
+import com.yglab.nlp.parser.ParseSample;
+import com.yglab.nlp.perceptron.MutablePerceptronModel;
+import com.yglab.nlp.perceptron.PerceptronModel;
+import com.yglab.nlp.perceptron.PerceptronTrainer;
+import com.yglab.nlp.postag.POSTagger;
+
+
+/**
+ * The arc-eager transition based dependency parser, which parses the sentence in linear time
+ * instead of the cubic time of the graph based {@link DependencyParser}.
+ * The parse is projective like the parse of {@link EisnerDependencyDecoder}.
+ * The model is trained by the same perceptron trainer with the transitions of {@link ArcEagerDecoder}.
+ * The beam size of the training is stored in the option {@link Options#BEAM_SIZE} of the model,
+ * which is the default beam size of the parser, since the beam search is reliable only with the model trained by the beam.
+ *
+ * @author Younggue Bae
+ */
+public class ArcEagerDependencyParser extends DependencyParser {
+
+	public static final int DEFAULT_BEAM_SIZE = 1;
+
+	private ArcEagerDecoder transitionDecoder;
+	private int beamSize;
+
+	/**
+	 * Initializes the arc-eager parser with the specified model, whose beam size is the beam size of the training.
+	 *
+	 * @param model
+	 * @param featureGenerator
+	 */
+	public ArcEagerDependencyParser(AbstractModel model, ArcEagerFeatureGenerator featureGenerator) {
+		this(model, featureGenerator, getBeamSize(model), null);
+	}
+
+	/**
+	 * Initializes the arc-eager parser with the specified model.
+	 *
+	 * @param model
+	 * @param featureGenerator
+	 * @param beamSize	The size of the beam, 1 for the greedy search
+	 * @param posTagger
+	 */
+	public ArcEagerDependencyParser(AbstractModel model, ArcEagerFeatureGenerator featureGenerator, int beamSize, POSTagger posTagger) {
+		super(model, null, posTagger);
+		if (beamSize < 1) {
+			throw new IllegalArgumentException("The beam size should be more than 0: " + beamSize);
+		}
+		this.transitionDecoder = new ArcEagerDecoder(featureGenerator, this.model);
+		this.beamSize = beamSize;
+	}
+
+	private static int getBeamSize(AbstractModel model) {
+		String beamSize = model.getOption(Options.BEAM_SIZE);
+		return beamSize != null ? Integer.parseInt(beamSize) : DEFAULT_BEAM_SIZE;
+	}
+
+	/**
+	 * Trains the transitions of the arc-eager parser by perceptron algorithm with the given train samples.
+	 * The options {@link Options#SHARDS}, {@link Options#THREADS} and {@link Options#MIXING} are
+	 * the same as {@link DependencyParser#train(List, String[], DependencyFeatureGenerator, Options)}.
+	 * If the option {@link Options#BEAM_SIZE} is more than 1, the model is trained by the beam search with the early update,
+	 * otherwise greedily with the dynamic oracle.
+	 *
+	 * @param trainSamples	The train samples
+	 * @param labels	The unique labels of the arcs, or null for the unlabeled arcs
+	 * @param featureGenerator	The configuration feature generator
+	 * @param options	The options
+	 * @return
+	 */
+	public static AbstractModel train(List<ParseSample> trainSamples, String[] labels,
+			ArcEagerFeatureGenerator featureGenerator, Options options) {
+
+		int iterations = Integer.parseInt(options.get(Options.ITERATIONS));
+
+		PerceptronModel model = new MutablePerceptronModel(ArcEagerDecoder.getTransitions(labels), true);
+		int beamSize = options.getInt(Options.BEAM_SIZE, DEFAULT_BEAM_SIZE);
+		ArcEagerDecoder decoder = new ArcEagerDecoder(featureGenerator, model, beamSize);
+		int shards = options.getInt(Options.SHARDS, 1);
+		int threads = options.getInt(Options.THREADS, shards);
+		boolean weightedMixing = Options.WEIGHTED_MIXING.equals(options.get(Options.MIXING));
+		PerceptronTrainer<ParseSample, Transition> trainer = new PerceptronTrainer<ParseSample, Transition>(decoder, shards, threads, weightedMixing);
+		EventStream<ParseSample, Transition> stream = new TransitionEventStream(trainSamples);
+
+		AbstractModel trainedModel = trainer.trainModel(stream, iterations);
+		trainedModel.setOption(Options.BEAM_SIZE, String.valueOf(beamSize));
+
+		return trainedModel;
+	}
+
+	/**
+	 * Parses a given instance into the dependency syntactic tree by the transitions.
+	 *
+	 * @param instance The parse sample instance
+	 * @param K	The K-best parses, which is limited to the beam size
+	 * @return
+	 */
+	@Override
+	public List<List<Parse>> parse(ParseSample instance, int K) {
+		return transitionDecoder.parse(instance, beamSize, K);
+	}
+
+	public int getBeamSize() {
+		return beamSize;
+	}
+
+	public void setBeamSize(int beamSize) {
+		if (beamSize < 1) {
+			throw new IllegalArgumentException("The beam size should be more than 0: " + beamSize);
+		}
+		this.beamSize = beamSize;
+	}
+
+}
@@ -0,0 +1,191 @@
+package com.yglab.nlp.parser.dep;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.yglab.nlp.dictionary.RegexFeatureDictionary;
+import com.yglab.nlp.parser.ParseSample;
+
+
+
+/**
+ * This class generates the features of the configuration for the arc-eager transition parser.
+ * The words are normalized in the same way as {@link DefaultDependencyFeatureGenerator}, only once per sentence.
+ * The reference paper for the feature templates is as below:
+ * "Transition-based dependency parsing with rich non-local features."
+ *  - Yue Zhang, Joakim Nivre, ACL 2011
+ *
+ * @author Younggue Bae
+ */
+public class ArcEagerFeatureGenerator {
+
+	private static final String NONE = "<none>";
+
+	private DefaultDependencyFeatureGenerator wordNormalizer;
+
+	public ArcEagerFeatureGenerator() {
+		this(null);
+	}
+
+	public ArcEagerFeatureGenerator(RegexFeatureDictionary featureDic) {
+		this.wordNormalizer = new DefaultDependencyFeatureGenerator(featureDic);
+	}
+
+	/**
+	 * Normalizes the words of the sentence, which is done once per sentence before the transitions.
+	 *
+	 * @param instance
+	 * @return
+	 */
+	public String[] normalizeWords(ParseSample instance) {
+		String[] words = new String[instance.length()];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = wordNormalizer.normalizeWord(instance.forms[i]);
+		}
+		return words;
+	}
+
+	/**
+	 * Gets the features of the configuration.
+	 *
+	 * @param instance
+	 * @param words	The words normalized by {@link #normalizeWords(ParseSample)}
+	 * @param state
+	 * @return
+	 */
+	public String[] getFeatures(ParseSample instance, String[] words, ArcEagerState state) {
+		List<String> features = new ArrayList<String>(64);
+
+		this.addUnigramFeatures(features, instance, words, state);
+		this.addBigramFeatures(features, instance, words, state);
+		this.addTrigramFeatures(features, instance, words, state);
+		this.addDistanceFeatures(features, instance, words, state);
+		this.addValencyFeatures(features, instance, words, state);
+		this.addLabelFeatures(features, instance, words, state);
+
+		return features.toArray(new String[features.size()]);
+	}
+
+	protected void addUnigramFeatures(List<String> features, ParseSample instance, String[] words, ArcEagerState state) {
+		int s0 = state.stack(0);
+		int n0 = state.input(0);
+		int n1 = state.input(1);
+		int n2 = state.input(2);
+
+		features.add("s0w=" + word(words, s0));
+		features.add("s0p=" + pos(instance, s0));
+		features.add("s0wp=" + word(words, s0) + " " + pos(instance, s0));
+		features.add("n0w=" + word(words, n0));
+		features.add("n0p=" + pos(instance, n0));
+		features.add("n0wp=" + word(words, n0) + " " + pos(instance, n0));
+		features.add("n1w=" + word(words, n1));
+		features.add("n1p=" + pos(instance, n1));
+		features.add("n1wp=" + word(words, n1) + " " + pos(instance, n1));
+		features.add("n2w=" + word(words, n2));
+		features.add("n2p=" + pos(instance, n2));
+		features.add("n2wp=" + word(words, n2) + " " + pos(instance, n2));
+	}
+
+	protected void addBigramFeatures(List<String> features, ParseSample instance, String[] words, ArcEagerState state) {
+		int s0 = state.stack(0);
+		int n0 = state.input(0);
+		int n1 = state.input(1);
+
+		features.add("s0wpn0wp=" + word(words, s0) + " " + pos(instance, s0) + " " + word(words, n0) + " " + pos(instance, n0));
+		features.add("s0wpn0w=" + word(words, s0) + " " + pos(instance, s0) + " " + word(words, n0));
+		features.add("s0wn0wp=" + word(words, s0) + " " + word(words, n0) + " " + pos(instance, n0));
+		features.add("s0wpn0p=" + word(words, s0) + " " + pos(instance, s0) + " " + pos(instance, n0));
+		features.add("s0pn0wp=" + pos(instance, s0) + " " + word(words, n0) + " " + pos(instance, n0));
+		features.add("s0wn0w=" + word(words, s0) + " " + word(words, n0));
+		features.add("s0pn0p=" + pos(instance, s0) + " " + pos(instance, n0));
+		features.add("s0cpn0cp=" + cpos(instance, s0) + " " + cpos(instance, n0));
+		features.add("n0pn1p=" + pos(instance, n0) + " " + pos(instance, n1));
+	}
+
+	protected void addTrigramFeatures(List<String> features, ParseSample instance, String[] words, ArcEagerState state) {
+		int s0 = state.stack(0);
+		int s1 = state.stack(1);
+		int n0 = state.input(0);
+		int n1 = state.input(1);
+		int n2 = state.input(2);
+		int s0h = s0 >= 0 ? state.getHead(s0) : -1;
+		int s0l = s0 >= 0 ? state.getLeftmost(s0) : -1;
+		int s0r = s0 >= 0 ? state.getRightmost(s0) : -1;
+		int n0l = n0 >= 0 ? state.getLeftmost(n0) : -1;
+
+		features.add("n0pn1pn2p=" + pos(instance, n0) + " " + pos(instance, n1) + " " + pos(instance, n2));
+		features.add("s0pn0pn1p=" + pos(instance, s0) + " " + pos(instance, n0) + " " + pos(instance, n1));
+		features.add("s1ps0pn0p=" + pos(instance, s1) + " " + pos(instance, s0) + " " + pos(instance, n0));
+		features.add("s0hps0pn0p=" + pos(instance, s0h) + " " + pos(instance, s0) + " " + pos(instance, n0));
+		features.add("s0ps0lpn0p=" + pos(instance, s0) + " " + pos(instance, s0l) + " " + pos(instance, n0));
+		features.add("s0ps0rpn0p=" + pos(instance, s0) + " " + pos(instance, s0r) + " " + pos(instance, n0));
+		features.add("s0pn0pn0lp=" + pos(instance, s0) + " " + pos(instance, n0) + " " + pos(instance, n0l));
+		features.add("s0hw=" + word(words, s0h));
+		features.add("s0lw=" + word(words, s0l));
+		features.add("s0rw=" + word(words, s0r));
+		features.add("n0lw=" + word(words, n0l));
+	}
+
+	protected void addDistanceFeatures(List<String> features, ParseSample instance, String[] words, ArcEagerState state) {
+		int s0 = state.stack(0);
+		int n0 = state.input(0);
+		String distance = NONE;
+		if (s0 >= 0 && n0 >= 0) {
+			distance = String.valueOf(Math.min(n0 - s0, 5));
+		}
+
+		features.add("s0wd=" + word(words, s0) + " " + distance);
+		features.add("s0pd=" + pos(instance, s0) + " " + distance);
+		features.add("n0wd=" + word(words, n0) + " " + distance);
+		features.add("n0pd=" + pos(instance, n0) + " " + distance);
+		features.add("s0wn0wd=" + word(words, s0) + " " + word(words, n0) + " " + distance);
+		features.add("s0pn0pd=" + pos(instance, s0) + " " + pos(instance, n0) + " " + distance);
+	}
+
+	protected void addValencyFeatures(List<String> features, ParseSample instance, String[] words, ArcEagerState state) {
+		int s0 = state.stack(0);
+		int n0 = state.input(0);
+		int s0vl = s0 >= 0 ? state.getLeftValency(s0) : 0;
+		int s0vr = s0 >= 0 ? state.getRightValency(s0) : 0;
+		int n0vl = n0 >= 0 ? state.getLeftValency(n0) : 0;
+
+		features.add("s0wvr=" + word(words, s0) + " " + s0vr);
+		features.add("s0pvr=" + pos(instance, s0) + " " + s0vr);
+		features.add("s0wvl=" + word(words, s0) + " " + s0vl);
+		features.add("s0pvl=" + pos(instance, s0) + " " + s0vl);
+		features.add("n0wvl=" + word(words, n0) + " " + n0vl);
+		features.add("n0pvl=" + pos(instance, n0) + " " + n0vl);
+	}
+
+	protected void addLabelFeatures(List<String> features, ParseSample instance, String[] words, ArcEagerState state) {
+		int s0 = state.stack(0);
+		int n0 = state.input(0);
+		int s0l = s0 >= 0 ? state.getLeftmost(s0) : -1;
+		int s0r = s0 >= 0 ? state.getRightmost(s0) : -1;
+		int n0l = n0 >= 0 ? state.getLeftmost(n0) : -1;
+
+		features.add("s0l=" + label(state, s0));
+		features.add("s0ll=" + label(state, s0l));
+		features.add("s0rl=" + label(state, s0r));
+		features.add("n0ll=" + label(state, n0l));
+		features.add("s0ps0ln0p=" + pos(instance, s0) + " " + label(state, s0) + " " + pos(instance, n0));
+	}
+
+	private static String word(String[] words, int token) {
+		return token >= 0 ? words[token] : NONE;
+	}
+
+	private static String pos(ParseSample instance, int token) {
+		return token >= 0 ? instance.postags[token] : NONE;
+	}
+
+	private static String cpos(ParseSample instance, int token) {
+		return token >= 0 ? instance.cpostags[token] : NONE;
+	}
+
+	private static String label(ArcEagerState state, int token) {
+		String label = token >= 0 ? state.getLabel(token) : null;
+		return label != null ? label : NONE;
+	}
+
+}
@@ -0,0 +1,309 @@
+package com.yglab.nlp.parser.dep;
+
+import java.util.Arrays;
+
+/**
+ * The configuration of the arc-eager transition system, which is the stack, the buffer and the arcs built so far.
+ * ROOT is at the bottom of the stack, and the buffer is the tokens from the input position to the end of the sentence.
+ * <p>
+ * The transitions are as belows, where s is the top of the stack and b is the front of the buffer:
+ * <pre>
+ * SHIFT:  pushes b onto the stack
+ * REDUCE: pops s which has the head, or any s if the buffer is empty
+ * LEFT:   adds the arc from b to s and pops s which has no head
+ * RIGHT:  adds the arc from s to b and pushes b onto the stack
+ * </pre>
+ * The configuration is terminal when the buffer is empty and only ROOT is left on the stack,
+ * so every token is pushed and popped exactly once, and every derivation of a sentence has 2(n-1) transitions
+ * for the n tokens including ROOT. The scores of the configurations in a beam are the sums of the same number of
+ * the transitions, which are comparable with each other.
+ * The reference paper for this implementation is as below:
+ * "Algorithms for deterministic incremental dependency parsing."
+ *  - Joakim Nivre, Computational Linguistics, 2008
+ *
+ * @author Younggue Bae
+ */
+public class ArcEagerState {
+
+	public static final int SHIFT = 0;
+	public static final int REDUCE = 1;
+	public static final int LEFT = 2;
+	public static final int RIGHT = 3;
+
+	private final int length;
+	private final int[] stack;
+	private int stackSize;
+	private int input;
+	private final int[] heads;
+	private final String[] labels;
+	private final int[] leftmost;
+	private final int[] rightmost;
+	private final int[] leftValency;
+	private final int[] rightValency;
+	/** the score of the transition which added the arc of each modifier */
+	private final double[] arcScores;
+	/** the sum of the scores of the transitions */
+	private double score;
+
+	/**
+	 * Creates the initial configuration of the sentence whose length includes ROOT.
+	 *
+	 * @param length
+	 */
+	public ArcEagerState(int length) {
+		this.length = length;
+		this.stack = new int[length];
+		this.heads = new int[length];
+		this.labels = new String[length];
+		this.leftmost = new int[length];
+		this.rightmost = new int[length];
+		this.leftValency = new int[length];
+		this.rightValency = new int[length];
+		this.arcScores = new double[length];
+		Arrays.fill(heads, -1);
+		Arrays.fill(leftmost, -1);
+		Arrays.fill(rightmost, -1);
+
+		stack[stackSize++] = 0;
+		input = 1;
+	}
+
+	/**
+	 * Copies the configuration.
+	 *
+	 * @param state
+	 */
+	public ArcEagerState(ArcEagerState state) {
+		this.length = state.length;
+		this.stack = state.stack.clone();
+		this.stackSize = state.stackSize;
+		this.input = state.input;
+		this.heads = state.heads.clone();
+		this.labels = state.labels.clone();
+		this.leftmost = state.leftmost.clone();
+		this.rightmost = state.rightmost.clone();
+		this.leftValency = state.leftValency.clone();
+		this.rightValency = state.rightValency.clone();
+		this.arcScores = state.arcScores.clone();
+		this.score = state.score;
+	}
+
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * Returns true if the buffer is empty and only ROOT is left on the stack.
+	 *
+	 * @return
+	 */
+	public boolean isTerminal() {
+		return input >= length && stackSize == 1;
+	}
+
+	/**
+	 * Gets the i-th token from the top of the stack.
+	 *
+	 * @param i
+	 * @return	the token, or -1 if the stack has no such token
+	 */
+	public int stack(int i) {
+		return i < stackSize ? stack[stackSize - 1 - i] : -1;
+	}
+
+	public int stackSize() {
+		return stackSize;
+	}
+
+	/**
+	 * Gets the i-th token of the buffer.
+	 *
+	 * @param i
+	 * @return	the token, or -1 if the buffer has no such token
+	 */
+	public int input(int i) {
+		return input + i < length ? input + i : -1;
+	}
+
+	public int getHead(int token) {
+		return heads[token];
+	}
+
+	public String getLabel(int token) {
+		return labels[token];
+	}
+
+	public int getLeftmost(int token) {
+		return leftmost[token];
+	}
+
+	public int getRightmost(int token) {
+		return rightmost[token];
+	}
+
+	public int getLeftValency(int token) {
+		return leftValency[token];
+	}
+
+	public int getRightValency(int token) {
+		return rightValency[token];
+	}
+
+	public double getArcScore(int token) {
+		return arcScores[token];
+	}
+
+	public double getScore() {
+		return score;
+	}
+
+	/**
+	 * Checks if the transition can be applied to the configuration.
+	 *
+	 * @param transition	{@link #SHIFT}, {@link #REDUCE}, {@link #LEFT} or {@link #RIGHT}
+	 * @return
+	 */
+	public boolean isValid(int transition) {
+		if (isTerminal()) {
+			return false;
+		}
+		int s = stack(0);
+		boolean empty = input >= length;
+		switch (transition) {
+		case SHIFT:
+			return !empty;
+		case REDUCE:
+			// the tokens left without the head are attached to ROOT after the parse
+			return s > 0 && (heads[s] >= 0 || empty);
+		case LEFT:
+			return !empty && s > 0 && heads[s] < 0;
+		case RIGHT:
+			return !empty && s >= 0;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Applies the transition to the configuration.
+	 *
+	 * @param transition	{@link #SHIFT}, {@link #REDUCE}, {@link #LEFT} or {@link #RIGHT}
+	 * @param label	The label of the arc, or null
+	 * @param transitionScore	The score of the transition
+	 */
+	public void apply(int transition, String label, double transitionScore) {
+		int s = stack(0);
+		int b = input;
+		switch (transition) {
+		case SHIFT:
+			stack[stackSize++] = input++;
+			break;
+		case REDUCE:
+			stackSize--;
+			break;
+		case LEFT:
+			addArc(b, s, label, transitionScore);
+			stackSize--;
+			break;
+		case RIGHT:
+			addArc(s, b, label, transitionScore);
+			stack[stackSize++] = input++;
+			break;
+		default:
+			throw new IllegalArgumentException("Invalid transition: " + transition);
+		}
+		score += transitionScore;
+	}
+
+	private void addArc(int head, int modifier, String label, double arcScore) {
+		heads[modifier] = head;
+		labels[modifier] = label;
+		arcScores[modifier] = arcScore;
+		if (modifier < head) {
+			leftValency[head]++;
+			if (leftmost[head] < 0 || modifier < leftmost[head]) {
+				leftmost[head] = modifier;
+			}
+		}
+		else {
+			rightValency[head]++;
+			if (rightmost[head] < 0 || modifier > rightmost[head]) {
+				rightmost[head] = modifier;
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of the golden arcs which can't be built any more after the transition,
+	 * which is the dynamic oracle of the arc-eager system.
+	 * The transition of the zero cost is always in the best parses reachable from the configuration.
+	 * <p>
+	 * The reference paper for this implementation is as below:
+	 * "A dynamic oracle for arc-eager dependency parsing."
+	 *  - Yoav Goldberg, Joakim Nivre, COLING 2012
+	 *
+	 * @param transition	The valid transition
+	 * @param label	The label of the arc, or null
+	 * @param goldenHeads
+	 * @param goldenLabels	The golden labels, or null to ignore the labels
+	 * @return
+	 */
+	public int cost(int transition, String label, int[] goldenHeads, String[] goldenLabels) {
+		int s = stack(0);
+		int b = input;
+		int cost = 0;
+
+		switch (transition) {
+		case SHIFT:
+			// b can't get the head nor the headless dependents in the stack
+			for (int i = 0; i < stackSize; i++) {
+				int k = stack[i];
+				if (goldenHeads[b] == k || (heads[k] < 0 && goldenHeads[k] == b)) {
+					cost++;
+				}
+			}
+			break;
+		case REDUCE:
+			// s can't get the dependents in the buffer
+			for (int k = b; k < length; k++) {
+				if (goldenHeads[k] == s) {
+					cost++;
+				}
+			}
+			break;
+		case LEFT:
+			// s can't get the head in the rest of the buffer nor the dependents in the buffer
+			for (int k = b; k < length; k++) {
+				if ((k > b && goldenHeads[s] == k) || goldenHeads[k] == s) {
+					cost++;
+				}
+			}
+			if (goldenHeads[s] == b && goldenLabels != null && !goldenLabels[s].equals(label)) {
+				cost++;
+			}
+			break;
+		case RIGHT:
+			// b can't get the head in the stack below s or in the buffer, nor the headless dependents in the stack
+			for (int i = 0; i < stackSize; i++) {
+				int k = stack[i];
+				if ((k != s && goldenHeads[b] == k) || (heads[k] < 0 && goldenHeads[k] == b)) {
+					cost++;
+				}
+			}
+			for (int k = b + 1; k < length; k++) {
+				if (goldenHeads[b] == k) {
+					cost++;
+				}
+			}
+			if (goldenHeads[b] == s && goldenLabels != null && !goldenLabels[b].equals(label)) {
+				cost++;
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("Invalid transition: " + transition);
+		}
+
+		return cost;
+	}
+
+}
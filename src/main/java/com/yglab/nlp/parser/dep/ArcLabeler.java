@@ -0,0 +1,167 @@
+package com.yglab.nlp.parser.dep;
+
+import java.util.List;
+
+import com.yglab.nlp.model.AbstractModel;
+import com.yglab.nlp.parser.Parse;
+import com.yglab.nlp.parser.ParseSample;
+import com.yglab.nlp.perceptron.MutablePerceptronModel;
+import com.yglab.nlp.perceptron.PerceptronModel;
+
+/**
+ * The second stage classifier which labels the arcs of the parse decoded by the unlabeled model.
+ * The tree is decoded with the scores of a single label, and only the n - 1 arcs of the decoded tree
+ * are scored for all the labels, so the labeled parsing costs little more than the unlabeled parsing.
+ * <p>
+ * The classifier is a multi-class perceptron over the features of the arc by the same feature generator as the parser,
+ * which is trained on the golden arcs of the train samples.
+ *
+ * @author Younggue Bae
+ */
+public class ArcLabeler {
+
+	private PerceptronModel model;
+	private DependencyFeatureGenerator<ParseSample> featureGenerator;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param model	The model trained by {@link #train(List, String[], DependencyFeatureGenerator, int)}
+	 * @param featureGenerator	The same feature generator as the training
+	 */
+	public ArcLabeler(AbstractModel model, DependencyFeatureGenerator<ParseSample> featureGenerator) {
+		if (featureGenerator instanceof HashedDependencyFeatureGenerator) {
+			int numFeatures = ((HashedDependencyFeatureGenerator) featureGenerator).numFeatures();
+			if (model.getParameters().numFeatures() != numFeatures) {
+				throw new IllegalArgumentException("The number of features of the model(" + model.getParameters().numFeatures() +
+						") doesn't match with the hashed features(" + numFeatures + ").");
+			}
+		}
+		this.model = new PerceptronModel(model.getLabelIndex(), model.getFeatureIndex(), model.getParameters(), true);
+		this.featureGenerator = featureGenerator;
+	}
+
+	/**
+	 * Trains the classifier of the labels with the golden arcs of the given train samples.
+	 *
+	 * @param trainSamples
+	 * @param labels	The unique labels
+	 * @param featureGenerator
+	 * @param iterations
+	 * @return
+	 */
+	public static AbstractModel train(List<ParseSample> trainSamples, String[] labels,
+			DependencyFeatureGenerator<ParseSample> featureGenerator, int iterations) {
+		if (labels == null) {
+			throw new IllegalArgumentException("The labels are required to train the labeler.");
+		}
+		int numHashedFeatures = 0;
+		if (featureGenerator instanceof HashedDependencyFeatureGenerator) {
+			numHashedFeatures = ((HashedDependencyFeatureGenerator) featureGenerator).numFeatures();
+		}
+		MutablePerceptronModel model = new MutablePerceptronModel(labels, true, numHashedFeatures);
+
+		for (int i = 1; i <= iterations; i++) {
+			int errors = 0;
+			int total = 0;
+			for (ParseSample instance : trainSamples) {
+				ArcFeatures arcFeatures = new ArcFeatures(instance, featureGenerator);
+				for (int modifier = 1; modifier < instance.length(); modifier++) {
+					String gold = instance.deprels[modifier];
+					int[] featureIds = arcFeatures.getFeatureIds(instance.heads[modifier], modifier, model);
+					String best = getBestLabel(model, featureIds);
+
+					total++;
+					if (!gold.equals(best)) {
+						errors++;
+						String[] features = arcFeatures.getFeatures();
+						if (features != null) {
+							for (String feature : features) {
+								model.addWeight(gold, feature, 1);
+								model.addWeight(best, feature, -1);
+							}
+						}
+						else {
+							model.addWeights(gold, featureIds, 1);
+							model.addWeights(best, featureIds, -1);
+						}
+					}
+				}
+				model.tick();
+			}
+			System.err.println("Labeler iteration: " + i + ", label errors = " + errors + " / " + total);
+		}
+
+		return new PerceptronModel(model.getLabelIndex(), model.getFeatureIndex(), model.toAveraged2D(), true);
+	}
+
+	/**
+	 * Labels the arcs of the parse with the best labels.
+	 * If the instance has the golden heads, the golden labels and the gold flags of the arcs are also set.
+	 *
+	 * @param instance
+	 * @param parses	The arcs of the parse
+	 */
+	public void label(ParseSample instance, List<Parse> parses) {
+		ArcFeatures arcFeatures = new ArcFeatures(instance, featureGenerator);
+		for (Parse parse : parses) {
+			int modifier = parse.getIndex();
+			int[] featureIds = arcFeatures.getFeatureIds(parse.getHead(), modifier, model);
+			parse.setLabel(getBestLabel(model, featureIds));
+			if (instance.heads != null) {
+				parse.setGoldenHead(instance.heads[modifier]);
+				parse.setGoldenLabel(instance.deprels[modifier]);
+				parse.setGold(instance.heads[modifier] == parse.getHead() && instance.deprels[modifier].equals(parse.getLabel()));
+			}
+		}
+	}
+
+	private static String getBestLabel(PerceptronModel model, int[] featureIds) {
+		double[] scores = new double[model.getLabelIndex().size()];
+		model.addScores(featureIds, scores);
+
+		int best = -1;
+		for (int label = 0; label < scores.length; label++) {
+			if (best < 0 || scores[label] > scores[best]) {
+				best = label;
+			}
+		}
+		return (String) model.getLabelIndex().get(best);
+	}
+
+	/**
+	 * The features of the arcs of a sentence, the hashed feature ids if the feature generator is hashed.
+	 */
+	private static class ArcFeatures {
+		private ParseSample instance;
+		private DependencyFeatureGenerator<ParseSample> featureGenerator;
+		private HashedDependencyFeatureGenerator.Sentence sentence;
+		private String[] features;
+
+		private ArcFeatures(ParseSample instance, DependencyFeatureGenerator<ParseSample> featureGenerator) {
+			this.instance = instance;
+			this.featureGenerator = featureGenerator;
+			if (featureGenerator instanceof HashedDependencyFeatureGenerator) {
+				this.sentence = ((HashedDependencyFeatureGenerator) featureGenerator).compile(instance);
+			}
+		}
+
+		private int[] getFeatureIds(int head, int modifier, PerceptronModel model) {
+			if (sentence != null) {
+				return ((HashedDependencyFeatureGenerator) featureGenerator).getFeatureIds(sentence, head, modifier);
+			}
+			features = featureGenerator.getFeatures(instance, head, modifier);
+			return model.getFeatureIndex().indexesOf(features);
+		}
+
+		/**
+		 * Gets the features of the last arc, or null if the features are hashed.
+		 *
+		 * @return
+		 */
+		private String[] getFeatures() {
+			return features;
+		}
+	}
+
+}
@@ -0,0 +1,212 @@
+package com.yglab.nlp.parser.dep;
+
+import java.util.List;
+
+import com.yglab.nlp.model.AbstractModel;
+import com.yglab.nlp.model.Options;
+import com.yglab.nlp.parser.ParseSample;
+import com.yglab.nlp.perceptron.MutablePerceptronModel;
+import com.yglab.nlp.perceptron.PerceptronModel;
+
+/**
+ * The first stage filter which prunes the unlikely arcs before the arcs are scored by the main model.
+ * A cheap model with the part-of-speech pair and distance features only scores every head of each modifier,
+ * and only the top-k heads of each modifier within the distance cap are kept.
+ * The arc from the previous token is always kept, so the kept arcs always form at least one projective tree.
+ * The arcs from ROOT are not limited by the distance cap, since the root of a head-final sentence is far from its dependents.
+ * <p>
+ * The cheap model is a head selection perceptron, which picks the head of each modifier independently.
+ * The pruner is trained by {@link DependencyParser#train(List, String[], DependencyFeatureGenerator, Options)}
+ * if the option {@link Options#PRUNE_HEADS} is set, and is saved together with the parser model.
+ *
+ * @author Younggue Bae
+ */
+public class ArcPruner {
+
+	public static final int DEFAULT_HEADS = 10;
+
+	private PerceptronModel model;
+	private int heads;
+	private int maxDistance;
+
+	/**
+	 * Constructor with the options {@link Options#PRUNE_HEADS} and {@link Options#PRUNE_DISTANCE} of the model.
+	 *
+	 * @param model	The model trained by {@link #train(List, int)} with the options
+	 */
+	public ArcPruner(AbstractModel model) {
+		this(model, getInt(model, Options.PRUNE_HEADS, DEFAULT_HEADS), getInt(model, Options.PRUNE_DISTANCE, 0));
+	}
+
+	/**
+	 * Constructor with the options {@link Options#PRUNE_HEADS} and {@link Options#PRUNE_DISTANCE}.
+	 *
+	 * @param model	The model trained by {@link #train(List, int)}
+	 * @param options
+	 */
+	public ArcPruner(AbstractModel model, Options options) {
+		this(model, options.getInt(Options.PRUNE_HEADS, DEFAULT_HEADS), options.getInt(Options.PRUNE_DISTANCE, 0));
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param model	The model trained by {@link #train(List, int)}
+	 * @param heads	The number of the heads to keep for each modifier
+	 * @param maxDistance	The maximum distance between the head and the modifier, 0 for no limit
+	 */
+	public ArcPruner(AbstractModel model, int heads, int maxDistance) {
+		if (heads < 1) {
+			throw new IllegalArgumentException("The number of heads to keep must be positive: " + heads);
+		}
+		this.model = new PerceptronModel(model.getLabelIndex(), model.getFeatureIndex(), model.getParameters(), false);
+		this.heads = heads;
+		this.maxDistance = maxDistance;
+	}
+
+	private static int getInt(AbstractModel model, String key, int defaultValue) {
+		String value = model.getOption(key);
+		return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+	}
+
+	/**
+	 * Trains the cheap model of the pruner with the given train samples.
+	 *
+	 * @param trainSamples
+	 * @param iterations
+	 * @return
+	 */
+	public static AbstractModel train(List<ParseSample> trainSamples, int iterations) {
+		MutablePerceptronModel model = new MutablePerceptronModel(null, false);
+
+		for (int i = 1; i <= iterations; i++) {
+			int errors = 0;
+			int total = 0;
+			for (ParseSample instance : trainSamples) {
+				for (int modifier = 1; modifier < instance.length(); modifier++) {
+					int gold = instance.heads[modifier];
+					int best = -1;
+					double bestScore = Double.NEGATIVE_INFINITY;
+					for (int head = 0; head < instance.length(); head++) {
+						if (head == modifier) {
+							continue;
+						}
+						double score = 0.0;
+						for (String feature : getFeatures(instance, head, modifier)) {
+							score += model.getWeight(null, feature);
+						}
+						if (score > bestScore) {
+							bestScore = score;
+							best = head;
+						}
+					}
+
+					total++;
+					if (best != gold) {
+						errors++;
+						for (String feature : getFeatures(instance, gold, modifier)) {
+							model.addWeight(null, feature, 1);
+						}
+						for (String feature : getFeatures(instance, best, modifier)) {
+							model.addWeight(null, feature, -1);
+						}
+					}
+				}
+				model.tick();
+			}
+			System.err.println("Pruner iteration: " + i + ", head errors = " + errors + " / " + total);
+		}
+
+		return new PerceptronModel(model.getLabelIndex(), model.getFeatureIndex(), model.toAveraged2D(), false);
+	}
+
+	/**
+	 * Prunes the arcs of the instance.
+	 *
+	 * @param instance
+	 * @return	kept[head * length + modifier] is true if the arc is kept
+	 */
+	public boolean[] prune(ParseSample instance) {
+		int length = instance.length();
+		boolean[] kept = new boolean[length * length];
+		double[] scores = new double[length];
+		double[] labelScores = new double[1];
+
+		for (int modifier = 1; modifier < length; modifier++) {
+			for (int head = 0; head < length; head++) {
+				scores[head] = Double.NEGATIVE_INFINITY;
+				if (head == modifier || (maxDistance > 0 && head > 0 && Math.abs(head - modifier) > maxDistance)) {
+					continue;
+				}
+				labelScores[0] = 0.0;
+				model.addScores(model.getFeatureIndex().indexesOf(getFeatures(instance, head, modifier)), labelScores);
+				scores[head] = labelScores[0];
+			}
+
+			kept[(modifier - 1) * length + modifier] = true;
+			for (int k = 0; k < heads; k++) {
+				int best = -1;
+				for (int head = 0; head < length; head++) {
+					if (scores[head] != Double.NEGATIVE_INFINITY && (best < 0 || scores[head] > scores[best])) {
+						best = head;
+					}
+				}
+				if (best < 0) {
+					break;
+				}
+				kept[best * length + modifier] = true;
+				scores[best] = Double.NEGATIVE_INFINITY;
+			}
+		}
+
+		return kept;
+	}
+
+	/**
+	 * Gets the cheap features of the arc.
+	 *
+	 * @param instance
+	 * @param head
+	 * @param modifier
+	 * @return
+	 */
+	static String[] getFeatures(ParseSample instance, int head, int modifier) {
+		int distance = Math.abs(head - modifier);
+		String direction = head > modifier ? "left" : "right";
+		String distanceFeature;
+		if (distance > 10) {
+			distanceFeature = direction + 10;
+		}
+		else if (distance > 5) {
+			distanceFeature = direction + 5;
+		}
+		else {
+			distanceFeature = direction + (distance - 1);
+		}
+
+		String headPOS = instance.postags[head];
+		String modifierPOS = instance.postags[modifier];
+		String headCPOS = instance.cpostags[head];
+		String modifierCPOS = instance.cpostags[modifier];
+		int length = instance.length();
+		String headPrevPOS = head > 0 ? instance.postags[head - 1] : "<S>";
+		String headNextPOS = head + 1 < length ? instance.postags[head + 1] : "</S>";
+		String modifierPrevPOS = modifier > 0 ? instance.postags[modifier - 1] : "<S>";
+		String modifierNextPOS = modifier + 1 < length ? instance.postags[modifier + 1] : "</S>";
+
+		return new String[] {
+			"distance=" + distanceFeature,
+			"headPOS=" + headPOS + " " + distanceFeature,
+			"modifierPOS=" + modifierPOS + " " + distanceFeature,
+			"headModifierPOS=" + headPOS + " " + modifierPOS + " " + direction,
+			"headModifierPOS=" + headPOS + " " + modifierPOS + " " + distanceFeature,
+			"headModifierCPOS=" + headCPOS + " " + modifierCPOS + " " + direction,
+			"headModifierCPOS=" + headCPOS + " " + modifierCPOS + " " + distanceFeature,
+			"headNextModifierPOS=" + headPOS + " " + headNextPOS + " " + modifierPOS + " " + direction,
+			"headPrevModifierPOS=" + headPrevPOS + " " + headPOS + " " + modifierPOS + " " + direction,
+			"headModifierNextPOS=" + headPOS + " " + modifierPOS + " " + modifierNextPOS + " " + direction,
+			"headModifierPrevPOS=" + headPOS + " " + modifierPrevPOS + " " + modifierPOS + " " + direction
+		};
+	}
+
+}
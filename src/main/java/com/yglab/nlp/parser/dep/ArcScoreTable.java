@@ -0,0 +1,193 @@
+package com.yglab.nlp.parser.dep;
+
+import com.yglab.nlp.parser.ParseSample;
+import com.yglab.nlp.perceptron.PerceptronModel;
+
+/**
+ * The scores of all the arcs of a sentence for each label, which are computed once per sentence before decoding.
+ * The features of an arc don't depend on the label, so the features of each head and modifier pair are generated
+ * only once and scored for all the labels at once.
+ * The arcs which are pruned by the first stage filter are neither featurized nor scored.
+ * <p>
+ * If the feature generator is {@link HashedDependencyFeatureGenerator}, the arcs have only the hashed feature ids
+ * which are the feature ids of the model, and no feature string is built.
+ *
+ * @author Younggue Bae
+ */
+public class ArcScoreTable {
+
+	private final int length;
+	private final int numLabels;
+	/** the score of (head, modifier, label) is scores[(head * length + modifier) * numLabels + label] */
+	private final double[] scores;
+	private final double[] bestScores;
+	private final int[] bestLabels;
+	private final String[][] features;
+	private final int[][] featureIds;
+	private final boolean[] kept;
+
+	/**
+	 * Computes the scores of all the arcs of the sentence.
+	 *
+	 * @param instance	The sample instance
+	 * @param featureGenerator
+	 * @param model
+	 * @param labeled	If false, only the weights of the first label are scored
+	 */
+	public ArcScoreTable(ParseSample instance, DependencyFeatureGenerator<ParseSample> featureGenerator,
+			PerceptronModel model, boolean labeled) {
+		this(instance, featureGenerator, model, labeled, null);
+	}
+
+	/**
+	 * Computes the scores of the kept arcs of the sentence.
+	 *
+	 * @param instance	The sample instance
+	 * @param featureGenerator
+	 * @param model
+	 * @param labeled	If false, only the weights of the first label are scored
+	 * @param kept	kept[head * length + modifier] is true if the arc is kept, or null to keep all the arcs
+	 */
+	public ArcScoreTable(ParseSample instance, DependencyFeatureGenerator<ParseSample> featureGenerator,
+			PerceptronModel model, boolean labeled, boolean[] kept) {
+		this.length = instance.length();
+		this.numLabels = labeled ? model.getLabelIndex().size() : 1;
+		this.scores = new double[length * length * numLabels];
+		this.bestScores = new double[length * length];
+		this.bestLabels = new int[length * length];
+		this.kept = kept;
+		
+		HashedDependencyFeatureGenerator hashedGenerator = null;
+		HashedDependencyFeatureGenerator.Sentence sentence = null;
+		if (featureGenerator instanceof HashedDependencyFeatureGenerator) {
+			hashedGenerator = (HashedDependencyFeatureGenerator) featureGenerator;
+			sentence = hashedGenerator.compile(instance);
+			this.features = null;
+		}
+		else {
+			this.features = new String[length * length][];
+		}
+		this.featureIds = new int[length * length][];
+
+		double[] labelScores = new double[model.getLabelIndex().size()];
+		for (int head = 0; head < length; head++) {
+			for (int modifier = 0; modifier < length; modifier++) {
+				int arc = head * length + modifier;
+				if (head == modifier || (kept != null && !kept[arc])) {
+					bestScores[arc] = Double.NEGATIVE_INFINITY;
+					bestLabels[arc] = -1;
+					continue;
+				}
+
+				int[] arcFeatureIds;
+				if (hashedGenerator != null) {
+					arcFeatureIds = hashedGenerator.getFeatureIds(sentence, head, modifier);
+				}
+				else {
+					String[] arcFeatures = featureGenerator.getFeatures(instance, head, modifier);
+					features[arc] = arcFeatures;
+					arcFeatureIds = model.getFeatureIndex().indexesOf(arcFeatures);
+				}
+				featureIds[arc] = arcFeatureIds;
+
+				for (int label = 0; label < labelScores.length; label++) {
+					labelScores[label] = 0.0;
+				}
+				model.addScores(arcFeatureIds, labelScores);
+
+				double maxScore = Double.NEGATIVE_INFINITY;
+				int maxLabel = -1;
+				for (int label = 0; label < numLabels; label++) {
+					scores[arc * numLabels + label] = labelScores[label];
+					if (labelScores[label] > maxScore) {
+						maxScore = labelScores[label];
+						maxLabel = label;
+					}
+				}
+				bestScores[arc] = maxScore;
+				bestLabels[arc] = maxLabel;
+			}
+		}
+	}
+
+	/**
+	 * Gets the length of the sentence including ROOT.
+	 *
+	 * @return
+	 */
+	public int length() {
+		return length;
+	}
+
+	public int numLabels() {
+		return numLabels;
+	}
+
+	/**
+	 * Returns true if the arc is not pruned.
+	 *
+	 * @param head
+	 * @param modifier
+	 * @return
+	 */
+	public boolean isKept(int head, int modifier) {
+		return head != modifier && (kept == null || kept[head * length + modifier]);
+	}
+
+	/**
+	 * Gets the score of the arc with the label.
+	 *
+	 * @param head
+	 * @param modifier
+	 * @param label	The label id
+	 * @return
+	 */
+	public double getScore(int head, int modifier, int label) {
+		return scores[(head * length + modifier) * numLabels + label];
+	}
+
+	/**
+	 * Gets the score of the arc with the best label.
+	 *
+	 * @param head
+	 * @param modifier
+	 * @return
+	 */
+	public double getBestScore(int head, int modifier) {
+		return bestScores[head * length + modifier];
+	}
+
+	/**
+	 * Gets the best label id of the arc, the first one among the labels with the same score.
+	 *
+	 * @param head
+	 * @param modifier
+	 * @return
+	 */
+	public int getBestLabel(int head, int modifier) {
+		return bestLabels[head * length + modifier];
+	}
+
+	/**
+	 * Gets the features of the arc.
+	 *
+	 * @param head
+	 * @param modifier
+	 * @return	the features, or null if the features are hashed
+	 */
+	public String[] getFeatures(int head, int modifier) {
+		return features != null ? features[head * length + modifier] : null;
+	}
+
+	/**
+	 * Gets the feature ids of the arc in the model.
+	 *
+	 * @param head
+	 * @param modifier
+	 * @return
+	 */
+	public int[] getFeatureIds(int head, int modifier) {
+		return featureIds[head * length + modifier];
+	}
+
+}
@@ -0,0 +1,169 @@
+package com.yglab.nlp.parser.dep;
+
+import java.util.Arrays;
+
+/**
+ * The chart of Eisner's algorithm specialized for the 1-best parse.
+ * The scores of the items are stored in primitive arrays with the split points as the back pointers,
+ * so filling the chart creates no object for any item, unlike {@link KBestParseForest}.
+ * <p>
+ * The item C[s,t,d,c] is stored at ((s * length + t) * 2 + d) of the arrays of its completeness c.
+ * The first split point with the best score is kept among the split points with the same score,
+ * which is the same item as the 1-best item of {@link KBestParseForest}.
+ *
+ * @author Younggue Bae
+ */
+public class BestParseChart {
+
+	private final int length;
+	private final double[] completeScores;
+	private final double[] incompleteScores;
+	private final int[] completeSplits;
+	private final int[] incompleteSplits;
+
+	/**
+	 * Fills the chart with the scores of the arcs.
+	 * The arcs which are not kept in the arc scores have no incomplete items.
+	 *
+	 * @param arcScores
+	 */
+	public BestParseChart(ArcScoreTable arcScores) {
+		this.length = arcScores.length();
+		int size = length * length * 2;
+		this.completeScores = new double[size];
+		this.incompleteScores = new double[size];
+		this.completeSplits = new int[size];
+		this.incompleteSplits = new int[size];
+
+		Arrays.fill(completeScores, Double.NEGATIVE_INFINITY);
+		Arrays.fill(incompleteScores, Double.NEGATIVE_INFINITY);
+		for (int s = 0; s < length; s++) {
+			completeScores[index(s, s, 0)] = 0.0;
+			completeScores[index(s, s, 1)] = 0.0;
+		}
+
+		for (int k = 1; k < length; k++) {
+			for (int s = 0; s + k < length; s++) {
+				int t = s + k;
+
+				/*
+				 * 1. incomplete items:
+				 * C[s,t,<-,0] = S(t,s) + max[s<=r<t](c[s,r,->,1] + c[r + 1,t,<-,1])
+				 * C[s,t,->,0] = S(s,t) + max[s<=r<t](c[s,r,->,1] + c[r + 1,t,<-,1])
+				 */
+				boolean kept_00 = arcScores.isKept(t, s);
+				boolean kept_10 = arcScores.isKept(s, t);
+				if (kept_00 || kept_10) {
+					double arc_00 = arcScores.getBestScore(t, s);
+					double arc_10 = arcScores.getBestScore(s, t);
+					double best_00 = Double.NEGATIVE_INFINITY;
+					double best_10 = Double.NEGATIVE_INFINITY;
+					int split_00 = -1;
+					int split_10 = -1;
+					for (int r = s; r < t; r++) {
+						double score = completeScores[index(s, r, 1)] + completeScores[index(r + 1, t, 0)];
+						if (kept_00 && score + arc_00 > best_00) {
+							best_00 = score + arc_00;
+							split_00 = r;
+						}
+						if (kept_10 && score + arc_10 > best_10) {
+							best_10 = score + arc_10;
+							split_10 = r;
+						}
+					}
+					incompleteScores[index(s, t, 0)] = best_00;
+					incompleteSplits[index(s, t, 0)] = split_00;
+					incompleteScores[index(s, t, 1)] = best_10;
+					incompleteSplits[index(s, t, 1)] = split_10;
+				}
+
+				/*
+				 * 2. complete items:
+				 * C[s,t,<-,1] = max[s<=r<t](c[s,r,<-,1] + c[r,t,<-,0])
+				 * C[s,t,->,1] = max[s<r<=t](c[s,r,->,0] + c[r,t,->,1])
+				 */
+				double best_01 = Double.NEGATIVE_INFINITY;
+				double best_11 = Double.NEGATIVE_INFINITY;
+				int split_01 = -1;
+				int split_11 = -1;
+				for (int r = s; r <= t; r++) {
+					if (r != t) {
+						double score = completeScores[index(s, r, 0)] + incompleteScores[index(r, t, 0)];
+						if (score > best_01) {
+							best_01 = score;
+							split_01 = r;
+						}
+					}
+					if (r != s) {
+						double score = incompleteScores[index(s, r, 1)] + completeScores[index(r, t, 1)];
+						if (score > best_11) {
+							best_11 = score;
+							split_11 = r;
+						}
+					}
+				}
+				completeScores[index(s, t, 0)] = best_01;
+				completeSplits[index(s, t, 0)] = split_01;
+				completeScores[index(s, t, 1)] = best_11;
+				completeSplits[index(s, t, 1)] = split_11;
+			}
+		}
+	}
+
+	/**
+	 * Gets the score of the best parse, negative infinity if there is no parse.
+	 *
+	 * @return
+	 */
+	public double getBestScore() {
+		return completeScores[index(0, length - 1, 1)];
+	}
+
+	/**
+	 * Gets the modifiers of the arcs of the best parse in the order of the traversal of the chart,
+	 * the order in which {@link KBestParseForest} returns the parses.
+	 *
+	 * @param heads	The array to store the head of each modifier
+	 * @return the modifiers, or null if there is no parse
+	 */
+	public int[] getBestArcs(int[] heads) {
+		if (getBestScore() == Double.NEGATIVE_INFINITY) {
+			return null;
+		}
+		int[] modifiers = new int[length - 1];
+		int size = traverse(0, length - 1, 1, true, heads, modifiers, 0);
+		return size == modifiers.length ? modifiers : Arrays.copyOf(modifiers, size);
+	}
+
+	private int traverse(int s, int t, int direction, boolean complete, int[] heads, int[] modifiers, int size) {
+		if (s == t) {
+			return size;
+		}
+		if (complete) {
+			int r = completeSplits[index(s, t, direction)];
+			if (direction == 0) {
+				size = traverse(s, r, 0, true, heads, modifiers, size);
+				return traverse(r, t, 0, false, heads, modifiers, size);
+			}
+			else {
+				size = traverse(s, r, 1, false, heads, modifiers, size);
+				return traverse(r, t, 1, true, heads, modifiers, size);
+			}
+		}
+		else {
+			int head = direction == 0 ? t : s;
+			int modifier = direction == 0 ? s : t;
+			heads[modifier] = head;
+			modifiers[size++] = modifier;
+
+			int r = incompleteSplits[index(s, t, direction)];
+			size = traverse(s, r, 1, true, heads, modifiers, size);
+			return traverse(r + 1, t, 0, true, heads, modifiers, size);
+		}
+	}
+
+	private int index(int s, int t, int direction) {
+		return ((s * length + t) << 1) | direction;
+	}
+
+}
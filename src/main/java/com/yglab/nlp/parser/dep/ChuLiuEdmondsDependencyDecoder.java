@@ -0,0 +1,82 @@
+package com.yglab.nlp.parser.dep;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.yglab.nlp.parser.Parse;
+import com.yglab.nlp.parser.ParseSample;
+import com.yglab.nlp.perceptron.PerceptronDecoder;
+import com.yglab.nlp.perceptron.PerceptronModel;
+
+
+
+/**
+ * This is Chu-Liu-Edmonds maximum spanning tree algorithm to decode the best non-projective parse structure.
+ * The arcs of the parse may cross each other, e.g. the arcs of the scrambled words in Korean,
+ * and the parse is decoded in O(n^2) time unlike the O(n^3) time of {@link EisnerDependencyDecoder}.
+ *
+ * The reference papers for this implementation are as belows:
+ * "Non-projective dependency parsing using spanning tree algorithms."
+ *  - Ryan McDonald, Fernando Pereira, Kiril Ribarov, Jan Hajic, HLT/EMNLP 2005
+ * "Finding optimum branchings."
+ *  - Robert E. Tarjan, Networks, 1977
+ *
+ * @author Younggue Bae
+ */
+public class ChuLiuEdmondsDependencyDecoder extends AbstractDependencyDecoder {
+
+	/**
+	 * Creates a non-projective dependency decoder.
+	 *
+	 * @param featureGenerator
+	 * @param model
+	 * @param labeled
+	 */
+	public ChuLiuEdmondsDependencyDecoder(DependencyFeatureGenerator<ParseSample> featureGenerator, PerceptronModel model, boolean labeled) {
+		this(featureGenerator, model, labeled, null);
+	}
+
+	/**
+	 * Creates a non-projective dependency decoder which decodes only the arcs kept by the pruner.
+	 *
+	 * @param featureGenerator
+	 * @param model
+	 * @param labeled
+	 * @param pruner	The first stage filter of the arcs, or null to decode all the arcs
+	 */
+	public ChuLiuEdmondsDependencyDecoder(DependencyFeatureGenerator<ParseSample> featureGenerator, PerceptronModel model, boolean labeled,
+			ArcPruner pruner) {
+		super(featureGenerator, model, labeled, pruner);
+	}
+
+	@Override
+	public PerceptronDecoder<ParseSample, Parse> newInstance(PerceptronModel model) {
+		return new ChuLiuEdmondsDependencyDecoder(featureGenerator, model, labeled, pruner);
+	}
+
+	/**
+	 * Decodes the best parse by Chu-Liu-Edmonds algorithm.
+	 * Only the best parse is decoded for any K, since the K-best spanning trees are not supported.
+	 *
+	 * @param instance	The sample instance
+	 * @param K	The k best
+	 * @return List<List<Parse>>	The best parse
+	 */
+	@Override
+	public List<List<Parse>> decode(ParseSample instance, int K) {
+		ArcScoreTable arcScores = scoreArcs(instance);
+		MaximumSpanningTree tree = new MaximumSpanningTree(arcScores);
+		int[] heads = tree.getHeads();
+
+		List<Parse> bestParse = new ArrayList<Parse>(heads.length - 1);
+		for (int modifier = 1; modifier < heads.length; modifier++) {
+			bestParse.add(this.getParse(heads[modifier], modifier, arcScores, instance));
+		}
+
+		List<List<Parse>> kBestParses = new ArrayList<List<Parse>>();
+		kBestParses.add(bestParse);
+
+		return kBestParses;
+	}
+
+}
@@ -2,9 +2,18 @@ package com.yglab.nlp.parser.dep;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import com.yglab.nlp.io.AbstractModelReader;
 import com.yglab.nlp.io.AbstractModelWriter;
@@ -18,11 +27,11 @@ import com.yglab.nlp.parser.ParseSampleEventStream;
 import com.yglab.nlp.parser.Parser;
 import com.yglab.nlp.parser.io.CoNLLReader;
 import com.yglab.nlp.perceptron.MutablePerceptronModel;
+import com.yglab.nlp.perceptron.PerceptronBinaryModelReader;
+import com.yglab.nlp.perceptron.PerceptronBinaryModelWriter;
 import com.yglab.nlp.perceptron.PerceptronDecoder;
 import com.yglab.nlp.perceptron.PerceptronModel;
 import com.yglab.nlp.perceptron.PerceptronModelPlainTextWriter;
-import com.yglab.nlp.perceptron.PerceptronModelReader;
-import com.yglab.nlp.perceptron.PerceptronModelWriter;
 import com.yglab.nlp.perceptron.PerceptronTrainer;
 import com.yglab.nlp.postag.POSTagger;
 
@@ -39,9 +48,19 @@ import com.yglab.nlp.postag.POSTagger;
  */
 public class DependencyParser implements Parser {
 
+	/** the name of the sub model of the arc pruner, which is saved into the side file of the model file */
+	public static final String PRUNER_MODEL = "pruner";
+	/** the name of the sub model of the arc labeler, which is saved into the side file of the model file */
+	public static final String LABELER_MODEL = "labeler";
+	
 	protected PerceptronModel model;
 	protected DependencyFeatureGenerator<ParseSample> featureGenerator;
 	protected POSTagger posTagger;
+	protected ArcPruner pruner;
+	protected ArcLabeler labeler;
+	protected String decoder;
+	/** the decoder which is created once and shared by the parses, since it has no state of the sentence */
+	private volatile PerceptronDecoder<ParseSample, Parse> perceptronDecoder;
 
 	/**
 	 * Initializes the dependency parser with the specified model.
@@ -61,13 +80,37 @@ public class DependencyParser implements Parser {
 	 * @param tagger
 	 */
 	public DependencyParser(AbstractModel model, DependencyFeatureGenerator<ParseSample> featureGenerator, POSTagger posTagger) {
-		this.model = new PerceptronModel(model.getLabelIndex(), model.getFeatureIndex(), model.getWeights());
+		this.model = new PerceptronModel(model.getLabelIndex(), model.getFeatureIndex(), model.getParameters());
 		this.featureGenerator = featureGenerator;
 		this.posTagger = posTagger;
+		this.decoder = model.getOption(Options.DECODER);
+		
+		AbstractModel prunerModel = model.getSubModel(PRUNER_MODEL);
+		if (prunerModel != null) {
+			this.pruner = new ArcPruner(prunerModel);
+		}
+		AbstractModel labelerModel = model.getSubModel(LABELER_MODEL);
+		if (labelerModel != null && featureGenerator != null) {
+			this.labeler = new ArcLabeler(labelerModel, featureGenerator);
+		}
 	}
 
 	/**
 	 * Trains perceptron algorithm with the given train samples.
+	 * If the option {@link Options#SHARDS} is more than 1, the shards of the train samples are trained in parallel
+	 * on {@link Options#THREADS} threads and mixed by {@link Options#MIXING} at the end of each iteration.
+	 * If the feature generator is {@link HashedDependencyFeatureGenerator}, the model is trained on the hashed features
+	 * and the bits of the features are stored in the option {@link Options#HASH_BITS} of the model.
+	 * The decoder is selected by the option {@link Options#DECODER}, which is also stored in the model
+	 * to parse with the same decoder.
+	 * <p>
+	 * If the option {@link Options#PRUNE_HEADS} is set, the {@link ArcPruner} is trained first with the same train samples,
+	 * and only the arcs kept by the pruner are decoded. The model of the pruner is the sub model {@link #PRUNER_MODEL}
+	 * of the trained model, which is saved and loaded together by {@link #saveModel(AbstractModel, String, String)}
+	 * and {@link #loadModel(String)}.
+	 * <p>
+	 * If the option {@link Options#ARC_LABELER} is true, the tree is trained by the unlabeled model, and the labels
+	 * of its arcs are trained by the {@link ArcLabeler}, whose model is the sub model {@link #LABELER_MODEL} of the trained model.
 	 * 
 	 * @param trainSamples	The train samples
 	 * @param labels	The unique labels
@@ -85,14 +128,78 @@ public class DependencyParser implements Parser {
 			labeled = true;
 		}
 		
-		System.out.println("labeled == " + labeled);
+		// the labels are trained by the labeler, so the tree is trained by the unlabeled model
+		AbstractModel labelerModel = null;
+		if (labeled && options.getBoolean(Options.ARC_LABELER)) {
+			labelerModel = ArcLabeler.train(trainSamples, labels, featureGenerator, iterations);
+			labeled = false;
+		}
 		
-		PerceptronModel model = new MutablePerceptronModel(labels, labeled);
-		PerceptronDecoder<ParseSample, Parse> decoder = new EisnerDependencyDecoder(featureGenerator, model, labeled);
-		PerceptronTrainer<ParseSample, Parse> trainer = new PerceptronTrainer<ParseSample, Parse>(decoder);
+		// the hashed features are scored by their ids, so the model has the fixed number of features without the feature index
+		int numHashedFeatures = 0;
+		if (featureGenerator instanceof HashedDependencyFeatureGenerator) {
+			numHashedFeatures = ((HashedDependencyFeatureGenerator) featureGenerator).numFeatures();
+		}
+		
+		AbstractModel prunerModel = null;
+		ArcPruner pruner = null;
+		if (options.get(Options.PRUNE_HEADS) != null) {
+			prunerModel = ArcPruner.train(trainSamples, iterations);
+			prunerModel.setOption(Options.PRUNE_HEADS, options.get(Options.PRUNE_HEADS));
+			if (options.get(Options.PRUNE_DISTANCE) != null) {
+				prunerModel.setOption(Options.PRUNE_DISTANCE, options.get(Options.PRUNE_DISTANCE));
+			}
+			pruner = new ArcPruner(prunerModel);
+		}
+		
+		PerceptronModel model = new MutablePerceptronModel(labeled ? labels : null, labeled, numHashedFeatures);
+		String decoderName = options.get(Options.DECODER);
+		PerceptronDecoder<ParseSample, Parse> decoder = newDecoder(decoderName, featureGenerator, model, labeled, pruner);
+		int shards = options.getInt(Options.SHARDS, 1);
+		int threads = options.getInt(Options.THREADS, shards);
+		boolean weightedMixing = Options.WEIGHTED_MIXING.equals(options.get(Options.MIXING));
+		PerceptronTrainer<ParseSample, Parse> trainer = new PerceptronTrainer<ParseSample, Parse>(decoder, shards, threads, weightedMixing);
 		EventStream<ParseSample, Parse> stream = new ParseSampleEventStream(trainSamples);
 
-		return trainer.trainModel(stream, iterations);
+		AbstractModel trainedModel = trainer.trainModel(stream, iterations);
+		if (numHashedFeatures > 0) {
+			trainedModel.setOption(Options.HASH_BITS, String.valueOf(((HashedDependencyFeatureGenerator) featureGenerator).getBits()));
+		}
+		if (decoderName != null) {
+			trainedModel.setOption(Options.DECODER, decoderName);
+		}
+		if (prunerModel != null) {
+			trainedModel.setOption(Options.PRUNE_HEADS, options.get(Options.PRUNE_HEADS));
+			trainedModel.setSubModel(PRUNER_MODEL, prunerModel);
+		}
+		if (labelerModel != null) {
+			trainedModel.setOption(Options.ARC_LABELER, String.valueOf(true));
+			trainedModel.setSubModel(LABELER_MODEL, labelerModel);
+		}
+		
+		return trainedModel;
+	}
+	
+	/**
+	 * Creates the decoder by the name of the option {@link Options#DECODER}.
+	 * 
+	 * @param decoder	{@link Options#EISNER_DECODER} for the projective parses, 
+	 * 			{@link Options#CHU_LIU_EDMONDS_DECODER} for the non-projective parses, or null for the default decoder
+	 * @param featureGenerator
+	 * @param model
+	 * @param labeled
+	 * @param pruner	The first stage filter of the arcs, or null to decode all the arcs
+	 * @return
+	 */
+	public static PerceptronDecoder<ParseSample, Parse> newDecoder(String decoder, 
+			DependencyFeatureGenerator<ParseSample> featureGenerator, PerceptronModel model, boolean labeled, ArcPruner pruner) {
+		if (decoder == null || Options.EISNER_DECODER.equals(decoder)) {
+			return new EisnerDependencyDecoder(featureGenerator, model, labeled, pruner);
+		}
+		else if (Options.CHU_LIU_EDMONDS_DECODER.equals(decoder)) {
+			return new ChuLiuEdmondsDependencyDecoder(featureGenerator, model, labeled, pruner);
+		}
+		throw new IllegalArgumentException("Unknown decoder: " + decoder);
 	}
 	
 	/**
@@ -143,19 +250,98 @@ public class DependencyParser implements Parser {
 	 * @return
 	 */
 	public List<List<Parse>> parse(ParseSample instance, int K) {
-		boolean labeled = model.isLabeled();
-		//Index labelIndex = model.getLabelIndex();
-		//if (labelIndex == null || labelIndex.size() == 0 || (labelIndex.size() == 1 && labelIndex.get(0).equals("<no-type>"))) {
-		//	labeled = false;
-		//}
-		System.out.println("labeled == " + labeled);
-		
-		PerceptronDecoder<ParseSample, Parse> decoder = new EisnerDependencyDecoder(featureGenerator, model, labeled);
+		PerceptronDecoder<ParseSample, Parse> decoder = this.perceptronDecoder;
+		if (decoder == null) {
+			decoder = newDecoder(this.decoder, featureGenerator, model, model.isLabeled(), pruner);
+			this.perceptronDecoder = decoder;
+		}
 		List<List<Parse>> kBestParses = decoder.decode(instance, K);
+		if (labeler != null) {
+			for (List<Parse> parses : kBestParses) {
+				labeler.label(instance, parses);
+			}
+		}
 		
 		return kBestParses;
 	}
 	
+	/**
+	 * Parses the given instances one by one on the calling thread.
+	 * The instances are read only when the best parses are requested, so the instances can be streamed
+	 * by {@link #readSamples(CoNLLReader)} without loading all of them.
+	 * 
+	 * @param instances	The parse sample instances
+	 * @return	The best parses sorted by index in the order of the instances
+	 */
+	public Iterable<List<Parse>> parseAll(Iterable<ParseSample> instances) {
+		return parseAll(instances, null, 1);
+	}
+	
+	/**
+	 * Parses the given instances in parallel on the executor, and returns the best parses in the order of the instances.
+	 * At most the given number of the instances are read ahead and parsed before their parses are requested,
+	 * so a large file streamed by {@link #readSamples(CoNLLReader)} is parsed without loading all the instances.
+	 * The model is only read while parsing, so the instances share the same model.
+	 * 
+	 * @param instances	The parse sample instances
+	 * @param executor	The executor, or null to parse on the calling thread
+	 * @param maxPending	The maximum number of the instances which are parsed ahead, e.g. twice the number of the threads
+	 * @return	The best parses sorted by index in the order of the instances
+	 */
+	public Iterable<List<Parse>> parseAll(final Iterable<ParseSample> instances, final ExecutorService executor, final int maxPending) {
+		if (maxPending < 1) {
+			throw new IllegalArgumentException("The maximum number of the pending instances should be more than 0: " + maxPending);
+		}
+		return new Iterable<List<Parse>>() {
+			@Override
+			public Iterator<List<Parse>> iterator() {
+				return new ParseIterator(instances.iterator(), executor, maxPending);
+			}
+		};
+	}
+	
+	/**
+	 * Sets the first stage filter which prunes the arcs before decoding.
+	 * 
+	 * @param pruner	The pruner, or null to decode all the arcs
+	 */
+	public void setArcPruner(ArcPruner pruner) {
+		this.pruner = pruner;
+		this.perceptronDecoder = null;
+	}
+	
+	public ArcPruner getArcPruner() {
+		return pruner;
+	}
+	
+	/**
+	 * Sets the second stage classifier which labels the arcs of the decoded parses.
+	 * The model should be trained without the labels, so the parses are decoded by the unlabeled arc scores.
+	 * 
+	 * @param labeler	The labeler, or null to label the arcs by the model
+	 */
+	public void setArcLabeler(ArcLabeler labeler) {
+		this.labeler = labeler;
+	}
+	
+	public ArcLabeler getArcLabeler() {
+		return labeler;
+	}
+	
+	/**
+	 * Sets the decoder instead of the decoder stored in the model.
+	 * 
+	 * @param decoder	The name of the decoder of the option {@link Options#DECODER}, or null for the default decoder
+	 */
+	public void setDecoder(String decoder) {
+		this.decoder = decoder;
+		this.perceptronDecoder = null;
+	}
+	
+	public String getDecoder() {
+		return decoder;
+	}
+	
 	/**
 	 * Loads train sample list from sample file.
 	 * 
@@ -178,8 +364,60 @@ public class DependencyParser implements Parser {
 		return samples;
 	}
 	
+	/**
+	 * Reads the samples from the reader one by one while iterating, which is closed at the end of the samples.
+	 * 
+	 * @param reader
+	 * @return
+	 */
+	public static final Iterable<ParseSample> readSamples(final CoNLLReader reader) {
+		return new Iterable<ParseSample>() {
+			@Override
+			public Iterator<ParseSample> iterator() {
+				return new Iterator<ParseSample>() {
+					private ParseSample next;
+					private boolean done;
+
+					@Override
+					public boolean hasNext() {
+						if (next == null && !done) {
+							try {
+								next = reader.getNext();
+								if (next == null) {
+									done = true;
+									reader.close();
+								}
+							}
+							catch (IOException e) {
+								throw new IllegalStateException("Failed to read the sample.", e);
+							}
+						}
+						return next != null;
+					}
+
+					@Override
+					public ParseSample next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						ParseSample sample = next;
+						next = null;
+						return sample;
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+		};
+	}
+	
 	/**
 	 * Saves the trained model.
+	 * The sub models of the model, e.g. the arc pruner and the arc labeler, are saved into the side files of the binary file,
+	 * whose names are the binary file name followed by the names of the sub models.
 	 * 
 	 * @param model
 	 * @param binaryFile
@@ -187,9 +425,12 @@ public class DependencyParser implements Parser {
 	 * @throws IOException
 	 */
 	public static final void saveModel(AbstractModel model, String binaryFile, String plainTextFile) throws IOException {
-		AbstractModelWriter<AbstractModel> writer = new PerceptronModelWriter();
+		AbstractModelWriter<AbstractModel> writer = new PerceptronBinaryModelWriter();
 		AbstractPlainTextWriter<AbstractModel> plainTextWriter = new PerceptronModelPlainTextWriter();
 		writer.write(model, new File(binaryFile));
+		for (Map.Entry<String, AbstractModel> subModel : model.getSubModels().entrySet()) {
+			writer.write(subModel.getValue(), new File(getSubModelFile(binaryFile, subModel.getKey())));
+		}
 		
 		if (plainTextFile != null) {
 			plainTextWriter.write(model, new File(plainTextFile));
@@ -197,7 +438,7 @@ public class DependencyParser implements Parser {
 	}
 	
 	/**
-	 * Loads the trained model.
+	 * Loads the trained model, and the sub models from the side files if the options of the model have them.
 	 * 
 	 * @param file
 	 * @return
@@ -205,10 +446,86 @@ public class DependencyParser implements Parser {
 	 * @throws ClassNotFoundException
 	 */
 	public static final AbstractModel loadModel(String file) throws IOException, ClassNotFoundException {
-		AbstractModelReader<AbstractModel> reader = new PerceptronModelReader();
+		AbstractModelReader<AbstractModel> reader = new PerceptronBinaryModelReader();
 		AbstractModel model = reader.read(new File(file));
+		if (model.getOption(Options.PRUNE_HEADS) != null) {
+			model.setSubModel(PRUNER_MODEL, reader.read(new File(getSubModelFile(file, PRUNER_MODEL))));
+		}
+		if (Boolean.parseBoolean(model.getOption(Options.ARC_LABELER))) {
+			model.setSubModel(LABELER_MODEL, reader.read(new File(getSubModelFile(file, LABELER_MODEL))));
+		}
 		
 		return model;
 	}
+	
+	private static String getSubModelFile(String file, String name) {
+		return file + "." + name;
+	}
+
+	/**
+	 * The iterator of the best parses which keeps at most the given number of the instances parsed ahead.
+	 */
+	private class ParseIterator implements Iterator<List<Parse>> {
+		
+		private Iterator<ParseSample> instances;
+		private ExecutorService executor;
+		private int maxPending;
+		private Deque<Future<List<Parse>>> pending = new ArrayDeque<Future<List<Parse>>>();
+		
+		private ParseIterator(Iterator<ParseSample> instances, ExecutorService executor, int maxPending) {
+			this.instances = instances;
+			this.executor = executor;
+			this.maxPending = maxPending;
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return !pending.isEmpty() || instances.hasNext();
+		}
+		
+		@Override
+		public List<Parse> next() {
+			if (executor == null) {
+				return parseBest(instances.next());
+			}
+			
+			while (pending.size() < maxPending && instances.hasNext()) {
+				final ParseSample instance = instances.next();
+				pending.add(executor.submit(new Callable<List<Parse>>() {
+					@Override
+					public List<Parse> call() {
+						return parseBest(instance);
+					}
+				}));
+			}
+			if (pending.isEmpty()) {
+				throw new NoSuchElementException();
+			}
+			
+			try {
+				return pending.poll().get();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("The parsing is interrupted.", e);
+			}
+			catch (ExecutionException e) {
+				throw new IllegalStateException("Failed to parse the instance.", e.getCause());
+			}
+		}
+		
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+		
+		private List<Parse> parseBest(ParseSample instance) {
+			List<Parse> parses = parse(instance, 1).get(0);
+			// sort by index
+			Collections.sort(parses);
+			
+			return parses;
+		}
+	}
 
 }
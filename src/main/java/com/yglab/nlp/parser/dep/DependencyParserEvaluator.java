@@ -27,10 +27,21 @@ public class DependencyParserEvaluator extends AbstractEvaluator<ParseSample> {
 	/* LA(Label Accuracy) */
 	private int labelAccuracySize = 0;
 	
+	/* the golden arcs and all the arcs which are kept by the pruner */
+	private int keptGoldenArcSize = 0;
+	private int keptArcSize = 0;
+	private int arcSize = 0;
+	
 	public DependencyParserEvaluator(DependencyParser parser, boolean labeled) {
 		this.parser = parser;
 		this.labeled = labeled;
 	}
+	
+	public DependencyParserEvaluator(DependencyParser parser, boolean labeled, String outputFile) {
+		super(outputFile);
+		this.parser = parser;
+		this.labeled = labeled;
+	}
 
 	@Override
 	public void evaluateSample(ParseSample sample) {
@@ -42,6 +53,11 @@ public class DependencyParserEvaluator extends AbstractEvaluator<ParseSample> {
 		addPredictedSize(bestParses.size());
 		addActualTrueSize(actualHeads.length - 1);
 		
+		ArcPruner pruner = parser.getArcPruner();
+		if (pruner != null) {
+			evaluatePruning(pruner, sample);
+		}
+		
 		for (int i = 0; i < bestParses.size(); i++) {
 			Parse predictedParse = bestParses.get(i);
 			System.out.println(predictedParse);
@@ -61,6 +77,55 @@ public class DependencyParserEvaluator extends AbstractEvaluator<ParseSample> {
 		}
 	}
 	
+	/**
+	 * Counts the golden arcs which survive the pruning, and the kept arcs among all the possible arcs.
+	 * 
+	 * @param pruner
+	 * @param sample
+	 */
+	private void evaluatePruning(ArcPruner pruner, ParseSample sample) {
+		int length = sample.length();
+		boolean[] kept = pruner.prune(sample);
+		
+		for (int modifier = 1; modifier < length; modifier++) {
+			if (kept[sample.heads[modifier] * length + modifier]) {
+				keptGoldenArcSize++;
+			}
+			for (int head = 0; head < length; head++) {
+				if (head != modifier && kept[head * length + modifier]) {
+					keptArcSize++;
+				}
+			}
+			arcSize += length - 1;
+		}
+	}
+	
+	/**
+	 * Returns the oracle UAS after the pruning, that is the ratio of the golden arcs kept by the pruner.
+	 * 
+	 * @return
+	 */
+	public double getPrunedOracleUAS() {
+		if (actualTrueSize == 0) {
+			return 0;
+		}
+		
+		return (double) keptGoldenArcSize / (double) actualTrueSize;
+	}
+	
+	/**
+	 * Returns the ratio of the arcs kept by the pruner.
+	 * 
+	 * @return
+	 */
+	public double getKeptArcRatio() {
+		if (arcSize == 0) {
+			return 0;
+		}
+		
+		return (double) keptArcSize / (double) arcSize;
+	}
+	
 	/**
 	 * Returns the LAS(Labeled Attachment Score).
 	 * 
@@ -132,6 +197,10 @@ public class DependencyParserEvaluator extends AbstractEvaluator<ParseSample> {
 		output.println(" LAS(Labeled Attachment Score) = " + getLAS());
 		output.println(" UAS(Unlabeled Attachment Score) = " + getUAS());
 		output.println(" LA(Label Accuracy) = " + getLA());
+		if (parser.getArcPruner() != null) {
+			output.println(" Oracle UAS after pruning = " + getPrunedOracleUAS());
+			output.println(" Kept arcs = " + keptArcSize + " / " + arcSize + " (" + getKeptArcRatio() + ")");
+		}
 	}
 
 }
@@ -1,10 +1,8 @@
 package com.yglab.nlp.parser.dep;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
-import com.yglab.nlp.model.Index;
 import com.yglab.nlp.parser.Parse;
 import com.yglab.nlp.parser.ParseSample;
 import com.yglab.nlp.perceptron.PerceptronDecoder;
@@ -27,11 +25,7 @@ import com.yglab.nlp.perceptron.PerceptronModel;
  *
  * @author Younggue Bae
  */
-public class EisnerDependencyDecoder implements PerceptronDecoder<ParseSample, Parse> {
-	
-	private DependencyFeatureGenerator<ParseSample> featureGenerator;
-	private PerceptronModel model;
-	private boolean labeled = false;
+public class EisnerDependencyDecoder extends AbstractDependencyDecoder {
 	
 	/**
 	 * Creates a default dependency decoder.
@@ -41,55 +35,25 @@ public class EisnerDependencyDecoder implements PerceptronDecoder<ParseSample, P
 	 * @param labeled
 	 */
 	public EisnerDependencyDecoder(DependencyFeatureGenerator<ParseSample> featureGenerator, PerceptronModel model, boolean labeled) {
-		this.featureGenerator = featureGenerator;
-		this.model = model;
-		this.labeled = labeled;
-	}
-	
-	@Override
-	public boolean isLabeled() {
-		return this.labeled;
-	}
-	
-	@Override
-	public PerceptronModel getModel() {
-		return this.model;
-	}
-	
-	@Override
-	public List<Parse> getGoldenStructures(ParseSample instance) {
-		List<Parse> goldenParses = new ArrayList<Parse>();
-		for (int position = 1; position < instance.length(); position++) {
-			Parse parse = new Parse(position, instance.heads[position], instance.deprels[position]);
-			String[] features = featureGenerator.getFeatures(instance, instance.heads[position], position);
-			parse.setFeatures(Arrays.asList(features));
-			parse.setGold(true);
-			goldenParses.add(parse);
-		}
-		return goldenParses;
-	}
-	
-	@Override
-	public Parse getGoldenStructure(Parse estimate, ParseSample instance) {
-		int position = estimate.getIndex();
-		Parse gold = new Parse(position, instance.heads[position], instance.deprels[position]);
-		String[] features = featureGenerator.getFeatures(instance, instance.heads[position], position);
-		gold.setFeatures(Arrays.asList(features));
-		gold.setGold(true);
-		
-		return gold;
+		this(featureGenerator, model, labeled, null);
 	}
 	
 	/**
-	 * Decodes the best parse by Esiner's parsing algorithm.
+	 * Creates a dependency decoder which decodes only the arcs kept by the pruner.
 	 * 
-	 * @param instance	The sample instance
-	 * @return List<Parse>	The best parse
+	 * @param featureGenerator
+	 * @param model
+	 * @param labeled
+	 * @param pruner	The first stage filter of the arcs, or null to decode all the arcs
 	 */
+	public EisnerDependencyDecoder(DependencyFeatureGenerator<ParseSample> featureGenerator, PerceptronModel model, boolean labeled,
+			ArcPruner pruner) {
+		super(featureGenerator, model, labeled, pruner);
+	}
+	
 	@Override
-	public List<Parse> decode(ParseSample instance) {
-		List<List<Parse>> kBestParses = this.decode(instance, 1);
-		return kBestParses.get(0);
+	public PerceptronDecoder<ParseSample, Parse> newInstance(PerceptronModel model) {
+		return new EisnerDependencyDecoder(featureGenerator, model, labeled, pruner);
 	}
 	
 	/**
@@ -105,6 +69,13 @@ public class EisnerDependencyDecoder implements PerceptronDecoder<ParseSample, P
 		
 		int length = instance.length();	// ROOT is in an index 0
 		
+		// scores all the arcs once, the dynamic programming below only reads them
+		ArcScoreTable arcScores = scoreArcs(instance);
+		
+		if (K == 1) {
+			return decodeBest(arcScores, instance);
+		}
+		
 		// eisner's algorithm
 		KBestParseForest forest = new KBestParseForest(K, length);
 		
@@ -125,31 +96,37 @@ public class EisnerDependencyDecoder implements PerceptronDecoder<ParseSample, P
 				 * C[s,t,<-,0] = S(t,s) + max[s<=r<t](c[s,r,->,1] + c[r + 1,t,<-,1])
 				 * C[s,t,->,0] = S(s,t) + max[s<=r<t](c[s,r,->,1] + c[r + 1,t,<-,1])
 				 */
-				Parse parse_00 = this.getParse(s, t, 0, instance);
-				Parse parse_10 = this.getParse(s, t, 1, instance);
-				for (int r = s; r < t; r++) {
+				// the pruned arcs have no incomplete items
+				boolean kept_00 = arcScores.isKept(t, s);
+				boolean kept_10 = arcScores.isKept(s, t);
+				Parse parse_00 = kept_00 ? this.getParse(s, t, 0, arcScores, instance) : null;
+				Parse parse_10 = kept_10 ? this.getParse(s, t, 1, arcScores, instance) : null;
+				for (int r = s; r < t && (kept_00 || kept_10); r++) {
 					ParseForestItem[] pfi_11 = forest.getItems(s, r, 1, 1);
 					ParseForestItem[] pfi_01 = forest.getItems(r + 1, t, 0, 1);
 					
-					if (pfi_11 != null && pfi_01 != null) {
-						int[][] pairs = forest.getKBestPairs(pfi_11, pfi_01);
-
-						for (int pi = 0; pi < pairs.length; pi++) {
-
-							if (pairs[pi][0] == -1 || pairs[pi][1] == -1) {
-								break;
-							}
-
-							int comp1 = pairs[pi][0];
-							int comp2 = pairs[pi][1];
+					if (pfi_11 != null && pfi_01 != null && forest.startPairs(pfi_11, pfi_01)) {
+						// the pairs come in the descending order, so no more pair is added once neither item is added
+						while (forest.nextPair()) {
+							int comp1 = forest.getPairLeft();
+							int comp2 = forest.getPairRight();
 
 							double score = pfi_11[comp1].getScore() + pfi_01[comp2].getScore();							
 							
-							double score_00 = score + parse_00.getScore();
-							forest.add(s, t, 0, 0, score_00, parse_00, pfi_11[comp1], pfi_01[comp2]);
+							boolean added = false;
+							if (kept_00) {
+								double score_00 = score + parse_00.getScore();
+								added |= forest.add(s, t, 0, 0, score_00, parse_00, pfi_11[comp1], pfi_01[comp2]);
+							}
+							
+							if (kept_10) {
+								double score_10 = score + parse_10.getScore();
+								added |= forest.add(s, t, 1, 0, score_10, parse_10, pfi_11[comp1], pfi_01[comp2]);
+							}
 							
-							double score_10 = score + parse_10.getScore();
-							forest.add(s, t, 1, 0, score_10, parse_10, pfi_11[comp1], pfi_01[comp2]);
+							if (!added) {
+								break;
+							}
 						}
 					}
 				}
@@ -159,26 +136,18 @@ public class EisnerDependencyDecoder implements PerceptronDecoder<ParseSample, P
 				 * C[s,t,<-,1] = max[s<=r<t](c[s,r,<-,1] + c[r,t,<-,0])
 				 * C[s,t,->,1] = max[s<r<=t](c[s,r,->,0] + c[r,t,->,1])
 				 */
-				Parse parse_01 = this.getParse(s, t, 0, instance);
-				Parse parse_11 = this.getParse(s, t, 1, instance);
 				for (int r = s; r <= t; r++) {
 					if (r != t) {
 						ParseForestItem[] pfi_01 = forest.getItems(s, r, 0, 1);
 						ParseForestItem[] pfi_00 = forest.getItems(r, t, 0, 0);
-						if (pfi_01 != null && pfi_00 != null) {
-							int[][] pairs = forest.getKBestPairs(pfi_01, pfi_00);
-							for (int pi = 0; pi < pairs.length; pi++) {
-
-								if (pairs[pi][0] == -1 || pairs[pi][1] == -1) {
-									break;
-								}
-
-								int comp1 = pairs[pi][0];
-								int comp2 = pairs[pi][1];
+						if (pfi_01 != null && pfi_00 != null && forest.startPairs(pfi_01, pfi_00)) {
+							while (forest.nextPair()) {
+								int comp1 = forest.getPairLeft();
+								int comp2 = forest.getPairRight();
 
 								double score = pfi_01[comp1].getScore() + pfi_00[comp2].getScore();
 
-								if (!forest.add(s, t, 0, 1, score, parse_01, pfi_01[comp1], pfi_00[comp2])) {
+								if (!forest.add(s, t, 0, 1, score, parse_00, pfi_01[comp1], pfi_00[comp2])) {
 									break;
 								}
 							}
@@ -188,20 +157,14 @@ public class EisnerDependencyDecoder implements PerceptronDecoder<ParseSample, P
 					if (r != s) {
 						ParseForestItem[] pfi_10 = forest.getItems(s, r, 1, 0);
 						ParseForestItem[] pfi_11 = forest.getItems(r, t, 1, 1);
-						if (pfi_10 != null && pfi_11 != null) {
-							int[][] pairs = forest.getKBestPairs(pfi_10, pfi_11);
-							for (int pi = 0; pi < pairs.length; pi++) {
-
-								if (pairs[pi][0] == -1 || pairs[pi][1] == -1) {
-									break;
-								}
-
-								int comp1 = pairs[pi][0];
-								int comp2 = pairs[pi][1];
+						if (pfi_10 != null && pfi_11 != null && forest.startPairs(pfi_10, pfi_11)) {
+							while (forest.nextPair()) {
+								int comp1 = forest.getPairLeft();
+								int comp2 = forest.getPairRight();
 
 								double score = pfi_10[comp1].getScore() + pfi_11[comp2].getScore();
 
-								if (!forest.add(s, t, 1, 1, score, parse_11, pfi_10[comp1], pfi_11[comp2])) {
+								if (!forest.add(s, t, 1, 1, score, parse_10, pfi_10[comp1], pfi_11[comp2])) {
 									break;
 								}
 							}
@@ -217,131 +180,52 @@ public class EisnerDependencyDecoder implements PerceptronDecoder<ParseSample, P
 	}
 
 	/**
-	 * Gets the parse.
+	 * Decodes the 1-best parse on the chart of the primitive arrays,
+	 * which is the same parse as the best parse of {@link KBestParseForest}.
 	 * 
-	 * @param s
-	 * @param t
-	 * @param direction
+	 * @param arcScores	The scores of all the arcs
 	 * @param instance
 	 * @return
 	 */
-	// TODO: 성능개선을 위해 매번 재생성하는 방식에서 이미 생성된 오브젝트는 특정키로 해쉬맵에 저장해 놓고 재사용하도록 개선 필요
-	private Parse getParse(int s, int t, int direction, ParseSample instance) {
-		Parse maxParse = null;
-
-		if (labeled) {
-			Parse parse = null;
-			double maxScore = Double.NEGATIVE_INFINITY;
-			
-			Index labelIndex = model.getLabelIndex();
-			for (int i = 0; i < labelIndex.size(); i++) {
-				String label = (String) labelIndex.get(i);
-				if (direction == 0) {
-					parse = new Parse(s, t, label);
-					parse.setWord(instance.forms != null ? instance.forms[s] : null);
-					parse.setPostag(instance.postags != null ? instance.postags[s] : null);
-					parse.setCpostag(instance.cpostags != null ? instance.cpostags[s] : null);
-
-					String[] features = featureGenerator.getFeatures(instance, t, s);
-					parse.setFeatures(Arrays.asList(features));
-				} else {
-					parse = new Parse(t, s, label);
-					parse.setWord(instance.forms != null ? instance.forms[t] : null);
-					parse.setPostag(instance.postags != null ? instance.postags[t] : null);
-					parse.setCpostag(instance.cpostags != null ? instance.cpostags[t] : null);
-					
-					String[] features = featureGenerator.getFeatures(instance, s, t);
-					parse.setFeatures(Arrays.asList(features));
+	private List<List<Parse>> decodeBest(ArcScoreTable arcScores, ParseSample instance) {
+		BestParseChart chart = new BestParseChart(arcScores);
+		int[] heads = new int[instance.length()];
+		int[] modifiers = chart.getBestArcs(heads);
+		
+		List<List<Parse>> kBestParses = new ArrayList<List<Parse>>();
+		if (modifiers != null) {
+			List<Parse> bestParse = new ArrayList<Parse>(modifiers.length);
+			for (int modifier : modifiers) {
+				int head = heads[modifier];
+				if (head < modifier) {
+					bestParse.add(this.getParse(head, modifier, 1, arcScores, instance));
 				}
-
-				double score = this.computeLocalScore(parse);
-				if (score > maxScore) {
-					maxScore = score;
-					maxParse = parse;
-					maxParse.setScore(score);
+				else {
+					bestParse.add(this.getParse(modifier, head, 0, arcScores, instance));
 				}
 			}
-		} else {
-			Parse parse = null;
-			if (direction == 0) {
-				parse = new Parse(s, t);
-				parse.setWord(instance.forms != null ? instance.forms[s] : null);
-				parse.setPostag(instance.postags != null ? instance.postags[s] : null);
-				parse.setCpostag(instance.cpostags != null ? instance.cpostags[s] : null);
-				
-				String[] features = featureGenerator.getFeatures(instance, t, s);
-				parse.setFeatures(Arrays.asList(features));
-			} else {
-				parse = new Parse(t, s);
-				parse.setWord(instance.forms != null ? instance.forms[t] : null);
-				parse.setPostag(instance.postags != null ? instance.postags[t] : null);
-				parse.setCpostag(instance.cpostags != null ? instance.cpostags[t] : null);
-				
-				String[] features = featureGenerator.getFeatures(instance, s, t);
-				parse.setFeatures(Arrays.asList(features));
-			}
-
-			double score = this.computeLocalScore(parse);
-			maxParse = parse;
-			maxParse.setScore(score);
+			kBestParses.add(bestParse);
 		}
 		
-		if (maxParse != null) {
-			boolean gold = isGoldenParse(maxParse, instance);
-			maxParse.setGold(gold);
-		}
-
-		return maxParse;
-	}
-	
-	private boolean isGoldenParse(Parse parse, ParseSample instance) {
-		int position = parse.getIndex();
-		int head = parse.getHead();
-		String label = parse.getLabel();
-		
-		if (instance.heads == null) {
-			return false;
-		}
-		
-		parse.setGoldenHead(instance.heads[position]);
-		
-		if (labeled) {
-			parse.setGoldenLabel(instance.deprels[position]);
-			if (instance.heads[position] == head && instance.deprels[position].equals(label)) {
-				return true;
-			}
-		}
-		else {
-			if (instance.heads[position] == head) {
-				return true;
-			}
-		}
-		
-		return false;
+		return kBestParses;
 	}
 
 	/**
-	 * Computes the local score.
+	 * Gets the parse of the arc between s and t with the best label.
+	 * The parse is shared by the incomplete and the complete items of the span.
 	 * 
-	 * @param parse
+	 * @param s
+	 * @param t
+	 * @param direction	0 if t is the head of s, 1 if s is the head of t
+	 * @param arcScores	The scores of all the arcs
+	 * @param instance
 	 * @return
 	 */
-	private double computeLocalScore(Parse parse) {
-		if (parse == null) {
-			return 0;
-		}
-
-		double score = 0;
-		String label = null;
-		if (labeled) {
-			label = parse.getLabel();
-		}
-		List<String> features = parse.getFeatures();
-		for (String feature : features) {
-			score += model.getWeight(label, feature);
-		}
-
-		return score;
+	private Parse getParse(int s, int t, int direction, ArcScoreTable arcScores, ParseSample instance) {
+		int head = direction == 0 ? t : s;
+		int modifier = direction == 0 ? s : t;
+		
+		return getParse(head, modifier, arcScores, instance);
 	}
 
 }
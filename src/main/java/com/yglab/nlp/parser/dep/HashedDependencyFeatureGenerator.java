@@ -0,0 +1,283 @@
+package com.yglab.nlp.parser.dep;
+
+import com.yglab.nlp.dictionary.RegexFeatureDictionary;
+import com.yglab.nlp.parser.ParseSample;
+
+
+
+/**
+ * This class generates the same contextual features as {@link DefaultDependencyFeatureGenerator},
+ * compiled into the hashed integer features which index the weights of the fixed size.
+ * <p>
+ * The attributes of each token, i.e. the normalized word, the part-of-speech and the coarse part-of-speech,
+ * are turned into the integer ids only once per sentence by {@link #compile(ParseSample)},
+ * and each feature template combines the ids into a 64-bit key without building any string.
+ * The key is hashed into one of the 2^bits feature ids, so the model needs no feature index,
+ * and the model trained with this generator must be used with the generator of the same bits.
+ *
+ * @author Younggue Bae
+ */
+public class HashedDependencyFeatureGenerator extends DefaultDependencyFeatureGenerator {
+
+	public static final int DEFAULT_BITS = 20;
+
+	private static final int STOP = "STOP".hashCode();
+	private static final int START = "*".hashCode();
+
+	private static final int HEAD_WORD = 1;
+	private static final int MODIFIER_WORD = 2;
+	private static final int HEAD_POS = 3;
+	private static final int MODIFIER_POS = 4;
+	private static final int HEAD_CPOS = 5;
+	private static final int MODIFIER_CPOS = 6;
+	private static final int HEAD_MODIFIER_WORD_POS = 7;
+	private static final int HEAD_MODIFIER_WORD_CPOS = 8;
+	private static final int HEAD_MODIFIER_WORD = 9;
+	private static final int HEAD_MODIFIER_POS = 10;
+	private static final int HEAD_MODIFIER_CPOS = 11;
+	private static final int HEAD_CPOS_MODIFIER_WORD_CPOS = 12;
+	private static final int HEAD_WORD_MODIFIER_WORD_CPOS = 13;
+	private static final int HEAD_WORD_CPOS_MODIFIER_CPOS = 14;
+	private static final int HEAD_WORD_CPOS_MODIFIER_WORD = 15;
+	private static final int HEAD_NEXT_MODIFIER_PREV_POS = 16;
+	private static final int HEAD_NEXT_MODIFIER_PREV_CPOS = 17;
+	private static final int HEAD_PREV_MODIFIER_NEXT_POS = 18;
+	private static final int HEAD_PREV_MODIFIER_NEXT_CPOS = 19;
+	private static final int HEAD_NEXT_MODIFIER_NEXT_POS = 20;
+	private static final int HEAD_NEXT_MODIFIER_NEXT_CPOS = 21;
+	private static final int HEAD_PREV_MODIFIER_PREV_POS = 22;
+	private static final int HEAD_PREV_MODIFIER_PREV_CPOS = 23;
+	private static final int INBETWEEN_POS = 24;
+	private static final int INBETWEEN_CPOS = 25;
+	private static final int INBETWEEN_DISTANCE_POS = 26;
+	private static final int INBETWEEN_DISTANCE_CPOS = 27;
+	private static final int DISTANCE = 28;
+	private static final int DISTANCE_POS = 29;
+	private static final int DISTANCE_CPOS = 30;
+
+	/** the number of the features of an arc except the in-between features */
+	private static final int NUM_ARC_FEATURES = 26;
+
+	private final int bits;
+
+	public HashedDependencyFeatureGenerator() {
+		this(null, DEFAULT_BITS);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param featureDic	The dictionary to normalize the words, or null
+	 * @param bits	The number of the bits of the feature ids, the model has 2^bits features
+	 */
+	public HashedDependencyFeatureGenerator(RegexFeatureDictionary featureDic, int bits) {
+		super(featureDic);
+		if (bits < 1 || bits > 30) {
+			throw new IllegalArgumentException("The number of bits of the hashed features must be in [1, 30]: " + bits);
+		}
+		this.bits = bits;
+	}
+
+	/**
+	 * Gets the number of the bits of the feature ids.
+	 *
+	 * @return
+	 */
+	public int getBits() {
+		return bits;
+	}
+
+	/**
+	 * Gets the number of the features, which is the size of the weights of each label.
+	 *
+	 * @return
+	 */
+	public int numFeatures() {
+		return 1 << bits;
+	}
+
+	/**
+	 * Compiles the attributes of the tokens of the sentence into the integer ids.
+	 * The words are normalized only when the features of an arc of the word are requested first.
+	 *
+	 * @param instance
+	 * @return
+	 */
+	public Sentence compile(ParseSample instance) {
+		return new Sentence(instance);
+	}
+
+	/**
+	 * Gets the hashed feature ids of the arc, which are in [0, 2^bits).
+	 *
+	 * @param sentence	The sentence compiled by {@link #compile(ParseSample)}
+	 * @param head
+	 * @param modifier
+	 * @return
+	 */
+	public int[] getFeatureIds(Sentence sentence, int head, int modifier) {
+		int start = Math.min(head, modifier);
+		int end = Math.max(head, modifier);
+		int[] featureIds = new int[NUM_ARC_FEATURES + 4 * (end - start - 1)];
+		int size = 0;
+
+		int headWord = sentence.word(head);
+		int modifierWord = sentence.word(modifier);
+		int headPOS = sentence.postags[head];
+		int modifierPOS = sentence.postags[modifier];
+		int headCPOS = sentence.cpostags[head];
+		int modifierCPOS = sentence.cpostags[modifier];
+
+		// unigram features
+		featureIds[size++] = hash(HEAD_WORD, headWord);
+		featureIds[size++] = hash(MODIFIER_WORD, modifierWord);
+		featureIds[size++] = hash(HEAD_POS, headPOS);
+		featureIds[size++] = hash(MODIFIER_POS, modifierPOS);
+		featureIds[size++] = hash(HEAD_CPOS, headCPOS);
+		featureIds[size++] = hash(MODIFIER_CPOS, modifierCPOS);
+
+		// bigram features
+		featureIds[size++] = hash(HEAD_MODIFIER_WORD_POS, headWord, modifierWord, headPOS, modifierPOS);
+		featureIds[size++] = hash(HEAD_MODIFIER_WORD_CPOS, headWord, modifierWord, headCPOS, modifierCPOS);
+		featureIds[size++] = hash(HEAD_MODIFIER_WORD, headWord, modifierWord);
+		featureIds[size++] = hash(HEAD_MODIFIER_POS, headPOS, modifierPOS);
+		featureIds[size++] = hash(HEAD_MODIFIER_CPOS, headCPOS, modifierCPOS);
+		featureIds[size++] = hash(HEAD_CPOS_MODIFIER_WORD_CPOS, headCPOS, modifierWord, modifierCPOS);
+		featureIds[size++] = hash(HEAD_WORD_MODIFIER_WORD_CPOS, headWord, modifierWord, modifierCPOS);
+		featureIds[size++] = hash(HEAD_WORD_CPOS_MODIFIER_CPOS, headWord, headCPOS, modifierCPOS);
+		featureIds[size++] = hash(HEAD_WORD_CPOS_MODIFIER_WORD, headWord, headCPOS, modifierWord);
+
+		// contextual features, the same boundaries as DefaultDependencyFeatureGenerator
+		int length = sentence.length();
+		int headNextPOS = head + 1 < length ? sentence.postags[head + 1] : STOP;
+		int headNextCPOS = head + 1 < length ? sentence.cpostags[head + 1] : STOP;
+		int modifierNextPOS = modifier + 1 < length ? sentence.postags[modifier + 1] : STOP;
+		int modifierNextCPOS = modifier + 1 < length ? sentence.cpostags[modifier + 1] : STOP;
+		int modifierPrevPOS = modifier - 1 > 1 ? sentence.postags[modifier - 1] : START;
+		int modifierPrevCPOS = modifier - 1 > 1 ? sentence.cpostags[modifier - 1] : START;
+		int headPrevPOS = head - 1 > 1 ? sentence.postags[head - 1] : START;
+		int headPrevCPOS = head - 1 > 1 ? sentence.cpostags[head - 1] : START;
+
+		featureIds[size++] = hash(HEAD_NEXT_MODIFIER_PREV_POS, headPOS, headNextPOS, modifierPOS, modifierPrevPOS);
+		featureIds[size++] = hash(HEAD_NEXT_MODIFIER_PREV_CPOS, headCPOS, headNextCPOS, modifierCPOS, modifierPrevCPOS);
+		featureIds[size++] = hash(HEAD_PREV_MODIFIER_NEXT_POS, headPOS, headPrevPOS, modifierPOS, modifierNextPOS);
+		featureIds[size++] = hash(HEAD_PREV_MODIFIER_NEXT_CPOS, headCPOS, headPrevCPOS, modifierCPOS, modifierNextCPOS);
+		featureIds[size++] = hash(HEAD_NEXT_MODIFIER_NEXT_POS, headPOS, headNextPOS, modifierPOS, modifierNextPOS);
+		featureIds[size++] = hash(HEAD_NEXT_MODIFIER_NEXT_CPOS, headCPOS, headNextCPOS, modifierCPOS, modifierNextCPOS);
+		featureIds[size++] = hash(HEAD_PREV_MODIFIER_PREV_POS, headPOS, headPrevPOS, modifierPOS, modifierPrevPOS);
+		featureIds[size++] = hash(HEAD_PREV_MODIFIER_PREV_CPOS, headCPOS, headPrevCPOS, modifierCPOS, modifierPrevCPOS);
+
+		// in-between features
+		int direction = head > modifier ? 0 : 1;
+		for (int i = start + 1; i < end; i++) {
+			int inbetweenPOS = sentence.postags[i];
+			int inbetweenCPOS = sentence.cpostags[i];
+			int distance = distance(direction, end - i);
+			featureIds[size++] = hash(INBETWEEN_POS, headPOS, inbetweenPOS, modifierPOS);
+			featureIds[size++] = hash(INBETWEEN_CPOS, headCPOS, inbetweenCPOS, modifierCPOS);
+			featureIds[size++] = hash(INBETWEEN_DISTANCE_POS, headPOS, distance, inbetweenPOS, modifierPOS);
+			featureIds[size++] = hash(INBETWEEN_DISTANCE_CPOS, headCPOS, distance, inbetweenCPOS, modifierCPOS);
+		}
+
+		// distance features
+		int distance = distance(direction, end - start);
+		featureIds[size++] = hash(DISTANCE, distance);
+		featureIds[size++] = hash(DISTANCE_POS, headPOS, modifierPOS, distance);
+		featureIds[size++] = hash(DISTANCE_CPOS, headCPOS, modifierCPOS, distance);
+
+		return featureIds;
+	}
+
+	/**
+	 * Gets the id of the distance bucket of the direction, the same buckets as the distance feature strings.
+	 */
+	private static int distance(int direction, int distance) {
+		int bucket;
+		if (distance > 10) {
+			bucket = 10;
+		}
+		else if (distance > 5) {
+			bucket = 5;
+		}
+		else {
+			bucket = distance - 1;
+		}
+		return (direction << 4) | bucket;
+	}
+
+	private int hash(int template, int a) {
+		return slot(mix(mix(0L, template), a));
+	}
+
+	private int hash(int template, int a, int b) {
+		return slot(mix(mix(mix(0L, template), a), b));
+	}
+
+	private int hash(int template, int a, int b, int c) {
+		return slot(mix(mix(mix(mix(0L, template), a), b), c));
+	}
+
+	private int hash(int template, int a, int b, int c, int d) {
+		return slot(mix(mix(mix(mix(mix(0L, template), a), b), c), d));
+	}
+
+	/**
+	 * Combines the id into the key.
+	 */
+	private static long mix(long key, int id) {
+		key = (key ^ (id & 0xffffffffL)) * 0x9e3779b97f4a7c15L;
+		return key ^ (key >>> 32);
+	}
+
+	/**
+	 * Hashes the key into the feature id by the finalizer of MurmurHash3, taking the high bits.
+	 */
+	private int slot(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return (int) (key >>> (64 - bits));
+	}
+
+	/**
+	 * The attributes of the tokens of a sentence compiled into the integer ids.
+	 * This is used by a single thread for a sentence.
+	 */
+	public class Sentence {
+
+		private final ParseSample instance;
+		private final int[] words;
+		private final boolean[] normalized;
+		private final int[] postags;
+		private final int[] cpostags;
+
+		private Sentence(ParseSample instance) {
+			int length = instance.length();
+			this.instance = instance;
+			this.words = new int[length];
+			this.normalized = new boolean[length];
+			this.postags = new int[length];
+			this.cpostags = new int[length];
+
+			for (int i = 0; i < length; i++) {
+				postags[i] = instance.postags[i].hashCode();
+				cpostags[i] = instance.cpostags[i].hashCode();
+			}
+		}
+
+		public int length() {
+			return postags.length;
+		}
+
+		private int word(int i) {
+			if (!normalized[i]) {
+				words[i] = normalizeWord(instance.forms[i]).hashCode();
+				normalized[i] = true;
+			}
+			return words[i];
+		}
+	}
+
+}
@@ -11,6 +11,11 @@ import com.yglab.nlp.parser.Parse;
  * This class stores parse forest items and find the K-best parse trees.
  * C[s][t][d][c] is a dynamic programming table that stores the score of the best subtree 
  * from position 's' to position 't', s <= t, with direction '￼d' and complete value 'c'.
+ * <p>
+ * The K-best pairs of two item lists are enumerated lazily in the descending order of their scores
+ * by {@link #startPairs(ParseForestItem[], ParseForestItem[])} and {@link #nextPair()},
+ * on the scratch arrays which are reused for every pair of item lists.
+ * For the 1-best parse, {@link BestParseChart} creates no item at all.
  * 
  * @author Younggue Bae
  */
@@ -19,6 +24,20 @@ public class KBestParseForest {
 	private ParseForestItem[][][][][] chart;
 	private int K;
 	private int length;
+	
+	/* the scratch of the pair enumeration: the max heap of the pairs and the pairs pushed into the heap */
+	private ParseForestItem[] pairItems1;
+	private ParseForestItem[] pairItems2;
+	private final boolean[] pushed;
+	private final int[] pushedPairs;
+	private int numPushed;
+	private final double[] heapScores;
+	private final int[] heapLefts;
+	private final int[] heapRights;
+	private int heapSize;
+	private int numPairs;
+	private int pairLeft;
+	private int pairRight;
 
 	/**
 	 * Initializes KBestParseForest.
@@ -30,6 +49,14 @@ public class KBestParseForest {
 		this.chart = new ParseForestItem[length][length][2][2][K];
 		this.K = K;
 		this.length = length;
+		
+		this.pushed = new boolean[K * K];
+		this.pushedPairs = new int[2 * K + 1];
+		this.heapScores = new double[2 * K + 2];
+		this.heapLefts = new int[2 * K + 2];
+		this.heapRights = new int[2 * K + 2];
+		// the dummy parent of the root, which is larger than any pair
+		this.heapScores[0] = Double.POSITIVE_INFINITY;
 	}
 	
 	/**
@@ -247,153 +274,160 @@ public class KBestParseForest {
 	 * @return
 	 */
 	public int[][] getKBestPairs(ParseForestItem[] items1, ParseForestItem[] items2) {
-		// in this case K = items1.length
-
-		boolean[][] beenPushed = new boolean[K][K];
-
 		int[][] result = new int[K][2];
 		for (int i = 0; i < K; i++) {
 			result[i][0] = -1;
 			result[i][1] = -1;
 		}
 
-		if (items1 == null || items2 == null || items1[0] == null || items2[0] == null)
-			return result;
-
-		BinaryHeap heap = new BinaryHeap(K + 1);
 		int n = 0;
-		ValueIndexPair vip = new ValueIndexPair(items1[0].getScore() + items2[0].getScore(), 0, 0);
-
-		heap.add(vip);
-		beenPushed[0][0] = true;
-
-		while (n < K) {
-			vip = heap.removeMax();
-
-			if (vip.val == Double.NEGATIVE_INFINITY)
-				break;
-
-			result[n][0] = vip.i1;
-			result[n][1] = vip.i2;
-
-			n++;
-			if (n >= K)
-				break;
-
-			if (!beenPushed[vip.i1 + 1][vip.i2]) {
-				heap.add(new ValueIndexPair(items1[vip.i1 + 1].getScore() + items2[vip.i2].getScore(),
-						vip.i1 + 1, vip.i2));
-				beenPushed[vip.i1 + 1][vip.i2] = true;
-			}
-			if (!beenPushed[vip.i1][vip.i2 + 1]) {
-				heap.add(new ValueIndexPair(items1[vip.i1].getScore() + items2[vip.i2 + 1].getScore(),
-						vip.i1, vip.i2 + 1));
-				beenPushed[vip.i1][vip.i2 + 1] = true;
+		if (startPairs(items1, items2)) {
+			while (nextPair()) {
+				result[n][0] = pairLeft;
+				result[n][1] = pairRight;
+				n++;
 			}
-
 		}
 
 		return result;
 	}
-}
-
-/**
- * ValueIndexPair
- */
-class ValueIndexPair {
-	public double val;
-	public int i1, i2;
-
-	public ValueIndexPair(double val, int i1, int i2) {
-		this.val = val;
-		this.i1 = i1;
-		this.i2 = i2;
-	}
-
-	public int compareTo(ValueIndexPair other) {
-		if (val < other.val)
-			return -1;
-		if (val > other.val)
-			return 1;
-		return 0;
-	}
-
-}
-
-/**
- * Max Heap. 
- * We know that never more than K elements on Heap.
- */
-class BinaryHeap {
-	private int DEFAULT_CAPACITY;
-	private int currentSize;
-	private ValueIndexPair[] theArray;
-
-	public BinaryHeap(int def_cap) {
-		DEFAULT_CAPACITY = def_cap;
-		theArray = new ValueIndexPair[DEFAULT_CAPACITY + 1];
-		// theArray[0] serves as dummy parent for root (who is at 1)
-		// "largest" is guaranteed to be larger than all keys in heap
-		theArray[0] = new ValueIndexPair(Double.POSITIVE_INFINITY, -1, -1);
-		currentSize = 0;
-	}
-
-	public ValueIndexPair getMax() {
-		return theArray[1];
+	
+	/**
+	 * Starts to enumerate the K-best pairs of the two item lists.
+	 * The enumeration of the previous item lists is discarded.
+	 * 
+	 * @param items1
+	 * @param items2
+	 * @return false if either item list is empty
+	 */
+	public boolean startPairs(ParseForestItem[] items1, ParseForestItem[] items2) {
+		for (int i = 0; i < numPushed; i++) {
+			pushed[pushedPairs[i]] = false;
+		}
+		numPushed = 0;
+		heapSize = 0;
+		numPairs = 0;
+		pairItems1 = items1;
+		pairItems2 = items2;
+		
+		if (items1 == null || items2 == null || items1[0] == null || items2[0] == null) {
+			numPairs = K;
+			return false;
+		}
+		
+		push(0, 0);
+		return true;
 	}
-
-	private int parent(int i) {
-		return i / 2;
+	
+	/**
+	 * Moves to the next best pair of the item lists, in the descending order of the sum of their scores.
+	 * The pairs are found lazily, so the enumeration can be stopped at any time.
+	 * 
+	 * @return false if there are no more pairs with a finite score or K pairs have been enumerated
+	 */
+	public boolean nextPair() {
+		if (numPairs >= K || heapSize == 0) {
+			return false;
+		}
+		
+		double score = heapScores[1];
+		int i1 = heapLefts[1];
+		int i2 = heapRights[1];
+		removeMax();
+		
+		if (score == Double.NEGATIVE_INFINITY) {
+			numPairs = K;
+			return false;
+		}
+		
+		pairLeft = i1;
+		pairRight = i2;
+		numPairs++;
+		
+		if (numPairs < K) {
+			push(i1 + 1, i2);
+			push(i1, i2 + 1);
+		}
+		return true;
 	}
-
-	private int leftChild(int i) {
-		return 2 * i;
+	
+	/**
+	 * Gets the index of the first item list of the current pair.
+	 * 
+	 * @return
+	 */
+	public int getPairLeft() {
+		return pairLeft;
 	}
-
-	private int rightChild(int i) {
-		return 2 * i + 1;
+	
+	/**
+	 * Gets the index of the second item list of the current pair.
+	 * 
+	 * @return
+	 */
+	public int getPairRight() {
+		return pairRight;
 	}
-
-	public void add(ValueIndexPair e) {
-
-		// bubble up:
-		int where = currentSize + 1; // new last place
-		while (e.compareTo(theArray[parent(where)]) > 0) {
-			theArray[where] = theArray[parent(where)];
-			where = parent(where);
+	
+	private void push(int i1, int i2) {
+		int pair = i1 * K + i2;
+		if (pushed[pair]) {
+			return;
+		}
+		pushed[pair] = true;
+		pushedPairs[numPushed++] = pair;
+		
+		double score = pairItems1[i1].getScore() + pairItems2[i2].getScore();
+		
+		// bubble up
+		int where = ++heapSize;
+		while (score > heapScores[where / 2]) {
+			heapScores[where] = heapScores[where / 2];
+			heapLefts[where] = heapLefts[where / 2];
+			heapRights[where] = heapRights[where / 2];
+			where /= 2;
 		}
-		theArray[where] = e;
-		currentSize++;
+		heapScores[where] = score;
+		heapLefts[where] = i1;
+		heapRights[where] = i2;
 	}
-
-	public ValueIndexPair removeMax() {
-		ValueIndexPair min = theArray[1];
-		theArray[1] = theArray[currentSize];
-		currentSize--;
-		boolean switched = true;
+	
+	private void removeMax() {
+		heapScores[1] = heapScores[heapSize];
+		heapLefts[1] = heapLefts[heapSize];
+		heapRights[1] = heapRights[heapSize];
+		heapSize--;
+		
 		// bubble down
-		for (int parent = 1; switched && parent < currentSize;) {
+		boolean switched = true;
+		for (int parent = 1; switched && parent < heapSize;) {
 			switched = false;
-			int leftChild = leftChild(parent);
-			int rightChild = rightChild(parent);
-
-			if (leftChild <= currentSize) {
-				// if there is a right child, see if we should bubble down there
+			int leftChild = 2 * parent;
+			int rightChild = 2 * parent + 1;
+			
+			if (leftChild <= heapSize) {
 				int largerChild = leftChild;
-				if ((rightChild <= currentSize)
-						&& (theArray[rightChild].compareTo(theArray[leftChild])) > 0) {
+				if (rightChild <= heapSize && heapScores[rightChild] > heapScores[leftChild]) {
 					largerChild = rightChild;
 				}
-				if (theArray[largerChild].compareTo(theArray[parent]) > 0) {
-					ValueIndexPair temp = theArray[largerChild];
-					theArray[largerChild] = theArray[parent];
-					theArray[parent] = temp;
+				if (heapScores[largerChild] > heapScores[parent]) {
+					swap(largerChild, parent);
 					parent = largerChild;
 					switched = true;
 				}
 			}
 		}
-		return min;
 	}
-
+	
+	private void swap(int i, int j) {
+		double score = heapScores[i];
+		int i1 = heapLefts[i];
+		int i2 = heapRights[i];
+		heapScores[i] = heapScores[j];
+		heapLefts[i] = heapLefts[j];
+		heapRights[i] = heapRights[j];
+		heapScores[j] = score;
+		heapLefts[j] = i1;
+		heapRights[j] = i2;
+	}
 }
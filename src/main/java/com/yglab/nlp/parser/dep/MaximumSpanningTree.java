@@ -0,0 +1,258 @@
+package com.yglab.nlp.parser.dep;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The maximum spanning tree of the arcs rooted at ROOT by Chu-Liu-Edmonds algorithm,
+ * which may be a non-projective tree.
+ * <p>
+ * This is the O(n^2) algorithm for the dense graph by Tarjan. Each node keeps its best incoming arc,
+ * and a cycle of the best incoming arcs is contracted into one of its nodes,
+ * updating only the arcs from and to the cycle, so the contractions cost O(n^2) in total.
+ * The contracted cycles are broken again in the reverse order of the contractions,
+ * by the arc which enters the cycle.
+ * <p>
+ * The arcs which are not kept in the arc scores are never chosen.
+ * The reference paper for this implementation is as below:
+ * "Finding optimum branchings."
+ *  - Robert E. Tarjan, Networks, 1977
+ *
+ * @author Younggue Bae
+ */
+public class MaximumSpanningTree {
+
+	private final int length;
+	private final int[] heads;
+	private final double score;
+
+	/**
+	 * Finds the maximum spanning tree of the arc scores.
+	 *
+	 * @param arcScores
+	 */
+	public MaximumSpanningTree(ArcScoreTable arcScores) {
+		this(arcScores.length(), getBestScores(arcScores));
+	}
+
+	/**
+	 * Finds the maximum spanning tree of the arc scores.
+	 *
+	 * @param length	The number of the nodes including ROOT
+	 * @param arcScores	arcScores[head * length + modifier] is the score of the arc,
+	 * 			Double.NEGATIVE_INFINITY if the arc is not kept
+	 */
+	MaximumSpanningTree(int length, double[] arcScores) {
+		this.length = length;
+		int n = length;
+
+		/*
+		 * scores[u * n + v] is the score of the arc from the node u to the node v,
+		 * arcs[u * n + v] is the original arc (head * n + modifier) of it.
+		 * The node of a contracted cycle is identified by one of its original nodes.
+		 */
+		double[] scores = new double[n * n];
+		int[] arcs = new int[n * n];
+		for (int u = 0; u < n; u++) {
+			for (int v = 0; v < n; v++) {
+				int arc = u * n + v;
+				scores[arc] = u != v ? arcScores[arc] : Double.NEGATIVE_INFINITY;
+				arcs[arc] = arc;
+			}
+		}
+
+		boolean[] alive = new boolean[n];
+		Arrays.fill(alive, true);
+		/* the best incoming node of each node */
+		int[] best = new int[n];
+		/* the original arc which enters each node */
+		int[] entering = new int[n];
+		best[0] = -1;
+		for (int v = 1; v < n; v++) {
+			best[v] = bestIncoming(scores, alive, v);
+		}
+
+		/* the members of the contracted cycles, their entering arcs and the members of the original nodes */
+		List<int[]> cycles = new ArrayList<int[]>();
+		List<int[]> cycleArcs = new ArrayList<int[]>();
+		List<int[]> memberships = new ArrayList<int[]>();
+		int[] owner = new int[n];
+		for (int v = 0; v < n; v++) {
+			owner[v] = v;
+		}
+
+		int[] cycle;
+		while ((cycle = findCycle(best, alive)) != null) {
+			int c = cycle[0];
+			int[] cycleArc = new int[cycle.length];
+			double[] cycleScores = new double[cycle.length];
+			for (int i = 0; i < cycle.length; i++) {
+				cycleArc[i] = arcs[best[cycle[i]] * n + cycle[i]];
+				cycleScores[i] = scores[best[cycle[i]] * n + cycle[i]];
+			}
+			boolean[] inCycle = new boolean[n];
+			for (int v : cycle) {
+				inCycle[v] = true;
+			}
+
+			for (int u = 0; u < n; u++) {
+				if (!alive[u] || inCycle[u]) {
+					continue;
+				}
+				// the arc into the cycle replaces the arc of the cycle into the same member
+				double bestIn = Double.NEGATIVE_INFINITY;
+				int bestInArc = -1;
+				double bestOut = Double.NEGATIVE_INFINITY;
+				int bestOutArc = -1;
+				for (int i = 0; i < cycle.length; i++) {
+					int v = cycle[i];
+					double in = scores[u * n + v] - cycleScores[i];
+					if (in > bestIn) {
+						bestIn = in;
+						bestInArc = arcs[u * n + v];
+					}
+					double out = scores[v * n + u];
+					if (out > bestOut) {
+						bestOut = out;
+						bestOutArc = arcs[v * n + u];
+					}
+				}
+				scores[u * n + c] = bestIn;
+				arcs[u * n + c] = bestInArc;
+				scores[c * n + u] = bestOut;
+				arcs[c * n + u] = bestOutArc;
+			}
+
+			int[] membership = new int[n];
+			for (int x = 0; x < n; x++) {
+				membership[x] = owner[x];
+				if (inCycle[owner[x]]) {
+					owner[x] = c;
+				}
+			}
+			for (int v : cycle) {
+				if (v != c) {
+					alive[v] = false;
+				}
+			}
+			cycles.add(cycle);
+			cycleArcs.add(cycleArc);
+			memberships.add(membership);
+
+			best[c] = bestIncoming(scores, alive, c);
+			for (int u = 1; u < n; u++) {
+				if (alive[u] && u != c && best[u] >= 0 && inCycle[best[u]]) {
+					best[u] = c;
+				}
+			}
+		}
+
+		for (int v = 1; v < n; v++) {
+			entering[v] = alive[v] ? arcs[best[v] * n + v] : -1;
+		}
+
+		// breaks the cycles in the reverse order of the contractions
+		for (int k = cycles.size() - 1; k >= 0; k--) {
+			int[] members = cycles.get(k);
+			int[] cycleArc = cycleArcs.get(k);
+			int[] membership = memberships.get(k);
+			int arc = entering[members[0]];
+			int enteredMember = membership[arc % n];
+			for (int i = 0; i < members.length; i++) {
+				entering[members[i]] = members[i] == enteredMember ? arc : cycleArc[i];
+			}
+		}
+
+		this.heads = new int[n];
+		this.heads[0] = -1;
+		double sum = 0.0;
+		for (int v = 1; v < n; v++) {
+			heads[v] = entering[v] / n;
+			sum += arcScores[entering[v]];
+		}
+		this.score = sum;
+	}
+
+	/**
+	 * Gets the head of each node, the head of ROOT is -1.
+	 *
+	 * @return
+	 */
+	public int[] getHeads() {
+		return heads;
+	}
+
+	/**
+	 * Gets the sum of the best scores of the arcs of the tree.
+	 *
+	 * @return
+	 */
+	public double getScore() {
+		return score;
+	}
+
+	private static double[] getBestScores(ArcScoreTable arcScores) {
+		int n = arcScores.length();
+		double[] scores = new double[n * n];
+		for (int u = 0; u < n; u++) {
+			for (int v = 0; v < n; v++) {
+				scores[u * n + v] = arcScores.isKept(u, v) ? arcScores.getBestScore(u, v) : Double.NEGATIVE_INFINITY;
+			}
+		}
+		return scores;
+	}
+
+	private int bestIncoming(double[] scores, boolean[] alive, int v) {
+		int n = length;
+		int best = -1;
+		double bestScore = Double.NEGATIVE_INFINITY;
+		for (int u = 0; u < n; u++) {
+			if (alive[u] && u != v && scores[u * n + v] > bestScore) {
+				bestScore = scores[u * n + v];
+				best = u;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Finds a cycle of the best incoming arcs.
+	 *
+	 * @return the nodes of the cycle, or null if there is no cycle
+	 */
+	private int[] findCycle(int[] best, boolean[] alive) {
+		int n = length;
+		// 0: not visited, 1: on the current path, 2: done
+		int[] state = new int[n];
+		state[0] = 2;
+		for (int start = 1; start < n; start++) {
+			if (!alive[start] || state[start] != 0) {
+				continue;
+			}
+			int v = start;
+			while (v >= 0 && state[v] == 0) {
+				state[v] = 1;
+				v = best[v];
+			}
+			if (v >= 0 && state[v] == 1) {
+				int size = 1;
+				for (int u = best[v]; u != v; u = best[u]) {
+					size++;
+				}
+				int[] cycle = new int[size];
+				cycle[0] = v;
+				int i = 1;
+				for (int u = best[v]; u != v; u = best[u]) {
+					cycle[i++] = u;
+				}
+				return cycle;
+			}
+			for (v = start; v >= 0 && state[v] == 1; v = best[v]) {
+				state[v] = 2;
+			}
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.yglab.nlp.parser.dep;
+
+import java.util.List;
+
+import com.yglab.nlp.model.Datum;
+
+/**
+ * The transition taken in a configuration of the transition based parser, which is the structure trained by the perceptron.
+ * The label is the name of the transition, and the features are the features of the configuration.
+ * 
+ * @author Younggue Bae
+ */
+public class Transition extends Datum {
+
+	private String goldenLabel;
+	private List<String> goldenFeatures;
+	
+	public Transition(String label, List<String> features) {
+		this.label = label;
+		this.features = features;
+	}
+	
+	/**
+	 * Gets the name of the best transition among the transitions which lose no golden arc.
+	 * 
+	 * @return
+	 */
+	public String getGoldenLabel() {
+		return goldenLabel;
+	}
+
+	public void setGoldenLabel(String goldenLabel) {
+		this.goldenLabel = goldenLabel;
+	}
+	
+	/**
+	 * Gets the features of the configuration where the golden transition is taken,
+	 * which differ from the features of this transition if the golden transitions have been left in the beam search.
+	 * 
+	 * @return	the features, or null if they are the same as the features of this transition
+	 */
+	public List<String> getGoldenFeatures() {
+		return goldenFeatures;
+	}
+
+	public void setGoldenFeatures(List<String> goldenFeatures) {
+		this.goldenFeatures = goldenFeatures;
+	}
+	
+	@Override
+	public String toString() {
+		return label + "\t" + "*" + goldenLabel;
+	}
+	
+}
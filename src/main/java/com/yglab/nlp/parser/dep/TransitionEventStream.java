@@ -0,0 +1,44 @@
+package com.yglab.nlp.parser.dep;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import com.yglab.nlp.model.EventStream;
+import com.yglab.nlp.parser.ParseSample;
+
+
+
+/**
+ * This class handles parse sample events stream for the transition based parser.
+ *
+ * @author Younggue Bae
+ */
+public class TransitionEventStream implements EventStream<ParseSample, Transition> {
+
+	private List<ParseSample> samples;
+
+	public TransitionEventStream(List<ParseSample> samples) {
+		this.samples = samples;
+	}
+
+	@Override
+	public List<ParseSample> getInputStream() {
+		return this.samples;
+	}
+
+	@Override
+	public List<Transition> getOutputStream() {
+
+		return null;
+	}
+
+	/**
+	 * The transition events are generated by the decoder while training, so this stream has no output events.
+	 */
+	@Override
+	public Iterator<Transition> getOutputIterator() {
+		return Collections.<Transition>emptyList().iterator();
+	}
+
+}
@@ -0,0 +1,153 @@
+package com.yglab.nlp.perceptron;
+
+import com.yglab.nlp.model.Index;
+
+/**
+ * The perceptron model of a shard for the iterative parameter mixing, which keeps only the changes of the weights
+ * against the snapshot of the shared model. The snapshot is only read while the shards are trained,
+ * so the shards can be trained in parallel, and the changes are mixed into the shared model afterwards.
+ * <p>
+ * The features which are not in the snapshot are added to the feature index of the shard,
+ * whose ids follow the ids of the snapshot.
+ *
+ * @author Younggue Bae
+ */
+public class DeltaPerceptronModel extends MutablePerceptronModel {
+
+	private static final long serialVersionUID = 1L;
+
+	private MutablePerceptronModel snapshot;
+	/** the number of the instances which updated the weights */
+	private int updates;
+	private boolean updated;
+
+	public DeltaPerceptronModel(MutablePerceptronModel snapshot) {
+		super(snapshot.getLabelIndex(), new ShardIndex(snapshot.getFeatureIndex()), snapshot.isLabeled(),
+				snapshot.getNumHashedFeatures());
+		this.snapshot = snapshot;
+	}
+
+	@Override
+	public double getWeight(String label, String feature) {
+		int l = 0;
+		if (labeled) {
+			l = labelIndex.indexOf(label);
+		}
+		int f = featureIndex.indexOf(feature);
+
+		return getWeight(l, f);
+	}
+
+	@Override
+	public double getWeight(int label, int feature) {
+		return snapshot.getWeight(label, feature) + super.getWeight(label, feature);
+	}
+
+	@Override
+	public void addScores(int[] featureIds, double[] scores) {
+		snapshot.addScores(featureIds, scores);
+		super.addScores(featureIds, scores);
+	}
+
+	@Override
+	public void addWeight(String label, String feature, double value) {
+		super.addWeight(label, feature, value);
+		updated = true;
+	}
+
+	@Override
+	public void addWeight(int label, int feature, double value) {
+		super.addWeight(label, feature, value);
+		updated = true;
+	}
+
+	@Override
+	public void tick() {
+		super.tick();
+		if (updated) {
+			updates++;
+			updated = false;
+		}
+	}
+
+	/**
+	 * Gets the number of the trained instances which updated the weights.
+	 *
+	 * @return
+	 */
+	public int getUpdates() {
+		return updates;
+	}
+
+	/**
+	 * Adds the changes of the weights multiplied by the mixing coefficient to the model of the snapshot.
+	 * The features which are not in the snapshot are added to the feature index of the model,
+	 * while the hashed features are mixed by their ids as they are.
+	 * This must not be called while any shard of the snapshot is trained.
+	 *
+	 * @param mixing	The mixing coefficient
+	 */
+	public void mixInto(double mixing) {
+		Index snapshotFeatureIndex = snapshot.getFeatureIndex();
+		int numSnapshotFeatures = ((ShardIndex) featureIndex).baseSize;
+
+		for (int slot = 0; slot < table.capacity(); slot++) {
+			if (table.isOccupied(slot)) {
+				int f = table.featureAt(slot);
+				if (getNumHashedFeatures() == 0 && f >= numSnapshotFeatures) {
+					Object feature = featureIndex.get(f);
+					snapshotFeatureIndex.add(feature);
+					f = snapshotFeatureIndex.indexOf(feature);
+				}
+				snapshot.addWeight(table.labelAt(slot), f, table.valueAt(slot) * mixing);
+			}
+		}
+	}
+
+	/**
+	 * The feature index which adds the new features of the shard after the features of the base index.
+	 * The base index is only read.
+	 */
+	private static class ShardIndex extends Index {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Index base;
+		private final int baseSize;
+		private final Index local = new Index();
+
+		ShardIndex(Index base) {
+			this.base = base;
+			this.baseSize = base.size();
+		}
+
+		@Override
+		public boolean add(Object o) {
+			if (base.indexOf(o) != UNKNOWN) {
+				return false;
+			}
+			return local.add(o);
+		}
+
+		@Override
+		public int indexOf(Object o) {
+			int index = base.indexOf(o);
+			if (index != UNKNOWN) {
+				return index;
+			}
+			index = local.indexOf(o);
+			return index == UNKNOWN ? UNKNOWN : baseSize + index;
+		}
+
+		@Override
+		public Object get(int i) {
+			return i < baseSize ? base.get(i) : local.get(i - baseSize);
+		}
+
+		@Override
+		public int size() {
+			return baseSize + local.size();
+		}
+	}
+
+}
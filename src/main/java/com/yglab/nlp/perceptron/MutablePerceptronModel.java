@@ -1,10 +1,7 @@
 package com.yglab.nlp.perceptron;
 
-import java.io.Serializable;
-import java.util.HashMap;
-import java.util.Map;
-
 import com.yglab.nlp.model.Index;
+import com.yglab.nlp.model.Weights;
 
 
 
@@ -16,10 +13,27 @@ import com.yglab.nlp.model.Index;
 public class MutablePerceptronModel extends PerceptronModel {
 
 	private static final long serialVersionUID = 1L;
-	private Map<WeightIndex, Double> mapWeights = new HashMap<WeightIndex, Double>();
+	protected WeightTable table = new WeightTable();
+	/** the number of the trained instances, the time step of the weight updates */
+	private int time;
+	/** the number of the hashed features which are not in the feature index, 0 if the features are indexed */
+	private int numHashedFeatures;
 
 	public MutablePerceptronModel(String[] labels, boolean labeled) {
-		super(new Index(), new Index(), null, labeled);
+		this(labels, labeled, 0);
+	}
+	
+	/**
+	 * Creates the model of the hashed features, whose ids are in [0, numHashedFeatures) without the feature index.
+	 * The weights of the hashed features are added and scored by the ids only.
+	 * 
+	 * @param labels
+	 * @param labeled
+	 * @param numHashedFeatures	The number of the hashed features, 0 if the features are indexed
+	 */
+	public MutablePerceptronModel(String[] labels, boolean labeled, int numHashedFeatures) {
+		super(new Index(), new Index(), (Weights) null, labeled);
+		this.numHashedFeatures = numHashedFeatures;
 		
 		if (labeled) {
 			for (String label : labels) {
@@ -31,8 +45,31 @@ public class MutablePerceptronModel extends PerceptronModel {
 		}
 	}
 	
+	protected MutablePerceptronModel(Index labelIndex, Index featureIndex, boolean labeled, int numHashedFeatures) {
+		super(labelIndex, featureIndex, (Weights) null, labeled);
+		this.numHashedFeatures = numHashedFeatures;
+	}
+	
 	public int domainDimension() {
-		return featureIndex.size() * labelIndex.size();
+		return getNumFeatures() * labelIndex.size();
+	}
+	
+	/**
+	 * Gets the number of the features, which is the number of the hashed features if the features are hashed.
+	 * 
+	 * @return
+	 */
+	public int getNumFeatures() {
+		return numHashedFeatures > 0 ? numHashedFeatures : featureIndex.size();
+	}
+	
+	/**
+	 * Gets the number of the hashed features.
+	 * 
+	 * @return	the number of the hashed features, 0 if the features are indexed
+	 */
+	public int getNumHashedFeatures() {
+		return numHashedFeatures;
 	}
 	
 	@Override
@@ -43,12 +80,29 @@ public class MutablePerceptronModel extends PerceptronModel {
 		}
 		int f = featureIndex.indexOf(feature);
 		
-		WeightIndex index = new WeightIndex(l, f);
-		if (mapWeights.containsKey(index)) {
-			return mapWeights.get(index);
-		}
-		else {
-			return 0;
+		return table.get(l, f);
+	}
+	
+	/**
+	 * Gets the weight of the label id and the feature id.
+	 * 
+	 * @param label	The label id, 0 if the model is not labeled
+	 * @param feature	The feature id
+	 * @return
+	 */
+	public double getWeight(int label, int feature) {
+		return table.get(label, feature);
+	}
+	
+	@Override
+	public void addScores(int[] featureIds, double[] scores) {
+		for (int feature : featureIds) {
+			if (feature == Index.UNKNOWN) {
+				continue;
+			}
+			for (int label = 0; label < scores.length; label++) {
+				scores[label] += table.get(label, feature);
+			}
 		}
 	}
 	
@@ -62,46 +116,91 @@ public class MutablePerceptronModel extends PerceptronModel {
 		featureIndex.add(feature);
 		int f = featureIndex.indexOf(feature);
 		
-		WeightIndex index = new WeightIndex(l, f);
-		
-		if (mapWeights.containsKey(index)) {
-			value += mapWeights.get(index);
-			mapWeights.put(index, value);
+		table.add(l, f, value, time);
+	}
+	
+	/**
+	 * Adds the value to the weight of the label id and the feature id which are already in the indexes.
+	 * This doesn't allocate any object unless the weight table grows.
+	 * 
+	 * @param label	The label id, 0 if the model is not labeled
+	 * @param feature	The feature id
+	 * @param value
+	 */
+	public void addWeight(int label, int feature, double value) {
+		table.add(label, feature, value, time);
+	}
+	
+	/**
+	 * Adds the value to the weights of the label and the feature ids, e.g. the hashed features.
+	 * 
+	 * @param label	The label, ignored if the model is not labeled
+	 * @param featureIds	The feature ids
+	 * @param value
+	 */
+	public void addWeights(String label, int[] featureIds, double value) {
+		int l = 0;
+		if (labeled) {
+			labelIndex.add(label);
+			l = labelIndex.indexOf(label);
 		}
-		else {
-			mapWeights.put(index, value);
+		
+		for (int feature : featureIds) {
+			addWeight(l, feature, value);
 		}
 	}
 	
+	/**
+	 * Moves to the next time step after an instance has been trained.
+	 * The averaged weights are the averages of the weights over the time steps.
+	 */
+	public void tick() {
+		time++;
+	}
+	
+	/**
+	 * Moves the time steps forward after the instances have been trained at once.
+	 * 
+	 * @param steps	The number of the trained instances
+	 */
+	public void tick(int steps) {
+		time += steps;
+	}
+	
+	/**
+	 * Gets the number of the trained instances.
+	 * 
+	 * @return
+	 */
+	public int getTime() {
+		return time;
+	}
+	
 	public double[][] to2D() {
-		double[][] x2D = new double[labelIndex.size()][featureIndex.size()];
+		double[][] x2D = new double[labelIndex.size()][getNumFeatures()];
 		
-		for (int label = 0; label < x2D.length; label++) {
-			for (int feature = 0; feature < x2D[label].length; feature++) {
-				WeightIndex index = new WeightIndex(label, feature);
-				if (mapWeights.containsKey(index)) {
-					x2D[label][feature] = mapWeights.get(index);
-				}
-				else {
-					//x2D[label][feature] = 0;
-				}
+		for (int slot = 0; slot < table.capacity(); slot++) {
+			if (table.isOccupied(slot)) {
+				x2D[table.labelAt(slot)][table.featureAt(slot)] = table.valueAt(slot);
 			}
 		}
 
 		return x2D;
 	}
 	
-	public double[][] toAveraged2D(int numSample, int numIteration) {
-		double[][] x2D = new double[labelIndex.size()][featureIndex.size()];
+	/**
+	 * Gets the averages of the weights over all the time steps.
+	 * The sum of each weight is kept up to date only until its last update,
+	 * so the rest of the sum is added here in one pass over the weights.
+	 * 
+	 * @return
+	 */
+	public double[][] toAveraged2D() {
+		double[][] x2D = new double[labelIndex.size()][getNumFeatures()];
 
-		for (int label = 0; label < x2D.length; label++) {
-			for (int feature = 0; feature < x2D[label].length; feature++) {
-				WeightIndex index = new WeightIndex(label, feature);
-				if (mapWeights.containsKey(index)) {
-					x2D[label][feature] = (double) mapWeights.get(index) / (double) (numSample * numIteration);
-				} else {
-					// x2D[label][feature] = 0;
-				}
+		for (int slot = 0; slot < table.capacity(); slot++) {
+			if (table.isOccupied(slot)) {
+				x2D[table.labelAt(slot)][table.featureAt(slot)] = table.averageAt(slot, time);
 			}
 		}
 
@@ -109,57 +208,16 @@ public class MutablePerceptronModel extends PerceptronModel {
 	}
 
 	public double[] to1D() {
-		double[] x1D = new double[labelIndex.size() * featureIndex.size()];
+		int numFeatures = getNumFeatures();
+		double[] x1D = new double[labelIndex.size() * numFeatures];
 
-		int i = 0;
-		for (int label = 0; label < labelIndex.size(); label++) {
-			for (int feature = 0; feature < featureIndex.size(); feature++) {
-				WeightIndex index = new WeightIndex(label, feature);
-				if (mapWeights.containsKey(index)) {
-					x1D[i++] = mapWeights.get(index);
-				}
-				else {
-					//x1D[i++] = 0;
-				}
+		for (int slot = 0; slot < table.capacity(); slot++) {
+			if (table.isOccupied(slot)) {
+				x1D[table.labelAt(slot) * numFeatures + table.featureAt(slot)] = table.valueAt(slot);
 			}
 		}
 
 		return x1D;
 	}
-	
-	/**
-	 * Weight index.
-	 */
-	static class WeightIndex implements Serializable {
-
-		private static final long serialVersionUID = -8983394344167645192L;
-		int label;
-		int feature;
-		
-		public WeightIndex(int label, int feature) {
-			this.label = label;
-			this.feature = feature;
-		}
-		
-		@Override
-		public boolean equals(Object obj) {
-			WeightIndex other = (WeightIndex) obj;
-			
-			if (other.label == this.label && other.feature == this.feature) {
-				return true;
-			}
-			return false;
-		}
-		
-		@Override
-	  public int hashCode() {
-	    return ("" + label + "").hashCode() + ("" + feature + "").hashCode();
-	  }
-		
-		@Override
-		public String toString() {
-			return "[" + label + "][" + feature + "]";
-		}
-	}
 
 }
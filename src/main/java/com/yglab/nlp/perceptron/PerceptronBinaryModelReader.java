@@ -0,0 +1,20 @@
+package com.yglab.nlp.perceptron;
+
+import com.yglab.nlp.io.AbstractBinaryModelReader;
+import com.yglab.nlp.model.AbstractModel;
+import com.yglab.nlp.model.Index;
+import com.yglab.nlp.model.Weights;
+
+/**
+ * Reads the perceptron model in the binary model format, or the serialized perceptron model.
+ * 
+ * @author Younggue Bae
+ */
+public class PerceptronBinaryModelReader extends AbstractBinaryModelReader<AbstractModel> {
+
+	@Override
+	protected AbstractModel newModel(Index labelIndex, Index featureIndex, Weights weights, boolean labeled) {
+		return new PerceptronModel(labelIndex, featureIndex, weights, labeled);
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.yglab.nlp.perceptron;
+
+import com.yglab.nlp.io.AbstractBinaryModelWriter;
+import com.yglab.nlp.model.AbstractModel;
+
+/**
+ * Writes the perceptron model in the binary model format.
+ * 
+ * @author Younggue Bae
+ */
+public class PerceptronBinaryModelWriter extends AbstractBinaryModelWriter<AbstractModel> {
+
+	@Override
+	protected boolean isLabeled(AbstractModel model) {
+		if (model instanceof PerceptronModel) {
+			return ((PerceptronModel) model).isLabeled();
+		}
+		return true;
+	}
+
+}
@@ -26,6 +26,15 @@ public interface PerceptronDecoder <I, O extends Datum> {
 	 */
 	public PerceptronModel getModel();
 	
+	/**
+	 * Creates the decoder of the same kind which decodes with the given model,
+	 * e.g. the model of a shard which is trained in parallel.
+	 * 
+	 * @param model
+	 * @return
+	 */
+	public PerceptronDecoder<I, O> newInstance(PerceptronModel model);
+	
 	/**
 	 * Returns the golden structures of the specified sample instance.
 	 * This method is only used in training time.
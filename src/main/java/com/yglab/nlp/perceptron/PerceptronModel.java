@@ -1,8 +1,13 @@
 package com.yglab.nlp.perceptron;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
 import com.yglab.nlp.model.AbstractModel;
+import com.yglab.nlp.model.FeatureMajorWeights;
 import com.yglab.nlp.model.Index;
 import com.yglab.nlp.model.Options;
+import com.yglab.nlp.model.Weights;
 
 /**
  * Model for storing the training result.
@@ -15,7 +20,9 @@ public class PerceptronModel extends AbstractModel {
 
 	protected Index labelIndex;
 	protected Index featureIndex;
-	protected double[][] weights;
+	protected Weights parameters;
+	/** the label major view of the parameters, created only when requested */
+	private transient double[][] weights;
 	protected boolean labeled;
 
 	public PerceptronModel(Index labelIndex, Index featureIndex, double[][] weights) {
@@ -23,9 +30,17 @@ public class PerceptronModel extends AbstractModel {
 	}
 	
 	public PerceptronModel(Index labelIndex, Index featureIndex, double[][] weights, boolean labeled) {
+		this(labelIndex, featureIndex, weights != null ? FeatureMajorWeights.valueOf(weights) : null, labeled);
+	}
+	
+	public PerceptronModel(Index labelIndex, Index featureIndex, Weights parameters) {
+		this(labelIndex, featureIndex, parameters, true);
+	}
+	
+	public PerceptronModel(Index labelIndex, Index featureIndex, Weights parameters, boolean labeled) {
 		this.labelIndex = labelIndex;
 		this.featureIndex = featureIndex;
-		this.weights = weights;
+		this.parameters = parameters;
 		this.labeled = labeled;
 	}
 	
@@ -52,13 +67,31 @@ public class PerceptronModel extends AbstractModel {
 		this.featureIndex = featureIndex;
 	}
 
+	/**
+	 * Gets the weights as the label major 2 dimensional array which is weights[label][feature].
+	 * This is an adapter on the feature major parameters, so use {@link #getParameters()} for scoring.
+	 */
 	@Override
 	public double[][] getWeights() {
+		if (weights == null && parameters != null) {
+			weights = parameters.to2D();
+		}
 		return weights;
 	}
 
 	public void setWeights(double[][] weights) {
-		this.weights = weights;
+		this.parameters = weights != null ? FeatureMajorWeights.valueOf(weights) : null;
+		this.weights = null;
+	}
+	
+	@Override
+	public Weights getParameters() {
+		return parameters;
+	}
+	
+	public void setParameters(Weights parameters) {
+		this.parameters = parameters;
+		this.weights = null;
 	}
 	
 	public double getWeight(String label, String feature) {
@@ -69,13 +102,24 @@ public class PerceptronModel extends AbstractModel {
 		int f = featureIndex.indexOf(feature);
 		
 		if (l >= 0 && f >= 0) {
-			return weights[l][f];
+			return parameters.get(l, f);
 		}
 		else {
 			return 0;
 		}
 	}
 	
+	/**
+	 * Adds the weights of all the labels for the given features to the scores.
+	 * The feature with {@link Index#UNKNOWN} id is ignored.
+	 * 
+	 * @param featureIds	the feature ids
+	 * @param scores	the scores indexed by the label id
+	 */
+	public void addScores(int[] featureIds, double[] scores) {
+		parameters.addScores(featureIds, scores);
+	}
+	
 	public boolean isLabeled() {
 		return this.labeled;
 	}
@@ -89,5 +133,23 @@ public class PerceptronModel extends AbstractModel {
 		
 		return labels;
 	}
+	
+	/**
+	 * Reads the model, the model serialized by the former version which has 
+	 * the label major weights array is converted into the feature major parameters.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		labelIndex = (Index) fields.get("labelIndex", null);
+		featureIndex = (Index) fields.get("featureIndex", null);
+		labeled = fields.get("labeled", true);
+		parameters = (Weights) fields.get("parameters", null);
+		if (parameters == null) {
+			double[][] legacyWeights = (double[][]) fields.get("weights", null);
+			if (legacyWeights != null) {
+				parameters = FeatureMajorWeights.valueOf(legacyWeights);
+			}
+		}
+	}
 
 }
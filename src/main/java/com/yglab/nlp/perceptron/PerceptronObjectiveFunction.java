@@ -17,18 +17,28 @@ import com.yglab.nlp.model.EventStream;
  */
 public class PerceptronObjectiveFunction<I, O extends Datum> {
 
-	private EventStream<I, O> is;
+	private List<I> instances;
 	private PerceptronDecoder<I, O> decoder;
 	private MutablePerceptronModel model;
 	
 	public PerceptronObjectiveFunction(EventStream<I, O> is, PerceptronDecoder<I, O> decoder) {
-		this.is = is;
+		this(is.getInputStream(), decoder);
+	}
+	
+	/**
+	 * Creates the objective function over the given instances, e.g. a shard of the training samples.
+	 * 
+	 * @param instances
+	 * @param decoder
+	 */
+	public PerceptronObjectiveFunction(List<I> instances, PerceptronDecoder<I, O> decoder) {
+		this.instances = instances;
 		this.decoder = decoder;
 		this.model = (MutablePerceptronModel) decoder.getModel();
 	}
 	
 	public MutablePerceptronModel calculateInit() {
-		for (I instance : is.getInputStream()) {
+		for (I instance : instances) {
 			List<O> goldenStructures = decoder.getGoldenStructures(instance);
 			
 			for (O structure : goldenStructures) {
@@ -38,18 +48,16 @@ public class PerceptronObjectiveFunction<I, O extends Datum> {
 					label = structure.getLabel();
 				}
 
-				List<String> features = structure.getFeatures();
-				for (String feature : features) {
-					model.addWeight(label, feature, 1);
-				}
+				addWeights(label, structure, 1);
 			}
+			model.tick();
 		}
 		
 		return model;
 	}
 	
 	public MutablePerceptronModel calculate() {
-		for (I instance : is.getInputStream()) {
+		for (I instance : instances) {
 			List<O> bestStructures = decoder.decode(instance);
 			
 			for (O structure : bestStructures) {
@@ -60,7 +68,6 @@ public class PerceptronObjectiveFunction<I, O extends Datum> {
 					label = structure.getLabel();
 				}
 
-				List<String> features = structure.getFeatures();
 				// If parse item is gold, do nothing.
 				if (structure.isGold()) {
 					//for (String feature : features) {
@@ -70,22 +77,19 @@ public class PerceptronObjectiveFunction<I, O extends Datum> {
 				// If parse item is not gold.
 				else {
 					// Give a negative penalty to the bad features of this bad parse item.
-					for (String feature : features) {
-						model.addWeight(label, feature, -1);
-					}
+					addWeights(label, structure, -1);
 					// Give a positive weight to the actual golden features about this bad parse item
-					for (String feature : goldStructure.getFeatures()) {
-						model.addWeight(goldStructure.getLabel(), feature, 1);
-					}
+					addWeights(goldStructure.getLabel(), goldStructure, 1);
 				}
 			}
+			model.tick();
 		}
 		
 		return model;
 	}
 	
 	public MutablePerceptronModel calculate_typeA() {
-		for (I instance : is.getInputStream()) {
+		for (I instance : instances) {
 			List<O> bestStructures = decoder.decode(instance);
 			
 			for (O structure : bestStructures) {
@@ -96,28 +100,24 @@ public class PerceptronObjectiveFunction<I, O extends Datum> {
 					label = structure.getLabel();
 				}
 
-				List<String> features = structure.getFeatures();
 				if (structure.isGold()) {
-					for (String feature : features) {
-						model.addWeight(label, feature, 1);
-					}
+					addWeights(label, structure, 1);
 				}
 				else {
-					for (String feature : features) {
-						model.addWeight(label, feature, -1);
-					}
+					addWeights(label, structure, -1);
 					//for (String feature : goldStructure.getFeatures()) {
 					//	model.addWeight(goldStructure.getLabel(), feature, 1);
 					//}
 				}
 			}
+			model.tick();
 		}
 		
 		return model;
 	}
 	
 	public MutablePerceptronModel calculate_typeB() {
-		for (I instance : is.getInputStream()) {
+		for (I instance : instances) {
 			List<O> bestStructures = decoder.decode(instance);
 			
 			for (O structure : bestStructures) {
@@ -128,28 +128,22 @@ public class PerceptronObjectiveFunction<I, O extends Datum> {
 					label = structure.getLabel();
 				}
 
-				List<String> features = structure.getFeatures();
 				if (structure.isGold()) {
-					for (String feature : features) {
-						model.addWeight(label, feature, 1);
-					}
+					addWeights(label, structure, 1);
 				}
 				else {
-					for (String feature : features) {
-						model.addWeight(label, feature, -1);
-					}
-					for (String feature : goldStructure.getFeatures()) {
-						model.addWeight(goldStructure.getLabel(), feature, 1);
-					}
+					addWeights(label, structure, -1);
+					addWeights(goldStructure.getLabel(), goldStructure, 1);
 				}
 			}
+			model.tick();
 		}
 		
 		return model;
 	}
 	
 	public MutablePerceptronModel calculate_typeC() {
-		for (I instance : is.getInputStream()) {
+		for (I instance : instances) {
 			List<O> bestStructures = decoder.decode(instance);
 			
 			for (O structure : bestStructures) {
@@ -160,24 +154,39 @@ public class PerceptronObjectiveFunction<I, O extends Datum> {
 					label = structure.getLabel();
 				}
 
-				List<String> features = structure.getFeatures();
 				if (structure.isGold()) {
 					//for (String feature : features) {
 					//	model.addWeight(label, feature, 1);
 					//}
 				}
 				else {
-					for (String feature : features) {
-						model.addWeight(label, feature, -1);
-					}
-					for (String feature : goldStructure.getFeatures()) {
-						model.addWeight(goldStructure.getLabel(), feature, 1);
-					}
+					addWeights(label, structure, -1);
+					addWeights(goldStructure.getLabel(), goldStructure, 1);
 				}
 			}
+			model.tick();
 		}
 		
 		return model;
 	}
 
+	/**
+	 * Adds the value to the weights of the features of the structure,
+	 * by the feature ids if the structure has only the compiled features, e.g. the hashed features.
+	 * 
+	 * @param label
+	 * @param structure
+	 * @param value
+	 */
+	private void addWeights(String label, O structure, double value) {
+		List<String> features = structure.getFeatures();
+		if (features == null && structure.getFeatureIds() != null) {
+			model.addWeights(label, structure.getFeatureIds(), value);
+			return;
+		}
+		for (String feature : features) {
+			model.addWeight(label, feature, value);
+		}
+	}
+
 }
@@ -1,5 +1,12 @@
 package com.yglab.nlp.perceptron;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
 import com.yglab.nlp.model.AbstractModel;
 import com.yglab.nlp.model.Datum;
 import com.yglab.nlp.model.EventStream;
@@ -9,15 +16,42 @@ import com.yglab.nlp.model.EventStream;
  * The averaged weight parameters perform significantly better than the simple summarized weight parameters
  * by "Discriminative Training Methods for Hidden Markov Models: Theory and Experiments with Perceptron Algorithms", 
  * Michael Collins, 2002.
+ * <p>
+ * With more than one shard, the trainer runs the iterative parameter mixing by
+ * "Distributed Training Strategies for the Structured Perceptron", Ryan McDonald, Keith Hall, Gideon Mann, 2010.
+ * In each iteration the shards are trained in parallel against the read only snapshot of the weights,
+ * and the changes of the shards are mixed into the weights at the end of the iteration,
+ * uniformly or weighted by the number of the updates of each shard.
  * 
  * @author Younggue Bae
  */
 public class PerceptronTrainer<I, O extends Datum> {
 
 	private PerceptronDecoder<I, O> decoder;
+	private int shards;
+	private int threads;
+	private boolean weightedMixing;
 	
 	public PerceptronTrainer(PerceptronDecoder<I, O> decoder) {
+		this(decoder, 1, 1, false);
+	}
+	
+	/**
+	 * Constructor for the iterative parameter mixing.
+	 * 
+	 * @param decoder
+	 * @param shards	The number of shards of the training samples, 1 to train serially
+	 * @param threads	The number of threads to train the shards
+	 * @param weightedMixing	If true, the shards are mixed by the number of their updates, otherwise uniformly
+	 */
+	public PerceptronTrainer(PerceptronDecoder<I, O> decoder, int shards, int threads, boolean weightedMixing) {
+		if (shards < 1 || threads < 1) {
+			throw new IllegalArgumentException("The number of shards and threads must be positive: " + shards + ", " + threads);
+		}
 		this.decoder = decoder;
+		this.shards = shards;
+		this.threads = threads;
+		this.weightedMixing = weightedMixing;
 	}
 	
 	/**
@@ -29,31 +63,114 @@ public class PerceptronTrainer<I, O extends Datum> {
 	public AbstractModel trainModel(EventStream<I, O> is, int iterations) {
 		PerceptronObjectiveFunction<I, O> perceptron = new PerceptronObjectiveFunction<I, O>(is, decoder);
 		MutablePerceptronModel model = (MutablePerceptronModel) decoder.getModel();
+		List<I> instances = is.getInputStream();
+		int numShards = Math.min(shards, Math.max(1, instances.size()));
+		ForkJoinPool pool = numShards > 1 ? new ForkJoinPool(Math.min(threads, numShards)) : null;
 		
-		for (int i = 1; i <= iterations; i++) {
-			System.out.println("========================");
-			System.err.println("Iteration: " + i);
-			System.out.println("========================");
-			long start = System.currentTimeMillis();
-			if (i == 1) {
-				model = perceptron.calculateInit();
-				//model = perceptron.calculate();
+		try {
+			for (int i = 1; i <= iterations; i++) {
+				System.out.println("========================");
+				System.err.println("Iteration: " + i);
+				System.out.println("========================");
+				long start = System.currentTimeMillis();
+				/*
+				 * The training starts from the zero weights. The averaged weights don't work well
+				 * with the weights initialized by the golden feature counts of calculateInit(),
+				 * since the golden feature counts are averaged together with the trained weights.
+				 */
+				if (pool == null) {
+					model = perceptron.calculate();
+				}
+				else {
+					calculateMixed(instances, numShards, model, pool);
+				}
+				long end = System.currentTimeMillis();
+				System.out.println("Time:" + (end - start));
 			}
-			else {
-				model = perceptron.calculate();
+		}
+		finally {
+			if (pool != null) {
+				pool.shutdown();
 			}
-			long end = System.currentTimeMillis();
-			System.out.println("Time:" + (end - start));
 		}
 		
 		/*
 		 * The averaged weight parameters perform significantly better 
 		 * than the simple summarized weight parameters.
+		 * The weights are averaged lazily by the time step of the last update of each weight.
 		 */
 		//double[][] weights = model.to2D();
-		double[][] weights = model.toAveraged2D(is.getInputStream().size(), iterations);
-			
+		double[][] weights = model.toAveraged2D();
+		
 		return new PerceptronModel(model.getLabelIndex(), model.getFeatureIndex(), weights, decoder.isLabeled());
 	}
 	
+	/**
+	 * Trains the shards of the instances in parallel for one iteration, and mixes their changes into the model.
+	 * The mixed weights of each iteration are averaged over the time steps of all the instances.
+	 * 
+	 * @param instances
+	 * @param numShards
+	 * @param model	The shared model which is only read while the shards are trained
+	 * @param pool
+	 */
+	private void calculateMixed(List<I> instances, int numShards, MutablePerceptronModel model, ForkJoinPool pool) {
+		List<Callable<DeltaPerceptronModel>> tasks = new ArrayList<Callable<DeltaPerceptronModel>>();
+		for (int shard = 0; shard < numShards; shard++) {
+			int from = (int) ((long) instances.size() * shard / numShards);
+			int to = (int) ((long) instances.size() * (shard + 1) / numShards);
+			tasks.add(new ShardTask(instances.subList(from, to), new DeltaPerceptronModel(model)));
+		}
+		
+		List<DeltaPerceptronModel> deltas = new ArrayList<DeltaPerceptronModel>();
+		try {
+			for (Future<DeltaPerceptronModel> future : pool.invokeAll(tasks)) {
+				deltas.add(future.get());
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("The training of the shards is interrupted.", e);
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException("Failed to train the shard.", e.getCause());
+		}
+		
+		int totalUpdates = 0;
+		for (DeltaPerceptronModel delta : deltas) {
+			totalUpdates += delta.getUpdates();
+		}
+		System.err.println("Updates: " + totalUpdates + " of " + instances.size() + " instances in " + numShards + " shards");
+		
+		for (DeltaPerceptronModel delta : deltas) {
+			if (!weightedMixing) {
+				delta.mixInto(1.0 / numShards);
+			}
+			else if (totalUpdates > 0) {
+				delta.mixInto((double) delta.getUpdates() / totalUpdates);
+			}
+		}
+		model.tick(instances.size());
+	}
+	
+	/**
+	 * The task which trains a shard for one iteration.
+	 */
+	private class ShardTask implements Callable<DeltaPerceptronModel> {
+		
+		private final List<I> instances;
+		private final DeltaPerceptronModel delta;
+		
+		ShardTask(List<I> instances, DeltaPerceptronModel delta) {
+			this.instances = instances;
+			this.delta = delta;
+		}
+		
+		@Override
+		public DeltaPerceptronModel call() {
+			new PerceptronObjectiveFunction<I, O>(instances, decoder.newInstance(delta)).calculate();
+			return delta;
+		}
+	}
+	
 }
@@ -0,0 +1,227 @@
+package com.yglab.nlp.perceptron;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The open addressing hash table of the weights which are keyed by the label id and the feature id packed into a long.
+ * The keys and the weights are stored in primitive arrays, so adding a weight allocates nothing
+ * unless the table grows, and visiting the weights costs the number of the stored weights only.
+ * <p>
+ * The table also keeps the sum of each weight over the time steps for the averaged perceptron.
+ * The sum is brought up to date lazily, only when the weight is updated, by the time step of the last update.
+ * <p>
+ * The weights are visited by the slots, e.g.
+ * <pre>
+ * for (int slot = 0; slot &lt; table.capacity(); slot++) {
+ *   if (table.isOccupied(slot)) {
+ *     table.labelAt(slot), table.featureAt(slot), table.valueAt(slot)
+ *   }
+ * }
+ * </pre>
+ *
+ * @author Younggue Bae
+ */
+public class WeightTable implements Serializable {
+
+	private static final long serialVersionUID = -6281645537468221473L;
+
+	private static final long EMPTY = -1L;
+	private static final int INITIAL_CAPACITY = 1 << 10;
+
+	private long[] keys;
+	private double[] values;
+	/** the sum of each weight over the time steps before its last update */
+	private double[] totals;
+	/** the time step of the last update of each weight */
+	private int[] stamps;
+	private int size;
+	private int mask;
+
+	public WeightTable() {
+		this(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param expectedSize	The expected number of weights
+	 */
+	public WeightTable(int expectedSize) {
+		int capacity = INITIAL_CAPACITY;
+		while (capacity * 3 / 4 < expectedSize) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	/**
+	 * Gets the weight of the label and the feature.
+	 *
+	 * @param label	The label id
+	 * @param feature	The feature id
+	 * @return the weight, or 0 if it has never been added
+	 */
+	public double get(int label, int feature) {
+		int slot = find(key(label, feature));
+		return slot >= 0 ? values[slot] : 0.0;
+	}
+
+	/**
+	 * Adds the delta to the weight of the label and the feature.
+	 *
+	 * @param label	The label id
+	 * @param feature	The feature id
+	 * @param delta
+	 */
+	public void add(int label, int feature, double delta) {
+		add(label, feature, delta, 0);
+	}
+
+	/**
+	 * Adds the delta to the weight of the label and the feature at the time step.
+	 * The sum of the weight is brought up to the time step before the weight is changed.
+	 *
+	 * @param label	The label id
+	 * @param feature	The feature id
+	 * @param delta
+	 * @param time	The current time step which never decreases
+	 */
+	public void add(int label, int feature, double delta, int time) {
+		if (label < 0 || feature < 0) {
+			throw new IllegalArgumentException("Invalid weight index: [" + label + "][" + feature + "]");
+		}
+		long key = key(label, feature);
+		int slot = hash(key) & mask;
+		while (keys[slot] != EMPTY) {
+			if (keys[slot] == key) {
+				totals[slot] += values[slot] * (time - stamps[slot]);
+				stamps[slot] = time;
+				values[slot] += delta;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		keys[slot] = key;
+		values[slot] = delta;
+		totals[slot] = 0.0;
+		stamps[slot] = time;
+		if (++size > keys.length * 3 / 4) {
+			rehash(keys.length << 1);
+		}
+	}
+
+	/**
+	 * Gets the number of the stored weights.
+	 *
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the number of the slots.
+	 *
+	 * @return
+	 */
+	public int capacity() {
+		return keys.length;
+	}
+
+	public boolean isOccupied(int slot) {
+		return keys[slot] != EMPTY;
+	}
+
+	public int labelAt(int slot) {
+		return (int) (keys[slot] >>> 32);
+	}
+
+	public int featureAt(int slot) {
+		return (int) keys[slot];
+	}
+
+	public double valueAt(int slot) {
+		return values[slot];
+	}
+
+	/**
+	 * Gets the average of the weight over the time steps until the given time step.
+	 *
+	 * @param slot
+	 * @param time	The number of the time steps
+	 * @return
+	 */
+	public double averageAt(int slot, int time) {
+		if (time == 0) {
+			return values[slot];
+		}
+		return (totals[slot] + values[slot] * (time - stamps[slot])) / time;
+	}
+
+	private int find(long key) {
+		if (key < 0) {
+			return -1;
+		}
+		for (int slot = hash(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+		}
+		return -1;
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		Arrays.fill(keys, EMPTY);
+		values = new double[capacity];
+		totals = new double[capacity];
+		stamps = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		double[] oldValues = values;
+		double[] oldTotals = totals;
+		int[] oldStamps = stamps;
+		allocate(capacity);
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int slot = hash(oldKeys[i]) & mask;
+				while (keys[slot] != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+				totals[slot] = oldTotals[i];
+				stamps[slot] = oldStamps[i];
+			}
+		}
+	}
+
+	/**
+	 * Packs the label id and the feature id into the key, the key of the unknown id is negative.
+	 */
+	private static long key(int label, int feature) {
+		if (label < 0 || feature < 0) {
+			return EMPTY;
+		}
+		return ((long) label << 32) | feature;
+	}
+
+	/**
+	 * Mixes the bits of the key, the finalizer of MurmurHash3.
+	 */
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+}
@@ -3,6 +3,7 @@ package com.yglab.nlp.postag;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.yglab.nlp.maxent.FeatureContext;
 import com.yglab.nlp.util.StringPattern;
 
 /**
@@ -16,12 +17,12 @@ public class DefaultPOSFeatureGenerator implements POSFeatureGenerator {
 	}
 	
 	@Override
-	public void initialize(String[] tokens) {
-		
+	public FeatureContext initialize(String[] tokens) {
+		return null;
 	}
 	
 	@Override
-	public String[] getFeatures(int position, String[] tokens, String[] previousTagSequence) {
+	public String[] getFeatures(int position, String[] tokens, String[] previousTagSequence, FeatureContext context) {
 		List<String> features = new ArrayList<String>();
 
 		this.addUnigramFeatures(features, position, tokens, previousTagSequence);
@@ -4,55 +4,47 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import com.yglab.nlp.maxent.FeatureContext;
+import com.yglab.nlp.model.AbstractEventStream;
 import com.yglab.nlp.model.Datum;
-import com.yglab.nlp.model.EventStream;
 
 /**
  * This class handles POS sample events stream.
  * 
  * @author Younggue Bae
  */
-public class POSSampleEventStream implements EventStream<POSSample, Datum> {
+public class POSSampleEventStream extends AbstractEventStream<POSSample, Datum> {
 
 	private POSFeatureGenerator featureGenerator;
-	private List<POSSample> samples;
 	
 	public POSSampleEventStream(POSFeatureGenerator featureGenerator, List<POSSample> samples) {
+		super(samples);
 		this.featureGenerator = featureGenerator;
-		this.samples = samples;
 	}
 	
 	@Override
-	public List<POSSample> getInputStream() {
-		return this.samples;
-	}
-	
-	@Override
-	public List<Datum> getOutputStream() {
-		List<Datum> trainData = new ArrayList<Datum>();
+	protected List<Datum> createEvents(POSSample sample) {
+		List<Datum> events = new ArrayList<Datum>();
 		
 		String[] previousLabel = new String[2];
+		previousLabel[0] = "*";	// previous previous label
+		previousLabel[1] = "*";	// previous label
+		String[] tokens = sample.getSentence();
+		String[] labels = sample.getLabels();
 		
-		for (POSSample sample: samples) {
-			previousLabel[0] = "*";	// previous previous label
-			previousLabel[1] = "*";	// previous label
-			String[] tokens = sample.getSentence();
-			String[] labels = sample.getLabels();
-			
-			// initialize the feature generator with new tokens
-			featureGenerator.initialize(tokens);
+		// build the context of the new tokens
+		FeatureContext context = featureGenerator.initialize(tokens);
+		
+		for (int i = 0; i < tokens.length; i++) {
+			Datum datum = new Datum(tokens[i], labels[i]);
+			datum.setFeatures(Arrays.asList(featureGenerator.getFeatures(i, tokens, previousLabel, context)));
+			events.add(datum);
 			
-			for (int i = 0; i < tokens.length; i++) {
-				Datum datum = new Datum(tokens[i], labels[i]);
-				datum.setFeatures(Arrays.asList(featureGenerator.getFeatures(i, tokens, previousLabel)));
-				trainData.add(datum);
-				
-				previousLabel[0] = previousLabel[1];
-				previousLabel[1] = datum.getLabel();
-			}
+			previousLabel[0] = previousLabel[1];
+			previousLabel[1] = datum.getLabel();
 		}
 		
-		return trainData;
+		return events;
 	}
 	
 }
@@ -15,10 +15,12 @@ import com.yglab.nlp.io.AbstractModelReader;
 import com.yglab.nlp.io.AbstractModelWriter;
 import com.yglab.nlp.io.AbstractPlainTextWriter;
 import com.yglab.nlp.maxent.DefaultTagSequenceGenerator;
+import com.yglab.nlp.maxent.FeatureContext;
 import com.yglab.nlp.maxent.MEMM;
+import com.yglab.nlp.maxent.MaxentBinaryModelReader;
+import com.yglab.nlp.maxent.MaxentBinaryModelWriter;
 import com.yglab.nlp.maxent.MaxentModelPlainTextWriter;
-import com.yglab.nlp.maxent.MaxentModelReader;
-import com.yglab.nlp.maxent.MaxentModelWriter;
+import com.yglab.nlp.maxent.Sequence;
 import com.yglab.nlp.maxent.TagSequenceGenerator;
 import com.yglab.nlp.model.AbstractModel;
 import com.yglab.nlp.model.Datum;
@@ -37,6 +39,8 @@ public class POSTagger {
 	protected AbstractModel model;
 	protected POSFeatureGenerator featureGenerator;
 	protected TagSequenceGenerator gen;
+	/** the beam size of the decoder, no pruning by default */
+	protected int beamSize = 0;
 	
 	/**
 	 * Initializes the pos tagger with the specified model.
@@ -45,10 +49,7 @@ public class POSTagger {
 	 * @param featureGenerator	The context feature generator
 	 */
 	public POSTagger(AbstractModel model, POSFeatureGenerator featureGenerator) {
-		this.model = model;
-		this.featureGenerator = featureGenerator;
-
-		this.gen = new DefaultTagSequenceGenerator(featureGenerator, model.getLabels(), 2);
+		this(model, featureGenerator, new DefaultTagSequenceGenerator(featureGenerator, model.getLabels(), 2));
 	}
 	
 	/**
@@ -62,8 +63,21 @@ public class POSTagger {
 		this.model = model;
 		this.featureGenerator = featureGenerator;
 		this.gen = gen;
+		
+		if (gen instanceof DefaultTagSequenceGenerator) {
+			((DefaultTagSequenceGenerator) gen).setFeatureIndex(model.getFeatureIndex());
+		}
 	}
 
+	/**
+	 * Sets the beam size of the lattice Viterbi decoder.
+	 * 
+	 * @param beamSize	The maximum number of states kept at each position, no pruning if it is not positive
+	 */
+	public void setBeamSize(int beamSize) {
+		this.beamSize = beamSize;
+	}
+	
 	/**
 	 * Trains maximum-entropy markov model or perceptron algorithm with the given train samples.
 	 * 
@@ -86,7 +100,7 @@ public class POSTagger {
 	private static AbstractModel trainMaxent(List<POSSample> trainSamples, POSFeatureGenerator featureGenerator, Options options) {
 		EventStream<POSSample, Datum> stream = new POSSampleEventStream(featureGenerator, trainSamples);
 		
-		return MEMM.trainModel(stream);
+		return MEMM.trainModel(stream, options);
 	}
 	
 	/**
@@ -105,9 +119,23 @@ public class POSTagger {
 	 * @param tokens The tokens sequence of a sentence
 	 * @return
 	 */
-	public String[] tag(String[] tokens) {		
+	public String[] tag(String[] tokens) {
+		// build the context of the new tokens
+		FeatureContext context = featureGenerator.initialize(tokens);
+		
+		return this.tag(tokens, context);
+	}
+	
+	/**
+	 * Puts the pos tags on the given sentence sequence with the context built for it.
+	 * 
+	 * @param tokens The tokens sequence of a sentence
+	 * @param context The context which was built by the feature generator for the tokens
+	 * @return
+	 */
+	protected String[] tag(String[] tokens, FeatureContext context) {
 		if (this.model.algorithm().equals(Options.MAXENT_ALGORITHM)) {
-			return this.tagMaxent(tokens);
+			return this.tagMaxent(tokens, context);
 		}
 		else if (this.model.algorithm().equals(Options.PERCEPTRON_ALGORITHM)) {
 			// TODO
@@ -117,13 +145,31 @@ public class POSTagger {
 		return null;		
 	}
 
+	/**
+	 * Puts the K best pos tag sequences on the given sentence sequence.
+	 * 
+	 * @param tokens The tokens sequence of a sentence
+	 * @param k	The maximum number of tag sequences
+	 * @return the tag sequences with the log probability, sorted by the score in descending order
+	 * @throws UnsupportedOperationException if the model is not a maximum-entropy markov model
+	 */
+	public List<Sequence> tag(String[] tokens, int k) {
+		if (this.model.algorithm().equals(Options.MAXENT_ALGORITHM)) {
+			// build the context of the new tokens
+			FeatureContext context = featureGenerator.initialize(tokens);
+			
+			return MEMM.decode(model, featureGenerator, tokens, context, gen.getLabelCandidates(tokens, context), beamSize, k);
+		}
+		
+		throw new UnsupportedOperationException("The K best decoding is not supported for the algorithm: " + this.model.algorithm());
+	}
 
 	public String[] tagMaxent(String[] tokens) {
-		// initialize the feature generator with new tokens
-		featureGenerator.initialize(tokens);
-			
-		List<List<Datum>> candidates = gen.getCandidates(tokens);
-		List<Datum> bestSequence = MEMM.decode(model, candidates);
+		return this.tagMaxent(tokens, featureGenerator.initialize(tokens));
+	}
+	
+	protected String[] tagMaxent(String[] tokens, FeatureContext context) {
+		List<Datum> bestSequence = MEMM.decode(model, featureGenerator, tokens, context, gen.getLabelCandidates(tokens, context), beamSize);
 
 		List<String> guessTags = new ArrayList<String>();
 		for (Datum datum : bestSequence) {
@@ -202,7 +248,7 @@ public class POSTagger {
 	 * @throws IOException
 	 */
 	public static final void saveModel(AbstractModel model, String binaryFile, String plainTextFile) throws IOException {
-		AbstractModelWriter<AbstractModel> writer = new MaxentModelWriter();
+		AbstractModelWriter<AbstractModel> writer = new MaxentBinaryModelWriter();
 		AbstractPlainTextWriter<AbstractModel> plainTextWriter = new MaxentModelPlainTextWriter();
 		writer.write(model, new File(binaryFile));
 		
@@ -220,7 +266,7 @@ public class POSTagger {
 	 * @throws ClassNotFoundException
 	 */
 	public static final AbstractModel loadModel(String file) throws IOException, ClassNotFoundException {
-		AbstractModelReader<AbstractModel> reader = new MaxentModelReader();
+		AbstractModelReader<AbstractModel> reader = new MaxentBinaryModelReader();
 		AbstractModel model = reader.read(new File(file));
 		
 		return model;
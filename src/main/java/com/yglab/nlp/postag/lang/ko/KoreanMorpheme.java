@@ -0,0 +1,96 @@
+package com.yglab.nlp.postag.lang.ko;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.yglab.nlp.postag.morph.Morpheme;
+
+/**
+ * The morpheme of the analysis which refers to the shared {@link MorphemeEntry} of the dictionary.
+ * The surface, the tag and the analyzed flag are changed by the analysis without modifying the entry,
+ * and the conditions of the entry are read as the attributes of the morpheme.
+ *
+ * @author Younggue Bae
+ */
+public class KoreanMorpheme extends Morpheme {
+
+	private static final long serialVersionUID = 1L;
+
+	private final MorphemeEntry entry;
+	/** the attributes set by the analysis, which are created when the first attribute is set */
+	private Map<String, Object> attributes;
+
+	/**
+	 * Creates the morpheme of the dictionary entry.
+	 *
+	 * @param entry
+	 */
+	public KoreanMorpheme(MorphemeEntry entry) {
+		this.entry = entry;
+		setKey(entry.getKey());
+		setSurface(entry.getSurface());
+		setTag(entry.getTag());
+		setPos(entry.getPos());
+	}
+
+	/**
+	 * Copies the given morpheme, which refers to the same entry.
+	 *
+	 * @param morpheme
+	 */
+	public KoreanMorpheme(KoreanMorpheme morpheme) {
+		this(morpheme.entry);
+		setKey(morpheme.getKey());
+		setSurface(morpheme.getSurface());
+		setTag(morpheme.getTag());
+		setPos(morpheme.getPos());
+		setAnalyzed(morpheme.isAnalyzed());
+		if (morpheme.attributes != null) {
+			this.attributes = new HashMap<String, Object>(morpheme.attributes);
+		}
+	}
+
+	/**
+	 * Gets the dictionary entry of the morpheme.
+	 *
+	 * @return
+	 */
+	public MorphemeEntry getEntry() {
+		return entry;
+	}
+
+	/**
+	 * Gets the attributes set to the morpheme, which include the conditions of the entry.
+	 * The returned map is a copy.
+	 */
+	@Override
+	public Map<String, Object> getAttributes() {
+		Map<String, Object> merged = entry.getAttributes();
+		if (attributes != null) {
+			merged.putAll(attributes);
+		}
+		return merged;
+	}
+
+	@Override
+	public void setAttribute(String key, Object value) {
+		if (attributes == null) {
+			attributes = new HashMap<String, Object>();
+		}
+		attributes.put(key, value);
+	}
+
+	@Override
+	public Object getAttribute(String key) {
+		if (attributes != null && attributes.containsKey(key)) {
+			return attributes.get(key);
+		}
+		return entry.getAttribute(key);
+	}
+
+	@Override
+	public boolean containsAttributeKey(String key) {
+		return (attributes != null && attributes.containsKey(key)) || entry.getAttribute(key) != null;
+	}
+
+}
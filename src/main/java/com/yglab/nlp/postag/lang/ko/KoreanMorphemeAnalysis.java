@@ -0,0 +1,107 @@
+package com.yglab.nlp.postag.lang.ko;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.yglab.nlp.maxent.FeatureContext;
+import com.yglab.nlp.postag.morph.Token;
+
+/**
+ * The morpheme analysis of the tokens of a sentence, which is generated by {@link KoreanMorphemeAnalyzer}.
+ * It holds the morpheme candidates, the tail candidates and the morpheme features of each token,
+ * and is never modified after it is created, so it can be read by multiple threads.
+ * The candidate tokens must not be modified by the callers, copy them first if needed.
+ *
+ * @author Younggue Bae
+ */
+public class KoreanMorphemeAnalysis implements FeatureContext {
+
+	private final String[] tokens;
+	private final List<List<Token>> candidates;
+	private final List<List<String>> tailCandidates;
+	private final List<List<String>> features;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param tokens	The tokens of the sentence
+	 * @param candidates	The morpheme candidates of each token
+	 * @param tailCandidates	The tail candidates of each token
+	 * @param features	The morpheme features of each token
+	 */
+	public KoreanMorphemeAnalysis(String[] tokens, List<List<Token>> candidates,
+			List<List<String>> tailCandidates, List<List<String>> features) {
+		this.tokens = tokens.clone();
+		this.candidates = unmodifiable(candidates);
+		this.tailCandidates = unmodifiable(tailCandidates);
+		this.features = unmodifiable(features);
+	}
+
+	private static <T> List<List<T>> unmodifiable(List<List<T>> lists) {
+		List<List<T>> result = new ArrayList<List<T>>(lists.size());
+		for (List<T> list : lists) {
+			result.add(Collections.unmodifiableList(new ArrayList<T>(list)));
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * Gets the number of the tokens.
+	 *
+	 * @return
+	 */
+	public int size() {
+		return tokens.length;
+	}
+
+	/**
+	 * Gets the token at the specific position.
+	 *
+	 * @param position
+	 * @return
+	 */
+	public String getToken(int position) {
+		return tokens[position];
+	}
+
+	/**
+	 * Gets the analyzed morpheme candidates for all tokens.
+	 *
+	 * @return
+	 */
+	public List<List<Token>> getCandidates() {
+		return candidates;
+	}
+
+	/**
+	 * Gets the analyzed morpheme candidates for the token at the specific position of the tokens.
+	 *
+	 * @param position
+	 * @return
+	 */
+	public List<Token> getCandidates(int position) {
+		return candidates.get(position);
+	}
+
+	/**
+	 * Gets the analyzed tail candidates for the token at the specific position of the tokens.
+	 *
+	 * @param position
+	 * @return
+	 */
+	public List<String> getTailCandidates(int position) {
+		return tailCandidates.get(position);
+	}
+
+	/**
+	 * Gets the morpheme features for the token at the specific position of the tokens.
+	 *
+	 * @param position
+	 * @return
+	 */
+	public List<String> getFeatures(int position) {
+		return features.get(position);
+	}
+
+}
@@ -12,6 +12,7 @@ import java.util.regex.Pattern;
 import com.yglab.nlp.postag.TagPattern;
 import com.yglab.nlp.postag.morph.Morpheme;
 import com.yglab.nlp.postag.morph.Token;
+import com.yglab.nlp.util.LruCache;
 import com.yglab.nlp.util.lang.ko.KoreanMorphemeUtil;
 import com.yglab.nlp.util.lang.ko.KoreanUnicode;
 
@@ -22,6 +23,9 @@ import com.yglab.nlp.util.lang.ko.KoreanUnicode;
  */
 public class KoreanMorphemeAnalyzer {
 
+	/** the default maximum weight of the eojeol cache, which is about the number of the cached morphemes */
+	public static final int DEFAULT_CACHE_SIZE = 200000;
+
 	/** the pattern for finding collocated pos tags */
 	private static final Pattern COLLOCATE_PATTERN = Pattern.compile(
 			"((XSA|XSV|VX)\\+(EP|ETN|ETM|EC|EF))" + "|" +
@@ -40,10 +44,8 @@ public class KoreanMorphemeAnalyzer {
 	private KoreanLemmatizer lemmatizer;
 	//private final String[] validTags;
 	private Map<String, List<String>> validTagMap = new HashMap<String, List<String>>();
-	private String[] tokensArray;
-	private List<List<Token>> tokensCandidates = new ArrayList<List<Token>>();
-	private List<List<String>> tokensTailCandidates = new ArrayList<List<String>>();
-	private List<List<String>> tokensFeatures = new ArrayList<List<String>>();
+	/** the cache of the analyzed eojeols by the surface, null if disabled */
+	private LruCache<String, EojeolCandidates> cache;
 	
 	/** comparator for sorting tail descending by length */
 	private static final Comparator<String> tailComparator = new Comparator<String>() {
@@ -68,11 +70,28 @@ public class KoreanMorphemeAnalyzer {
 	 * @param tags	The valid unique tags or labels
 	 */
 	public KoreanMorphemeAnalyzer(KoreanMorphemeDictionary dic, String[] validTags) {
+		this(dic, validTags, DEFAULT_CACHE_SIZE);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param dic	The morpheme dictionary
+	 * @param tags	The valid unique tags or labels
+	 * @param cacheSize	The maximum weight of the eojeol cache, which is about the number of the cached morphemes, or 0 to disable the cache
+	 */
+	public KoreanMorphemeAnalyzer(KoreanMorphemeDictionary dic, String[] validTags, int cacheSize) {
+		if (cacheSize < 0) {
+			throw new IllegalArgumentException("The cache size should not be negative: " + cacheSize);
+		}
 		this.dic = dic;
 		//this.validTags = validTags;
 		
 		this.validTagMap = indexingValidTags(validTags);
 		this.lemmatizer = new KoreanLemmatizer();
+		if (cacheSize > 0) {
+			this.cache = new LruCache<String, EojeolCandidates>(cacheSize, LruCache.DEFAULT_CONCURRENCY_LEVEL, EojeolCandidates.WEIGHER);
+		}
 		
 		System.out.println("--------------------------");
 		System.out.println("valid tags map: " + validTagMap.size());
@@ -83,60 +102,22 @@ public class KoreanMorphemeAnalyzer {
 	}
 	
 	/**
-	 * Gets the analyzed morpheme candidates for the current all tokens.
-	 * 
-	 * @return
-	 */
-	public List<List<Token>> getCurrentCandidates() {
-		return this.tokensCandidates;
-	}
-	
-	/**
-	 * Gets the analyzed morpheme candidates for the token at the specific position of the tokens.
-	 * 
-	 * @param position
-	 * @return
-	 */
-	public List<Token> getCurrentCandidates(int position) {
-		return this.tokensCandidates.get(position);
-	}
-	
-	/**
-	 * Gets the analyzed tail candidates for the token at the specific position of the tokens.
-	 * 
-	 * @param position
-	 * @return
-	 */
-	public List<String> getCurrentTailCandidates(int position) {
-		return this.tokensTailCandidates.get(position);
-	}
-	
-	/**
-	 * Gets the features for the token at the specific position of the tokens.
-	 * 
-	 * @param position
-	 * @return
-	 */
-	public List<String> getCurrentFeatures(int position) {
-		return this.tokensFeatures.get(position);
-	}
-	
-	/**
-	 * Analyzes the morphemes for the current tokens.
+	 * Analyzes the morphemes for the tokens of the given analysis.
 	 * 
+	 * @param analysis	The morpheme candidates generated for the tokens
 	 * @param predictedTags	The predicted tags for tokens
 	 * @return
 	 */
-	public List<Token> analyze(String[] predictedTags) {
+	public List<Token> analyze(KoreanMorphemeAnalysis analysis, String[] predictedTags) {
 		List<Token> tokens = new ArrayList<Token>();
 		
 		for (int position = 0; position < predictedTags.length; position++) {
 			String predictedTag = predictedTags[position];
 			
-			List<Token> candidates = this.getCurrentCandidates(position);
+			List<Token> candidates = analysis.getCandidates(position);
 			
 			if (candidates.size() == 0) {
-				String strToken = tokensArray[position];
+				String strToken = analysis.getToken(position);
 				Token token = new Token(strToken);
 				Morpheme morpheme = new Morpheme();
 				morpheme.setSurface(strToken);
@@ -152,7 +133,8 @@ public class KoreanMorphemeAnalyzer {
 			boolean matchWithCandidate = false;
 			for (Token token : candidates) {
 				if (predictedTag.equals(token.getPos())) {
-					token = lemmatizer.lemmatize(token);
+					/* the candidates of the analysis are shared, so the lemmatizer works on a copy */
+					token = lemmatizer.lemmatize(copy(token));
 					System.out.println(position + ": " + token.getToken() + "[" +  token.getTag() + "], analyzed=" + token.isAnalyzed() + ", head=" + token.getHead());
 					tokens.add(token);
 					matchWithCandidate = true;
@@ -161,7 +143,7 @@ public class KoreanMorphemeAnalyzer {
 			}
 			
 			if (!matchWithCandidate) {
-				String strToken = tokensArray[position];
+				String strToken = analysis.getToken(position);
 				Token token = new Token(strToken);
 				Morpheme morpheme = new Morpheme();
 				morpheme.setSurface(strToken);
@@ -186,89 +168,153 @@ public class KoreanMorphemeAnalyzer {
 	 * Generates the possible candidates of morpheme for the each token.
 	 * 
 	 * @param tokens The tokens' array
-	 * @return
+	 * @return the analysis of the tokens
 	 */
-	public void generateCandidates(String[] tokens) {
-		/* initializes the candidates for the current tokens */
-		this.tokensArray = tokens;
-		this.tokensCandidates.clear();
-		this.tokensTailCandidates.clear();
-		this.tokensFeatures.clear();
+	public KoreanMorphemeAnalysis generateCandidates(String[] tokens) {
+		List<List<Token>> tokensCandidates = new ArrayList<List<Token>>(tokens.length);
+		List<List<String>> tokensTailCandidates = new ArrayList<List<String>>(tokens.length);
+		List<List<String>> tokensFeatures = new ArrayList<List<String>>(tokens.length);
 		
 		for (int position = 0; position < tokens.length; position++) {
-			String strToken = tokens[position];
-			Map<String, Token> validCandidates = new HashMap<String, Token>();
-			List<String> validTailCandidates = new ArrayList<String>();
-			List<String> tokenFeatures = new ArrayList<String>();
+			EojeolCandidates eojeol = this.getEojeolCandidates(tokens[position]);
+			tokensCandidates.add(eojeol.candidates);
+			tokensTailCandidates.add(eojeol.tailCandidates);
+			tokensFeatures.add(eojeol.features);
+		}
+		
+		return new KoreanMorphemeAnalysis(tokens, tokensCandidates, tokensTailCandidates, tokensFeatures);
+	}
+	
+	/**
+	 * Gets the cache of the analyzed eojeols, or null if the cache is disabled.
+	 * The statistics of the cache such as the hit rate can be read from it.
+	 * 
+	 * @return
+	 */
+	public LruCache<String, ?> getCache() {
+		return cache;
+	}
+	
+	/**
+	 * Gets the candidates of the eojeol from the cache, or generates and caches them.
+	 * The candidates only depend on the surface of the eojeol, so the same eojeols share the candidates.
+	 * 
+	 * @param strToken	The surface of the eojeol
+	 * @return
+	 */
+	private EojeolCandidates getEojeolCandidates(String strToken) {
+		if (cache == null) {
+			return this.generateEojeolCandidates(strToken);
+		}
+		EojeolCandidates eojeol = cache.get(strToken);
+		if (eojeol == null) {
+			eojeol = this.generateEojeolCandidates(strToken);
+			cache.put(strToken, eojeol);
+		}
+		return eojeol;
+	}
+	
+	/**
+	 * Generates the possible candidates of morpheme for the eojeol.
+	 * 
+	 * @param strToken	The surface of the eojeol
+	 * @return
+	 */
+	private EojeolCandidates generateEojeolCandidates(String strToken) {
+		Map<String, Token> validCandidates = new HashMap<String, Token>();
+		List<String> validTailCandidates = new ArrayList<String>();
+		List<String> tokenFeatures = new ArrayList<String>();
+		
+		/* identify morpheme candidates for a token */
+		List<Token> candidates = new MorphemeLattice(strToken).getCandidates();
+		
+		/* sort descending by the number of tag of the token */
+		Collections.sort(candidates);
+		
+		int maxNumTag = 0;
+		outerLoop:
+		for (int ci = 0; ci < candidates.size(); ci++) {
+			Token candidate = candidates.get(ci);
+			System.out.println(candidate.getToken() + ": " + candidate.getTag() + ", " + candidate.getPos() + ", " + candidate.getNumTag());
 			
-			/* identify morpheme candidates for a token */
-			List<Token> candidates = new ArrayList<Token>();
-			this.identifyMorphemeCandidates(candidates, new Token(strToken), strToken);
+			if (this.addValidCandidate(candidate, validCandidates, validTailCandidates, tokenFeatures)) {
+				System.out.println(" -> " + candidate.getToken() + ": " + candidate.getTag() + ", " + candidate.getPos() + ", " + candidate.getNumTag());
+				int numTag = candidate.getNumTag();
+				if (numTag > maxNumTag) {
+					maxNumTag = numTag;
+				}
+			}
+			/*
+			 * if the candidate has been full analyzed but doesn't match with valid tag, 
+			 * it is added into the valid candidates though.
+			 */
+			else if (candidate.isAnalyzed()) {
+				if (!candidate.getPos().startsWith("E")) {
+					System.out.println(" (+) " + candidate.getToken() + ": " + candidate.getTag() + ", " + candidate.getPos() + ", " + candidate.getNumTag());
+					candidate.setValidated(false);
+					validCandidates.put(candidate.getTag(), candidate);
+				}
+			}
 			
-			/* sort descending by the number of tag of the token */
-			Collections.sort(candidates);
+			if (maxNumTag >= 2) {
+				Matcher m = COLLOCATE_PATTERN.matcher(candidate.getPos());
+				if (m.find()) {
+					System.out.println("**continue: " + candidate.getTag());
+					continue;
+				}
+			}
 			
-			int maxNumTag = 0;
-			outerLoop:
-			for (int ci = 0; ci < candidates.size(); ci++) {
-				Token candidate = candidates.get(ci);
-				System.out.println(candidate.getToken() + ": " + candidate.getTag() + ", " + candidate.getPos() + ", " + candidate.getNumTag());
+			for (int mi = candidate.size() - 2; mi >= 0; mi--) {
+				Token tail = candidate.getTail(mi);
 				
-				if (this.addValidCandidate(candidate, validCandidates, validTailCandidates, tokenFeatures)) {
-					System.out.println(" -> " + candidate.getToken() + ": " + candidate.getTag() + ", " + candidate.getPos() + ", " + candidate.getNumTag());
-					int numTag = candidate.getNumTag();
-					if (numTag > maxNumTag) {
-						maxNumTag = numTag;
+				if (this.addValidCandidate(tail, validCandidates, validTailCandidates, tokenFeatures)) {
+					int tailNumTag = tail.getNumTag();
+					if (tailNumTag > maxNumTag) {
+						maxNumTag = tailNumTag;
 					}
-				}
-				/*
-				 * if the candidate has been full analyzed but doesn't match with valid tag, 
-				 * it is added into the valid candidates though.
-				 */
-				else if (candidate.isAnalyzed()) {
-					if (!candidate.getPos().startsWith("E")) {
-						System.out.println(" (+) " + candidate.getToken() + ": " + candidate.getTag() + ", " + candidate.getPos() + ", " + candidate.getNumTag());
-						candidate.setValidated(false);
-						validCandidates.put(candidate.getTag(), candidate);
+					System.out.println(" ->> " + tail.getToken() + ": " + tail.getTag() + ", " + tail.getPos() + ", numTag=" + tail.getNumTag() + ", maxNumTag=" + maxNumTag);
+					if (maxNumTag >= 3 && (tailNumTag == 2 || tailNumTag == 3)) {
+						System.out.println("**exit outer loop");
+						break outerLoop;
 					}
-				}
-				
-				if (maxNumTag >= 2) {
-					Matcher m = COLLOCATE_PATTERN.matcher(candidate.getPos());
-					if (m.find()) {
-						System.out.println("**continue: " + candidate.getTag());
-						continue;
+					else if (tail.getNumTag() == 2) {
+						System.out.println("**exit inner loop");
+						break;
 					}
 				}
-				
-				for (int mi = candidate.size() - 2; mi >= 0; mi--) {
-					Token tail = candidate.getTail(mi);
-					
-					if (this.addValidCandidate(tail, validCandidates, validTailCandidates, tokenFeatures)) {
-						int tailNumTag = tail.getNumTag();
-						if (tailNumTag > maxNumTag) {
-							maxNumTag = tailNumTag;
-						}
-						System.out.println(" ->> " + tail.getToken() + ": " + tail.getTag() + ", " + tail.getPos() + ", numTag=" + tail.getNumTag() + ", maxNumTag=" + maxNumTag);
-						if (maxNumTag >= 3 && (tailNumTag == 2 || tailNumTag == 3)) {
-							System.out.println("**exit outer loop");
-							break outerLoop;
-						}
-						else if (tail.getNumTag() == 2) {
-							System.out.println("**exit inner loop");
-							break;
-						}
-					}
-				}    
+			}    
+		}
+		
+		/* sort the valid tail candidates descending by length */
+		Collections.sort(validTailCandidates, tailComparator);
+		
+		return new EojeolCandidates(new ArrayList<Token>(validCandidates.values()), validTailCandidates, tokenFeatures);
+	}
+	
+	/**
+	 * Deep copies the token with its morphemes.
+	 * 
+	 * @param token
+	 * @return
+	 */
+	private static Token copy(Token token) {
+		Token copied = new Token(token.getToken());
+		copied.setHead(token.getHead());
+		copied.setStem(token.getStem());
+		copied.setAnalyzed(token.isAnalyzed());
+		copied.setValidated(token.isValidated());
+		for (Map.Entry<String, Object> attribute : token.getAttributes().entrySet()) {
+			copied.setAttribute(attribute.getKey(), attribute.getValue());
+		}
+		for (Morpheme morpheme : token) {
+			if (morpheme instanceof KoreanMorpheme) {
+				copied.add(new KoreanMorpheme((KoreanMorpheme) morpheme));
+			}
+			else {
+				copied.add(new Morpheme(morpheme));
 			}
-			tokensCandidates.add(new ArrayList<Token>(validCandidates.values()));
-			
-			/* sort the valid tail candidates descending by length */
-			Collections.sort(validTailCandidates, tailComparator);
-			tokensTailCandidates.add(validTailCandidates);
-			
-			tokensFeatures.add(tokenFeatures);
 		}
+		return copied;
 	}
 	
 	/**
@@ -366,254 +412,6 @@ public class KoreanMorphemeAnalyzer {
 		return true;
 	}
 	
-	/**
-	 * Identifies the morpheme candidates for the specified surface.
-	 * 
-	 * @param candidates	The candidate list to store
-	 * @param token	The token
-	 * @param surface	The surface text to find the morpheme in it
-	 */
-	private void identifyMorphemeCandidates(List<Token> candidates, Token token, String surface) {
-		/* 
-		 * find the all suffixes matched with the dictionary.
-		 * the matched morphemes should not be referenced with those of morpheme dictionary!!!
-		 */
-		List<List<Morpheme>> matchMorphemes = new ArrayList<List<Morpheme>>(dic.findSuffixes(surface));
-
-		if (matchMorphemes == null || matchMorphemes.size() == 0) {
-			if (token == null || token.size() == 0) {
-				return;
-			}
-			if (token.getHead().length() == 0) {
-				token.setAnalyzed(true);
-			}
-			candidates.add(token);
-			return;
-		}
-		
-		//System.err.println(surface + ": " + matchMorphemes);
-
-		for (List<Morpheme> morphemeList : matchMorphemes) {
-			String tail = null;
-			String head = null;
-
-			for (int i = 0; i < morphemeList.size(); i++) {
-				Morpheme morpheme = morphemeList.get(i);
-				morpheme.setAnalyzed(true);
-				
-				/* split head and tail */
-				if (i == 0) {
-					tail = morpheme.getSurface();
-					head = KoreanMorphemeUtil.truncateRight(surface, tail);
-				}
-				
-				/* clone the exist token to new token */
-				Token clonedToken = new Token(token);
-				
-				String type = (String) morpheme.getAttribute("type");
-				
-				if (!checkPrimaryCombineCondition(morpheme, clonedToken)) {
-					if (token.size() > 1) {
-						String revivedHead = clonedToken.getHead() + clonedToken.get(clonedToken.size() - 1).getSurface();
-						clonedToken.remove(clonedToken.size() - 1);
-						/* revive head */
-						clonedToken.setHead(revivedHead);
-						candidates.add(clonedToken);
-					}
-					continue;
-				}
-
-				if (checkSecondaryCombineCondition(morpheme, clonedToken)) {
-					if (type.equals("suffix")) {
-						if (token.getToken().endsWith(morpheme.getSurface())) {
-							morpheme.setSurface(token.getToken());
-							morpheme.setTag(token.getToken() + "/" + morpheme.getPos());
-							clonedToken.add(morpheme);
-							clonedToken.setHead("");
-							clonedToken.setAnalyzed(true);
-							candidates.add(clonedToken);
-						}
-						else {
-							if (token.size() > 0) candidates.add(token);
-						}
-						//return;
-					}
-					else if (type.equals("word-ind")) {
-						if (token.getToken().equals(morpheme.getSurface())) {
-							clonedToken.add(morpheme);
-							clonedToken.setHead(head);
-							clonedToken.setAnalyzed(true);
-							candidates.add(clonedToken);
-						}
-						else {
-							if (token.size() > 0) candidates.add(token);
-						}
-						//return;
-					}
-					else if (type.equals("word-prefix")) {
-						if (head.equals("")) {
-							clonedToken.add(morpheme);
-							clonedToken.setHead(head);
-							clonedToken.setAnalyzed(true);
-							candidates.add(clonedToken);
-						}
-						else {
-							if (token.size() > 0) candidates.add(token);
-						}
-					}
-					else if (type.startsWith("head")) {
-						if (head.equals("")) {
-							clonedToken.add(morpheme);
-							clonedToken.setHead(head);
-							clonedToken.setAnalyzed(true);
-							candidates.add(clonedToken);
-						}
-						else {
-							if (token.size() > 0) candidates.add(token);
-						}
-						/* do not return!!! */
-						//return;
-					}
-					else {
-						clonedToken.add(morpheme);
-						clonedToken.setHead(head);
-						this.identifyMorphemeCandidates(candidates, clonedToken, head);			
-					}
-				}
-				else {
-					if (token.size() > 0) candidates.add(token);
-				}
-			}
-		}
-	}
-
-	/**
-	 * Checks if satisfying the primary condition to combine the token with the new morpheme to the left.
-	 * 
-	 * @param left
-	 * @param token
-	 * @return
-	 */
-	private boolean checkPrimaryCombineCondition(Morpheme left, Token token) {
-		if (token.size() < 1) {
-			if (left.containsAttributeKey("leftLetterCondition(+)")) {
-				String head = KoreanMorphemeUtil.truncateRight(token.getToken(), left.getSurface());
-				String decomposedHead = String.valueOf(KoreanUnicode.decompose(head));
-				Pattern pattern = (Pattern) left.getAttribute("leftLetterCondition(+)");
-				Matcher m = pattern.matcher(decomposedHead);
-				
-				if (!m.find()) {
-					return false;
-				}
-			}
-			if (left.containsAttributeKey("leftLetterCondition(-)")) {
-				String head = KoreanMorphemeUtil.truncateRight(token.getToken(), left.getSurface());
-				String decomposedHead = String.valueOf(KoreanUnicode.decompose(head));
-				Pattern pattern = (Pattern) left.getAttribute("leftLetterCondition(-)");
-				Matcher m = pattern.matcher(decomposedHead);
-				
-				if (m.find()) {
-					return false;
-				}
-			}
-			return true;
-		}
-		
-		Morpheme right = token.getLast();
-		
-		//System.err.println("*leftLetterCondition(+)");
-		
-		/* left letter condition */
-		if (right.containsAttributeKey("leftLetterCondition(+)")) {
-			String decomposedSurface = String.valueOf(KoreanUnicode.decompose(left.getSurface()));
-			Pattern pattern = (Pattern) right.getAttribute("leftLetterCondition(+)");
-			Matcher m = pattern.matcher(decomposedSurface);
-			
-			if (!m.find()) {
-				return false;
-			}
-		}
-		
-		//System.err.println("*leftLetterCondition(-)");
-
-		if (right.containsAttributeKey("leftLetterCondition(-)")) {
-			String decomposedSurface = String.valueOf(KoreanUnicode.decompose(left.getSurface()));
-			Pattern pattern = (Pattern) right.getAttribute("leftLetterCondition(-)");
-			Matcher m = pattern.matcher(decomposedSurface);
-			
-			if (m.find()) {
-				return false;
-			}
-		}
-		
-		String head = KoreanMorphemeUtil.truncateRight(token.getHead(), left.getSurface());
-		if (head.length() == 0 && (left.containsAttributeKey("leftLetterCondition(+)") || 
-				left.containsAttributeKey("leftLetterCondition(-)"))) {
-			return false;
-		}
-		
-		//System.err.println("*leftPhonemeCondition");
-		
-		/* left phoneme condition */
-		if (right.containsAttributeKey("leftPhonemeCondition") && left.containsAttributeKey("phonemeProperty")) {
-			Pattern pattern = (Pattern) right.getAttribute("leftPhonemeCondition");
-			String leftProperty = (String) left.getAttribute("phonemeProperty");
-			Matcher m = pattern.matcher(leftProperty);
-			
-			if (!m.find()) {
-				return false;
-			}
-		}
-		
-		return true;
-	}
-	
-	/**
-	 * Checks if satisfying the secondary condition to combine the token with the new morpheme to the left.
-	 * 
-	 * @param left
-	 * @param token
-	 * @return
-	 */
-	private boolean checkSecondaryCombineCondition(Morpheme left, Token token) {
-		if (token.size() < 1) {
-			return true;
-		}
-		
-		Morpheme right = token.getLast();
-
-		//System.err.println("*leftMorphemeCondition");
-		
-		/* left morpheme condition */
-		if (right.containsAttributeKey("leftMorphemeCondition") && left.containsAttributeKey("morphemeProperty")) {
-			Pattern pattern = (Pattern) right.getAttribute("leftMorphemeCondition");
-			String leftProperty = (String) left.getAttribute("morphemeProperty");
-			Matcher m = pattern.matcher(leftProperty);
-			
-			if (!m.find()) {
-				return false;
-			}
-		}
-		
-		//System.err.println("*leftPosCondition");
-		
-		/* left POS condition */
-		if (right.containsAttributeKey("leftPosCondition")) {
-			Pattern pattern = (Pattern) right.getAttribute("leftPosCondition");
-			String leftTag = left.getTag();
-			leftTag = leftTag.replaceAll("\\([^a-zA-Z]+\\)$", "");
-			Matcher m = pattern.matcher(leftTag);
-			
-			if (!m.find()) {
-				return false;
-			}
-		}
-		
-		//System.err.println("*pass all conditions");
-
-		return true;
-	}
-	
 	/**
 	 * Creates the indexing of the valid tags.
 	 * 
@@ -706,4 +504,353 @@ public class KoreanMorphemeAnalyzer {
 		return sb.toString();
 	}
 
+	/**
+	 * The morpheme lattice of an eojeol, which is scanned from right to left.
+	 * The nodes are the heads which are not analyzed yet, and the edges of a node are the dictionary entries
+	 * which match the suffix of the head.
+	 * <p>
+	 * The analyses of a node only depend on the head, the entry of the morpheme to the right of it and whether
+	 * the token has one or more morphemes, so they are computed once for the state by the dynamic programming
+	 * and shared by all the paths which reach the state. An analysis is a persistent path of the morphemes,
+	 * which shares the morphemes to the left with the other paths, so the tokens are only created for the complete candidates.
+	 * The candidates are the same as the depth first enumeration of the suffixes in the same order.
+	 */
+	private class MorphemeLattice {
+		private final String eojeol;
+		/** the buffer of the decomposed jaso which is reused by the lookups and the conditions */
+		private char[] buffer;
+		/** the matched dictionary entries of the nodes */
+		private final Map<String, List<List<MorphemeEntry>>> edges = new HashMap<String, List<List<MorphemeEntry>>>();
+		/** the memoized analyses of the states */
+		private final Map<LatticeState, List<LatticePath>> analyses = new HashMap<LatticeState, List<LatticePath>>();
+		
+		private MorphemeLattice(String eojeol) {
+			this.eojeol = eojeol;
+			this.buffer = new char[eojeol.length() * 3];
+		}
+		
+		/**
+		 * Gets the morpheme candidates of the eojeol.
+		 * 
+		 * @return
+		 */
+		private List<Token> getCandidates() {
+			List<LatticePath> paths = this.analyze(eojeol, null, 0);
+			List<Token> candidates = new ArrayList<Token>(paths.size());
+			
+			for (LatticePath path : paths) {
+				Token candidate = new Token(eojeol);
+				for (LatticePath node = path; node != null; node = node.rest) {
+					if (node.morpheme != null) {
+						candidate.add(node.morpheme);
+					}
+				}
+				candidate.setHead(path.head);
+				candidate.setAnalyzed(path.analyzed);
+				candidates.add(candidate);
+			}
+			
+			return candidates;
+		}
+		
+		private List<List<MorphemeEntry>> getEdges(String head) {
+			List<List<MorphemeEntry>> matches = edges.get(head);
+			if (matches == null) {
+				int length = this.decompose(head);
+				matches = dic.findSuffixes(buffer, length);
+				edges.put(head, matches);
+			}
+			return matches;
+		}
+		
+		/**
+		 * Decomposes the string into the buffer of the lattice, which is replaced if it is too short,
+		 * so the buffer should be read after calling this.
+		 * 
+		 * @param str
+		 * @return	the number of the jaso in the buffer
+		 */
+		private int decompose(String str) {
+			int length = KoreanUnicode.decomposedLength(str);
+			if (length > buffer.length) {
+				buffer = new char[length];
+			}
+			return KoreanUnicode.decompose(str, buffer, 0);
+		}
+		
+		/**
+		 * Checks if satisfying the primary condition to combine the token with the new morpheme to the left.
+		 * 
+		 * @param left	The new morpheme
+		 * @param right	The entry of the last morpheme of the token, or null if the token has no morpheme
+		 * @param head	The head of the token which is not analyzed yet
+		 * @return
+		 */
+		private boolean checkPrimaryCombineCondition(KoreanMorpheme left, MorphemeEntry right, String head) {
+			MorphemeEntry leftEntry = left.getEntry();
+			
+			if (right == null) {
+				if (leftEntry.hasLeftLetterCondition()) {
+					String leftHead = KoreanMorphemeUtil.truncateRight(eojeol, left.getSurface());
+					int length = this.decompose(leftHead);
+					if (!leftEntry.matchesLeftLetterCondition(buffer, length)) {
+						return false;
+					}
+				}
+				return true;
+			}
+			
+			/* left letter condition */
+			if (right.hasLeftLetterCondition()) {
+				int length = this.decompose(left.getSurface());
+				if (!right.matchesLeftLetterCondition(buffer, length)) {
+					return false;
+				}
+			}
+			
+			String leftHead = KoreanMorphemeUtil.truncateRight(head, left.getSurface());
+			if (leftHead.length() == 0 && leftEntry.hasLeftLetterCondition()) {
+				return false;
+			}
+			
+			/* left phoneme condition */
+			if (right.getLeftPhonemeCondition() != null && leftEntry.getPhonemeProperty() != null) {
+				Matcher m = right.getLeftPhonemeCondition().matcher(leftEntry.getPhonemeProperty());
+				
+				if (!m.find()) {
+					return false;
+				}
+			}
+			
+			return true;
+		}
+		
+		/**
+		 * Checks if satisfying the secondary condition to combine the token with the new morpheme to the left.
+		 * 
+		 * @param left	The new morpheme
+		 * @param right	The entry of the last morpheme of the token, or null if the token has no morpheme
+		 * @return
+		 */
+		private boolean checkSecondaryCombineCondition(KoreanMorpheme left, MorphemeEntry right) {
+			if (right == null) {
+				return true;
+			}
+			
+			MorphemeEntry leftEntry = left.getEntry();
+
+			/* left morpheme condition */
+			if (right.getLeftMorphemeCondition() != null && leftEntry.getMorphemeProperty() != null) {
+				Matcher m = right.getLeftMorphemeCondition().matcher(leftEntry.getMorphemeProperty());
+			
+				if (!m.find()) {
+					return false;
+				}
+			}
+			
+			/* left POS condition */
+			if (right.getLeftPosCondition() != null) {
+				String leftTag = left.getTag();
+				leftTag = leftTag.replaceAll("\\([^a-zA-Z]+\\)$", "");
+				Matcher m = right.getLeftPosCondition().matcher(leftTag);
+			
+				if (!m.find()) {
+					return false;
+				}
+			}
+			
+			return true;
+		}
+		
+		/**
+		 * Analyzes the head of the token whose last morpheme is the given right morpheme.
+		 * The paths are relative to the token, and the path which drops the last morpheme of the token
+		 * revives the surface of it into the head.
+		 * 
+		 * @param head	The head which is not analyzed yet
+		 * @param right	The last morpheme of the token, or null if the token has no morpheme
+		 * @param numMorphemes	The number of the morphemes of the token
+		 * @return
+		 */
+		private List<LatticePath> analyze(String head, KoreanMorpheme right, int numMorphemes) {
+			MorphemeEntry rightEntry = right != null ? right.getEntry() : null;
+			LatticeState state = new LatticeState(head, rightEntry, Math.min(numMorphemes, 2));
+			List<LatticePath> paths = analyses.get(state);
+			if (paths != null) {
+				return paths;
+			}
+			paths = new ArrayList<LatticePath>();
+			analyses.put(state, paths);
+			
+			List<List<MorphemeEntry>> matchEntries = this.getEdges(head);
+			
+			if (matchEntries == null || matchEntries.size() == 0) {
+				if (numMorphemes > 0) {
+					paths.add(new LatticePath(null, null, head, head.length() == 0));
+				}
+				return paths;
+			}
+			
+			for (List<MorphemeEntry> entries : matchEntries) {
+				String leftHead = null;
+				
+				for (int i = 0; i < entries.size(); i++) {
+					KoreanMorpheme morpheme = new KoreanMorpheme(entries.get(i));
+					morpheme.setAnalyzed(true);
+					
+					/* split head and tail */
+					if (i == 0) {
+						leftHead = KoreanMorphemeUtil.truncateRight(head, morpheme.getSurface());
+					}
+					
+					String type = morpheme.getEntry().getType();
+					
+					if (!this.checkPrimaryCombineCondition(morpheme, rightEntry, head)) {
+						if (numMorphemes > 1) {
+							/* revive head */
+							paths.add(LatticePath.revive(head + right.getSurface()));
+						}
+						continue;
+					}
+					
+					if (!this.checkSecondaryCombineCondition(morpheme, rightEntry)) {
+						if (numMorphemes > 0) paths.add(new LatticePath(null, null, head, false));
+						continue;
+					}
+					
+					if (type.equals("suffix")) {
+						if (eojeol.endsWith(morpheme.getSurface())) {
+							morpheme.setSurface(eojeol);
+							morpheme.setTag(eojeol + "/" + morpheme.getPos());
+							paths.add(new LatticePath(morpheme, null, "", true));
+						}
+						else {
+							if (numMorphemes > 0) paths.add(new LatticePath(null, null, head, false));
+						}
+					}
+					else if (type.equals("word-ind")) {
+						if (eojeol.equals(morpheme.getSurface())) {
+							paths.add(new LatticePath(morpheme, null, leftHead, true));
+						}
+						else {
+							if (numMorphemes > 0) paths.add(new LatticePath(null, null, head, false));
+						}
+					}
+					else if (type.equals("word-prefix") || type.startsWith("head")) {
+						if (leftHead.equals("")) {
+							paths.add(new LatticePath(morpheme, null, leftHead, true));
+						}
+						else {
+							if (numMorphemes > 0) paths.add(new LatticePath(null, null, head, false));
+						}
+					}
+					else {
+						for (LatticePath path : this.analyze(leftHead, morpheme, numMorphemes + 1)) {
+							paths.add(LatticePath.extend(morpheme, path));
+						}
+					}
+				}
+			}
+			
+			return paths;
+		}
+	}
+	
+	/**
+	 * The state of the morpheme lattice, which is the head, the entry of the morpheme to the right of it
+	 * and the number of the morphemes of the token which is limited to 2.
+	 */
+	private static class LatticeState {
+		private final String head;
+		private final MorphemeEntry right;
+		private final int numMorphemes;
+		
+		private LatticeState(String head, MorphemeEntry right, int numMorphemes) {
+			this.head = head;
+			this.right = right;
+			this.numMorphemes = numMorphemes;
+		}
+		
+		@Override
+		public int hashCode() {
+			return (head.hashCode() * 31 + System.identityHashCode(right)) * 31 + numMorphemes;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof LatticeState)) {
+				return false;
+			}
+			LatticeState other = (LatticeState) obj;
+			return head.equals(other.head) && right == other.right && numMorphemes == other.numMorphemes;
+		}
+	}
+	
+	/**
+	 * The path of the morpheme lattice which is appended to the morphemes of the token.
+	 * The morphemes of the path are the morpheme and those of the rest path.
+	 */
+	private static class LatticePath {
+		private final KoreanMorpheme morpheme;
+		private final LatticePath rest;
+		private final String head;
+		private final boolean analyzed;
+		/** true if the path drops the last morpheme of the token */
+		private final boolean revived;
+		
+		private LatticePath(KoreanMorpheme morpheme, LatticePath rest, String head, boolean analyzed) {
+			this(morpheme, rest, head, analyzed, false);
+		}
+		
+		private LatticePath(KoreanMorpheme morpheme, LatticePath rest, String head, boolean analyzed, boolean revived) {
+			this.morpheme = morpheme;
+			this.rest = rest;
+			this.head = head;
+			this.analyzed = analyzed;
+			this.revived = revived;
+		}
+		
+		private static LatticePath revive(String head) {
+			return new LatticePath(null, null, head, false, true);
+		}
+		
+		/**
+		 * Extends the path of the left morpheme with the morpheme.
+		 * If the path drops the morpheme, the token itself with the revived head is the result.
+		 */
+		private static LatticePath extend(KoreanMorpheme morpheme, LatticePath path) {
+			if (path.revived) {
+				return new LatticePath(null, null, path.head, false);
+			}
+			return new LatticePath(morpheme, path, path.head, path.analyzed);
+		}
+	}
+	
+	/**
+	 * The morpheme candidates, the tail candidates and the morpheme features of an eojeol,
+	 * which are never modified after they are generated, so they are shared by the analyses of the same eojeol.
+	 */
+	private static class EojeolCandidates {
+		/** weighs the eojeol by the number of the morphemes and the strings of it */
+		private static final LruCache.Weigher<String, EojeolCandidates> WEIGHER = new LruCache.Weigher<String, EojeolCandidates>() {
+			public int weigh(String key, EojeolCandidates value) {
+				int weight = 1 + value.tailCandidates.size() + value.features.size();
+				for (Token candidate : value.candidates) {
+					weight += candidate.size();
+				}
+				return weight;
+			}
+		};
+		
+		private final List<Token> candidates;
+		private final List<String> tailCandidates;
+		private final List<String> features;
+		
+		private EojeolCandidates(List<Token> candidates, List<String> tailCandidates, List<String> features) {
+			this.candidates = Collections.unmodifiableList(candidates);
+			this.tailCandidates = Collections.unmodifiableList(tailCandidates);
+			this.features = Collections.unmodifiableList(features);
+		}
+	}
+
 }
@@ -1,5 +1,6 @@
 package com.yglab.nlp.postag.lang.ko;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -9,17 +10,18 @@ import java.util.regex.Pattern;
 
 import com.yglab.nlp.dictionary.AbstractSuffixDictionary;
 import com.yglab.nlp.postag.TagPattern;
-import com.yglab.nlp.postag.morph.Morpheme;
 import com.yglab.nlp.util.lang.ko.KoreanMorphemeUtil;
 import com.yglab.nlp.util.lang.ko.KoreanUnicode;
+import com.yglab.nlp.util.trie.DoubleArrayTrie;
 
 
 /**
  * Dictionary for morphemes based on suffix(backward direction) trie structure.
+ * The matched entries are immutable and shared by all the lookups, so the lists of the entries must not be modified.
  * 
  * @author Younggue Bae
  */
-public class KoreanMorphemeDictionary extends AbstractSuffixDictionary<List<Morpheme>>{
+public class KoreanMorphemeDictionary extends AbstractSuffixDictionary<List<MorphemeEntry>>{
 	
 	private static Map<String, Pattern> mapPattern = new HashMap<String, Pattern>();
 	
@@ -31,30 +33,46 @@ public class KoreanMorphemeDictionary extends AbstractSuffixDictionary<List<Morp
 		super(keyColumnIndex, files);
 	}
 	
+	private KoreanMorphemeDictionary(DoubleArrayTrie<List<MorphemeEntry>> trie) {
+		super(trie);
+	}
+	
+	/**
+	 * Loads the dictionary saved by {@link #save(String)}.
+	 * 
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public static KoreanMorphemeDictionary load(String file) throws IOException {
+		DoubleArrayTrie<List<MorphemeEntry>> trie = DoubleArrayTrie.load(new File(file));
+		return new KoreanMorphemeDictionary(trie);
+	}
+	
 	@Override
 	public void addDictionary(String str) {
-		Morpheme morpheme = this.parseMorpheme(str);
+		MorphemeEntry entry = this.parseEntry(str);
 		
-		System.out.println(morpheme);
+		System.out.println(entry);
 		
-		String key = morpheme.getKey();
-		List<Morpheme> match = trieSuffix.longestMatch(key);
+		String key = entry.getKey();
+		List<MorphemeEntry> match = trieSuffix.longestMatch(key);
 		if (match != null && match.size() > 0) {
 			String existKey = match.get(0).getKey();
 			// if duplicate morpheme surface, add new one to the exist dictionary
 			if (existKey.equals(key)) {
-				match.add(morpheme);
+				match.add(entry);
 			}
 			else {
-				List<Morpheme> morphemes = new ArrayList<Morpheme>();
-				morphemes.add(morpheme);
-				trieSuffix.add(key, morphemes);
+				List<MorphemeEntry> entries = new ArrayList<MorphemeEntry>();
+				entries.add(entry);
+				trieSuffix.add(key, entries);
 			}
 		}
 		else {
-			List<Morpheme> morphemes = new ArrayList<Morpheme>();
-			morphemes.add(morpheme);
-			trieSuffix.add(key, morphemes);
+			List<MorphemeEntry> entries = new ArrayList<MorphemeEntry>();
+			entries.add(entry);
+			trieSuffix.add(key, entries);
 		}
 	}
 	
@@ -66,64 +84,12 @@ public class KoreanMorphemeDictionary extends AbstractSuffixDictionary<List<Morp
 	}
 	
 	/**
-	 * Finds the longest suffix in the input string.
-	 * The matched object should not be referenced with those of dictionary!!!
-	 * Therefore, this method returns the cloned object.
-	 */
-	@Override
-	public List<Morpheme> findLongestSuffix(String str) {
-		List<Morpheme> list = trieSuffix.longestMatch(this.decompose(str));
-		List<Morpheme> clonedList = new ArrayList<Morpheme>(list.size());
-		for (Morpheme morpheme : list) {
-			clonedList.add(new Morpheme(morpheme));
-		}
-		return clonedList;
-	}
-
-	/**
-	 * Finds the shortest suffix in the input string.
-	 * The matched object should not be referenced with those of dictionary!!!
-	 * Therefore, this method returns the cloned object.
-	 */
-	@Override
-	public List<Morpheme> findShortestSuffix(String str) {
-		List<Morpheme> list = trieSuffix.shortestMatch(this.decompose(str));
-		List<Morpheme> clonedList = new ArrayList<Morpheme>(list.size());
-		for (Morpheme morpheme : list) {
-			clonedList.add(new Morpheme(morpheme));
-		}
-		return clonedList;
-	}
-	
-	/**
-	 * Finds all the matched suffixes in the input string.
-	 * The matched object should not be referenced with those of dictionary!!!
-	 * Therefore, this method returns the cloned object.
-	 */
-	@Override
-	public List<List<Morpheme>> findSuffixes(String str) {
-		List<List<Morpheme>> list = trieSuffix.allMatches(this.decompose(str));
-		List<List<Morpheme>> clonedList = new ArrayList<List<Morpheme>>(list.size());
-		
-		for (List<Morpheme> morphemes : list) {
-			List<Morpheme> clonedMorphemes = new ArrayList<Morpheme>(morphemes.size());
-			for (Morpheme morpheme : morphemes) {
-				clonedMorphemes.add(new Morpheme(morpheme));
-			}
-			clonedList.add(clonedMorphemes);
-		}
-		
-		return clonedList;
-	}
-	
-	/**
-	 * Parses the dictionary text to {@link Morpheme} object. 
+	 * Parses the dictionary text to {@link MorphemeEntry} object. 
 	 * 
 	 * @param str
 	 * @return
 	 */
-	private Morpheme parseMorpheme(String str) {
-		Morpheme morpheme = new Morpheme();
+	private MorphemeEntry parseEntry(String str) {
 		String[] field = str.split("\t", -1);
 
 		String strKey = field[keyColumnIndex].trim();
@@ -144,114 +110,64 @@ public class KoreanMorphemeDictionary extends AbstractSuffixDictionary<List<Morp
 				sbPos.append("+");
 			}
 		}
+		
+		List<String> leftPosList = this.parseLeftPosList(field[6]);
+		String leftLemmatizationRule = field[7].trim().length() > 0 ? field[7] : null;
 
-		morpheme.setKey(key);
-		morpheme.setSurface(surface);
-		morpheme.setTag(tag);
-		morpheme.setPos(sbPos.toString());
-		morpheme.setAttribute("type", type);
-
-		this.addLeftLetterCondition(morpheme, field[3]);
-		this.addLeftMorphemeCondition(morpheme, field[4]);
-		this.addLeftPhonemeCondition(morpheme, field[5]);
-		this.addLeftPosCondition(morpheme, field[6]);
-		this.addLeftLemmatizationRule(morpheme, field[7]);
-		this.addMorphemeProperty(morpheme, field[8]);
-		this.addPhonemeProperty(morpheme, field[9]);
-
-		return morpheme;
+		return new MorphemeEntry(key, surface, tag, sbPos.toString(), type,
+				this.parseLeftLetterCondition(field[3], "+"),
+				this.parseLeftLetterCondition(field[3], "-"),
+				this.parseLeftPropertyCondition(field[4]),
+				this.parseLeftPropertyCondition(field[5]),
+				this.parseLeftPosCondition(field[6]),
+				leftPosList.size() > 0 ? leftPosList : null,
+				leftLemmatizationRule,
+				this.parseMorphemeProperty(surface, tag, type, field[8]),
+				this.parsePhonemeProperty(surface, type, field[9]));
 	}
 	
 	/**
-	 * Adds a left letter condition.
+	 * Gets the compiled pattern which is shared by the entries of the same condition.
 	 * 
-	 * @param morpheme
-	 * @param condition
+	 * @param regex
+	 * @return
 	 */
-	private void addLeftLetterCondition(Morpheme morpheme, String condition) {
-		String[] arrCondition = condition.split("\\s");
-		
-		StringBuilder sbInclude = new StringBuilder();
-		StringBuilder sbExclude = new StringBuilder();
-		for (String cond : arrCondition) {
-			if (cond.startsWith("+")) {
-				if (sbInclude.length() > 0) {
-					sbInclude.append("|");
-				}
-				sbInclude.append(this.decompose(cond.substring(1).trim()) + "$");
-			}
-			else if (cond.startsWith("-")) {
-				if (sbExclude.length() > 0) {
-					sbExclude.append("|");
-				}
-				sbExclude.append(this.decompose(cond.substring(1).trim()) + "$");
-			}
-		}
-		
-		if (sbInclude.length() > 0) {
-			Pattern pattern = null;
-			if (mapPattern.containsKey(sbInclude.toString())) {
-				pattern = mapPattern.get(sbInclude.toString());
-			}
-			else {
-				pattern = Pattern.compile(sbInclude.toString());
-				mapPattern.put(sbInclude.toString(), pattern);
-			}
-			morpheme.setAttribute("leftLetterCondition(+)", pattern);
-		}
-		
-		if (sbExclude.length() > 0) {
-			Pattern pattern = null;
-			if (mapPattern.containsKey(sbExclude.toString())) {
-				pattern = mapPattern.get(sbExclude.toString());
-			}
-			else {
-				pattern = Pattern.compile(sbExclude.toString());
-				mapPattern.put(sbExclude.toString(), pattern);
-			}
-			morpheme.setAttribute("leftLetterCondition(-)", pattern);
+	private static Pattern compile(String regex) {
+		Pattern pattern = mapPattern.get(regex);
+		if (pattern == null) {
+			pattern = Pattern.compile(regex);
+			mapPattern.put(regex, pattern);
 		}
+		return pattern;
 	}
 	
 	/**
-	 * Adds a left morpheme condition.
+	 * Parses the included or the excluded left letter condition.
 	 * 
-	 * @param morpheme
 	 * @param condition
+	 * @param sign	"+" for the included letters, "-" for the excluded letters
+	 * @return	the decomposed letters, or null if no such condition exists
 	 */
-	private void addLeftMorphemeCondition(Morpheme morpheme, String condition) {
+	private char[][] parseLeftLetterCondition(String condition, String sign) {
 		String[] arrCondition = condition.split("\\s");
 		
-		StringBuilder sbRegex = new StringBuilder();
+		List<char[]> letters = new ArrayList<char[]>();
 		for (String cond : arrCondition) {
-			if (cond.trim().length() > 0) {
-				if (sbRegex.length() > 0) {
-					sbRegex.append("|");
-				}
-				sbRegex.append("\\" + cond.trim());
+			if (cond.startsWith(sign)) {
+				letters.add(KoreanUnicode.decompose(cond.substring(1).trim()));
 			}
 		}
 		
-		if (sbRegex.length() > 0) {
-			Pattern pattern = null;
-			if (mapPattern.containsKey(sbRegex.toString())) {
-				pattern = mapPattern.get(sbRegex.toString());
-			}
-			else {
-				pattern = Pattern.compile(sbRegex.toString());
-				mapPattern.put(sbRegex.toString(), pattern);
-			}
-			morpheme.setAttribute("leftMorphemeCondition", pattern);
-		}
+		return letters.size() > 0 ? letters.toArray(new char[letters.size()][]) : null;
 	}
 	
 	/**
-	 * Adds a left phoneme condition.
+	 * Parses the left morpheme condition or the left phoneme condition, which matches the property of the left morpheme.
 	 * 
-	 * @param morpheme
 	 * @param condition
+	 * @return	the pattern, or null if no condition exists
 	 */
-	private void addLeftPhonemeCondition(Morpheme morpheme, String condition) {
+	private Pattern parseLeftPropertyCondition(String condition) {
 		String[] arrCondition = condition.split("\\s");
 		
 		StringBuilder sbRegex = new StringBuilder();
@@ -264,28 +180,17 @@ public class KoreanMorphemeDictionary extends AbstractSuffixDictionary<List<Morp
 			}
 		}
 		
-		if (sbRegex.length() > 0) {
-			Pattern pattern = null;
-			if (mapPattern.containsKey(sbRegex.toString())) {
-				pattern = mapPattern.get(sbRegex.toString());
-			}
-			else {
-				pattern = Pattern.compile(sbRegex.toString());
-				mapPattern.put(sbRegex.toString(), pattern);
-			}
-			morpheme.setAttribute("leftPhonemeCondition", pattern);
-		}
+		return sbRegex.length() > 0 ? compile(sbRegex.toString()) : null;
 	}
 	
 	/**
-	 * Adds a left POS condition.
+	 * Parses the left POS condition.
 	 * 
-	 * @param morpheme
 	 * @param condition
+	 * @return	the pattern, or null if no condition exists
 	 */
-	private void addLeftPosCondition(Morpheme morpheme, String condition) {
+	private Pattern parseLeftPosCondition(String condition) {
 		String[] arrCondition = condition.split("\\s");
-		List<String> posList = new ArrayList<String>();
 		
 		StringBuilder sbIncludeRegex = new StringBuilder();
 		StringBuilder sbExcludeRegex = new StringBuilder();
@@ -298,10 +203,6 @@ public class KoreanMorphemeDictionary extends AbstractSuffixDictionary<List<Morp
 					}
 					//cond = cond.replaceAll("\\(", "\\\\(").replaceAll("\\)", "\\\\)");
 					sbIncludeRegex.append(cond + "$");
-					
-					if (!posList.contains(cond)) {
-						posList.add(cond);
-					}
 				}
 				else {
 					sbExcludeRegex.append("(?=");
@@ -314,71 +215,49 @@ public class KoreanMorphemeDictionary extends AbstractSuffixDictionary<List<Morp
 		}
 		
 		if (sbIncludeRegex.length() > 0 && sbExcludeRegex.length() == 0) {
-			Pattern pattern = null;
-			String strPattern = sbIncludeRegex.toString();
-			if (mapPattern.containsKey(strPattern)) {
-				pattern = mapPattern.get(strPattern);
-			}
-			else {
-				pattern = Pattern.compile(strPattern);
-				mapPattern.put(strPattern, pattern);
-			}
-			morpheme.setAttribute("leftPosCondition", pattern);
+			return compile(sbIncludeRegex.toString());
 		}
 		else if (sbIncludeRegex.length() > 0 && sbExcludeRegex.length() > 0) {
-			Pattern pattern = null;
-			String strPattern = "(?=" + sbIncludeRegex.toString() + ")" + sbExcludeRegex.toString();
-			if (mapPattern.containsKey(strPattern)) {
-				pattern = mapPattern.get(strPattern);
-			}
-			else {
-				pattern = Pattern.compile(strPattern);
-				mapPattern.put(strPattern, pattern);
-			}
-			morpheme.setAttribute("leftPosCondition", pattern);
+			return compile("(?=" + sbIncludeRegex.toString() + ")" + sbExcludeRegex.toString());
 		}
 		else if (sbIncludeRegex.length() == 0 && sbExcludeRegex.length() > 0) {
-			Pattern pattern = null;
-			String strPattern = sbExcludeRegex.toString();
-			if (mapPattern.containsKey(strPattern)) {
-				pattern = mapPattern.get(strPattern);
-			}
-			else {
-				pattern = Pattern.compile(strPattern);
-				mapPattern.put(strPattern, pattern);
-			}
-			morpheme.setAttribute("leftPosCondition", pattern);
-		}
-		
-		if (posList.size() > 0) {
-			morpheme.setAttribute("leftPosList", posList);
+			return compile(sbExcludeRegex.toString());
 		}
+		return null;
 	}
 	
 	/**
-	 * Adds a left lemmatization rule.
+	 * Parses the included pos list of the left POS condition.
 	 * 
-	 * @param morpheme
-	 * @param rule
+	 * @param condition
+	 * @return
 	 */
-	private void addLeftLemmatizationRule(Morpheme morpheme, String rule) {
-		if (rule.trim().length() > 0) {
-			morpheme.setAttribute("leftLemmatizationRule", rule);
+	private List<String> parseLeftPosList(String condition) {
+		String[] arrCondition = condition.split("\\s");
+		List<String> posList = new ArrayList<String>();
+		
+		for (String cond : arrCondition) {
+			cond = cond.trim();
+			if (cond.length() > 0 && !cond.startsWith("-") && !posList.contains(cond)) {
+				posList.add(cond);
+			}
 		}
+		
+		return posList;
 	}
 	
 	/**
-	 * Adds a morpheme property.
+	 * Parses the morpheme property.
 	 * 
-	 * @param morpheme
+	 * @param surface
+	 * @param tag
+	 * @param type
 	 * @param property
+	 * @return	the property, or null if no property exists
 	 */
-	private void addMorphemeProperty(Morpheme morpheme, String property) {
+	private String parseMorphemeProperty(String surface, String tag, String type, String property) {
 		String[] arrProp = property.split("\\s");
 		
-		String surface = morpheme.getSurface();
-		String type = (String) morpheme.getAttribute("type");
-		
 		StringBuilder sbProp = new StringBuilder();
 		for (String prop : arrProp) {
 			if (prop.trim().length() > 0) {
@@ -399,7 +278,7 @@ public class KoreanMorphemeDictionary extends AbstractSuffixDictionary<List<Morp
 				sbProp.append("+" + jongseong);
 			}
 			
-			String[] arrTag = morpheme.getTag().split("\\+");
+			String[] arrTag = tag.split("\\+");
 			if (arrTag.length == 1) {
 				String lemma = arrTag[0].split("/")[0];
 				if (surface.equals(lemma) && !sbProp.toString().contains("+어간")) {
@@ -411,23 +290,20 @@ public class KoreanMorphemeDictionary extends AbstractSuffixDictionary<List<Morp
 			}
 		}
 		
-		if (sbProp.length() > 0) {
-			morpheme.setAttribute("morphemeProperty", sbProp.toString());
-		}
+		return sbProp.length() > 0 ? sbProp.toString() : null;
 	}
 	
 	/**
-	 * Adds a phoneme property.
+	 * Parses the phoneme property.
 	 * 
-	 * @param morpheme
+	 * @param surface
+	 * @param type
 	 * @param property
+	 * @return	the property, or null if no property exists
 	 */
-	private void addPhonemeProperty(Morpheme morpheme, String property) {
+	private String parsePhonemeProperty(String surface, String type, String property) {
 		String[] arrProp = property.split("\\s");
 		
-		String surface = morpheme.getSurface();
-		String type = (String) morpheme.getAttribute("type");
-		
 		StringBuilder sbProp = new StringBuilder();
 		for (String prop : arrProp) {
 			if (prop.trim().length() > 0) {
@@ -471,9 +347,7 @@ public class KoreanMorphemeDictionary extends AbstractSuffixDictionary<List<Morp
 			}
 		}
 		
-		if (sbProp.length() > 0) {
-			morpheme.setAttribute("phonemeProperty", sbProp.toString());
-		}
+		return sbProp.length() > 0 ? sbProp.toString() : null;
 	}
 
 }
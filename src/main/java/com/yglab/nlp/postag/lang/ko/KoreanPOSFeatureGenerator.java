@@ -4,8 +4,8 @@ package com.yglab.nlp.postag.lang.ko;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.yglab.nlp.maxent.FeatureContext;
 import com.yglab.nlp.postag.DefaultPOSFeatureGenerator;
-import com.yglab.nlp.postag.morph.Token;
 import com.yglab.nlp.util.StringPattern;
 import com.yglab.nlp.util.StringUtil;
 
@@ -24,21 +24,12 @@ public class KoreanPOSFeatureGenerator extends DefaultPOSFeatureGenerator {
 		this.morphAnalyzer = morphAnalyzer;
 	}
 	
+	/**
+	 * Generates the morpheme candidates of the tokens.
+	 */
 	@Override
-	public void initialize(String[] tokens) {
-		morphAnalyzer.generateCandidates(tokens);
-	}
-	
-	public List<String> getCurrentTokenTailCandidates(int position) {
-		return morphAnalyzer.getCurrentTailCandidates(position);
-	}
-	
-	public List<Token> getCurrentTokenCandidates(int position) {
-		return morphAnalyzer.getCurrentCandidates(position);
-	}
-	
-	public List<String> getCurrentTokenMorphemeFeatures(int position) {
-		return morphAnalyzer.getCurrentFeatures(position);
+	public KoreanMorphemeAnalysis initialize(String[] tokens) {
+		return morphAnalyzer.generateCandidates(tokens);
 	}
 	
 	public KoreanMorphemeAnalyzer getKoreanMorphemeAnalyzer() {
@@ -46,14 +37,14 @@ public class KoreanPOSFeatureGenerator extends DefaultPOSFeatureGenerator {
 	}
 	
 	@Override
-	public String[] getFeatures(int position, String[] tokens, String[] previousLabelSequence) {
+	public String[] getFeatures(int position, String[] tokens, String[] previousLabelSequence, FeatureContext context) {
 		List<String> features = new ArrayList<String>();
 
 		this.addUnigramFeatures(features, position, tokens, previousLabelSequence);
 		this.addBigramFeatures(features, position, tokens, previousLabelSequence);
 		this.addTrigramFeatures(features, position, tokens, previousLabelSequence);
 		this.addContextualFeatures(features, position, tokens, previousLabelSequence);
-		this.addMorphoFeatures(features, position, tokens, previousLabelSequence);
+		this.addMorphoFeatures(features, position, tokens, previousLabelSequence, (KoreanMorphemeAnalysis) context);
 		this.addWordPatternFeatures(features, position, tokens, previousLabelSequence);
 		
 //		System.err.println(tokens[position]);
@@ -101,9 +92,10 @@ public class KoreanPOSFeatureGenerator extends DefaultPOSFeatureGenerator {
 	 * adds the features such as the phonological type(positive or negative vowel) of jungseong 
 	 * and the consonant of jongseong in last header character.
 	 */
-	protected void addMorphoFeatures(List<String> features, int position, String[] tokens, String[] previousTagSequence) {
-		List<String> tailList = this.getCurrentTokenTailCandidates(position);
-		List<String> morphFeatureList = this.getCurrentTokenMorphemeFeatures(position);
+	protected void addMorphoFeatures(List<String> features, int position, String[] tokens, String[] previousTagSequence,
+			KoreanMorphemeAnalysis analysis) {
+		List<String> tailList = analysis.getTailCandidates(position);
+		List<String> morphFeatureList = analysis.getFeatures(position);
 		for (String morphFeature : morphFeatureList) {
 			features.add("morph=" + morphFeature);
 		}
@@ -112,7 +104,7 @@ public class KoreanPOSFeatureGenerator extends DefaultPOSFeatureGenerator {
 		
 		boolean hasPrevTail = false;
 		if (position > 0) {
-			List<String> prevTailList = this.getCurrentTokenTailCandidates(position - 1);
+			List<String> prevTailList = analysis.getTailCandidates(position - 1);
 
 			for (int i = 0; i < prevTailList.size(); i++) {
 				String prevTail = prevTailList.get(i);
@@ -146,7 +138,7 @@ public class KoreanPOSFeatureGenerator extends DefaultPOSFeatureGenerator {
 		}
 		
 		if (position < tokens.length - 1) {
-			List<String> nextTailList = this.getCurrentTokenTailCandidates(position + 1);
+			List<String> nextTailList = analysis.getTailCandidates(position + 1);
 
 			for (int i = 0; i < nextTailList.size(); i++) {
 				String nextTail = nextTailList.get(i);
@@ -44,8 +44,9 @@ public class KoreanPOSTagger extends POSTagger {
 	 * @return
 	 */
 	public List<Token> analyze(String[] tokens) {
-		String[] tags = this.tag(tokens);
-		List<Token> eojeols = ((KoreanPOSFeatureGenerator) featureGenerator).getKoreanMorphemeAnalyzer().analyze(tags);
+		KoreanMorphemeAnalysis analysis = (KoreanMorphemeAnalysis) featureGenerator.initialize(tokens);
+		String[] tags = this.tag(tokens, analysis);
+		List<Token> eojeols = ((KoreanPOSFeatureGenerator) featureGenerator).getKoreanMorphemeAnalyzer().analyze(analysis, tags);
 		return eojeols;
 	}
 	
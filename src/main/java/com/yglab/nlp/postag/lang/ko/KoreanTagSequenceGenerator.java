@@ -7,6 +7,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.yglab.nlp.maxent.DefaultTagSequenceGenerator;
+import com.yglab.nlp.maxent.FeatureContext;
 import com.yglab.nlp.maxent.FeatureGenerator;
 import com.yglab.nlp.model.Datum;
 import com.yglab.nlp.postag.morph.Token;
@@ -49,12 +50,17 @@ public class KoreanTagSequenceGenerator extends DefaultTagSequenceGenerator {
 		}		
 	}
 	
-	private List<List<String>> getTagCandidates(String[] tokens) {
+	@Override
+	public List<List<String>> getLabelCandidates(String[] tokens, FeatureContext context) {
+		return this.getTagCandidates(tokens, (KoreanMorphemeAnalysis) context);
+	}
+	
+	private List<List<String>> getTagCandidates(String[] tokens, KoreanMorphemeAnalysis analysis) {
 		List<List<String>> tokensTagCandidates = new ArrayList<List<String>>(tokens.length);
 		
 		for (int position = 0; position < tokens.length; position++) {
 			String token = tokens[position];
-			List<Token> tokenCandidates = ((KoreanPOSFeatureGenerator) featureGenerator).getCurrentTokenCandidates(position);
+			List<Token> tokenCandidates = analysis.getCandidates(position);
 			
 			if (tokenCandidates.size() == 0) {
 				if (token.equals(".") || token.equals("!") || token.equals("?")) {
@@ -131,13 +137,14 @@ public class KoreanTagSequenceGenerator extends DefaultTagSequenceGenerator {
 	}
 	
 	@Override
-	public List<List<Datum>> getCandidates(String[] tokens) {
+	public List<List<Datum>> getCandidates(String[] tokens, FeatureContext context) {
 		List<List<Datum>> instanceCandidates = new ArrayList<List<Datum>>();
 		
-		List<List<String>> tokensTagCandidates = this.getTagCandidates(tokens);
+		List<List<String>> tokensTagCandidates = this.getTagCandidates(tokens, (KoreanMorphemeAnalysis) context);
 
 		for (int position = 0; position < tokens.length; position++) {
 			String token = tokens[position];
+			PositionFeatures features = getPositionFeatures(position, tokens, context);
 
 			if (position == 0) {
 				List<Datum> candidates = new ArrayList<Datum>();
@@ -146,10 +153,7 @@ public class KoreanTagSequenceGenerator extends DefaultTagSequenceGenerator {
 					prevTagSequence[i] = "O";
 				}
 
-				Datum datum = new Datum(token, "O");
-				datum.setFeatures(Arrays.asList(featureGenerator.getFeatures(position, tokens, prevTagSequence)));
-				datum.setPreviousLabel(prevTagSequence[prevSequenceLength - 1]);
-				candidates.add(datum);
+				candidates.add(newDatum(token, features, prevTagSequence));
 				instanceCandidates.add(candidates);
 			} 
 			else if (position ==  1) {
@@ -162,10 +166,7 @@ public class KoreanTagSequenceGenerator extends DefaultTagSequenceGenerator {
 					prevTagSequenceCandidates[0] = "O";
 					prevTagSequenceCandidates[1] = prevCandidates.get(i);
 					
-					Datum datum = new Datum(token, "O");
-					datum.setFeatures(Arrays.asList(featureGenerator.getFeatures(position, tokens, prevTagSequenceCandidates)));
-					datum.setPreviousLabel(prevTagSequenceCandidates[1]);
-					candidates.add(datum);
+					candidates.add(newDatum(token, features, prevTagSequenceCandidates));
 				}
 				instanceCandidates.add(candidates);
 			}
@@ -175,11 +176,7 @@ public class KoreanTagSequenceGenerator extends DefaultTagSequenceGenerator {
 				String[][] tagSequenceCandidates = this.generateTagSequenceCandidates(tokensTagCandidates, position);
 
 				for (int i = 0; i < tagSequenceCandidates.length; i++) {
-					Datum datum = new Datum(token, "O");
-
-					datum.setFeatures(Arrays.asList(featureGenerator.getFeatures(position, tokens, tagSequenceCandidates[i])));
-					datum.setPreviousLabel(tagSequenceCandidates[i][1]);
-					candidates.add(datum);
+					candidates.add(newDatum(token, features, tagSequenceCandidates[i]));
 				}
 				instanceCandidates.add(candidates);
 			}
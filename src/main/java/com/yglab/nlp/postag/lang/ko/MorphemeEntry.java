@@ -0,0 +1,230 @@
+package com.yglab.nlp.postag.lang.ko;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.yglab.nlp.util.lang.ko.KoreanUnicode;
+
+/**
+ * The immutable entry of {@link KoreanMorphemeDictionary}, which has the conditions to combine the morpheme
+ * with the left morpheme as the typed fields.
+ * The entries are shared by all the lookups of the dictionary, and the analyzer refers to them
+ * by {@link KoreanMorpheme} which only has the surface and the tag changed by the analysis.
+ *
+ * @author Younggue Bae
+ */
+public class MorphemeEntry implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String key;
+	private final String surface;
+	private final String tag;
+	private final String pos;
+	private final String type;
+	private final char[][] leftLetterInclude;
+	private final char[][] leftLetterExclude;
+	private final Pattern leftMorphemeCondition;
+	private final Pattern leftPhonemeCondition;
+	private final Pattern leftPosCondition;
+	private final List<String> leftPosList;
+	private final String leftLemmatizationRule;
+	private final String morphemeProperty;
+	private final String phonemeProperty;
+
+	/**
+	 * Constructor, the conditions and the properties are null if the entry doesn't have them.
+	 *
+	 * @param key	The decomposed key to match
+	 * @param surface	The surface
+	 * @param tag	The tag of the morphemes, e.g. "ㄴ다/EF"
+	 * @param pos	The pos of the morphemes, e.g. "EF"
+	 * @param type	The type of the dictionary, e.g. "josa", "eomi", "head"
+	 * @param leftLetterInclude	The decomposed letters one of which the left letters should end with
+	 * @param leftLetterExclude	The decomposed letters none of which the left letters should end with
+	 * @param leftMorphemeCondition	The pattern which the morpheme property of the left morpheme should match
+	 * @param leftPhonemeCondition	The pattern which the phoneme property of the left morpheme should match
+	 * @param leftPosCondition	The pattern which the tag of the left morpheme should match
+	 * @param leftPosList	The included pos of the left morpheme
+	 * @param leftLemmatizationRule	The rule to lemmatize the left morpheme
+	 * @param morphemeProperty	The morpheme property
+	 * @param phonemeProperty	The phoneme property
+	 */
+	public MorphemeEntry(String key, String surface, String tag, String pos, String type,
+			char[][] leftLetterInclude, char[][] leftLetterExclude, Pattern leftMorphemeCondition, Pattern leftPhonemeCondition,
+			Pattern leftPosCondition, List<String> leftPosList, String leftLemmatizationRule,
+			String morphemeProperty, String phonemeProperty) {
+		this.key = key;
+		this.surface = surface;
+		this.tag = tag;
+		this.pos = pos;
+		this.type = type;
+		this.leftLetterInclude = leftLetterInclude;
+		this.leftLetterExclude = leftLetterExclude;
+		this.leftMorphemeCondition = leftMorphemeCondition;
+		this.leftPhonemeCondition = leftPhonemeCondition;
+		this.leftPosCondition = leftPosCondition;
+		this.leftPosList = leftPosList != null ? Collections.unmodifiableList(leftPosList) : null;
+		this.leftLemmatizationRule = leftLemmatizationRule;
+		this.morphemeProperty = morphemeProperty;
+		this.phonemeProperty = phonemeProperty;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public String getSurface() {
+		return surface;
+	}
+
+	public String getTag() {
+		return tag;
+	}
+
+	public String getPos() {
+		return pos;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * Returns true if the entry has the included or the excluded left letter condition.
+	 *
+	 * @return
+	 */
+	public boolean hasLeftLetterCondition() {
+		return leftLetterInclude != null || leftLetterExclude != null;
+	}
+
+	/**
+	 * Checks if the decomposed left letters satisfy the left letter condition,
+	 * which is matched on the jaso without the regular expression.
+	 *
+	 * @param jaso	The decomposed left letters
+	 * @param length	The number of the jaso
+	 * @return
+	 */
+	public boolean matchesLeftLetterCondition(char[] jaso, int length) {
+		if (leftLetterInclude != null && !endsWithAny(jaso, length, leftLetterInclude)) {
+			return false;
+		}
+		if (leftLetterExclude != null && endsWithAny(jaso, length, leftLetterExclude)) {
+			return false;
+		}
+		return true;
+	}
+
+	private static boolean endsWithAny(char[] jaso, int length, char[][] suffixes) {
+		for (char[] suffix : suffixes) {
+			if (KoreanUnicode.endsWith(jaso, length, suffix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public Pattern getLeftMorphemeCondition() {
+		return leftMorphemeCondition;
+	}
+
+	public Pattern getLeftPhonemeCondition() {
+		return leftPhonemeCondition;
+	}
+
+	public Pattern getLeftPosCondition() {
+		return leftPosCondition;
+	}
+
+	public List<String> getLeftPosList() {
+		return leftPosList;
+	}
+
+	public String getLeftLemmatizationRule() {
+		return leftLemmatizationRule;
+	}
+
+	public String getMorphemeProperty() {
+		return morphemeProperty;
+	}
+
+	public String getPhonemeProperty() {
+		return phonemeProperty;
+	}
+
+	/**
+	 * Gets the condition or the property by the attribute name of {@link com.yglab.nlp.postag.morph.Morpheme},
+	 * e.g. "leftLetterCondition(+)", or null if the entry doesn't have it.
+	 *
+	 * @param name
+	 * @return
+	 */
+	public Object getAttribute(String name) {
+		switch (name) {
+		case "type":
+			return type;
+		case "leftLetterCondition(+)":
+			return toList(leftLetterInclude);
+		case "leftLetterCondition(-)":
+			return toList(leftLetterExclude);
+		case "leftMorphemeCondition":
+			return leftMorphemeCondition;
+		case "leftPhonemeCondition":
+			return leftPhonemeCondition;
+		case "leftPosCondition":
+			return leftPosCondition;
+		case "leftPosList":
+			return leftPosList;
+		case "leftLemmatizationRule":
+			return leftLemmatizationRule;
+		case "morphemeProperty":
+			return morphemeProperty;
+		case "phonemeProperty":
+			return phonemeProperty;
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Gets the conditions and the properties of the entry as the attributes of {@link com.yglab.nlp.postag.morph.Morpheme}.
+	 *
+	 * @return
+	 */
+	public Map<String, Object> getAttributes() {
+		Map<String, Object> attributes = new LinkedHashMap<String, Object>();
+		for (String name : new String[] { "type", "leftLetterCondition(+)", "leftLetterCondition(-)", "leftMorphemeCondition",
+				"leftPhonemeCondition", "leftPosCondition", "leftPosList", "leftLemmatizationRule", "morphemeProperty", "phonemeProperty" }) {
+			Object value = getAttribute(name);
+			if (value != null) {
+				attributes.put(name, value);
+			}
+		}
+		return attributes;
+	}
+
+	private static List<String> toList(char[][] letters) {
+		if (letters == null) {
+			return null;
+		}
+		List<String> list = new ArrayList<String>(letters.length);
+		for (char[] letter : letters) {
+			list.add(String.valueOf(letter));
+		}
+		return list;
+	}
+
+	@Override
+	public String toString() {
+		return "MorphemeEntry [key=" + key + ", surface=" + surface + ", tag=" + tag + ", pos=" + pos
+				+ ", attributes=" + getAttributes() + "]";
+	}
+
+}
@@ -1,5 +1,6 @@
 package com.yglab.nlp.postag.morph;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -9,14 +10,17 @@ import java.util.Map;
  * 
  * @author Younggue Bae
  */
-public class Morpheme {
+public class Morpheme implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
 	
 	private String key;
 	private String surface;
 	private String tag;
 	private String pos;
 	private boolean analyzed;
-	private Map<String, Object> attributes = new HashMap<String, Object>();
+	/** the attributes which are created when the first attribute is set */
+	private Map<String, Object> attributes;
 	
 	/**
 	 * Default constructor.
@@ -36,7 +40,10 @@ public class Morpheme {
 		this.tag = morpheme.getTag();
 		this.pos = morpheme.getPos();
 		this.analyzed = morpheme.isAnalyzed();
-		this.attributes.putAll(morpheme.getAttributes());
+		Map<String, Object> attributes = morpheme.getAttributes();
+		if (!attributes.isEmpty()) {
+			this.attributes = new HashMap<String, Object>(attributes);
+		}
 	}
 	
 	public String getKey() {
@@ -80,25 +87,28 @@ public class Morpheme {
 	}
 	
 	public Map<String, Object> getAttributes() {
+		if (this.attributes == null) {
+			this.attributes = new HashMap<String, Object>();
+		}
 		return this.attributes;
 	}
 	
 	public void setAttribute(String key, Object value) {
-		this.attributes.put(key, value);
+		this.getAttributes().put(key, value);
 	}
 	
 	public Object getAttribute(String key) {
-		return this.attributes.get(key);
+		return attributes != null ? attributes.get(key) : null;
 	}
 	
 	public boolean containsAttributeKey(String key) {
-		return attributes.containsKey(key);
+		return attributes != null && attributes.containsKey(key);
 	}
 	
 	@Override
 	public String toString() {
 		return "Morpheme [key=" + key + ", surface=" + surface + ", tag=" + tag + ", pos=" + pos
-				+ ", attributes=" + attributes + "]";
+				+ ", attributes=" + getAttributes() + "]";
 	}
 
 }
@@ -3,6 +3,7 @@ package com.yglab.nlp.sbd;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.yglab.nlp.maxent.FeatureContext;
 import com.yglab.nlp.dictionary.RegexFeatureDictionary;
 
 /**
@@ -19,8 +20,8 @@ public class DefaultSentenceFeatureGenerator implements SentenceFeatureGenerator
 	}
 	
 	@Override
-	public void initialize(String[] tokens) {
-		
+	public FeatureContext initialize(String[] tokens) {
+		return null;
 	}
 	
 	/**
@@ -29,7 +30,7 @@ public class DefaultSentenceFeatureGenerator implements SentenceFeatureGenerator
 	 * label that is visible to this method.
 	 */
 	@Override
-	public String[] getFeatures(int position, String[] tokens, String[] previousTagSequence) {
+	public String[] getFeatures(int position, String[] tokens, String[] previousTagSequence, FeatureContext context) {
 		List<String> features = new ArrayList<String>();
 
 		this.addPrefixFeatures(features, position, tokens, previousTagSequence);
@@ -13,10 +13,11 @@ import com.yglab.nlp.io.AbstractModelReader;
 import com.yglab.nlp.io.AbstractModelWriter;
 import com.yglab.nlp.io.AbstractPlainTextWriter;
 import com.yglab.nlp.maxent.DefaultTagSequenceGenerator;
+import com.yglab.nlp.maxent.FeatureContext;
 import com.yglab.nlp.maxent.MEMM;
+import com.yglab.nlp.maxent.MaxentBinaryModelReader;
+import com.yglab.nlp.maxent.MaxentBinaryModelWriter;
 import com.yglab.nlp.maxent.MaxentModelPlainTextWriter;
-import com.yglab.nlp.maxent.MaxentModelReader;
-import com.yglab.nlp.maxent.MaxentModelWriter;
 import com.yglab.nlp.maxent.TagSequenceGenerator;
 import com.yglab.nlp.model.AbstractModel;
 import com.yglab.nlp.model.Datum;
@@ -36,9 +37,11 @@ public class MaxentSentenceDetector implements SentenceDetector {
 	public static final String LABEL_OTHER = "O";
 	
 	private AbstractModel model;
-	//private SentenceFeatureGenerator featureGenerator;
+	private SentenceFeatureGenerator featureGenerator;
 	private WhitespaceTokenizer whitespaceTokenizer;
 	private TagSequenceGenerator gen;
+	/** the beam size of the decoder, no pruning by default */
+	private int beamSize = 0;
   
 	/**
 	 * Initializes the sentence detector with the specified model.
@@ -48,10 +51,21 @@ public class MaxentSentenceDetector implements SentenceDetector {
 	 */
 	public MaxentSentenceDetector(AbstractModel model, SentenceFeatureGenerator featureGenerator) {
 		this.model = model;
-		//this.featureGenerator = featureGenerator;
+		this.featureGenerator = featureGenerator;
 		this.whitespaceTokenizer = new WhitespaceTokenizer();
 		
-		this.gen = new DefaultTagSequenceGenerator(featureGenerator, model.getLabels(), 2);
+		DefaultTagSequenceGenerator gen = new DefaultTagSequenceGenerator(featureGenerator, model.getLabels(), 2);
+		gen.setFeatureIndex(model.getFeatureIndex());
+		this.gen = gen;
+	}
+	
+	/**
+	 * Sets the beam size of the lattice Viterbi decoder.
+	 * 
+	 * @param beamSize	The maximum number of states kept at each position, no pruning if it is not positive
+	 */
+	public void setBeamSize(int beamSize) {
+		this.beamSize = beamSize;
 	}
 	
 	/**
@@ -77,7 +91,7 @@ public class MaxentSentenceDetector implements SentenceDetector {
 	private static AbstractModel trainMaxent(List<SentenceSample> trainSamples, SentenceFeatureGenerator featureGenerator, Options options) {
 		EventStream<SentenceSample, Datum> stream = new SentenceSampleEventStream(featureGenerator, trainSamples);
 
-		return MEMM.trainModel(stream);
+		return MEMM.trainModel(stream, options);
 	}
 	
 	@Override
@@ -129,8 +143,10 @@ public class MaxentSentenceDetector implements SentenceDetector {
 	}
 	
 	private Span[] detectMaxent(String[] tokens) {
-		List<List<Datum>> candidates = gen.getCandidates(tokens);
-		List<Datum> bestSequence = MEMM.decode(model, candidates);
+		// build the context of the new tokens
+		FeatureContext context = featureGenerator.initialize(tokens);
+		
+		List<Datum> bestSequence = MEMM.decode(model, featureGenerator, tokens, context, gen.getLabelCandidates(tokens, context), beamSize);
 
 		List<Span> spans = new ArrayList<Span>(tokens.length);
 		for (int li = 0; li < bestSequence.size(); li++) {
@@ -194,7 +210,7 @@ public class MaxentSentenceDetector implements SentenceDetector {
 	 * @throws IOException
 	 */
 	public static final void saveModel(AbstractModel model, String binaryFile, String plainTextFile) throws IOException {
-		AbstractModelWriter<AbstractModel> writer = new MaxentModelWriter();
+		AbstractModelWriter<AbstractModel> writer = new MaxentBinaryModelWriter();
 		AbstractPlainTextWriter<AbstractModel> plainTextWriter = new MaxentModelPlainTextWriter();
 		writer.write(model, new File(binaryFile));
 		
@@ -212,7 +228,7 @@ public class MaxentSentenceDetector implements SentenceDetector {
 	 * @throws ClassNotFoundException
 	 */
 	public static final AbstractModel loadModel(String file) throws IOException, ClassNotFoundException {
-		AbstractModelReader<AbstractModel> reader = new MaxentModelReader();
+		AbstractModelReader<AbstractModel> reader = new MaxentBinaryModelReader();
 		AbstractModel model = reader.read(new File(file));
 		
 		return model;
@@ -4,8 +4,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import com.yglab.nlp.maxent.FeatureContext;
+import com.yglab.nlp.model.AbstractEventStream;
 import com.yglab.nlp.model.Datum;
-import com.yglab.nlp.model.EventStream;
 import com.yglab.nlp.model.Span;
 
 /**
@@ -13,43 +14,35 @@ import com.yglab.nlp.model.Span;
  * 
  * @author Younggue Bae
  */
-public class SentenceSampleEventStream implements EventStream<SentenceSample, Datum> {
+public class SentenceSampleEventStream extends AbstractEventStream<SentenceSample, Datum> {
 
 	private SentenceFeatureGenerator featureGenerator;
-	private List<SentenceSample> samples;
 	
 	public SentenceSampleEventStream(SentenceFeatureGenerator featureGenerator, List<SentenceSample> samples) {
+		super(samples);
 		this.featureGenerator = featureGenerator;
-		this.samples = samples;
 	}
 	
 	@Override
-	public List<SentenceSample> getInputStream() {
-		return this.samples;
-	}
-	
-	@Override
-	public List<Datum> getOutputStream() {
-		List<Datum> trainData = new ArrayList<Datum>();
+	protected List<Datum> createEvents(SentenceSample sample) {
+		List<Datum> events = new ArrayList<Datum>();
 
 		String[] previousLabel = new String[2];
+		previousLabel[0] = "*"; // previous previous label
+		previousLabel[1] = "*"; // previous label
+		
+		String[] tokens = sample.getDocument();
+		String[] labels = generateOutcomes(sample.getSentences(), tokens.length);
+		FeatureContext context = featureGenerator.initialize(tokens);
+		for (int i = 0; i < tokens.length; i++) {
+			Datum datum = new Datum(tokens[i], labels[i]);
+			datum.setFeatures(Arrays.asList(featureGenerator.getFeatures(i, tokens, previousLabel, context)));
+			events.add(datum);
 
-		for (SentenceSample sample : samples) {
-			previousLabel[0] = "*"; // previous previous label
-			previousLabel[1] = "*"; // previous label
-			
-			String[] tokens = sample.getDocument();
-			String[] labels = generateOutcomes(sample.getSentences(), tokens.length);
-			for (int i = 0; i < tokens.length; i++) {
-				Datum datum = new Datum(tokens[i], labels[i]);
-				datum.setFeatures(Arrays.asList(featureGenerator.getFeatures(i, tokens, previousLabel)));
-				trainData.add(datum);
-
-				previousLabel[0] = previousLabel[1];
-				previousLabel[1] = datum.getLabel();
-			}
+			previousLabel[0] = previousLabel[1];
+			previousLabel[1] = datum.getLabel();
 		}
-		return trainData;
+		return events;
 	}
 	
 	private static String[] generateOutcomes(Span[] sentenceSpans, int length) {
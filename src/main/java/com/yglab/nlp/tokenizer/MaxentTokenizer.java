@@ -15,9 +15,9 @@ import com.yglab.nlp.io.AbstractModelReader;
 import com.yglab.nlp.io.AbstractModelWriter;
 import com.yglab.nlp.io.AbstractPlainTextWriter;
 import com.yglab.nlp.maxent.MEMM;
+import com.yglab.nlp.maxent.MaxentBinaryModelReader;
+import com.yglab.nlp.maxent.MaxentBinaryModelWriter;
 import com.yglab.nlp.maxent.MaxentModelPlainTextWriter;
-import com.yglab.nlp.maxent.MaxentModelReader;
-import com.yglab.nlp.maxent.MaxentModelWriter;
 import com.yglab.nlp.model.AbstractModel;
 import com.yglab.nlp.model.Datum;
 import com.yglab.nlp.model.EventStream;
@@ -84,12 +84,12 @@ public class MaxentTokenizer extends AbstractTokenizer {
 		
 		if (options.getBoolean("useSkipPattern") == true) {
 			EventStream<TokenSample, Datum> stream = new TokenSampleEventStream(featureGenerator, trainSamples, skipPattern);
-			model = MEMM.trainModel(stream);
+			model = MEMM.trainModel(stream, options);
 			model.setOption("useSkipPattern", "true");
 		}
 		else {
 			EventStream<TokenSample, Datum> stream = new TokenSampleEventStream(featureGenerator, trainSamples);
-			model = MEMM.trainModel(stream);
+			model = MEMM.trainModel(stream, options);
 			model.setOption("useSkipPattern", "false");
 		}
 
@@ -219,7 +219,7 @@ public class MaxentTokenizer extends AbstractTokenizer {
 	 * @throws IOException
 	 */
 	public static final void saveModel(AbstractModel model, String binaryFile, String plainTextFile) throws IOException {
-		AbstractModelWriter<AbstractModel> writer = new MaxentModelWriter();
+		AbstractModelWriter<AbstractModel> writer = new MaxentBinaryModelWriter();
 		AbstractPlainTextWriter<AbstractModel> plainTextWriter = new MaxentModelPlainTextWriter();
 		writer.write(model, new File(binaryFile));
 		
@@ -237,7 +237,7 @@ public class MaxentTokenizer extends AbstractTokenizer {
 	 * @throws ClassNotFoundException
 	 */
 	public static final AbstractModel loadModel(String file) throws IOException, ClassNotFoundException {
-		AbstractModelReader<AbstractModel> reader = new MaxentModelReader();
+		AbstractModelReader<AbstractModel> reader = new MaxentBinaryModelReader();
 		AbstractModel model = reader.read(new File(file));
 		
 		return model;
@@ -5,8 +5,8 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
 
+import com.yglab.nlp.model.AbstractEventStream;
 import com.yglab.nlp.model.Datum;
-import com.yglab.nlp.model.EventStream;
 import com.yglab.nlp.model.Span;
 
 /**
@@ -14,10 +14,9 @@ import com.yglab.nlp.model.Span;
  * 
  * @author Younggue Bae
  */
-public class TokenSampleEventStream implements EventStream<TokenSample, Datum> {
+public class TokenSampleEventStream extends AbstractEventStream<TokenSample, Datum> {
 
 	private TokenFeatureGenerator featureGenerator;
-	private List<TokenSample> samples;
 	private WhitespaceTokenizer whitespaceTokenizer;
 	private final Pattern skipPattern;
 	private boolean useSkipPattern;
@@ -27,8 +26,8 @@ public class TokenSampleEventStream implements EventStream<TokenSample, Datum> {
 	}
 	
 	public TokenSampleEventStream(TokenFeatureGenerator featureGenerator, List<TokenSample> samples, Pattern skipPattern) {
+		super(samples);
 		this.featureGenerator = featureGenerator;
-		this.samples = samples;
 		this.whitespaceTokenizer = new WhitespaceTokenizer();
 		this.skipPattern = skipPattern;
 		
@@ -38,16 +37,10 @@ public class TokenSampleEventStream implements EventStream<TokenSample, Datum> {
 	}
 	
 	@Override
-	public List<TokenSample> getInputStream() {
-		return this.samples;
-	}
-	
-	@Override
-	public List<Datum> getOutputStream() {
-		List<Datum> trainData = new ArrayList<Datum>();
+	protected List<Datum> createEvents(TokenSample sample) {
+		List<Datum> events = new ArrayList<Datum>();
 
-		for (TokenSample sample : samples) {
-			Span tokens[] = sample.getTokenSpans();
+		Span tokens[] = sample.getTokenSpans();
 	    String text = sample.getText();
 
 	    if (tokens.length > 0) {
@@ -100,7 +93,7 @@ public class TokenSampleEventStream implements EventStream<TokenSample, Datum> {
 	              	Datum datum = new Datum(currentToken, MaxentTokenizer.NO_SPLIT);
 	              	datum.setFeatures(Arrays.asList(features));
 	              	
-	              	trainData.add(datum);
+	              	events.add(datum);
 	              }
 
 	              if (trainSpan.getEnd() != whitespaceSpan.getEnd()) {
@@ -108,16 +101,15 @@ public class TokenSampleEventStream implements EventStream<TokenSample, Datum> {
 	                Datum datum = new Datum(currentToken, MaxentTokenizer.SPLIT);
 	                datum.setFeatures(Arrays.asList(features));
 
-	                trainData.add(datum);
+	                events.add(datum);
 	              }
 	            }
 	          }
 	        }
 	      }
 	    }
-		}
-		
-		return trainData;
+
+		return events;
 	}
 
 }
@@ -0,0 +1,248 @@
+package com.yglab.nlp.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The bounded cache which evicts the least recently used entries when the total weight of the entries exceeds the maximum weight.
+ * <p>
+ * The entries are partitioned into the segments by the hash of the key, and each segment is an access ordered map
+ * which is locked separately, so the threads which access the different segments don't block each other.
+ * The maximum weight is divided evenly by the segments, so the eviction is the least recently used in the segment.
+ * <p>
+ * The values should be immutable, since the same value is returned to all the callers.
+ *
+ * @author Younggue Bae
+ */
+public class LruCache<K, V> {
+
+	public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+	/**
+	 * The weigher which calculates the weight of an entry, e.g. the approximate size of the value.
+	 */
+	public interface Weigher<K, V> {
+		/**
+		 * Gets the weight of the entry, which should be at least 1.
+		 *
+		 * @param key
+		 * @param value
+		 * @return
+		 */
+		public int weigh(K key, V value);
+	}
+
+	private final Segment<K, V>[] segments;
+	private final Weigher<K, V> weigher;
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	/**
+	 * Creates the cache whose entry weighs 1, so the maximum weight is the maximum number of the entries.
+	 *
+	 * @param maxWeight
+	 */
+	public LruCache(long maxWeight) {
+		this(maxWeight, DEFAULT_CONCURRENCY_LEVEL, null);
+	}
+
+	/**
+	 * Creates the cache.
+	 *
+	 * @param maxWeight	The maximum total weight of the entries
+	 * @param concurrencyLevel	The number of the segments
+	 * @param weigher	The weigher of the entries, or null if every entry weighs 1
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public LruCache(long maxWeight, int concurrencyLevel, Weigher<K, V> weigher) {
+		if (maxWeight < 1) {
+			throw new IllegalArgumentException("The maximum weight should be more than 0: " + maxWeight);
+		}
+		if (concurrencyLevel < 1) {
+			throw new IllegalArgumentException("The concurrency level should be more than 0: " + concurrencyLevel);
+		}
+		int numSegments = (int) Math.min(concurrencyLevel, maxWeight);
+		this.segments = new Segment[numSegments];
+		for (int i = 0; i < numSegments; i++) {
+			long segmentWeight = maxWeight / numSegments + (i < maxWeight % numSegments ? 1 : 0);
+			segments[i] = new Segment<K, V>(segmentWeight);
+		}
+		this.weigher = weigher;
+	}
+
+	private Segment<K, V> segmentFor(Object key) {
+		int h = key.hashCode();
+		// spreads the higher bits, since the strings which differ only in the last character are common
+		h ^= (h >>> 16);
+		return segments[(h & 0x7fffffff) % segments.length];
+	}
+
+	/**
+	 * Gets the cached value of the key, or null if the key is not cached.
+	 *
+	 * @param key
+	 * @return
+	 */
+	public V get(K key) {
+		V value = segmentFor(key).get(key);
+		if (value != null) {
+			hitCount.incrementAndGet();
+		}
+		else {
+			missCount.incrementAndGet();
+		}
+		return value;
+	}
+
+	/**
+	 * Caches the value of the key, and evicts the least recently used entries if the segment is full.
+	 * The value which weighs more than the maximum weight of the segment is not cached.
+	 *
+	 * @param key
+	 * @param value
+	 */
+	public void put(K key, V value) {
+		if (key == null || value == null) {
+			throw new IllegalArgumentException("The key and the value of the cache should not be null.");
+		}
+		int weight = weigher != null ? weigher.weigh(key, value) : 1;
+		if (weight < 1) {
+			throw new IllegalArgumentException("The weight should be more than 0: " + weight);
+		}
+		evictionCount.addAndGet(segmentFor(key).put(key, value, weight));
+	}
+
+	/**
+	 * Removes all the entries, the statistics are not reset.
+	 */
+	public void clear() {
+		for (Segment<K, V> segment : segments) {
+			segment.clear();
+		}
+	}
+
+	/**
+	 * Gets the number of the cached entries.
+	 *
+	 * @return
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment<K, V> segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Gets the total weight of the cached entries.
+	 *
+	 * @return
+	 */
+	public long weight() {
+		long weight = 0;
+		for (Segment<K, V> segment : segments) {
+			weight += segment.weight();
+		}
+		return weight;
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * Gets the ratio of the hits to the requests, or 0 if no request exists.
+	 *
+	 * @return
+	 */
+	public double getHitRate() {
+		long hits = hitCount.get();
+		long requests = hits + missCount.get();
+		return requests == 0 ? 0.0 : (double) hits / requests;
+	}
+
+	@Override
+	public String toString() {
+		return "size=" + size() + ", weight=" + weight() + ", hits=" + getHitCount() + ", misses=" + getMissCount() +
+				", evictions=" + getEvictionCount() + ", hitRate=" + getHitRate();
+	}
+
+	/**
+	 * The segment of the cache, which is the access ordered map with the weights of the entries.
+	 */
+	private static class Segment<K, V> {
+		private final long maxWeight;
+		private final LinkedHashMap<K, Entry<V>> map = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true);
+		private long weight;
+
+		private Segment(long maxWeight) {
+			this.maxWeight = maxWeight;
+		}
+
+		private synchronized V get(K key) {
+			Entry<V> entry = map.get(key);
+			return entry != null ? entry.value : null;
+		}
+
+		/**
+		 * Puts the entry and returns the number of the evicted entries.
+		 */
+		private synchronized int put(K key, V value, int entryWeight) {
+			Entry<V> old = map.remove(key);
+			if (old != null) {
+				weight -= old.weight;
+			}
+			if (entryWeight > maxWeight) {
+				return 0;
+			}
+			map.put(key, new Entry<V>(value, entryWeight));
+			weight += entryWeight;
+
+			int evicted = 0;
+			Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+			while (weight > maxWeight && it.hasNext()) {
+				Entry<V> eldest = it.next().getValue();
+				it.remove();
+				weight -= eldest.weight;
+				evicted++;
+			}
+			return evicted;
+		}
+
+		private synchronized void clear() {
+			map.clear();
+			weight = 0;
+		}
+
+		private synchronized int size() {
+			return map.size();
+		}
+
+		private synchronized long weight() {
+			return weight;
+		}
+	}
+
+	private static class Entry<V> {
+		private final V value;
+		private final int weight;
+
+		private Entry(V value, int weight) {
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+
+}
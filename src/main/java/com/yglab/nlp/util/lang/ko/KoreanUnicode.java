@@ -1,8 +1,13 @@
 package com.yglab.nlp.util.lang.ko;
 
+import java.util.Arrays;
+
 /**
  * This class converts the Korean encoding from unicode to triple encoding, and vice versa. A Korean eumjeol consists of
  * CHOSEONG(beginning consonant), JUNGSEONG(vowel), JONGSEONG(final consonant).
+ * <p>
+ * The jaso of all the 11,172 eumjeols are precomputed into the lookup table,
+ * and {@link #decompose(CharSequence, char[], int)} writes them into the buffer of the caller without allocation.
  * 
  * @author Younggue Bae
  */
@@ -26,6 +31,45 @@ public class KoreanUnicode {
 	};
 	
 	private static final int JUNG_JONG = JUNGSEONG.length * JONGSEONG.length;
+	
+	private static final char FIRST_EUMJEOL = 0xAC00;
+	private static final char LAST_EUMJEOL = 0xD7A3;
+	private static final int NUM_EUMJEOLS = LAST_EUMJEOL - FIRST_EUMJEOL + 1;
+	
+	/** the choseong, jungseong and jongseong of each eumjeol, the jongseong is '\0' if it has no final consonant */
+	private static final char[] EUMJEOL_JASO = new char[NUM_EUMJEOLS * 3];
+	
+	private static final char FIRST_JASO = 0x3131;
+	private static final char LAST_JASO = 0x3163;
+	/** the indexes of the choseong, jungseong and jongseong by the compatibility jaso, -1 if not such jaso */
+	private static final byte[] CHOSEONG_INDEX = new byte[LAST_JASO - FIRST_JASO + 1];
+	private static final byte[] JUNGSEONG_INDEX = new byte[LAST_JASO - FIRST_JASO + 1];
+	private static final byte[] JONGSEONG_INDEX = new byte[LAST_JASO - FIRST_JASO + 1];
+	
+	static {
+		for (int i = 0; i < NUM_EUMJEOLS; i++) {
+			EUMJEOL_JASO[i * 3] = CHOSEONG[i / JUNG_JONG];
+			EUMJEOL_JASO[i * 3 + 1] = JUNGSEONG[(i % JUNG_JONG) / JONGSEONG.length];
+			EUMJEOL_JASO[i * 3 + 2] = JONGSEONG[i % JONGSEONG.length];
+		}
+		
+		Arrays.fill(CHOSEONG_INDEX, (byte) -1);
+		Arrays.fill(JUNGSEONG_INDEX, (byte) -1);
+		Arrays.fill(JONGSEONG_INDEX, (byte) -1);
+		for (int i = 0; i < CHOSEONG.length; i++) {
+			CHOSEONG_INDEX[CHOSEONG[i] - FIRST_JASO] = (byte) i;
+		}
+		for (int i = 0; i < JUNGSEONG.length; i++) {
+			JUNGSEONG_INDEX[JUNGSEONG[i] - FIRST_JASO] = (byte) i;
+		}
+		for (int i = 1; i < JONGSEONG.length; i++) {
+			JONGSEONG_INDEX[JONGSEONG[i] - FIRST_JASO] = (byte) i;
+		}
+	}
+	
+	private static boolean isEumjeol(char c) {
+		return c >= FIRST_EUMJEOL && c <= LAST_EUMJEOL;
+	}
 
 	/**
 	 * Converts the one Korean character to triple encoding which consists of choseung, jungseong, jongseong.
@@ -35,26 +79,76 @@ public class KoreanUnicode {
 	 * @return the triple encoding which consists of choseung, jungseong, jongseong
 	 */
 	public static char[] decompose(char c) {
-		char[] result = null;
-
-		if (c > 0xD7A3 || c < 0xAC00) {
-			return new char[] { c };
+		char[] result = new char[decomposedLength(c)];
+		decompose(c, result, 0);
+		return result;
+	}
+	
+	/**
+	 * Gets the number of the jaso of the one character, which is 1 for the non Korean character.
+	 * 
+	 * @param c
+	 * @return
+	 */
+	public static int decomposedLength(char c) {
+		if (!isEumjeol(c)) {
+			return 1;
 		}
-
-		c -= 0xAC00;
-
-		char choseong = CHOSEONG[c / JUNG_JONG];
-		c = (char) (c % JUNG_JONG);
-
-		char jungseong = JUNGSEONG[c / JONGSEONG.length];
-		char jongseong = JONGSEONG[c % JONGSEONG.length];
-
-		if (jongseong != 0) {
-			result = new char[] { choseong, jungseong, jongseong };
-		} else {
-			result = new char[] { choseong, jungseong };
+		return EUMJEOL_JASO[(c - FIRST_EUMJEOL) * 3 + 2] != 0 ? 3 : 2;
+	}
+	
+	/**
+	 * Gets the number of the jaso of the string.
+	 * 
+	 * @param s
+	 * @return
+	 */
+	public static int decomposedLength(CharSequence s) {
+		int length = 0;
+		for (int i = 0; i < s.length(); i++) {
+			length += decomposedLength(s.charAt(i));
 		}
-		return result;
+		return length;
+	}
+	
+	/**
+	 * Writes the jaso of the one character into the buffer.
+	 * 
+	 * @param c	the one Korean character
+	 * @param buffer	the buffer which has the room for {@link #decomposedLength(char)}
+	 * @param offset	the offset of the buffer to write
+	 * @return the number of the written jaso
+	 */
+	public static int decompose(char c, char[] buffer, int offset) {
+		if (!isEumjeol(c)) {
+			buffer[offset] = c;
+			return 1;
+		}
+		int index = (c - FIRST_EUMJEOL) * 3;
+		buffer[offset] = EUMJEOL_JASO[index];
+		buffer[offset + 1] = EUMJEOL_JASO[index + 1];
+		char jongseong = EUMJEOL_JASO[index + 2];
+		if (jongseong == 0) {
+			return 2;
+		}
+		buffer[offset + 2] = jongseong;
+		return 3;
+	}
+	
+	/**
+	 * Writes the jaso of the string into the buffer.
+	 * 
+	 * @param s	the string
+	 * @param buffer	the buffer which has the room for {@link #decomposedLength(CharSequence)}
+	 * @param offset	the offset of the buffer to write
+	 * @return the number of the written jaso
+	 */
+	public static int decompose(CharSequence s, char[] buffer, int offset) {
+		int length = 0;
+		for (int i = 0; i < s.length(); i++) {
+			length += decompose(s.charAt(i), buffer, offset + length);
+		}
+		return length;
 	}
 	
 	/**
@@ -65,32 +159,38 @@ public class KoreanUnicode {
 	 * @return the triple encoding which consists of choseung, jungseong, jongseong
 	 */
 	public static char[] decomposeTriple(char c) {
-		char[] result = null;
-
-		if (c > 0xD7A3 || c < 0xAC00) {
+		if (!isEumjeol(c)) {
 			return new char[] { c, ' ', ' ' };
 		}
 
-		c -= 0xAC00;
-
-		char choseong = CHOSEONG[c / JUNG_JONG];
-		c = (char) (c % JUNG_JONG);
-
-		char jungseong = JUNGSEONG[c / JONGSEONG.length];
-		char jongseong = JONGSEONG[c % JONGSEONG.length];
-
-		result = new char[] { choseong, jungseong, jongseong };
-
-		return result;
+		int index = (c - FIRST_EUMJEOL) * 3;
+		return new char[] { EUMJEOL_JASO[index], EUMJEOL_JASO[index + 1], EUMJEOL_JASO[index + 2] };
 	}
 	
 	public static char[] decompose(String s) {
-		StringBuilder sb = new StringBuilder();
-		for (int i = 0; i < s.length(); i++) {
-			sb.append(decompose(s.charAt(i)));
+		char[] result = new char[decomposedLength(s)];
+		decompose(s, result, 0);
+		return result;
+	}
+	
+	/**
+	 * Returns true if the jaso of the buffer ends with the given jaso.
+	 * 
+	 * @param buffer	the decomposed jaso
+	 * @param length	the number of the jaso in the buffer
+	 * @param suffix	the decomposed jaso of the suffix
+	 * @return
+	 */
+	public static boolean endsWith(char[] buffer, int length, char[] suffix) {
+		if (suffix.length > length) {
+			return false;
 		}
-		
-		return sb.toString().toCharArray();
+		for (int i = 1; i <= suffix.length; i++) {
+			if (buffer[length - i] != suffix[suffix.length - i]) {
+				return false;
+			}
+		}
+		return true;
 	}
 	
 	/**
@@ -146,33 +246,27 @@ public class KoreanUnicode {
 	}
 	
 	public static int indexOfChoseong(char jaso) {
-		for (int index = 0; index < CHOSEONG.length; index++) {
-			char ch = CHOSEONG[index];
-			if (ch == jaso) {
-				return index;
-			}
-		}	
-		return -1;
+		if (jaso < FIRST_JASO || jaso > LAST_JASO) {
+			return -1;
+		}
+		return CHOSEONG_INDEX[jaso - FIRST_JASO];
 	}
 	
 	public static int indexOfJungseong(char jaso) {
-		for (int index = 0; index < JUNGSEONG.length; index++) {
-			char ch = JUNGSEONG[index];
-			if (ch == jaso) {
-				return index;
-			}
-		}	
-		return -1;
+		if (jaso < FIRST_JASO || jaso > LAST_JASO) {
+			return -1;
+		}
+		return JUNGSEONG_INDEX[jaso - FIRST_JASO];
 	}
 	
 	public static int indexOfJongseong(char jaso) {
-		for (int index = 0; index < JONGSEONG.length; index++) {
-			char ch = JONGSEONG[index];
-			if (ch == jaso) {
-				return index;
-			}
+		if (jaso == '\0') {
+			return 0;
+		}
+		if (jaso < FIRST_JASO || jaso > LAST_JASO) {
+			return -1;
 		}
-		return -1;
+		return JONGSEONG_INDEX[jaso - FIRST_JASO];
 	}
 
 }
@@ -0,0 +1,403 @@
+package com.yglab.nlp.util.trie;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * The immutable double-array trie compiled from {@link Trie}, which is matched in the same direction as the trie.
+ * <p>
+ * The child of the node s by the character c is the slot t = base[s] + c + 1 if check[t] is s + 1,
+ * so a character is matched by two array reads without the node objects.
+ * The values of the terminal nodes are stored in the side array which is indexed by the value index of the node.
+ * <p>
+ * The trie can be saved into a file, and the arrays of the saved trie are memory mapped when it is loaded,
+ * so only the values are deserialized.
+ * The reference paper for this implementation is as below:
+ * "An efficient digital search algorithm by using a double-array structure."
+ *  - Jun-ichi Aoe, IEEE Transactions on Software Engineering, 1989
+ *
+ * @author Younggue Bae
+ */
+public class DoubleArrayTrie<V> {
+
+	private static final int MAGIC = 0x44415431;	// "DAT1"
+	/** the size of the header which is the magic number, the direction, the number of the slots and the values */
+	private static final int HEADER_SIZE = 16;
+
+	private final boolean backward;
+	private final IntBuffer base;
+	private final IntBuffer check;
+	private final IntBuffer valueIndex;
+	private final Object[] values;
+
+	/**
+	 * Compiles the trie into the double-array.
+	 *
+	 * @param trie
+	 * @param backward	true if the input is matched from the last character like {@link TrieSuffixMatcher}
+	 */
+	public DoubleArrayTrie(Trie<V> trie, boolean backward) {
+		this.backward = backward;
+
+		Builder<V> builder = new Builder<V>();
+		builder.build(trie.root);
+
+		this.base = IntBuffer.wrap(Arrays.copyOf(builder.base, builder.size));
+		this.check = IntBuffer.wrap(Arrays.copyOf(builder.check, builder.size));
+		this.valueIndex = IntBuffer.wrap(Arrays.copyOf(builder.valueIndex, builder.size));
+		this.values = builder.values.toArray();
+	}
+
+	private DoubleArrayTrie(boolean backward, IntBuffer base, IntBuffer check, IntBuffer valueIndex, Object[] values) {
+		this.backward = backward;
+		this.base = base;
+		this.check = check;
+		this.valueIndex = valueIndex;
+		this.values = values;
+	}
+
+	/**
+	 * Returns true if the input is matched from the last character.
+	 *
+	 * @return
+	 */
+	public boolean isBackward() {
+		return backward;
+	}
+
+	/**
+	 * Gets the number of the slots of the double-array.
+	 *
+	 * @return
+	 */
+	public int size() {
+		return base.limit();
+	}
+
+	/**
+	 * Gets the number of the values of the terminal nodes.
+	 *
+	 * @return
+	 */
+	public int numValues() {
+		return values.length;
+	}
+
+	/**
+	 * Returns the child slot of the node by the character, or -1 if no such child exists.
+	 */
+	private int child(int node, char c) {
+		int slot = base.get(node) + c + 1;
+		if (slot > 0 && slot < check.limit() && check.get(slot) == node + 1) {
+			return slot;
+		}
+		return -1;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V value(int node) {
+		int index = valueIndex.get(node);
+		return index >= 0 ? (V) values[index] : null;
+	}
+
+	/**
+	 * Returns true if the given <code>String</code> is matched by a pattern in the trie.
+	 */
+	public boolean matches(String input) {
+		int node = 0;
+		int length = input.length();
+		for (int i = 0; i < length; i++) {
+			node = child(node, input.charAt(backward ? length - 1 - i : i));
+			if (node < 0) {
+				return false;
+			}
+			if (valueIndex.get(node) >= 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the values of all the patterns which match <code>input<code> from the shortest one,
+	 * or the empty list if no match exists.
+	 */
+	public List<V> allMatches(String input) {
+		List<V> result = new ArrayList<V>();
+		int node = 0;
+		int length = input.length();
+		for (int i = 0; i < length; i++) {
+			node = child(node, input.charAt(backward ? length - 1 - i : i));
+			if (node < 0) {
+				break;
+			}
+			if (valueIndex.get(node) >= 0) {
+				result.add(value(node));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the values of all the patterns which match the first <code>length<code> characters of <code>input<code>
+	 * from the shortest one, or the empty list if no match exists.
+	 * The characters are matched in the same direction as {@link #allMatches(String)} without creating the string.
+	 */
+	public List<V> allMatches(char[] input, int length) {
+		List<V> result = new ArrayList<V>();
+		int node = 0;
+		for (int i = 0; i < length; i++) {
+			node = child(node, input[backward ? length - 1 - i : i]);
+			if (node < 0) {
+				break;
+			}
+			if (valueIndex.get(node) >= 0) {
+				result.add(value(node));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the value of the shortest pattern which matches <code>input<code>,
+	 * or <code>null<code> if no match exists.
+	 */
+	public V shortestMatch(String input) {
+		int node = 0;
+		int length = input.length();
+		for (int i = 0; i < length; i++) {
+			node = child(node, input.charAt(backward ? length - 1 - i : i));
+			if (node < 0) {
+				return null;
+			}
+			if (valueIndex.get(node) >= 0) {
+				return value(node);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the value of the longest pattern which matches <code>input<code>,
+	 * or <code>null<code> if no match exists.
+	 */
+	public V longestMatch(String input) {
+		int node = 0;
+		V result = null;
+		int length = input.length();
+		for (int i = 0; i < length; i++) {
+			node = child(node, input.charAt(backward ? length - 1 - i : i));
+			if (node < 0) {
+				break;
+			}
+			if (valueIndex.get(node) >= 0) {
+				result = value(node);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Saves the trie into the file, the values should be serializable.
+	 * The header and the arrays are written as the big endian integers, and the values are serialized after the arrays.
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	public void save(File file) throws IOException {
+		for (Object value : values) {
+			if (value != null && !(value instanceof Serializable)) {
+				throw new IllegalArgumentException("The value is not serializable: " + value.getClass().getName());
+			}
+		}
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			int size = size();
+			out.writeInt(MAGIC);
+			out.writeInt(backward ? 1 : 0);
+			out.writeInt(size);
+			out.writeInt(values.length);
+			for (int i = 0; i < size; i++) {
+				out.writeInt(base.get(i));
+			}
+			for (int i = 0; i < size; i++) {
+				out.writeInt(check.get(i));
+			}
+			for (int i = 0; i < size; i++) {
+				out.writeInt(valueIndex.get(i));
+			}
+			out.flush();
+
+			ObjectOutputStream objectOut = new ObjectOutputStream(out);
+			objectOut.writeObject(values);
+			objectOut.flush();
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Loads the trie saved by {@link #save(File)}.
+	 * The arrays are memory mapped from the file, and only the values are deserialized.
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public static <V> DoubleArrayTrie<V> load(File file) throws IOException {
+		FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+		try {
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			if (header.getInt() != MAGIC) {
+				throw new IOException("Not a double-array trie file: " + file);
+			}
+			boolean backward = header.getInt() == 1;
+			int size = header.getInt();
+			header.getInt();
+
+			long arraySize = (long) size * 4;
+			MappedByteBuffer arrays = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, arraySize * 3);
+			IntBuffer base = slice(arrays, 0, size);
+			IntBuffer check = slice(arrays, size, size);
+			IntBuffer valueIndex = slice(arrays, size * 2, size);
+
+			channel.position(HEADER_SIZE + arraySize * 3);
+			ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+			Object[] values;
+			try {
+				values = (Object[]) in.readObject();
+			}
+			catch (ClassNotFoundException e) {
+				throw new IOException("Failed to read the values of the trie: " + file, e);
+			}
+
+			return new DoubleArrayTrie<V>(backward, base, check, valueIndex, values);
+		}
+		finally {
+			channel.close();
+		}
+	}
+
+	private static IntBuffer slice(MappedByteBuffer buffer, int from, int size) {
+		IntBuffer ints = buffer.asIntBuffer();
+		ints.position(from);
+		ints.limit(from + size);
+		return ints.slice();
+	}
+
+	/**
+	 * The builder of the double-array, which places the children of the nodes in the breadth first order.
+	 */
+	private static class Builder<V> {
+		private int[] base = new int[1024];
+		private int[] check = new int[1024];
+		private int[] valueIndex = new int[1024];
+		private int size = 1;
+		private List<V> values = new ArrayList<V>();
+		/** the first slot which may be free, the slots before it are all occupied */
+		private int nextCheckPos = 1;
+
+		private void build(Trie<V>.TrieNode<V> root) {
+			Arrays.fill(valueIndex, -1);
+			// the root is in the slot 0, which is never the child of any node
+			check[0] = -1;
+
+			LinkedList<Trie<V>.TrieNode<V>> nodes = new LinkedList<Trie<V>.TrieNode<V>>();
+			LinkedList<Integer> slots = new LinkedList<Integer>();
+			nodes.add(root);
+			slots.add(0);
+
+			while (!nodes.isEmpty()) {
+				Trie<V>.TrieNode<V> node = nodes.removeFirst();
+				int slot = slots.removeFirst();
+				Trie<V>.TrieNode<V>[] children = node.getChildren();
+				if (children.length == 0) {
+					continue;
+				}
+
+				int b = findBase(children);
+				base[slot] = b;
+				for (Trie<V>.TrieNode<V> child : children) {
+					int childSlot = b + child.nodeChar + 1;
+					check[childSlot] = slot + 1;
+					if (child.isTerminal()) {
+						valueIndex[childSlot] = values.size();
+						values.add(child.value);
+					}
+					size = Math.max(size, childSlot + 1);
+					nodes.add(child);
+					slots.add(childSlot);
+				}
+			}
+		}
+
+		/**
+		 * Finds the base whose slots of the children are all free.
+		 */
+		private int findBase(Trie<V>.TrieNode<V>[] children) {
+			int first = children[0].nodeChar + 1;
+			int pos = nextCheckPos - 1;
+			int occupied = 0;
+			int scanned = 0;
+			while (true) {
+				pos++;
+				ensureCapacity(pos + 1);
+				if (check[pos] != 0) {
+					occupied++;
+					scanned++;
+					continue;
+				}
+				scanned++;
+				// the base may be negative, since the slots of the children are after the first free slot
+				int b = pos - first;
+				boolean free = true;
+				for (int i = 1; i < children.length; i++) {
+					int childSlot = b + children[i].nodeChar + 1;
+					ensureCapacity(childSlot + 1);
+					if (check[childSlot] != 0) {
+						free = false;
+						break;
+					}
+				}
+				if (free) {
+					// skips the dense region, most slots of which are occupied
+					if (scanned > 0 && (double) occupied / scanned >= 0.95) {
+						nextCheckPos = pos;
+					}
+					return b;
+				}
+			}
+		}
+
+		private void ensureCapacity(int capacity) {
+			if (capacity <= base.length) {
+				return;
+			}
+			int newLength = Math.max(capacity, base.length * 2);
+			base = Arrays.copyOf(base, newLength);
+			check = Arrays.copyOf(check, newLength);
+			int oldLength = valueIndex.length;
+			valueIndex = Arrays.copyOf(valueIndex, newLength);
+			Arrays.fill(valueIndex, oldLength, newLength, -1);
+		}
+	}
+
+}
@@ -87,7 +87,8 @@ public abstract class Trie<V> {
 	 */
 	@SuppressWarnings({ "rawtypes", "hiding" })
 	protected class TrieNode<V> implements Comparable {
-		protected TrieNode<V>[] children;
+		/** the sorted children which are published once the node is matched, so the matching threads never see the list */
+		protected volatile TrieNode<V>[] children;
 		protected LinkedList<TrieNode<V>> childrenList;
 		protected char nodeChar;
 		protected V value;
@@ -157,13 +158,8 @@ public abstract class Trie<V> {
 		 * Returns the child node of this node whose node-character is <code>nextChar</code>. If no such node exists,
 		 * <code>null</code> is returned.
 		 */
-		@SuppressWarnings("unchecked")
 		public TrieNode<V> getChild(char nextChar) {
-			if (children == null) {
-				children = (TrieNode<V>[]) childrenList.toArray(new TrieNode[childrenList.size()]);
-				childrenList = null;
-				Arrays.sort(children);
-			}
+			TrieNode<V>[] children = getChildren();
 
 			int min = 0;
 			int max = children.length - 1;
@@ -191,6 +187,31 @@ public abstract class Trie<V> {
 			return null;
 		}
 
+		/**
+		 * Returns the child nodes of this node sorted by the node-character.
+		 */
+		public TrieNode<V>[] getChildren() {
+			TrieNode<V>[] children = this.children;
+			if (children == null) {
+				children = sortChildren();
+			}
+			return children;
+		}
+
+		/**
+		 * Converts the children list into the sorted array only once, even if the threads match the node at the same time.
+		 */
+		@SuppressWarnings("unchecked")
+		private synchronized TrieNode<V>[] sortChildren() {
+			if (children == null) {
+				TrieNode<V>[] sorted = (TrieNode<V>[]) childrenList.toArray(new TrieNode[childrenList.size()]);
+				Arrays.sort(sorted);
+				children = sorted;
+				childrenList = null;
+			}
+			return children;
+		}
+
 		public int compareTo(Object o) {
 			TrieNode other = (TrieNode) o;
 			if (this.nodeChar < other.nodeChar) {
@@ -19,6 +19,13 @@ public class TriePrefixMatcher<V> extends Trie<V> {
 	public void add(String key, V value) {
 		addPatternForward(key, value);
 	}
+	
+	/**
+	 * Compiles the patterns into the immutable {@link DoubleArrayTrie} which matches in the same direction.
+	 */
+	public DoubleArrayTrie<V> compile() {
+		return new DoubleArrayTrie<V>(this, false);
+	}
 
 	/**
 	 * Returns true if the given <code>String</code> is matched by a prefix in the trie
@@ -20,6 +20,13 @@ public class TrieSuffixMatcher<V> extends Trie<V> {
 	public void add(String key, V value) {
 		addPatternBackward(key, value);
 	}
+	
+	/**
+	 * Compiles the patterns into the immutable {@link DoubleArrayTrie} which matches in the same direction.
+	 */
+	public DoubleArrayTrie<V> compile() {
+		return new DoubleArrayTrie<V>(this, true);
+	}
 
 	/**
 	 * Returns true if the given <code>String</code> is matched by a suffix in the trie.
@@ -0,0 +1,174 @@
+package com.yglab.nlp.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.yglab.nlp.maxent.MaxentBinaryModelReader;
+import com.yglab.nlp.maxent.MaxentBinaryModelWriter;
+import com.yglab.nlp.maxent.MaxentModel;
+import com.yglab.nlp.maxent.MaxentModelWriter;
+import com.yglab.nlp.model.AbstractModel;
+import com.yglab.nlp.model.Index;
+import com.yglab.nlp.model.MappedWeights;
+import com.yglab.nlp.model.SortedStringIndex;
+import com.yglab.nlp.perceptron.PerceptronBinaryModelReader;
+import com.yglab.nlp.perceptron.PerceptronBinaryModelWriter;
+import com.yglab.nlp.perceptron.PerceptronModel;
+
+/**
+ * Test case.
+ * The model is written by {@link AbstractBinaryModelWriter} and read back from the mapped file,
+ * from the class path resource onto the heap, and from the serialized model file.
+ *
+ * @author Younggue Bae
+ */
+public class AbstractBinaryModelReaderTest {
+
+	private static final String[] LABELS = { "NNG", "JKS", "EF", "VV", "ㄴ다/EF" };
+	private static final String[] FEATURES = { "w=먹", "bias", "p=NNG", "w=abc", "s=다", "w=가방", "p=__START__", "w=" };
+
+	private static MaxentModel model;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		Index labelIndex = new Index();
+		for (String label : LABELS) {
+			labelIndex.add(label);
+		}
+		labelIndex.freeze();
+
+		Index featureIndex = new Index();
+		for (String feature : FEATURES) {
+			featureIndex.add(feature);
+		}
+		featureIndex.freeze();
+
+		Random random = new Random(3);
+		double[][] weights = new double[LABELS.length][FEATURES.length];
+		for (int label = 0; label < weights.length; label++) {
+			for (int feature = 0; feature < weights[label].length; feature++) {
+				weights[label][feature] = random.nextGaussian();
+			}
+		}
+
+		model = new MaxentModel(labelIndex, featureIndex, weights);
+		model.setOption("iterations", "100");
+		model.setOption("template", "pos.template");
+	}
+
+	@Test
+	public void testMappedFile() throws Exception {
+		File file = File.createTempFile("binary-model", ".bin");
+		try {
+			new MaxentBinaryModelWriter().write(model, file);
+			AbstractModel read = new MaxentBinaryModelReader().read(file);
+
+			assertTrue(read.getParameters() instanceof MappedWeights);
+			assertModelEquals(model, read);
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testResourceOnHeap() throws Exception {
+		File classPathDir = new File(AbstractBinaryModelReaderTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		File file = new File(classPathDir, "binary-model-test.bin");
+		try {
+			new MaxentBinaryModelWriter().write(model, file);
+			File resource = new File("/binary-model-test.bin");
+			assertTrue(AbstractModelReader.class.getResource(resource.getPath()) != null);
+			assertFalse(resource.exists());
+
+			AbstractModel read = new MaxentBinaryModelReader().read(resource);
+			assertModelEquals(model, read);
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testSerializedFile() throws Exception {
+		File file = File.createTempFile("serialized-model", ".bin");
+		try {
+			new MaxentModelWriter().write(model, file);
+			AbstractModel read = new MaxentBinaryModelReader().read(file);
+
+			assertFalse(read.getParameters() instanceof MappedWeights);
+			assertModelEquals(model, read);
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testLabeledFlag() throws Exception {
+		for (boolean labeled : new boolean[] { true, false }) {
+			PerceptronModel perceptron = new PerceptronModel(model.getLabelIndex(), model.getFeatureIndex(), model.getWeights(), labeled);
+			File file = File.createTempFile("perceptron-model", ".bin");
+			try {
+				new PerceptronBinaryModelWriter().write(perceptron, file);
+				PerceptronModel read = (PerceptronModel) new PerceptronBinaryModelReader().read(file);
+
+				assertEquals(labeled, read.isLabeled());
+				assertModelEquals(perceptron, read);
+			}
+			finally {
+				file.delete();
+			}
+		}
+	}
+
+	@Test
+	public void testSortedStringIndex() throws Exception {
+		String[] strings = { "", "a", "ab", "b", "가", "가방", "나" };
+		SortedStringIndex index = SortedStringIndex.read(SortedStringIndex.encode(strings));
+
+		assertEquals(strings.length, index.size());
+		for (int i = 0; i < strings.length; i++) {
+			assertEquals(strings[i], index.get(i));
+			assertEquals(i, index.indexOf(strings[i]));
+		}
+		assertEquals(Index.UNKNOWN, index.indexOf("aa"));
+		assertEquals(Index.UNKNOWN, index.indexOf("다"));
+		assertEquals(Index.UNKNOWN, index.indexOf(null));
+	}
+
+	/**
+	 * Checks that the read model has the same options, labels, features and weights,
+	 * which are renumbered in the sorted order by the writer.
+	 */
+	private static void assertModelEquals(AbstractModel expected, AbstractModel actual) {
+		assertEquals(expected.algorithm(), actual.algorithm());
+		assertEquals(expected.getOptions(), actual.getOptions());
+
+		Index labelIndex = actual.getLabelIndex();
+		Index featureIndex = actual.getFeatureIndex();
+		assertEquals(expected.getLabelIndex().size(), labelIndex.size());
+		assertEquals(expected.getFeatureIndex().size(), featureIndex.size());
+
+		for (int label = 0; label < expected.getLabelIndex().size(); label++) {
+			int actualLabel = labelIndex.indexOf(expected.getLabelIndex().get(label));
+			assertTrue(actualLabel != Index.UNKNOWN);
+			assertEquals(expected.getLabelIndex().get(label), labelIndex.get(actualLabel));
+
+			for (int feature = 0; feature < expected.getFeatureIndex().size(); feature++) {
+				int actualFeature = featureIndex.indexOf(expected.getFeatureIndex().get(feature));
+				assertTrue(actualFeature != Index.UNKNOWN);
+				assertEquals(expected.getParameters().get(label, feature), actual.getParameters().get(actualLabel, actualFeature), 0.0);
+			}
+		}
+		assertEquals(Index.UNKNOWN, featureIndex.indexOf("w=unknown"));
+	}
+
+}
@@ -0,0 +1,169 @@
+package com.yglab.nlp.maxent;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.yglab.nlp.model.Datum;
+import com.yglab.nlp.model.Index;
+
+/**
+ * Test case.
+ * The candidates of the generator, whose features are generated once per position with the placeholder labels,
+ * are compared with the features generated with the real previous labels of each candidate.
+ *
+ * @author Younggue Bae
+ */
+public class DefaultTagSequenceGeneratorTest {
+
+	private static final String[] LABELS = { "A", "B", "C" };
+	private static final String[] WORDS = { "w0", "w1", "w2", "w3" };
+
+	private static FeatureGenerator<String> featureGenerator;
+	private static MaxentModel model;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		featureGenerator = new FeatureGenerator<String>() {
+			@Override
+			public FeatureContext initialize(String[] tokens) {
+				return null;
+			}
+
+			@Override
+			public String[] getFeatures(int position, String[] tokens, String[] previousTagSequence, FeatureContext context) {
+				String prevLabel = previousTagSequence[previousTagSequence.length - 1];
+				String prevPrevLabel = previousTagSequence[previousTagSequence.length - 2];
+				// the labels at the start, at the end and next to each other
+				return new String[] {
+						"bias",
+						"w=" + tokens[position],
+						"p=" + prevLabel,
+						prevLabel + "|w=" + tokens[position],
+						"pp=" + prevPrevLabel + prevLabel,
+						"w=" + tokens[position] + ",p=" + prevLabel + ",p=" + prevLabel,
+				};
+			}
+		};
+
+		String[] prevLabels = { "A", "B", "C", "O" };
+		Index featureIndex = new Index();
+		featureIndex.add("bias");
+		// the last word and some of the label pairs are unknown
+		for (int i = 0; i < WORDS.length - 1; i++) {
+			featureIndex.add("w=" + WORDS[i]);
+		}
+		for (String prevLabel : prevLabels) {
+			featureIndex.add("p=" + prevLabel);
+			featureIndex.add("pp=O" + prevLabel);
+			featureIndex.add("pp=A" + prevLabel);
+			for (String word : WORDS) {
+				featureIndex.add(prevLabel + "|w=" + word);
+				featureIndex.add("w=" + word + ",p=" + prevLabel + ",p=" + prevLabel);
+			}
+		}
+		featureIndex.freeze();
+
+		Index labelIndex = new Index();
+		for (String label : LABELS) {
+			labelIndex.add(label);
+		}
+		labelIndex.freeze();
+
+		Random random = new Random(17);
+		double[][] weights = new double[LABELS.length][featureIndex.size()];
+		for (int label = 0; label < weights.length; label++) {
+			for (int feature = 0; feature < weights[label].length; feature++) {
+				weights[label][feature] = random.nextGaussian();
+			}
+		}
+		model = new MaxentModel(labelIndex, featureIndex, weights);
+	}
+
+	@Test
+	public void testFeatures() throws Exception {
+		Random random = new Random(19);
+		DefaultTagSequenceGenerator gen = new DefaultTagSequenceGenerator(featureGenerator, LABELS, 2);
+
+		for (int trial = 0; trial < 20; trial++) {
+			String[] tokens = randomTokens(random, 1 + random.nextInt(5));
+			List<List<Datum>> candidates = gen.getCandidates(tokens, null);
+			assertEquals(tokens.length, candidates.size());
+
+			for (int position = 0; position < tokens.length; position++) {
+				for (Datum datum : candidates.get(position)) {
+					String[] expected = featureGenerator.getFeatures(position, tokens, datum.getPreviousLabelSequence(), null);
+					assertEquals(Arrays.asList(expected), datum.getFeatures());
+					assertNull(datum.getFeatureIds());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFeatureIds() throws Exception {
+		Random random = new Random(23);
+		DefaultTagSequenceGenerator gen = new DefaultTagSequenceGenerator(featureGenerator, LABELS, 2);
+		gen.setFeatureIndex(model.getFeatureIndex());
+
+		for (int trial = 0; trial < 20; trial++) {
+			String[] tokens = randomTokens(random, 1 + random.nextInt(5));
+			List<List<Datum>> candidates = gen.getCandidates(tokens, null);
+
+			for (int position = 0; position < tokens.length; position++) {
+				for (Datum datum : candidates.get(position)) {
+					// the label independent features come first, so the ids are compared in the sorted order
+					String[] features = featureGenerator.getFeatures(position, tokens, datum.getPreviousLabelSequence(), null);
+					int[] expected = model.getFeatureIndex().indexesOf(features);
+					int[] featureIds = datum.getFeatureIds().clone();
+					Arrays.sort(expected);
+					Arrays.sort(featureIds);
+					assertArrayEquals(expected, featureIds);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testDecode() throws Exception {
+		Random random = new Random(29);
+		DefaultTagSequenceGenerator stringGen = new DefaultTagSequenceGenerator(featureGenerator, LABELS, 2);
+		DefaultTagSequenceGenerator idGen = new DefaultTagSequenceGenerator(featureGenerator, LABELS, 2);
+		idGen.setFeatureIndex(model.getFeatureIndex());
+
+		for (int trial = 0; trial < 20; trial++) {
+			String[] tokens = randomTokens(random, 1 + random.nextInt(5));
+			List<List<Datum>> expectedSequences = MEMM.decode(model, stringGen.getCandidates(tokens, null), 3);
+			List<List<Datum>> sequences = MEMM.decode(model, idGen.getCandidates(tokens, null), 3);
+
+			assertEquals(expectedSequences.size(), sequences.size());
+			for (int rank = 0; rank < sequences.size(); rank++) {
+				assertArrayEquals(Arrays.toString(tokens), toLabels(expectedSequences.get(rank)), toLabels(sequences.get(rank)));
+			}
+		}
+	}
+
+	private static String[] randomTokens(Random random, int length) {
+		String[] tokens = new String[length];
+		for (int i = 0; i < length; i++) {
+			tokens[i] = WORDS[random.nextInt(WORDS.length)];
+		}
+		return tokens;
+	}
+
+	private static String[] toLabels(List<Datum> sequence) {
+		String[] labels = new String[sequence.size()];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = sequence.get(i).getGuessLabel();
+		}
+		return labels;
+	}
+
+}
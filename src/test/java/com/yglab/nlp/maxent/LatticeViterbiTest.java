@@ -0,0 +1,177 @@
+package com.yglab.nlp.maxent;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.yglab.nlp.model.Datum;
+import com.yglab.nlp.model.Index;
+
+/**
+ * Test case.
+ * The lattice Viterbi is compared with the exhaustive search which scores every label sequence
+ * by calling the feature generator with the real previous labels.
+ *
+ * @author Younggue Bae
+ */
+public class LatticeViterbiTest {
+
+	private static final String[] LABELS = { "A", "B", "C" };
+	private static final String[] WORDS = { "w0", "w1", "w2", "w3" };
+
+	private static FeatureGenerator<String> featureGenerator;
+	private static MaxentModel model;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		featureGenerator = new FeatureGenerator<String>() {
+			@Override
+			public FeatureContext initialize(String[] tokens) {
+				return null;
+			}
+
+			@Override
+			public String[] getFeatures(int position, String[] tokens, String[] previousTagSequence, FeatureContext context) {
+				String prevLabel = previousTagSequence[previousTagSequence.length - 1];
+				String prevPrevLabel = previousTagSequence[previousTagSequence.length - 2];
+				return new String[] {
+						"bias",
+						"w=" + tokens[position],
+						"p=" + prevLabel,
+						"pp=" + prevPrevLabel + "," + prevLabel,
+						"p=" + prevLabel + ",w=" + tokens[position],
+				};
+			}
+		};
+
+		Index labelIndex = new Index();
+		for (String label : LABELS) {
+			labelIndex.add(label);
+		}
+		labelIndex.freeze();
+
+		List<String> labels = new ArrayList<String>(Arrays.asList(LABELS));
+		labels.add(LatticeViterbi.START_LABEL);
+		Index featureIndex = new Index();
+		featureIndex.add("bias");
+		for (String word : WORDS) {
+			featureIndex.add("w=" + word);
+		}
+		for (String prevLabel : labels) {
+			featureIndex.add("p=" + prevLabel);
+			for (String prevPrevLabel : labels) {
+				featureIndex.add("pp=" + prevPrevLabel + "," + prevLabel);
+			}
+			for (String word : WORDS) {
+				featureIndex.add("p=" + prevLabel + ",w=" + word);
+			}
+		}
+		featureIndex.freeze();
+
+		Random random = new Random(7);
+		double[][] weights = new double[LABELS.length][featureIndex.size()];
+		for (int label = 0; label < weights.length; label++) {
+			for (int feature = 0; feature < weights[label].length; feature++) {
+				weights[label][feature] = random.nextGaussian();
+			}
+		}
+		model = new MaxentModel(labelIndex, featureIndex, weights);
+	}
+
+	@Test
+	public void testBestSequence() throws Exception {
+		Random random = new Random(11);
+		LatticeViterbi viterbi = new LatticeViterbi(model, 0);
+
+		for (int trial = 0; trial < 50; trial++) {
+			String[] tokens = randomTokens(random, 1 + random.nextInt(5));
+			List<Sequence> expected = enumerate(tokens);
+
+			String[] guessLabels = toLabels(viterbi.decode(featureGenerator, tokens, null, null));
+			assertArrayEquals(Arrays.toString(tokens), expected.get(0).getLabels(), guessLabels);
+		}
+	}
+
+	@Test
+	public void testKBestSequences() throws Exception {
+		Random random = new Random(13);
+		LatticeViterbi viterbi = new LatticeViterbi(model, 0);
+
+		for (int trial = 0; trial < 20; trial++) {
+			String[] tokens = randomTokens(random, 1 + random.nextInt(5));
+			List<Sequence> expected = enumerate(tokens);
+
+			int K = Math.min(10, expected.size());
+			List<Sequence> sequences = viterbi.decode(featureGenerator, tokens, null, null, K);
+			assertEquals(K, sequences.size());
+			for (int rank = 0; rank < K; rank++) {
+				assertEquals(expected.get(rank).getScore(), sequences.get(rank).getScore(), 1e-9);
+				assertArrayEquals(Arrays.toString(tokens), expected.get(rank).getLabels(), sequences.get(rank).getLabels());
+			}
+		}
+	}
+
+	private static String[] randomTokens(Random random, int length) {
+		String[] tokens = new String[length];
+		for (int i = 0; i < length; i++) {
+			tokens[i] = WORDS[random.nextInt(WORDS.length)];
+		}
+		return tokens;
+	}
+
+	private static String[] toLabels(List<Datum> sequence) {
+		String[] labels = new String[sequence.size()];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = sequence.get(i).getGuessLabel();
+		}
+		return labels;
+	}
+
+	/**
+	 * Scores every label sequence of the tokens, and sorts them by the score in descending order.
+	 */
+	private static List<Sequence> enumerate(String[] tokens) {
+		List<Sequence> sequences = new ArrayList<Sequence>();
+		int numSequences = (int) Math.pow(LABELS.length, tokens.length);
+		for (int n = 0; n < numSequences; n++) {
+			String[] labels = new String[tokens.length];
+			int code = n;
+			for (int i = 0; i < tokens.length; i++) {
+				labels[i] = LABELS[code % LABELS.length];
+				code /= LABELS.length;
+			}
+
+			double score = 0.0;
+			for (int position = 0; position < tokens.length; position++) {
+				String prevLabel = position > 0 ? labels[position - 1] : LatticeViterbi.START_LABEL;
+				String prevPrevLabel = position > 1 ? labels[position - 2] : LatticeViterbi.START_LABEL;
+				String[] features = featureGenerator.getFeatures(position, tokens, new String[] { prevPrevLabel, prevLabel }, null);
+				score += logProb(features, model.getLabelIndex().indexOf(labels[position]));
+			}
+			sequences.add(new Sequence(labels, score));
+		}
+		Collections.sort(sequences);
+
+		return sequences;
+	}
+
+	private static double logProb(String[] features, int label) {
+		double[] scores = new double[LABELS.length];
+		model.getParameters().addScores(model.getFeatureIndex().indexesOf(features), scores);
+
+		double sum = 0.0;
+		for (double score : scores) {
+			sum += Math.exp(score);
+		}
+		return scores[label] - Math.log(sum);
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.yglab.nlp.maxent.quasinewton;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.yglab.nlp.model.CompiledEvents;
+import com.yglab.nlp.model.Datum;
+
+/**
+ * Test case.
+ * The value and the derivative which are summed up over the shards in parallel are compared with the serial ones.
+ *
+ * @author Younggue Bae
+ */
+public class LogConditionalObjectiveFunctionTest {
+
+	private static final double TOLERANCE = 1e-9;
+
+	private static List<Datum> data;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		Random random = new Random(17);
+		data = new ArrayList<Datum>();
+		for (int n = 0; n < 1000; n++) {
+			Datum datum = new Datum(n, "w" + n, "L" + random.nextInt(5));
+			List<String> features = new ArrayList<String>();
+			int numFeatures = 1 + random.nextInt(8);
+			for (int k = 0; k < numFeatures; k++) {
+				features.add("f" + random.nextInt(200));
+			}
+			datum.setFeatures(features);
+			data.add(datum);
+		}
+	}
+
+	@Test
+	public void testShardedEqualsSerial() throws Exception {
+		CompiledEvents events = CompiledEvents.compile(data.iterator(), 1);
+		LogConditionalObjectiveFunction serial = new LogConditionalObjectiveFunction(events, 1);
+
+		for (int trial = 0; trial < 3; trial++) {
+			double[] x = randomPoint(new Random(trial), serial.domainDimension());
+			double expectedValue = serial.valueAt(x);
+			double[] expectedDerivative = serial.derivativeAt(x).clone();
+
+			for (int threads : new int[] { 2, 3, 4, 7 }) {
+				LogConditionalObjectiveFunction sharded = new LogConditionalObjectiveFunction(events, threads);
+				try {
+					assertEquals("threads=" + threads, expectedValue, sharded.valueAt(x), TOLERANCE * Math.abs(expectedValue));
+					double[] derivative = sharded.derivativeAt(x);
+					assertEquals(expectedDerivative.length, derivative.length);
+					for (int i = 0; i < derivative.length; i++) {
+						assertEquals("threads=" + threads + ", i=" + i, expectedDerivative[i], derivative[i], TOLERANCE);
+					}
+				}
+				finally {
+					sharded.shutdown();
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testShardedIsReproducible() throws Exception {
+		CompiledEvents events = CompiledEvents.compile(data.iterator(), 1);
+		LogConditionalObjectiveFunction first = new LogConditionalObjectiveFunction(events, 4);
+		LogConditionalObjectiveFunction second = new LogConditionalObjectiveFunction(events, 4);
+		try {
+			double[] x = randomPoint(new Random(5), first.domainDimension());
+			assertEquals(first.valueAt(x), second.valueAt(x), 0.0);
+			assertArrayEquals(first.derivativeAt(x), second.derivativeAt(x), 0.0);
+
+			// the buffers of the shards are reused at another point
+			double[] y = randomPoint(new Random(6), first.domainDimension());
+			LogConditionalObjectiveFunction serial = new LogConditionalObjectiveFunction(events, 1);
+			assertEquals(serial.valueAt(y), first.valueAt(y), TOLERANCE * Math.abs(serial.valueAt(y)));
+		}
+		finally {
+			first.shutdown();
+			second.shutdown();
+		}
+	}
+
+	private static double[] randomPoint(Random random, int dimension) {
+		double[] x = new double[dimension];
+		for (int i = 0; i < dimension; i++) {
+			x[i] = random.nextGaussian();
+		}
+		return x;
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.yglab.nlp.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Test case.
+ * The compiled feature ids of the datum are dropped when its features are replaced.
+ *
+ * @author Younggue Bae
+ */
+public class DatumTest {
+
+	@Test
+	public void testSetFeatures() throws Exception {
+		Datum datum = new Datum("dog", "NN");
+		assertNull(datum.getFeatureIds());
+
+		datum.setFeatures(Arrays.asList("w=dog", "bias"));
+		assertNull(datum.getFeatureIds());
+		datum.setFeatureIds(new int[] { 3, 0 });
+		assertArrayEquals(new int[] { 3, 0 }, datum.getFeatureIds());
+
+		// the ids of the old features must not be scored for the new ones
+		datum.setFeatures(Arrays.asList("w=cat", "bias"));
+		assertNull(datum.getFeatureIds());
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.yglab.nlp.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Test case.
+ * The unseen objects are mapped to {@link Index#UNKNOWN}, and the frozen index rejects any object.
+ *
+ * @author Younggue Bae
+ */
+public class IndexTest {
+
+	@Test
+	public void testIndexesOf() throws Exception {
+		Index index = new Index();
+		assertTrue(index.add("w=a"));
+		assertTrue(index.add("w=b"));
+		assertFalse(index.add("w=a"));
+		assertEquals(2, index.size());
+
+		// the ids keep the order of the objects with the duplicates and the unseen ones
+		String[] features = { "w=b", "w=c", "w=a", "w=b", "" };
+		int[] expected = { 1, Index.UNKNOWN, 0, 1, Index.UNKNOWN };
+		assertArrayEquals(expected, index.indexesOf(features));
+		assertArrayEquals(expected, index.indexesOf(Arrays.asList(features)));
+		assertArrayEquals(new int[0], index.indexesOf(new String[0]));
+		assertEquals(Index.UNKNOWN, index.indexOf(null));
+	}
+
+	@Test
+	public void testFreeze() throws Exception {
+		Index index = new Index();
+		index.add("w=a");
+		assertFalse(index.isFrozen());
+		index.freeze();
+		assertTrue(index.isFrozen());
+
+		// the frozen index rejects even the object which already exists
+		for (String feature : new String[] { "w=b", "w=a" }) {
+			try {
+				index.add(feature);
+				fail();
+			}
+			catch (IllegalStateException e) {
+			}
+		}
+		assertEquals(1, index.size());
+		assertEquals(0, index.indexOf("w=a"));
+		assertEquals(Index.UNKNOWN, index.indexOf("w=b"));
+	}
+
+}
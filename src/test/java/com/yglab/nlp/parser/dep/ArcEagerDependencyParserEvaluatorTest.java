@@ -0,0 +1,75 @@
+package com.yglab.nlp.parser.dep;
+
+import java.util.List;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.yglab.nlp.dictionary.RegexFeatureDictionary;
+import com.yglab.nlp.model.AbstractModel;
+import com.yglab.nlp.model.Options;
+import com.yglab.nlp.parser.ParseSample;
+import com.yglab.nlp.parser.io.CoNLLReader;
+
+/**
+ * Test case which compares the speed and the accuracy of the arc-eager parser with the Eisner parser.
+ *
+ * @author Younggue Bae
+ */
+@Ignore
+public class ArcEagerDependencyParserEvaluatorTest {
+
+	@Test
+	public void testEnglish() throws Exception {
+		compare(null, "./data/en/parser/en-parser-1-train.conll", "./data/en/parser/en-parser-1-test.conll",
+				"./build/test-data/en/parser/en-parser");
+	}
+
+	@Test
+	public void testKorean() throws Exception {
+		RegexFeatureDictionary featureDic = new RegexFeatureDictionary("/lang/ko/ko-regex-feature-unit.dic");
+		compare(featureDic, "./data/ko/parser/ko-parser-train-sejong-BGAA0164.conll", "./data/ko/parser/ko-parser-test-sejong-BGAA0164.conll",
+				"./build/test-data/ko/parser/ko-parser");
+	}
+
+	private void compare(RegexFeatureDictionary featureDic, String trainFile, String testFile, String outputPrefix) throws Exception {
+		CoNLLReader reader = featureDic != null ? new CoNLLReader(featureDic) : new CoNLLReader();
+		reader.startReading(trainFile);
+		List<ParseSample> trainSamples = DependencyParser.loadSamples(reader);
+		String[] labels = reader.getLabels();
+
+		reader = featureDic != null ? new CoNLLReader(featureDic) : new CoNLLReader();
+		reader.startReading(testFile);
+		List<ParseSample> testSamples = DependencyParser.loadSamples(reader);
+
+		Options options = new Options();
+		options.put(Options.ALGORITHM, Options.PERCEPTRON_ALGORITHM);
+		options.put(Options.ITERATIONS, "5");
+
+		long start = System.currentTimeMillis();
+		DefaultDependencyFeatureGenerator featureGenerator = new DefaultDependencyFeatureGenerator(featureDic);
+		AbstractModel eisnerModel = DependencyParser.train(trainSamples, labels, featureGenerator, options);
+		long eisnerTrainTime = System.currentTimeMillis() - start;
+
+		start = System.currentTimeMillis();
+		ArcEagerFeatureGenerator transitionFeatureGenerator = new ArcEagerFeatureGenerator(featureDic);
+		AbstractModel arcEagerModel = ArcEagerDependencyParser.train(trainSamples, labels, transitionFeatureGenerator, options);
+		long arcEagerTrainTime = System.currentTimeMillis() - start;
+
+		start = System.currentTimeMillis();
+		DependencyParser eisnerParser = new DependencyParser(eisnerModel, featureGenerator);
+		DependencyParserEvaluator eisnerEvaluator = new DependencyParserEvaluator(eisnerParser, true, outputPrefix + "-eisner-result.txt");
+		eisnerEvaluator.evaluate(testSamples);
+		long eisnerParseTime = System.currentTimeMillis() - start;
+
+		start = System.currentTimeMillis();
+		DependencyParser arcEagerParser = new ArcEagerDependencyParser(arcEagerModel, transitionFeatureGenerator);
+		DependencyParserEvaluator arcEagerEvaluator = new DependencyParserEvaluator(arcEagerParser, true, outputPrefix + "-arc-eager-result.txt");
+		arcEagerEvaluator.evaluate(testSamples);
+		long arcEagerParseTime = System.currentTimeMillis() - start;
+
+		System.err.println("Eisner: train=" + eisnerTrainTime + "ms, parse=" + eisnerParseTime + "ms, LAS=" + eisnerEvaluator.getLAS() + ", UAS=" + eisnerEvaluator.getUAS());
+		System.err.println("Arc-eager: train=" + arcEagerTrainTime + "ms, parse=" + arcEagerParseTime + "ms, LAS=" + arcEagerEvaluator.getLAS() + ", UAS=" + arcEagerEvaluator.getUAS());
+	}
+
+}
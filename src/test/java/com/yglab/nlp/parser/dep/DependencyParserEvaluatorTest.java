@@ -58,5 +58,60 @@ public class DependencyParserEvaluatorTest {
 		DependencyParserEvaluator evaluator = new DependencyParserEvaluator(parser, labeled);
 		evaluator.evaluate(testSamples);
 	}
+	
+	@Test
+	public void testPrunedEvaluator() throws Exception {
+		CoNLLReader reader = new CoNLLReader();
+		reader.startReading("./data/en/parser/en-parser-1-train.conll");
+		List<ParseSample> trainSamples = DependencyParser.loadSamples(reader);
+		String[] labels = reader.getLabels();
+		
+		Options options = new Options();
+		options.put(Options.ALGORITHM, Options.PERCEPTRON_ALGORITHM);
+		options.put(Options.ITERATIONS, "5");
+		options.put(Options.PRUNE_HEADS, "10");
+		
+		// the pruner is trained and saved together with the parser model
+		AbstractModel model = DependencyParser.train(trainSamples, labels, featureGenerator, options);
+		DependencyParser.saveModel(model, "./build/test-data/en/parser/en-parser-pruned-model-1.bin", null);
+		AbstractModel trainedModel = DependencyParser.loadModel("./build/test-data/en/parser/en-parser-pruned-model-1.bin");
+		DependencyParser parser = new DependencyParser(trainedModel, featureGenerator);
+		
+		reader = new CoNLLReader();
+		reader.startReading("./data/en/parser/en-parser-1-test.conll");
+		List<ParseSample> testSamples = DependencyParser.loadSamples(reader);
+		
+		boolean labeled = ((PerceptronModel) trainedModel).isLabeled();
+		DependencyParserEvaluator evaluator = new DependencyParserEvaluator(parser, labeled,
+				"./build/test-data/en/parser/en-parser-pruned-result.txt");
+		evaluator.evaluate(testSamples);
+	}
+	
+	@Test
+	public void testTwoStageEvaluator() throws Exception {
+		CoNLLReader reader = new CoNLLReader();
+		reader.startReading("./data/en/parser/en-parser-1-train.conll");
+		List<ParseSample> trainSamples = DependencyParser.loadSamples(reader);
+		String[] labels = reader.getLabels();
+		
+		Options options = new Options();
+		options.put(Options.ALGORITHM, Options.PERCEPTRON_ALGORITHM);
+		options.put(Options.ITERATIONS, "5");
+		options.put(Options.ARC_LABELER, "true");
+		
+		// the unlabeled tree and the labels of its arcs, compared with the labeled model of testEvaluator()
+		AbstractModel model = DependencyParser.train(trainSamples, labels, featureGenerator, options);
+		DependencyParser.saveModel(model, "./build/test-data/en/parser/en-parser-two-stage-model-1.bin", null);
+		AbstractModel trainedModel = DependencyParser.loadModel("./build/test-data/en/parser/en-parser-two-stage-model-1.bin");
+		DependencyParser parser = new DependencyParser(trainedModel, featureGenerator);
+		
+		reader = new CoNLLReader();
+		reader.startReading("./data/en/parser/en-parser-1-test.conll");
+		List<ParseSample> testSamples = DependencyParser.loadSamples(reader);
+		
+		DependencyParserEvaluator evaluator = new DependencyParserEvaluator(parser, true,
+				"./build/test-data/en/parser/en-parser-two-stage-result.txt");
+		evaluator.evaluate(testSamples);
+	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,371 @@
+package com.yglab.nlp.parser.dep;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.yglab.nlp.model.AbstractModel;
+import com.yglab.nlp.model.Index;
+import com.yglab.nlp.model.Options;
+import com.yglab.nlp.parser.Parse;
+import com.yglab.nlp.parser.ParseSample;
+import com.yglab.nlp.parser.io.CoNLLReader;
+import com.yglab.nlp.perceptron.DeltaPerceptronModel;
+import com.yglab.nlp.perceptron.MutablePerceptronModel;
+import com.yglab.nlp.perceptron.PerceptronDecoder;
+import com.yglab.nlp.perceptron.PerceptronModel;
+import com.yglab.nlp.perceptron.PerceptronObjectiveFunction;
+
+/**
+ * Test case.
+ * The parsers are trained and tested on the small sample data, so the test runs in a few seconds.
+ *
+ * @author Younggue Bae
+ */
+public class DependencyParserSampleTest {
+
+	/* the minimum LAS and label accuracy of the two stage parser on the sample data */
+	private static final double LABELER_LAS = 0.5;
+	private static final double LABELER_LA = 0.7;
+
+	private static DefaultDependencyFeatureGenerator featureGenerator;
+	private static List<ParseSample> trainSamples;
+	private static List<ParseSample> testSamples;
+	private static String[] labels;
+	private static AbstractModel model;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		featureGenerator = new DefaultDependencyFeatureGenerator();
+
+		CoNLLReader reader = new CoNLLReader();
+		reader.startReading("/sample/en/parser/en-parser-train.conll");
+		trainSamples = DependencyParser.loadSamples(reader);
+		labels = reader.getLabels();
+
+		reader = new CoNLLReader();
+		reader.startReading("/sample/en/parser/en-parser-test.conll");
+		testSamples = DependencyParser.loadSamples(reader);
+
+		model = DependencyParser.train(trainSamples, labels, featureGenerator, newOptions());
+	}
+
+	private static Options newOptions() {
+		Options options = new Options();
+		options.put(Options.ALGORITHM, Options.PERCEPTRON_ALGORITHM);
+		options.put(Options.ITERATIONS, "2");
+		return options;
+	}
+
+	@Test
+	public void testParameterMixing() throws Exception {
+		// one shard is the same as the serial training
+		Options options = newOptions();
+		options.put(Options.SHARDS, "1");
+		options.put(Options.MIXING, Options.WEIGHTED_MIXING);
+		AbstractModel oneShardModel = DependencyParser.train(trainSamples, labels, featureGenerator, options);
+		assertSameWeights(model.getLabelIndex(), model.getFeatureIndex(), model.getWeights(),
+				oneShardModel.getLabelIndex(), oneShardModel.getFeatureIndex(), oneShardModel.getWeights());
+
+		// the changes of one shard mixed by 1 are the same as the weights trained serially in every iteration
+		MutablePerceptronModel serialModel = new MutablePerceptronModel(labels, true);
+		PerceptronObjectiveFunction<ParseSample, Parse> serialPerceptron = new PerceptronObjectiveFunction<ParseSample, Parse>(
+				trainSamples, DependencyParser.newDecoder(null, featureGenerator, serialModel, true, null));
+		MutablePerceptronModel mixedModel = new MutablePerceptronModel(labels, true);
+		PerceptronDecoder<ParseSample, Parse> mixedDecoder = DependencyParser.newDecoder(null, featureGenerator, mixedModel, true, null);
+		for (int i = 0; i < 2; i++) {
+			serialPerceptron.calculate();
+
+			DeltaPerceptronModel delta = new DeltaPerceptronModel(mixedModel);
+			new PerceptronObjectiveFunction<ParseSample, Parse>(trainSamples, mixedDecoder.newInstance(delta)).calculate();
+			delta.mixInto(1.0);
+			mixedModel.tick(trainSamples.size());
+
+			assertSameWeights(serialModel.getLabelIndex(), serialModel.getFeatureIndex(), serialModel.to2D(),
+					mixedModel.getLabelIndex(), mixedModel.getFeatureIndex(), mixedModel.to2D());
+		}
+
+		// the shards are mixed in the shard order, so the weights don't depend on the scheduling of the threads
+		options = newOptions();
+		options.put(Options.SHARDS, "2");
+		options.put(Options.MIXING, Options.WEIGHTED_MIXING);
+		AbstractModel mixed1 = DependencyParser.train(trainSamples, labels, featureGenerator, options);
+		AbstractModel mixed2 = DependencyParser.train(trainSamples, labels, featureGenerator, options);
+		assertSameWeights(mixed1.getLabelIndex(), mixed1.getFeatureIndex(), mixed1.getWeights(),
+				mixed2.getLabelIndex(), mixed2.getFeatureIndex(), mixed2.getWeights());
+
+		DependencyParser parser = new DependencyParser(mixed1, featureGenerator);
+		for (ParseSample testSample : testSamples) {
+			List<Parse> bestParse = parser.parse(testSample, 1).get(0);
+			assertEquals(testSample.length() - 1, bestParse.size());
+		}
+	}
+
+	@Test
+	public void testHashedFeatures() throws Exception {
+		HashedDependencyFeatureGenerator hashedFeatureGenerator = new HashedDependencyFeatureGenerator(null, 16);
+		AbstractModel model = DependencyParser.train(trainSamples, labels, hashedFeatureGenerator, newOptions());
+		assertEquals("16", model.getOption(Options.HASH_BITS));
+		assertEquals(0, model.getFeatureIndex().size());
+
+		DependencyParser.saveModel(model, "./build/test-data/en/parser/en-parser-hashed-test-model.bin", null);
+		AbstractModel trainedModel = DependencyParser.loadModel("./build/test-data/en/parser/en-parser-hashed-test-model.bin");
+		assertEquals(1 << 16, trainedModel.getParameters().numFeatures());
+		DependencyParser parser = new DependencyParser(trainedModel, hashedFeatureGenerator);
+
+		for (ParseSample testSample : testSamples) {
+			List<Parse> bestParse = parser.parse(testSample, 1).get(0);
+			assertEquals(testSample.length() - 1, bestParse.size());
+		}
+	}
+
+	@Test
+	public void testChuLiuEdmondsDecoder() throws Exception {
+		Options options = newOptions();
+		options.put(Options.DECODER, Options.CHU_LIU_EDMONDS_DECODER);
+
+		AbstractModel model = DependencyParser.train(trainSamples, labels, featureGenerator, options);
+		DependencyParser parser = new DependencyParser(model, featureGenerator);
+		assertEquals(Options.CHU_LIU_EDMONDS_DECODER, parser.getDecoder());
+
+		// every token reaches ROOT through its heads
+		for (ParseSample testSample : testSamples) {
+			List<Parse> bestParse = parser.parse(testSample, 1).get(0);
+			assertEquals(testSample.length() - 1, bestParse.size());
+			int[] heads = new int[testSample.length()];
+			for (Parse parse : bestParse) {
+				heads[parse.getIndex()] = parse.getHead();
+			}
+			for (int modifier = 1; modifier < heads.length; modifier++) {
+				int node = modifier;
+				for (int steps = 0; node != 0 && steps < heads.length; steps++) {
+					node = heads[node];
+				}
+				assertEquals(0, node);
+			}
+		}
+	}
+
+	@Test
+	public void testArcPruner() throws Exception {
+		Options options = newOptions();
+		options.put(Options.PRUNE_HEADS, "10");
+		options.put(Options.PRUNE_DISTANCE, "10");
+		
+		// the pruner is trained and saved together with the parser model
+		AbstractModel model = DependencyParser.train(trainSamples, labels, featureGenerator, options);
+		assertNotNull(model.getSubModel(DependencyParser.PRUNER_MODEL));
+		DependencyParser.saveModel(model, "./build/test-data/en/parser/en-parser-pruned-test-model.bin", null);
+		AbstractModel trainedModel = DependencyParser.loadModel("./build/test-data/en/parser/en-parser-pruned-test-model.bin");
+		DependencyParser parser = new DependencyParser(trainedModel, featureGenerator);
+		ArcPruner pruner = parser.getArcPruner();
+		assertNotNull(pruner);
+		
+		// the arcs from ROOT are not limited by the distance cap, so the ROOT arcs kept without the cap are also kept with the cap
+		ArcPruner uncappedPruner = new ArcPruner(trainedModel.getSubModel(DependencyParser.PRUNER_MODEL), 10, 0);
+		
+		assertTrue(keptGoldenArcRatio(pruner, uncappedPruner, trainSamples) >= 0.9);
+		double prunedOracleUAS = keptGoldenArcRatio(pruner, uncappedPruner, testSamples);
+		assertTrue("pruned oracle UAS = " + prunedOracleUAS, prunedOracleUAS >= 0.85);
+		
+		DependencyParserEvaluator evaluator = new DependencyParserEvaluator(parser, false);
+		evaluator.evaluate(testSamples);
+		assertEquals(prunedOracleUAS, evaluator.getPrunedOracleUAS(), 1e-9);
+		assertTrue(evaluator.getKeptArcRatio() < 1.0);
+		
+		// the arc from the previous token is always kept, so every token gets a head from the kept arcs
+		for (ParseSample testSample : testSamples) {
+			List<Parse> bestParse = parser.parse(testSample, 1).get(0);
+			assertEquals(testSample.length() - 1, bestParse.size());
+		}
+	}
+	
+	@Test
+	public void testArcLabeler() throws Exception {
+		Options options = newOptions();
+		options.put(Options.ARC_LABELER, "true");
+
+		// the tree is decoded by the unlabeled model, and the arcs of the tree are labeled by the labeler saved with the model
+		AbstractModel model = DependencyParser.train(trainSamples, labels, featureGenerator, options);
+		assertFalse(((PerceptronModel) model).isLabeled());
+		assertNotNull(model.getSubModel(DependencyParser.LABELER_MODEL));
+		DependencyParser.saveModel(model, "./build/test-data/en/parser/en-parser-two-stage-test-model.bin", null);
+		AbstractModel trainedModel = DependencyParser.loadModel("./build/test-data/en/parser/en-parser-two-stage-test-model.bin");
+		DependencyParser parser = new DependencyParser(trainedModel, featureGenerator);
+		assertNotNull(parser.getArcLabeler());
+
+		DependencyParserEvaluator evaluator = new DependencyParserEvaluator(parser, true);
+		evaluator.evaluate(testSamples);
+		assertTrue("LAS = " + evaluator.getLAS(), evaluator.getLAS() >= LABELER_LAS);
+		assertTrue("LA = " + evaluator.getLA(), evaluator.getLA() >= LABELER_LA);
+
+		// the labels are the same as the labels of the labeler which is not saved
+		DependencyParser unsavedParser = new DependencyParser(model, featureGenerator);
+		for (ParseSample testSample : testSamples) {
+			List<Parse> bestParse = parser.parse(testSample, 1).get(0);
+			List<Parse> unsavedParse = unsavedParser.parse(testSample, 1).get(0);
+			assertEquals(testSample.length() - 1, bestParse.size());
+			assertEquals(unsavedParse.size(), bestParse.size());
+			for (int i = 0; i < bestParse.size(); i++) {
+				assertEquals(unsavedParse.get(i).getHead(), bestParse.get(i).getHead());
+				assertEquals(unsavedParse.get(i).getLabel(), bestParse.get(i).getLabel());
+			}
+		}
+	}
+
+	@Test
+	public void testArcEagerParser() throws Exception {
+		ArcEagerFeatureGenerator transitionFeatureGenerator = new ArcEagerFeatureGenerator();
+		Options options = newOptions();
+		options.put(Options.ITERATIONS, "5");
+		AbstractModel greedyModel = ArcEagerDependencyParser.train(trainSamples, labels, transitionFeatureGenerator, options);
+		options.put(Options.BEAM_SIZE, "4");
+		AbstractModel beamModel = ArcEagerDependencyParser.train(trainSamples, labels, transitionFeatureGenerator, options);
+
+		// the parser searches with the beam size of the training
+		ArcEagerDependencyParser greedyParser = new ArcEagerDependencyParser(greedyModel, transitionFeatureGenerator);
+		assertEquals(1, greedyParser.getBeamSize());
+		ArcEagerDependencyParser beamParser = new ArcEagerDependencyParser(beamModel, transitionFeatureGenerator);
+		assertEquals(4, beamParser.getBeamSize());
+
+		DependencyParserEvaluator greedyEvaluator = new DependencyParserEvaluator(greedyParser, true);
+		greedyEvaluator.evaluate(testSamples);
+		assertTrue("greedy UAS = " + greedyEvaluator.getUAS(), greedyEvaluator.getUAS() >= 0.55);
+
+		// the model trained by the beam is better with the beam search than with the greedy search
+		DependencyParserEvaluator beamEvaluator = new DependencyParserEvaluator(beamParser, true);
+		beamEvaluator.evaluate(testSamples);
+		beamParser.setBeamSize(1);
+		DependencyParserEvaluator beamGreedyEvaluator = new DependencyParserEvaluator(beamParser, true);
+		beamGreedyEvaluator.evaluate(testSamples);
+		assertTrue("beam UAS = " + beamEvaluator.getUAS() + ", greedy UAS = " + beamGreedyEvaluator.getUAS(),
+				beamEvaluator.getUAS() > beamGreedyEvaluator.getUAS());
+
+		// every derivation has 2(n-1) transitions, and the early update stops at the first step which loses the golden transitions
+		ArcEagerDecoder decoder = new ArcEagerDecoder(transitionFeatureGenerator, (PerceptronModel) beamModel, 4);
+		for (ParseSample testSample : testSamples) {
+			int numTransitions = 2 * (testSample.length() - 1);
+			assertEquals(numTransitions, decoder.getGoldenStructures(testSample).size());
+			assertEquals(numTransitions, new ArcEagerDecoder(transitionFeatureGenerator, (PerceptronModel) beamModel).decode(testSample).size());
+
+			List<Transition> transitions = decoder.decode(testSample);
+			assertTrue(transitions.size() <= numTransitions);
+			int divergence = 0;
+			while (divergence < transitions.size() && transitions.get(divergence).isGold()) {
+				divergence++;
+			}
+			for (int i = divergence; i < transitions.size(); i++) {
+				assertTrue(!transitions.get(i).isGold());
+			}
+			if (divergence == transitions.size()) {
+				assertEquals(numTransitions, transitions.size());
+			}
+
+			beamParser.setBeamSize(4);
+			List<List<Parse>> kBestParses = beamParser.parse(testSample, 4);
+			assertEquals(4, kBestParses.size());
+			for (List<Parse> parses : kBestParses) {
+				assertEquals(testSample.length() - 1, parses.size());
+			}
+		}
+	}
+
+	@Test
+	public void testParseAll() throws Exception {
+		DependencyParser parser = new DependencyParser(model, featureGenerator);
+
+		CoNLLReader reader = new CoNLLReader();
+		reader.startReading("/sample/en/parser/en-parser-test.conll");
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			// the parallel parses are in the order of the streamed samples
+			int i = 0;
+			for (List<Parse> bestParse : parser.parseAll(DependencyParser.readSamples(reader), executor, 3)) {
+				List<Parse> expectedParse = parser.parse(testSamples.get(i++), 1).get(0);
+				Collections.sort(expectedParse);
+				assertEquals(expectedParse.size(), bestParse.size());
+				for (int j = 0; j < bestParse.size(); j++) {
+					assertEquals(expectedParse.get(j).getIndex(), bestParse.get(j).getIndex());
+					assertEquals(expectedParse.get(j).getHead(), bestParse.get(j).getHead());
+					assertEquals(expectedParse.get(j).getLabel(), bestParse.get(j).getLabel());
+				}
+			}
+			assertEquals(testSamples.size(), i);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testBestParseChart() throws Exception {
+		DependencyParser parser = new DependencyParser(model, featureGenerator);
+
+		// the 1-best chart finds the same parse as the best parse of the K-best forest
+		for (ParseSample testSample : testSamples) {
+			List<Parse> bestParse = parser.parse(testSample, 1).get(0);
+			List<Parse> forestParse = parser.parse(testSample, 2).get(0);
+			assertEquals(forestParse.size(), bestParse.size());
+			for (int i = 0; i < bestParse.size(); i++) {
+				assertEquals(forestParse.get(i).getIndex(), bestParse.get(i).getIndex());
+				assertEquals(forestParse.get(i).getHead(), bestParse.get(i).getHead());
+				assertEquals(forestParse.get(i).getLabel(), bestParse.get(i).getLabel());
+			}
+		}
+	}
+
+	/**
+	 * Returns the ratio of the golden arcs kept by the pruner, checking that the pruner keeps the ROOT arcs
+	 * which are kept by the pruner without the distance cap.
+	 */
+	private static double keptGoldenArcRatio(ArcPruner pruner, ArcPruner uncappedPruner, List<ParseSample> samples) {
+		int gold = 0;
+		int kept = 0;
+		for (ParseSample sample : samples) {
+			int length = sample.length();
+			boolean[] arcs = pruner.prune(sample);
+			boolean[] uncappedArcs = uncappedPruner.prune(sample);
+			for (int modifier = 1; modifier < length; modifier++) {
+				gold++;
+				if (arcs[sample.heads[modifier] * length + modifier]) {
+					kept++;
+				}
+				if (uncappedArcs[modifier]) {
+					assertTrue("ROOT arc of " + modifier + " is pruned", arcs[modifier]);
+				}
+			}
+		}
+		return (double) kept / gold;
+	}
+	
+	/**
+	 * Checks that the weights are the same for the same labels and features, whose ids may differ between the models.
+	 */
+	private static void assertSameWeights(Index expectedLabelIndex, Index expectedFeatureIndex, double[][] expected,
+			Index labelIndex, Index featureIndex, double[][] actual) {
+		assertEquals(expectedLabelIndex.size(), labelIndex.size());
+		assertEquals(expectedFeatureIndex.size(), featureIndex.size());
+		assertTrue(expectedFeatureIndex.size() > 0);
+
+		for (int label = 0; label < expectedLabelIndex.size(); label++) {
+			int l = labelIndex.indexOf(expectedLabelIndex.get(label));
+			assertTrue(l != Index.UNKNOWN);
+			for (int feature = 0; feature < expectedFeatureIndex.size(); feature++) {
+				int f = featureIndex.indexOf(expectedFeatureIndex.get(feature));
+				assertTrue(f != Index.UNKNOWN);
+				assertEquals(expectedLabelIndex.get(label) + " " + expectedFeatureIndex.get(feature),
+						expected[label][feature], actual[l][f], 1e-9);
+			}
+		}
+	}
+
+}
@@ -11,6 +11,8 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({ 
 	DependencyParserTest.class, 
+	DependencyParserSampleTest.class, 
+	MaximumSpanningTreeTest.class, 
 	DependencyParserEvaluatorTest.class 
 })
 public class DependencyParserTestSuite {
@@ -0,0 +1,195 @@
+package com.yglab.nlp.parser.dep;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test case.
+ * The maximum spanning tree is compared with the best tree found by the exhaustive enumeration of the heads
+ * on the small random graphs.
+ *
+ * @author Younggue Bae
+ */
+public class MaximumSpanningTreeTest {
+
+	private static final double TOLERANCE = 1e-9;
+
+	@Test
+	public void testRandomGraphs() throws Exception {
+		Random random = new Random(37);
+		for (int length = 2; length <= 7; length++) {
+			for (int trial = 0; trial < 50; trial++) {
+				double[] scores = new double[length * length];
+				for (int arc = 0; arc < scores.length; arc++) {
+					scores[arc] = random.nextGaussian();
+				}
+				assertBestTree(length, scores);
+			}
+		}
+	}
+
+	@Test
+	public void testCycles() throws Exception {
+		Random random = new Random(41);
+		int cycles = 0;
+		for (int length = 3; length <= 7; length++) {
+			for (int trial = 0; trial < 50; trial++) {
+				// the arcs between the neighbors are much better than the arcs from ROOT,
+				// so the best incoming arcs form the cycles which are contracted, and sometimes the cycles of the cycles
+				double[] scores = new double[length * length];
+				for (int head = 0; head < length; head++) {
+					for (int modifier = 1; modifier < length; modifier++) {
+						double score = random.nextDouble();
+						if (head > 0 && Math.abs(head - modifier) <= 2) {
+							score += 5.0;
+						}
+						scores[head * length + modifier] = score;
+					}
+				}
+				if (hasCycle(length, scores)) {
+					cycles++;
+				}
+				assertBestTree(length, scores);
+			}
+		}
+		assertTrue(cycles > 200);
+	}
+
+	@Test
+	public void testNestedCycle() throws Exception {
+		// 1 <-> 2 and 3 <-> 4 are contracted first, and then the two cycles form a cycle
+		int length = 5;
+		double[] scores = new double[length * length];
+		for (int arc = 0; arc < scores.length; arc++) {
+			scores[arc] = -10.0;
+		}
+		setScore(scores, length, 1, 2, 10.0);
+		setScore(scores, length, 2, 1, 10.0);
+		setScore(scores, length, 3, 4, 10.0);
+		setScore(scores, length, 4, 3, 10.0);
+		setScore(scores, length, 2, 3, 5.0);
+		setScore(scores, length, 4, 1, 5.0);
+		setScore(scores, length, 0, 4, 1.0);
+		assertTrue(hasCycle(length, scores));
+
+		MaximumSpanningTree tree = assertBestTree(length, scores);
+		int[] heads = tree.getHeads();
+		assertEquals(0, heads[4]);
+		assertEquals(4, heads[3]);
+		assertEquals(4, heads[1]);
+		assertEquals(1, heads[2]);
+		assertEquals(26.0, tree.getScore(), TOLERANCE);
+	}
+
+	@Test
+	public void testPrunedArcs() throws Exception {
+		Random random = new Random(43);
+		for (int length = 2; length <= 7; length++) {
+			for (int trial = 0; trial < 50; trial++) {
+				// the arc from the previous token is always kept as the pruner does, so a tree always exists
+				double[] scores = new double[length * length];
+				for (int head = 0; head < length; head++) {
+					for (int modifier = 1; modifier < length; modifier++) {
+						boolean kept = head == modifier - 1 || random.nextInt(3) > 0;
+						scores[head * length + modifier] = kept ? random.nextGaussian() : Double.NEGATIVE_INFINITY;
+					}
+				}
+				MaximumSpanningTree tree = assertBestTree(length, scores);
+				int[] heads = tree.getHeads();
+				for (int modifier = 1; modifier < length; modifier++) {
+					assertTrue(scores[heads[modifier] * length + modifier] != Double.NEGATIVE_INFINITY);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks that the maximum spanning tree is a tree rooted at ROOT, and its score is the best score of all the trees.
+	 */
+	private static MaximumSpanningTree assertBestTree(int length, double[] scores) {
+		MaximumSpanningTree tree = new MaximumSpanningTree(length, scores);
+		int[] heads = tree.getHeads();
+		assertEquals(length, heads.length);
+		assertEquals(-1, heads[0]);
+		assertTrue(isTree(heads));
+
+		double score = 0.0;
+		for (int modifier = 1; modifier < length; modifier++) {
+			score += scores[heads[modifier] * length + modifier];
+		}
+		assertEquals(score, tree.getScore(), TOLERANCE);
+		assertEquals(bestTreeScore(length, scores), tree.getScore(), TOLERANCE);
+		return tree;
+	}
+
+	/**
+	 * Enumerates all the heads of the nodes, and returns the best score of the heads which form a tree.
+	 */
+	private static double bestTreeScore(int length, double[] scores) {
+		int[] heads = new int[length];
+		heads[0] = -1;
+		double best = Double.NEGATIVE_INFINITY;
+		while (true) {
+			if (isTree(heads)) {
+				double score = 0.0;
+				for (int modifier = 1; modifier < length; modifier++) {
+					score += scores[heads[modifier] * length + modifier];
+				}
+				best = Math.max(best, score);
+			}
+
+			int modifier = 1;
+			while (modifier < length && heads[modifier] == length - 1) {
+				heads[modifier++] = 0;
+			}
+			if (modifier == length) {
+				break;
+			}
+			heads[modifier]++;
+		}
+		return best;
+	}
+
+	private static boolean isTree(int[] heads) {
+		for (int modifier = 1; modifier < heads.length; modifier++) {
+			int node = modifier;
+			for (int steps = 0; node != 0 && steps < heads.length; steps++) {
+				node = heads[node];
+				if (node < 0 || node == modifier) {
+					return false;
+				}
+			}
+			if (node != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true if the best incoming arcs of the nodes have a cycle, which has to be contracted.
+	 */
+	private static boolean hasCycle(int length, double[] scores) {
+		int[] heads = new int[length];
+		heads[0] = -1;
+		for (int modifier = 1; modifier < length; modifier++) {
+			int best = -1;
+			for (int head = 0; head < length; head++) {
+				if (head != modifier && (best < 0 || scores[head * length + modifier] > scores[best * length + modifier])) {
+					best = head;
+				}
+			}
+			heads[modifier] = best;
+		}
+		return !isTree(heads);
+	}
+
+	private static void setScore(double[] scores, int length, int head, int modifier, double score) {
+		scores[head * length + modifier] = score;
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.yglab.nlp.perceptron;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test case.
+ * The lazily averaged weights are compared with the average of the snapshots of the weights at every time step.
+ *
+ * @author Younggue Bae
+ */
+public class MutablePerceptronModelTest {
+
+	private static final String[] LABELS = { "A", "B", "C", "D" };
+	private static final int NUM_FEATURES = 40;
+
+	@Test
+	public void testAveraged2D() throws Exception {
+		Random random = new Random(29);
+		MutablePerceptronModel model = new MutablePerceptronModel(LABELS, true, NUM_FEATURES);
+		double[][] sums = new double[LABELS.length][NUM_FEATURES];
+		int steps = 0;
+
+		for (int instance = 0; instance < 500; instance++) {
+			// some instances update nothing, and some update the same weight more than once
+			int numUpdates = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(6);
+			for (int n = 0; n < numUpdates; n++) {
+				model.addWeight(random.nextInt(LABELS.length), random.nextInt(NUM_FEATURES), random.nextGaussian());
+			}
+
+			addSnapshot(model, sums);
+			model.tick();
+			steps++;
+
+			if (instance % 100 == 99) {
+				assertAverages(sums, steps, model);
+			}
+		}
+		assertEquals(steps, model.getTime());
+		assertAverages(sums, steps, model);
+	}
+
+	@Test
+	public void testAveraged2DWithBatchTicks() throws Exception {
+		Random random = new Random(31);
+		MutablePerceptronModel model = new MutablePerceptronModel(LABELS, true, NUM_FEATURES);
+		double[][] sums = new double[LABELS.length][NUM_FEATURES];
+		int steps = 0;
+
+		for (int batch = 0; batch < 100; batch++) {
+			for (int n = 0; n < 5; n++) {
+				model.addWeight(random.nextInt(LABELS.length), random.nextInt(NUM_FEATURES), random.nextGaussian());
+			}
+
+			// the weights are unchanged over the instances of the batch
+			int batchSize = 1 + random.nextInt(8);
+			for (int i = 0; i < batchSize; i++) {
+				addSnapshot(model, sums);
+			}
+			model.tick(batchSize);
+			steps += batchSize;
+		}
+		assertEquals(steps, model.getTime());
+		assertAverages(sums, steps, model);
+	}
+
+	@Test
+	public void testAveraged2DBeforeTick() throws Exception {
+		MutablePerceptronModel model = new MutablePerceptronModel(LABELS, true, NUM_FEATURES);
+		model.addWeight(1, 2, 3.0);
+
+		// no time step has passed, so the average is the current weight
+		assertEquals(3.0, model.toAveraged2D()[1][2], 0.0);
+		assertEquals(0.0, model.toAveraged2D()[0][2], 0.0);
+	}
+
+	private static void addSnapshot(MutablePerceptronModel model, double[][] sums) {
+		double[][] weights = model.to2D();
+		for (int label = 0; label < sums.length; label++) {
+			for (int feature = 0; feature < sums[label].length; feature++) {
+				sums[label][feature] += weights[label][feature];
+			}
+		}
+	}
+
+	private static void assertAverages(double[][] sums, int steps, MutablePerceptronModel model) {
+		double[][] averages = model.toAveraged2D();
+		assertEquals(sums.length, averages.length);
+		for (int label = 0; label < sums.length; label++) {
+			for (int feature = 0; feature < sums[label].length; feature++) {
+				assertEquals("[" + label + "][" + feature + "]", sums[label][feature] / steps, averages[label][feature], 1e-9);
+			}
+		}
+	}
+
+}
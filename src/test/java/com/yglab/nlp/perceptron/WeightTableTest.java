@@ -0,0 +1,142 @@
+package com.yglab.nlp.perceptron;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.yglab.nlp.model.Index;
+
+/**
+ * Test case.
+ * The weight table is compared with the hash map of the same weights.
+ *
+ * @author Younggue Bae
+ */
+public class WeightTableTest {
+
+	@Test
+	public void testGrowth() throws Exception {
+		Random random = new Random(19);
+		WeightTable table = new WeightTable();
+		int initialCapacity = table.capacity();
+		Map<Long, Double> expected = new HashMap<Long, Double>();
+
+		for (int n = 0; n < 20000; n++) {
+			int label = random.nextInt(50);
+			// the large feature ids of the hashed features and the collisions of the low bits
+			int feature = random.nextBoolean() ? random.nextInt(500) : Integer.MAX_VALUE - random.nextInt(500);
+			double delta = random.nextGaussian();
+
+			table.add(label, feature, delta);
+			Long key = ((long) label << 32) | feature;
+			Double value = expected.get(key);
+			expected.put(key, value != null ? value + delta : delta);
+
+			if (n % 5000 == 0) {
+				assertTable(expected, table);
+			}
+		}
+
+		assertTrue(table.capacity() > initialCapacity);
+		assertTable(expected, table);
+	}
+
+	@Test
+	public void testExpectedSize() throws Exception {
+		WeightTable table = new WeightTable(10000);
+		int capacity = table.capacity();
+		assertTrue(capacity * 3 / 4 >= 10000);
+
+		for (int feature = 0; feature < 10000; feature++) {
+			table.add(0, feature, feature);
+		}
+		assertEquals(capacity, table.capacity());
+		assertEquals(10000, table.size());
+		for (int feature = 0; feature < 10000; feature++) {
+			assertEquals(feature, table.get(0, feature), 0.0);
+		}
+	}
+
+	@Test
+	public void testNegativeIds() throws Exception {
+		WeightTable table = new WeightTable();
+		table.add(0, 0, 1.0);
+		table.add(1, Integer.MAX_VALUE, 2.0);
+
+		// the unknown ids have no weight, and never match with the stored keys
+		assertEquals(0.0, table.get(Index.UNKNOWN, 0), 0.0);
+		assertEquals(0.0, table.get(0, Index.UNKNOWN), 0.0);
+		assertEquals(0.0, table.get(1, Integer.MIN_VALUE), 0.0);
+		assertEquals(0.0, table.get(-1, -1), 0.0);
+
+		try {
+			table.add(0, Index.UNKNOWN, 1.0);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+		}
+		try {
+			table.add(Index.UNKNOWN, 0, 1.0);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+		}
+		assertEquals(2, table.size());
+		assertEquals(2.0, table.get(1, Integer.MAX_VALUE), 0.0);
+	}
+
+	@Test
+	public void testTo2D() throws Exception {
+		Random random = new Random(23);
+		String[] labels = { "A", "B", "C" };
+		int numFeatures = 3000;
+		MutablePerceptronModel model = new MutablePerceptronModel(labels, true, numFeatures);
+		double[][] expected = new double[labels.length][numFeatures];
+
+		for (int n = 0; n < 10000; n++) {
+			int label = random.nextInt(labels.length);
+			int feature = random.nextInt(numFeatures);
+			double delta = random.nextGaussian();
+			model.addWeight(label, feature, delta);
+			expected[label][feature] += delta;
+		}
+
+		double[][] x2D = model.to2D();
+		double[] x1D = model.to1D();
+		assertEquals(labels.length, x2D.length);
+		for (int label = 0; label < labels.length; label++) {
+			assertEquals(numFeatures, x2D[label].length);
+			for (int feature = 0; feature < numFeatures; feature++) {
+				assertEquals(expected[label][feature], x2D[label][feature], 1e-12);
+				assertEquals(expected[label][feature], x1D[label * numFeatures + feature], 1e-12);
+				assertEquals(expected[label][feature], model.getWeight(label, feature), 1e-12);
+			}
+		}
+	}
+
+	private static void assertTable(Map<Long, Double> expected, WeightTable table) {
+		assertEquals(expected.size(), table.size());
+		for (Map.Entry<Long, Double> entry : expected.entrySet()) {
+			int label = (int) (entry.getKey() >>> 32);
+			int feature = (int) (long) entry.getKey();
+			assertEquals(entry.getValue(), table.get(label, feature), 1e-12);
+		}
+
+		int occupied = 0;
+		for (int slot = 0; slot < table.capacity(); slot++) {
+			if (table.isOccupied(slot)) {
+				occupied++;
+				Long key = ((long) table.labelAt(slot) << 32) | table.featureAt(slot);
+				assertEquals(expected.get(key), table.valueAt(slot), 1e-12);
+			}
+		}
+		assertEquals(expected.size(), occupied);
+	}
+
+}
@@ -1,10 +1,21 @@
 package com.yglab.nlp.postag;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.yglab.nlp.maxent.Sequence;
 import com.yglab.nlp.model.AbstractModel;
 import com.yglab.nlp.model.Options;
 
@@ -58,6 +69,67 @@ public class POSTaggerTest {
 		}
 	}
 	
+	@Test
+	public void testKBestTagger() throws Exception {
+		String[] tokens = {
+				"anxiety",
+				"is",
+				"rising",
+				"."
+		};
+		
+		AbstractModel trainModel = POSTagger.loadModel("./build/test-data/en/pos/en-pos-default-model.bin");
+		POSTagger tagger = new POSTagger(trainModel, featureGenerator);
+		
+		List<Sequence> sequences = tagger.tag(tokens, 5);
+		for (Sequence sequence : sequences) {
+			System.out.println(sequence);
+		}
+		
+		assertTrue(sequences.size() == 5);
+		assertArrayEquals(tagger.tag(tokens), sequences.get(0).getLabels());
+		for (int i = 1; i < sequences.size(); i++) {
+			assertTrue(sequences.get(i - 1).getScore() >= sequences.get(i).getScore());
+		}
+	}
+	
+	@Test
+	public void testConcurrentTagger() throws Exception {
+		AbstractModel trainModel = POSTagger.loadModel("./build/test-data/en/pos/en-pos-default-model.bin");
+		final POSTagger tagger = new POSTagger(trainModel, featureGenerator);
+		
+		final List<POSSample> testSamples = POSTagger.loadSamples("/sample/en/pos/en-pos-test.txt", "[^\\+/\\(\\)]*/", "");
+		final List<String[]> expected = new ArrayList<String[]>();
+		for (POSSample sample : testSamples) {
+			expected.add(tagger.tag(sample.getSentence()));
+		}
+		
+		/* one tagger is shared by the threads, so the results should be same as the serial ones */
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		for (int task = 0; task < 8; task++) {
+			futures.add(executor.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					int mismatches = 0;
+					for (int repeat = 0; repeat < 5; repeat++) {
+						for (int i = 0; i < testSamples.size(); i++) {
+							if (!Arrays.equals(expected.get(i), tagger.tag(testSamples.get(i).getSentence()))) {
+								mismatches++;
+							}
+						}
+					}
+					return mismatches;
+				}
+			}));
+		}
+		executor.shutdown();
+		
+		for (Future<Integer> future : futures) {
+			assertEquals(0, future.get().intValue());
+		}
+	}
+	
 	@Test
 	public void testEvaluator() throws Exception {
 		AbstractModel trainModel = POSTagger.loadModel("./build/test-data/en/pos/en-pos-default-model.bin");
@@ -69,4 +141,30 @@ public class POSTaggerTest {
 		
 		evaluator.evaluate(testSamples);
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void testCutoffAndPruning() throws Exception {
+		List<POSSample> trainSamples = POSTagger.loadSamples("/sample/en/pos/en-pos-train.txt", "[^\\+/\\(\\)]*/", "");
+		
+		Options options = new Options();
+		options.put(Options.ALGORITHM, Options.MAXENT_ALGORITHM);
+		options.put(Options.CUTOFF, "2");
+		options.put(Options.PRUNE_THRESHOLD, "0.05");
+		AbstractModel model = POSTagger.train(trainSamples, featureGenerator, options);
+		
+		POSTagger.saveModel(model, "./build/test-data/en/pos/en-pos-pruned-model.bin", null);
+		
+		AbstractModel defaultModel = POSTagger.loadModel("./build/test-data/en/pos/en-pos-default-model.bin");
+		AbstractModel prunedModel = POSTagger.loadModel("./build/test-data/en/pos/en-pos-pruned-model.bin");
+		assertTrue(prunedModel.getFeatureIndex().size() < defaultModel.getFeatureIndex().size());
+		
+		List<POSSample> testSamples = POSTagger.loadSamples("/sample/en/pos/en-pos-test.txt", "[^\\+/\\(\\)]*/", "");
+		POSTaggerEvaluator defaultEvaluator = new POSTaggerEvaluator(
+				new POSTagger(defaultModel, featureGenerator), "./build/test-data/en/pos/en-pos-cutoff-result.txt", false);
+		defaultEvaluator.evaluate(testSamples);
+		POSTaggerEvaluator prunedEvaluator = new POSTaggerEvaluator(
+				new POSTagger(prunedModel, featureGenerator), "./build/test-data/en/pos/en-pos-cutoff-result.txt", true);
+		prunedEvaluator.evaluate(testSamples);
+	}
+	
+}
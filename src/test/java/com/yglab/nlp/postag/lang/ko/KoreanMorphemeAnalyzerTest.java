@@ -1,10 +1,21 @@
 package com.yglab.nlp.postag.lang.ko;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.yglab.nlp.postag.POSSample;
 import com.yglab.nlp.postag.morph.Token;
 
 /**
@@ -14,11 +25,13 @@ import com.yglab.nlp.postag.morph.Token;
  */
 public class KoreanMorphemeAnalyzerTest {
 	
+	private static KoreanMorphemeDictionary dic;
+	private static String[] labels;
 	private static KoreanMorphemeAnalyzer analyzer;
 	
 	@BeforeClass
 	public static void setUpBeforeClass() throws Exception {
-		KoreanMorphemeDictionary dic = new KoreanMorphemeDictionary(
+		dic = new KoreanMorphemeDictionary(
 				"/lang/ko/ko-pos-josa.dic",
 				"/lang/ko/ko-pos-eomi.dic", 
 				"/lang/ko/ko-pos-bojo.dic",
@@ -26,7 +39,7 @@ public class KoreanMorphemeAnalyzerTest {
 				"/lang/ko/ko-pos-word.dic",
 				"/lang/ko/ko-pos-suffix.dic");
 
-		String[] labels = KoreanPOSTagger.getLabels("/sample/ko/pos/ko-pos-train-sejong-BGAA0164.txt", "[^\\+/\\(\\)]*/", "");
+		labels = KoreanPOSTagger.getLabels("/sample/ko/pos/ko-pos-train-sejong-BGAA0164.txt", "[^\\+/\\(\\)]*/", "");
 		System.out.println("--------------------------");
 		System.out.println("valid labels: " + labels.length);
 		System.out.println("--------------------------");
@@ -69,16 +82,170 @@ public class KoreanMorphemeAnalyzerTest {
 				"못하겠습니까"
 		};
 		
-		analyzer.generateCandidates(tokens); 
-		List<List<Token>> candidates = analyzer.getCurrentCandidates();
+		KoreanMorphemeAnalysis analysis = analyzer.generateCandidates(tokens); 
+		List<List<Token>> candidates = analysis.getCandidates();
 		
 		for (int position = 0; position < candidates.size(); position++) {
 			List<Token> tokenCandidates = candidates.get(position);
 			System.out.print(position + ": " + tokens[position] + " (" + tokenCandidates.size() + " candidates)");
-			System.out.println(" -> tail: " + analyzer.getCurrentTailCandidates(position));
+			System.out.println(" -> tail: " + analysis.getTailCandidates(position));
 			for (Token token : tokenCandidates) {
 				System.out.println("  " + token.getTag() + "\t" + token.isAnalyzed() + "\t" + token.isValidated());
 			}
 		}
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void testCandidates() throws Exception {
+		/* the head revived by dropping the morpheme which fails the primary condition */
+		assertCandidates("것이라고", new String[] {
+				"VA+고/EC 것이라",
+				"VCN+고/EC 것이라",
+				"VCP+고/EC 것이라",
+				"VV+고/EC 것이라",
+				"VX+고/EC 것이라",
+				"XSV+고/EC 것이라",
+				"것/NNB+이/JKC+라/EF+고/JKQ",
+				"것/NNB+이/JKS+라/EF+고/JKQ",
+				"것/NNB+이/VCP+라/EF+고/JKQ",
+				"것/NNB+이라고/JKQ",
+				"고/EC 것이라",
+				"고/JKQ 것이라",
+				"이라고/JKQ 것"
+		});
+		/* the suffix which covers the whole eojeol */
+		assertCandidates("1백명쯤", new String[] {
+				"1백명쯤/NNG"
+		});
+		/* the suffix and the morphemes of the partial analyses */
+		assertCandidates("2시간여", new String[] {
+				"2시간여/NNG",
+				"NNB+여/XSN 2시간",
+				"NP+여/XSN 2시간",
+				"VA+어/EC 2시간",
+				"VCN+어/EC 2시간",
+				"VCP+어/EC 2시간",
+				"VV+어/EC 2시간",
+				"VX+어/EC 2시간",
+				"XSV+어/EC 2시간",
+				"어/EC 2시간"
+		});
+		/* the independent word of the whole eojeol */
+		assertCandidates("그러나", new String[] {
+				"NNB+나/JC 그러",
+				"NNG+나/JC 그러",
+				"NNP+나/JC 그러",
+				"그러나/MAJ",
+				"나/JC 그러"
+		});
+		/* the independent word among the analyzed morphemes */
+		assertCandidates("이", new String[] {
+				"이/JKC",
+				"이/JKS",
+				"이/MM",
+				"이/NP",
+				"이/VCP"
+		});
+		/* the partial analyses by the secondary condition */
+		assertCandidates("가동되려면", new String[] {
+				"MAG+되/XSV+려면/EC 가동",
+				"NNG+되/XSV+려면/EC 가동",
+				"VA+려면/EC 가동되",
+				"VA+어/EC+면/EC 가동되",
+				"VCN+려면/EC 가동되",
+				"VCP+려면/EC 가동되",
+				"VV+려면/EC 가동되",
+				"VX+려면/EC 가동되",
+				"XR+되/XSV+려면/EC 가동",
+				"XSV+려면/EC 가동되",
+				"가동되려면/NNG",
+				"가동되려면/NNP",
+				"되/XSV+려면/EC 가동",
+				"려면/EC 가동되"
+		});
+	}
+	
+	@Test
+	public void testCache() throws Exception {
+		String[] tokens = { "했다", "것이", "했다", "있습니다", "것이", "했다" };
+		
+		KoreanMorphemeAnalysis analysis = analyzer.generateCandidates(tokens);
+		long hits = analyzer.getCache().getHitCount();
+		KoreanMorphemeAnalysis analysis2 = analyzer.generateCandidates(tokens);
+		System.out.println("cache: " + analyzer.getCache());
+		
+		/* the repeated eojeols share the cached candidates */
+		assertSame(analysis.getCandidates(0).get(0), analysis.getCandidates(2).get(0));
+		assertSame(analysis.getCandidates(0).get(0), analysis2.getCandidates(5).get(0));
+		assertEquals(analysis.getTailCandidates(1), analysis2.getTailCandidates(4));
+		assertEquals(hits + tokens.length, analyzer.getCache().getHitCount());
+	}
+	
+	@Test
+	public void testConcurrentAnalysis() throws Exception {
+		final List<POSSample> samples = KoreanPOSTagger.loadSamples("/sample/ko/pos/ko-pos-test-sejong-BGAA0164.txt", "[^\\+/\\(\\)]*/", "");
+		
+		KoreanMorphemeAnalyzer serialAnalyzer = new KoreanMorphemeAnalyzer(dic, labels, 0);
+		final List<String> expected = new ArrayList<String>();
+		for (POSSample sample : samples) {
+			expected.add(describe(serialAnalyzer.generateCandidates(sample.getSentence())));
+		}
+		
+		/* one analyzer with the small cache which evicts the entries is shared by the threads */
+		final KoreanMorphemeAnalyzer sharedAnalyzer = new KoreanMorphemeAnalyzer(dic, labels, 64);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		for (int task = 0; task < 8; task++) {
+			final int offset = task * 7;
+			futures.add(executor.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					int mismatches = 0;
+					for (int n = 0; n < samples.size(); n++) {
+						int i = (offset + n) % samples.size();
+						if (!expected.get(i).equals(describe(sharedAnalyzer.generateCandidates(samples.get(i).getSentence())))) {
+							mismatches++;
+						}
+					}
+					return mismatches;
+				}
+			}));
+		}
+		executor.shutdown();
+		
+		for (Future<Integer> future : futures) {
+			assertEquals(0, future.get().intValue());
+		}
+		System.out.println("cache: " + sharedAnalyzer.getCache());
+	}
+	
+	/**
+	 * Checks the tags of the candidates in the sorted order, which are followed by the heads if the heads are not analyzed.
+	 */
+	private static void assertCandidates(String eojeol, String[] expected) {
+		List<Token> candidates = analyzer.generateCandidates(new String[] { eojeol }).getCandidates(0);
+		List<String> actual = new ArrayList<String>();
+		for (Token candidate : candidates) {
+			if (candidate.isAnalyzed()) {
+				assertEquals("", candidate.getHead());
+				actual.add(candidate.getTag());
+			}
+			else {
+				actual.add(candidate.getTag() + " " + candidate.getHead());
+			}
+		}
+		Collections.sort(actual);
+		assertEquals(eojeol, Arrays.asList(expected), actual);
+	}
+	
+	private static String describe(KoreanMorphemeAnalysis analysis) {
+		StringBuilder sb = new StringBuilder();
+		for (int position = 0; position < analysis.size(); position++) {
+			for (Token token : analysis.getCandidates(position)) {
+				sb.append(token.getToken()).append("[").append(token.getTag()).append("] ");
+			}
+			sb.append(analysis.getTailCandidates(position)).append("\n");
+		}
+		return sb.toString();
+	}
+}
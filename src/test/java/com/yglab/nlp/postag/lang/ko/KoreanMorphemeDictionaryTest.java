@@ -1,5 +1,9 @@
 package com.yglab.nlp.postag.lang.ko;
 
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -35,6 +39,10 @@ public class KoreanMorphemeDictionaryTest {
 		
 		System.out.println("all suffixes = " + dic.findSuffixes(token));
 		
+		/* the entries are shared by the lookups without copying */
+		List<List<MorphemeEntry>> suffixes = dic.findSuffixes(token);
+		assertSame(suffixes.get(0).get(0), dic.findSuffixes("알" + token).get(0).get(0));
+		
 		/*
 		dic = new KoreanMorphemeDictionary(1,
 				"/lang/ko/ko-pos-eomi.dic", 
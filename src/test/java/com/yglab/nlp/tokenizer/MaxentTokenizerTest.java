@@ -1,11 +1,19 @@
 package com.yglab.nlp.tokenizer;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.yglab.nlp.model.AbstractModel;
+import com.yglab.nlp.model.CompiledEvents;
 import com.yglab.nlp.model.Datum;
 import com.yglab.nlp.model.Options;
 import com.yglab.nlp.model.Span;
@@ -65,6 +73,42 @@ public class MaxentTokenizerTest {
 		}
 	}
 	
+	@Test
+	public void testCompiledEvents() throws Exception {
+		List<TokenSample> trainSamples = MaxentTokenizer.loadSamples("/sample/en/tokenizer/en-tokenizer-train.txt");
+		
+		TokenSampleEventStream stream = new TokenSampleEventStream(featureGenerator, trainSamples, MaxentTokenizer.skipPattern);
+		List<Datum> trainData = stream.getOutputStream();
+		
+		File spillFile = new File("./build/test-data/en/tokenizer/en-tokenizer-events.bin");
+		spillFile.getParentFile().mkdirs();
+		CompiledEvents memoryEvents = CompiledEvents.compile(stream.getOutputIterator(), 2);
+		CompiledEvents spilledEvents = CompiledEvents.compile(stream.getOutputIterator(), 2, spillFile);
+		
+		assertEquals(trainData.size(), memoryEvents.size());
+		assertEquals(trainData.size(), spilledEvents.size());
+		assertEquals(memoryEvents.getFeatureIndex().size(), spilledEvents.getFeatureIndex().size());
+		
+		for (int from : new int[] { 0, trainData.size() / 2, trainData.size() - 1, trainData.size() }) {
+			CompiledEvents.Cursor expected = memoryEvents.open(from);
+			CompiledEvents.Cursor actual = spilledEvents.open(from);
+			for (int n = from; n < trainData.size(); n++) {
+				assertTrue(expected.next());
+				assertTrue(actual.next());
+				assertEquals(trainData.get(n).getLabel(), memoryEvents.getLabelIndex().get(expected.getLabel()));
+				assertEquals(expected.getLabel(), actual.getLabel());
+				assertArrayEquals(Arrays.copyOf(expected.getFeatures(), expected.getNumFeatures()), 
+						Arrays.copyOf(actual.getFeatures(), actual.getNumFeatures()));
+			}
+			assertFalse(expected.next());
+			assertFalse(actual.next());
+			actual.close();
+		}
+		
+		spilledEvents.close();
+		assertFalse(spillFile.exists());
+	}
+	
 	private static void train_en() throws Exception {
 		List<TokenSample> trainSamples = MaxentTokenizer.loadSamples("/sample/en/tokenizer/en-tokenizer-train.txt");
 		
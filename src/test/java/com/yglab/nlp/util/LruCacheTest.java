@@ -0,0 +1,56 @@
+package com.yglab.nlp.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Test case.
+ * 
+ * @author Younggue Bae
+ */
+public class LruCacheTest {
+	
+	@Test
+	public void testEviction() throws Exception {
+		LruCache<String, String> cache = new LruCache<String, String>(3, 1, null);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		cache.put("c", "3");
+		/* "a" becomes the most recently used, so "b" is evicted */
+		assertEquals("1", cache.get("a"));
+		cache.put("d", "4");
+		
+		assertNull(cache.get("b"));
+		assertEquals("3", cache.get("c"));
+		assertEquals("4", cache.get("d"));
+		assertEquals(3, cache.size());
+		assertEquals(3, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.getEvictionCount());
+		System.out.println(cache);
+	}
+	
+	@Test
+	public void testWeigher() throws Exception {
+		LruCache.Weigher<String, String> weigher = new LruCache.Weigher<String, String>() {
+			public int weigh(String key, String value) {
+				return value.length();
+			}
+		};
+		LruCache<String, String> cache = new LruCache<String, String>(10, 1, weigher);
+		cache.put("a", "12345");
+		cache.put("b", "1234");
+		assertEquals(9, cache.weight());
+		
+		/* the value heavier than the cache is not cached */
+		cache.put("c", "12345678901");
+		assertNull(cache.get("c"));
+		
+		cache.put("d", "123");
+		assertNull(cache.get("a"));
+		assertEquals(7, cache.weight());
+	}
+
+}
@@ -1,5 +1,8 @@
 package com.yglab.nlp.util.lang.ko;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -31,4 +34,26 @@ public class KoreanUnicodeTest {
 		
 		System.out.println(KoreanUnicode.replaceJongseong('영', '각'));
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void testDecompositionTable() throws Exception {
+		char[] buffer = new char[3];
+		for (char c = 0xAC00; c <= 0xD7A3; c++) {
+			char[] triple = KoreanUnicode.decomposeTriple(c);
+			char compound = KoreanUnicode.compound(KoreanUnicode.indexOfChoseong(triple[0]),
+					KoreanUnicode.indexOfJungseong(triple[1]), KoreanUnicode.indexOfJongseong(triple[2]));
+			assertEquals(c, compound);
+			
+			int length = KoreanUnicode.decompose(c, buffer, 0);
+			assertEquals(triple[2] == '\0' ? 2 : 3, length);
+			assertEquals(length, KoreanUnicode.decomposedLength(c));
+		}
+		
+		String str = "ㅂ니다 abc 갔다";
+		char[] jaso = new char[KoreanUnicode.decomposedLength(str)];
+		assertEquals(jaso.length, KoreanUnicode.decompose(str, jaso, 0));
+		assertEquals("ㅂㄴㅣㄷㅏ abc ㄱㅏㅆㄷㅏ", String.valueOf(jaso));
+		assertTrue(KoreanUnicode.endsWith(jaso, jaso.length, KoreanUnicode.decompose("ㅆ다")));
+		assertTrue(!KoreanUnicode.endsWith(jaso, jaso.length - 2, KoreanUnicode.decompose("ㅆ다")));
+	}
+}
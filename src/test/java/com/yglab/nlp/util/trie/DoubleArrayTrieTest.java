@@ -0,0 +1,56 @@
+package com.yglab.nlp.util.trie;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+
+import org.junit.Test;
+
+import com.yglab.nlp.util.lang.ko.KoreanUnicode;
+
+/**
+ * Test case.
+ * 
+ * @author Younggue Bae
+ */
+public class DoubleArrayTrieTest {
+	
+	private static final String[] KEYS = { "abcd", "app", "le", "ple", "가", "는답니다", "니다", "ㅂ니다", "다", "ㄴ다", "를", "ㄹ" };
+	private static final String[] TESTS = { "xzabcd", "mobielapp", "abc", "abcdefg", "apple", "나가", "갑니다", "할", "", "a" };
+	
+	@Test
+	public void testSuffixMatcher() throws Exception {
+		TrieSuffixMatcher<String> trie = new TrieSuffixMatcher<String>();
+		for (int i = 0; i < KEYS.length; i++) {
+			trie.add(String.valueOf(KoreanUnicode.decompose(KEYS[i])), String.valueOf(i + 1));
+		}
+		DoubleArrayTrie<String> doubleArrayTrie = trie.compile();
+		
+		assertMatches(trie, doubleArrayTrie);
+		
+		File file = File.createTempFile("trie", ".dat");
+		file.deleteOnExit();
+		doubleArrayTrie.save(file);
+		assertMatches(trie, DoubleArrayTrie.<String>load(file));
+	}
+	
+	@Test
+	public void testPrefixMatcher() throws Exception {
+		TriePrefixMatcher<String> trie = new TriePrefixMatcher<String>();
+		for (int i = 0; i < KEYS.length; i++) {
+			trie.add(KEYS[i], String.valueOf(i + 1));
+		}
+		
+		assertMatches(trie, trie.compile());
+	}
+	
+	private void assertMatches(Trie<String> trie, DoubleArrayTrie<String> doubleArrayTrie) {
+		for (String test : TESTS) {
+			String chars = String.valueOf(KoreanUnicode.decompose(test));
+			assertEquals(trie.matches(chars), doubleArrayTrie.matches(chars));
+			assertEquals(trie.shortestMatch(chars), doubleArrayTrie.shortestMatch(chars));
+			assertEquals(trie.longestMatch(chars), doubleArrayTrie.longestMatch(chars));
+			assertEquals(trie.allMatches(chars), doubleArrayTrie.allMatches(chars));
+		}
+	}
+}
@@ -1,5 +1,16 @@
 package com.yglab.nlp.util.trie;
 
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -46,4 +57,49 @@ public class TrieSuffixMatcherTest {
 			System.out.println("\tall: " + trie.allMatches(chars));
 		}
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void testConcurrentMatches() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		Random random = new Random(3);
+		
+		/* the children of the nodes are sorted lazily by the first match, which the threads start at the same time */
+		for (int round = 0; round < 50; round++) {
+			final TrieSuffixMatcher<String> trie = new TrieSuffixMatcher<String>();
+			final List<String> keys = new ArrayList<String>();
+			for (int i = 0; i < 2000; i++) {
+				char[] chars = new char[1 + random.nextInt(6)];
+				for (int j = 0; j < chars.length; j++) {
+					chars[j] = (char) ('a' + random.nextInt(500));
+				}
+				String key = String.valueOf(chars);
+				trie.add(key, key);
+				keys.add(key);
+			}
+			
+			final CountDownLatch start = new CountDownLatch(1);
+			List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+			for (int task = 0; task < 4; task++) {
+				futures.add(executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() throws Exception {
+						start.await();
+						int misses = 0;
+						for (String key : keys) {
+							if (!key.equals(trie.longestMatch(key))) {
+								misses++;
+							}
+						}
+						return misses;
+					}
+				}));
+			}
+			start.countDown();
+			
+			for (Future<Integer> future : futures) {
+				assertEquals(0, future.get().intValue());
+			}
+		}
+		executor.shutdown();
+	}
+}